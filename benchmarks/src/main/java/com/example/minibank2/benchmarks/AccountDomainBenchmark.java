@@ -0,0 +1,82 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.dto.AccountResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.mapper.AccountMapper;
+import com.example.minibank2.mapper.TransactionMapper;
+import com.example.minibank2.service.NumberGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gorące ścieżki bez bazy: operacje na saldzie encji Account, mapowanie encji na DTO
+ * (AccountMapper, TransactionMapper) i generowanie numeru konta.
+ * Wpłata i wypłata idą parami, żeby saldo nie dryfowało między iteracjami.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountDomainBenchmark {
+
+    private final AccountMapper accountMapper = new AccountMapper();
+    private final TransactionMapper transactionMapper = new TransactionMapper();
+    private final NumberGeneratorService numberGenerator = new NumberGeneratorService();
+
+    private Account account;
+    private Transaction transaction;
+    private BigDecimal amount;
+
+    @Setup
+    public void setup() {
+        account = new Account("Alicja Kowalska", "ACC-3BA1EB6C", "PLN", new BigDecimal("20380.00"),
+                "ACTIVE", AccountType.SAVINGS, new BigDecimal("0.02"));
+        account.setId(42L);
+        account.setCreatedAt(LocalDate.of(2025, 3, 1));
+        transaction = new Transaction(1001L, LocalDateTime.of(2025, 3, 2, 10, 15), new BigDecimal("125.50"),
+                TransactionType.TRANSFER_OUT, account);
+        transaction.setBalanceAfter(new BigDecimal("20254.50"));
+        amount = new BigDecimal("125.50");
+    }
+
+    @Benchmark
+    public long depositThenWithdraw() {
+        account.deposit(amount);
+        account.withdraw(amount);
+        return account.getBalanceMinor();
+    }
+
+    @Benchmark
+    public AccountResponse mapAccount() {
+        return accountMapper.toAccountResponse(account);
+    }
+
+    @Benchmark
+    public TransactionResponse mapTransaction() {
+        return transactionMapper.toTransactionResponse(transaction);
+    }
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return numberGenerator.generateAccountNumber();
+    }
+}
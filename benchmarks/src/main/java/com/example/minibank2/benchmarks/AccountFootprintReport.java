@@ -0,0 +1,85 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountSnapshot;
+import com.example.minibank2.entity.AccountType;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Raport JOL: układ pól Account i AccountSnapshot oraz średni rozmiar na konto (z obiektami
+ * osiągalnymi z konta) dla dawnej encji (Long id, saldo BigDecimal, osobne Stringi i BigDecimal
+ * w każdym koncie), obecnej encji i rekordu snapshotu. Wynik przeliczony na 10M kont.
+ *
+ *   java -Djol.magicFieldOffset=true -cp target/benchmarks.jar \
+ *        com.example.minibank2.benchmarks.AccountFootprintReport
+ */
+public class AccountFootprintReport {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final long CACHED = 10_000_000L;
+
+    public static void main(String[] args) {
+        System.out.println(ClassLayout.parseClass(Account.class).toPrintable());
+        System.out.println(ClassLayout.parseClass(AccountSnapshot.class).toPrintable());
+
+        Object[] legacy = new Object[ACCOUNTS];
+        Object[] accounts = new Object[ACCOUNTS];
+        Object[] snapshots = new Object[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            legacy[i] = new LegacyAccount(i + 1);
+            Account account = account(i + 1);
+            accounts[i] = account;
+            snapshots[i] = account.toSnapshot();
+        }
+        report("legacy entity", legacy);
+        report("compact entity", accounts);
+        report("snapshot", snapshots);
+    }
+
+    private static void report(String name, Object[] elements) {
+        long total = GraphLayout.parseInstance((Object) elements).totalSize();
+        long array = GraphLayout.parseInstance((Object) new Object[elements.length]).totalSize();
+        long perAccount = (total - array) / elements.length;
+        System.out.printf("%-15s %4d B/account, %,6d MB per %,d accounts%n",
+                name, perAccount, perAccount * CACHED >> 20, CACHED);
+    }
+
+    private static Account account(int i) {
+        Account account = new Account("Owner " + i, String.format("ACC-%08X", i), new String("PLN"),
+                new BigDecimal("1234.56"), new String("ACTIVE"), AccountType.SAVINGS, new BigDecimal("0.02"));
+        account.setId((long) i);
+        account.setCreatedAt(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+        return account;
+    }
+
+    /**
+     * Pola encji Account sprzed zmian, każde konto z własnymi instancjami (tak jak z JSON-a i z bazy).
+     */
+    static final class LegacyAccount {
+        final Long id;
+        final LocalDate createdAt;
+        final String owner;
+        final String number;
+        final String currency;
+        final BigDecimal balance;
+        final String status;
+        final AccountType accountType;
+        final BigDecimal interestRate;
+
+        LegacyAccount(int i) {
+            this.id = (long) i + 1_000; // poza cache Long.valueOf
+            this.createdAt = LocalDate.of(2024, 1, 1).plusDays(i % 365);
+            this.owner = "Owner " + i;
+            this.number = String.format("ACC-%08X", i);
+            this.currency = new String("PLN");
+            this.balance = new BigDecimal("1234.56");
+            this.status = new String("ACTIVE");
+            this.accountType = AccountType.SAVINGS;
+            this.interestRate = new BigDecimal("0.02");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.analytics.AmountKernel;
+import com.example.minibank2.analytics.ScalarAmountKernel;
+import com.example.minibank2.analytics.VectorAmountKernel;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregacja kwot transakcji: strumienie BigDecimal w stylu TransactionService (suma przez reduce,
+ * max przez komparator, filtr compareTo) kontra kernel skalarny i wektorowy na kolumnie long w groszach.
+ * Warianty "ForAccount" odpowiadają findByAccountIdAndAmountGreaterThan – filtr po koncie + próg.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class AmountAggregationBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int accounts;
+
+    private long[] amounts;
+    private long[] accountIds;
+    private List<TransactionResponse> transactions;
+    private long threshold;
+    private BigDecimal thresholdAmount;
+    private long accountId;
+
+    private final AmountKernel scalar = new ScalarAmountKernel();
+    private final AmountKernel vector = new VectorAmountKernel();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        amounts = new long[rows];
+        accountIds = new long[rows];
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            amounts[i] = random.nextInt(1_000_000);
+            accountIds[i] = random.nextInt(accounts);
+            TransactionResponse row = new TransactionResponse();
+            row.setId((long) i);
+            row.setAccountId(accountIds[i]);
+            row.setType(TransactionType.DEPOSIT);
+            row.setAmount(BigDecimal.valueOf(amounts[i], 2));
+            transactions.add(row);
+        }
+        threshold = 500_000;
+        thresholdAmount = BigDecimal.valueOf(threshold, 2);
+        accountId = accounts / 2;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        return transactions.stream()
+                .map(TransactionResponse::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public TransactionResponse bigDecimalMax() {
+        return transactions.stream()
+                .max(Comparator.comparing(TransactionResponse::getAmount))
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public long bigDecimalCountAbove() {
+        return transactions.stream()
+                .filter(row -> row.getAmount().compareTo(thresholdAmount) > 0)
+                .count();
+    }
+
+    @Benchmark
+    public AmountKernel.Stats scalarStats() {
+        return scalar.stats(amounts, rows, threshold);
+    }
+
+    @Benchmark
+    public AmountKernel.Stats vectorStats() {
+        return vector.stats(amounts, rows, threshold);
+    }
+
+    @Benchmark
+    public long bigDecimalCountAboveForAccount() {
+        return transactions.stream()
+                .filter(row -> row.getAccountId() == accountId)
+                .filter(row -> row.getAmount().compareTo(thresholdAmount) > 0)
+                .count();
+    }
+
+    @Benchmark
+    public AmountKernel.Stats scalarStatsForAccount() {
+        return scalar.stats(amounts, accountIds, accountId, rows, threshold);
+    }
+
+    @Benchmark
+    public AmountKernel.Stats vectorStatsForAccount() {
+        return vector.stats(amounts, accountIds, accountId, rows, threshold);
+    }
+}
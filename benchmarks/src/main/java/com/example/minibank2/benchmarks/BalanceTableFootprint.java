@@ -0,0 +1,176 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.money.OffHeapBalanceTable;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pomiar pauz GC i zajętości sterty przy cache'owaniu sald N kont (domyślnie 10M):
+ *  heap    – ConcurrentHashMap<Long, Account> z encjami na stercie (tak cache'owalibyśmy bez tablicy),
+ *  offheap – OffHeapBalanceTable (bufor direct, 32 B na slot).
+ * Po wypełnieniu wykonujemy serię przelewów między losowymi kontami (odczyt, walidacja, zapis),
+ * a z powiadomień GarbageCollectorMXBean zbieramy liczbę, sumę i najdłuższą pauzę.
+ *
+ * Uruchomienie (JMH nie mierzy pauz GC, dlatego osobny main):
+ *   java -Xmx3g -XX:MaxDirectMemorySize=1g -cp target/benchmarks.jar \
+ *        com.example.minibank2.benchmarks.BalanceTableFootprint offheap 10000000 20000000
+ */
+public class BalanceTableFootprint {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "offheap";
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int transfers = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+
+        List<Long> pauses = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    synchronized (pauses) {
+                        pauses.add(info.getGcInfo().getDuration());
+                    }
+                }
+            }, null, null);
+        }
+
+        Workload workload = "heap".equals(mode) ? new HeapWorkload() : new OffHeapWorkload(accounts);
+        long start = System.nanoTime();
+        workload.populate(accounts);
+        long populateMillis = (System.nanoTime() - start) / 1_000_000;
+        int populatePauses;
+        synchronized (pauses) {
+            populatePauses = pauses.size();
+        }
+
+        Random random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < transfers; i++) {
+            long from = 1 + random.nextInt(accounts);
+            long to = 1 + random.nextInt(accounts);
+            if (from != to) {
+                workload.transfer(from, to, BigDecimal.valueOf(1 + random.nextInt(10_000), 2));
+            }
+        }
+        long transferMillis = (System.nanoTime() - start) / 1_000_000;
+        Thread.sleep(200); // powiadomienia GC przychodzą asynchronicznie
+
+        System.gc();
+        Thread.sleep(200);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapUsed = memory.getHeapMemoryUsage().getUsed();
+
+        List<Long> transferPauses;
+        synchronized (pauses) {
+            transferPauses = new ArrayList<>(pauses.subList(populatePauses, pauses.size() - 1)); // bez System.gc()
+        }
+        long total = transferPauses.stream().mapToLong(Long::longValue).sum();
+        long max = transferPauses.stream().mapToLong(Long::longValue).max().orElse(0);
+        System.out.printf("mode=%s accounts=%d transfers=%d%n", mode, accounts, transfers);
+        System.out.printf("populate: %d ms, %d GC pauses%n", populateMillis, populatePauses);
+        System.out.printf("transfers: %d ms, %d GC pauses, total %d ms, max %d ms%n",
+                transferMillis, transferPauses.size(), total, max);
+        System.out.printf("heap used after full GC: %d MB, off-heap: %d MB, checksum %d%n",
+                heapUsed >> 20, workload.offHeapBytes() >> 20, workload.checksum(accounts));
+    }
+
+    interface Workload {
+        void populate(int accounts);
+
+        void transfer(long from, long to, BigDecimal amount);
+
+        long offHeapBytes();
+
+        long checksum(int accounts);
+    }
+
+    static final class HeapWorkload implements Workload {
+        private final Map<Long, Account> cache = new ConcurrentHashMap<>();
+
+        @Override
+        public void populate(int accounts) {
+            for (long id = 1; id <= accounts; id++) {
+                Account account = new Account("Owner " + id, "ACC-" + id, "PLN",
+                        BigDecimal.valueOf(1_000_000, 2), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO);
+                account.setId(id);
+                cache.put(id, account);
+            }
+        }
+
+        @Override
+        public void transfer(long from, long to, BigDecimal amount) {
+            Account sender = cache.get(from);
+            Account receiver = cache.get(to);
+            if (sender.getBalance().compareTo(amount) >= 0) {
+                sender.withdraw(amount);
+                receiver.deposit(amount);
+            }
+        }
+
+        @Override
+        public long offHeapBytes() {
+            return 0;
+        }
+
+        @Override
+        public long checksum(int accounts) {
+            return cache.values().stream().mapToLong(Account::getBalanceMinor).sum();
+        }
+    }
+
+    static final class OffHeapWorkload implements Workload {
+        private final OffHeapBalanceTable table;
+
+        OffHeapWorkload(int accounts) {
+            this.table = new OffHeapBalanceTable(true, accounts + accounts / 2);
+        }
+
+        @Override
+        public void populate(int accounts) {
+            for (long id = 1; id <= accounts; id++) {
+                long lease = table.beginLoad(id);
+                table.completeLoad(id, lease, 1_000_000, MinorUnits.DEFAULT_SCALE, 0);
+            }
+        }
+
+        @Override
+        public void transfer(long from, long to, BigDecimal amount) {
+            OffHeapBalanceTable.Entry sender = table.get(from);
+            OffHeapBalanceTable.Entry receiver = table.get(to);
+            long minor = MinorUnits.toMinor(amount, sender.scale());
+            if (sender.balanceMinor() >= minor) {
+                table.publish(from, MinorUnits.subtract(sender.balanceMinor(), minor), sender.scale(), sender.version() + 1);
+                table.publish(to, MinorUnits.add(receiver.balanceMinor(), minor), receiver.scale(), receiver.version() + 1);
+            }
+        }
+
+        @Override
+        public long offHeapBytes() {
+            return table.getOffHeapBytes();
+        }
+
+        @Override
+        public long checksum(int accounts) {
+            long sum = 0;
+            for (long id = 1; id <= accounts; id++) {
+                sum += table.get(id).balanceMinor();
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.MiniBank2Application;
+import com.example.minibank2.dto.InterestAccrualResponse;
+import com.example.minibank2.job.InterestAccrualJob;
+import com.example.minibank2.money.MinorUnits;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Czas nocnego naliczania odsetek (InterestAccrualJob) dla N kont SAVINGS. Konta wstawiamy wsadowo
+ * przez JDBC; część kont (--late-fraction) dostaje wpłatę późniejszą niż chwila księgowania odsetek,
+ * więc mierzymy też przeliczanie balance_after późniejszych księgowań. Po pierwszym przebiegu
+ * uruchamiamy zadanie ponownie za ten sam dzień – to koszt wznowienia, gdy wszystkie chunki są gotowe.
+ *
+ * Uruchomienie (baza w pliku dla 10M – H2 w pamięci nie zmieści 10M kont obok sterty aplikacji):
+ *   java -Xmx3g -cp target/benchmarks.jar com.example.minibank2.benchmarks.InterestAccrualRun \
+ *        --accounts 10000000 --db file --chunk-size 1000 --late-fraction 0.01
+ */
+public class InterestAccrualRun {
+
+    private static final LocalDate ACCRUAL_DATE = LocalDate.of(2025, 12, 31);
+    private static final String[] CURRENCIES = {"PLN", "PLN", "PLN", "EUR", "USD", "JPY"};
+    private static final int BATCH = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = 1_000_000;
+        String db = "mem";
+        int chunkSize = 1000;
+        double lateFraction = 0.01;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--accounts" -> accounts = Integer.parseInt(args[++i]);
+                case "--db" -> db = args[++i];
+                case "--chunk-size" -> chunkSize = Integer.parseInt(args[++i]);
+                case "--late-fraction" -> lateFraction = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        String url;
+        if ("file".equals(db)) {
+            Path directory = Files.createDirectories(Path.of("target", "interest-db"));
+            Files.deleteIfExists(directory.resolve("interest.mv.db"));
+            url = "jdbc:h2:file:" + directory.toAbsolutePath().resolve("interest") + ";CACHE_SIZE=1048576";
+        } else {
+            url = "jdbc:h2:mem:interest;DB_CLOSE_DELAY=-1";
+        }
+        try (ConfigurableApplicationContext context = SpringApplication.run(MiniBank2Application.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--minibank.interest.chunk-size=" + chunkSize,
+                "--minibank.analytics.enabled=false",
+                "--minibank.sql-log.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.minibank2=WARN")) {
+            long start = System.nanoTime();
+            long late = populate(context.getBean(DataSource.class), context.getBean(JdbcTemplate.class),
+                    accounts, lateFraction);
+            System.out.printf("%d SAVINGS accounts (%d with a later deposit) generated in %d ms, db=%s%n",
+                    accounts, late, (System.nanoTime() - start) / 1_000_000, db);
+
+            InterestAccrualJob job = context.getBean(InterestAccrualJob.class);
+            print("first run ", job.run(ACCRUAL_DATE));
+            print("re-run    ", job.run(ACCRUAL_DATE));
+        }
+    }
+
+    private static long populate(DataSource dataSource, JdbcTemplate jdbc, int accounts, double lateFraction)
+            throws Exception {
+        Random random = new Random(42);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into accounts (created_at, owner, number, currency, balance_minor, balance_scale, " +
+                    "balance_version, status, account_type, interest_rate) values (?, ?, ?, ?, ?, ?, 0, 'ACTIVE', 'SAVINGS', ?)")) {
+                for (int i = 0; i < accounts; i++) {
+                    String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+                    int scale = MinorUnits.scaleOf(currency);
+                    insert.setDate(1, Date.valueOf(LocalDate.of(2020, 1, 1)));
+                    insert.setString(2, "Owner " + i);
+                    insert.setString(3, String.format("INT-%010d", i));
+                    insert.setString(4, currency);
+                    insert.setLong(5, (long) (random.nextDouble() * 100_000 * Math.pow(10, scale)));
+                    insert.setInt(6, scale);
+                    insert.setBigDecimal(7, new BigDecimal("0.02"));
+                    insert.addBatch();
+                    if (i % BATCH == BATCH - 1) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+
+            long firstId = jdbc.queryForObject("select min(id) from accounts", Long.class);
+            long late = 0;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into transactions (account_id, date_time, type, amount, balance_after) values (?, ?, 'DEPOSIT', ?, ?)")) {
+                Timestamp afterAccrual = Timestamp.valueOf(ACCRUAL_DATE.plusDays(1).atTime(0, 5));
+                for (int i = 0; i < accounts; i++) {
+                    if (random.nextDouble() >= lateFraction) {
+                        continue;
+                    }
+                    insert.setLong(1, firstId + i);
+                    insert.setTimestamp(2, afterAccrual);
+                    insert.setBigDecimal(3, new BigDecimal("10.00"));
+                    insert.setBigDecimal(4, new BigDecimal("10.00")); // wartość nieistotna – liczymy tylko czas
+                    insert.addBatch();
+                    if (++late % BATCH == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            return late;
+        }
+    }
+
+    private static void print(String label, InterestAccrualResponse report) {
+        System.out.printf("%s %,d accounts, %,d postings, %d chunks (%d skipped): %,d ms, %,.0f accounts/s, %,.0f accounts/s/core (parallelism %d)%n",
+                label, report.getAccountsProcessed(), report.getPostings(), report.getChunks(), report.getChunksSkipped(),
+                report.getDurationMillis(), report.getAccountsPerSecond(), report.getAccountsPerSecondPerCore(),
+                report.getParallelism());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.dto.AccountResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.entity.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacja odpowiedzi REST do JSON-a ObjectMapperem skonfigurowanym jak w Spring Boot
+ * (moduł java.time, daty jako tekst): pojedyncze konto, pojedyncza transakcja
+ * i strona historii (50 transakcji, jak domyślny limit bufora ostatnich transakcji).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AccountResponse account;
+    private TransactionResponse transaction;
+    private List<TransactionResponse> history;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        account = new AccountResponse();
+        account.setId(42L);
+        account.setOwner("Alicja Kowalska");
+        account.setNumber("ACC-3BA1EB6C");
+        account.setCurrency("PLN");
+        account.setBalance(new BigDecimal("20380.00"));
+        account.setStatus("ACTIVE");
+        account.setAccountType(AccountType.SAVINGS);
+        account.setInterestRate(new BigDecimal("0.02"));
+        account.setCreatedAt(LocalDate.of(2025, 3, 1));
+
+        history = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+        for (int i = 0; i < 50; i++) {
+            TransactionResponse row = new TransactionResponse();
+            row.setId(1000L + i);
+            row.setAccountId(42L);
+            row.setType(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.TRANSFER_OUT);
+            row.setAmount(BigDecimal.valueOf(12_550 + i, 2));
+            row.setBalanceAfter(BigDecimal.valueOf(2_038_000 + i * 100L, 2));
+            row.setDateTime(start.plusHours(i));
+            history.add(row);
+        }
+        transaction = history.get(0);
+    }
+
+    @Benchmark
+    public byte[] accountResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] transactionResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] transactionHistoryPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.minibank2.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram czasów odpowiedzi w mikrosekundach, bezpieczny dla wielu wątków (jak HdrHistogram,
+ * ale bez zależności): do 63 µs co 1 µs, wyżej 32 przedziały na każde podwojenie wartości,
+ * czyli błąd percentyla najwyżej ~3%. Maksimum jest dokładne.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int MAX_EXPONENT = 40; // ~12 dni w µs – więcej się nie zdarzy
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (MAX_EXPONENT - 5) * SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // 🔹 Zapis jednego pomiaru (nanosekundy, zaokrąglane do µs)
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(micros));
+        total.increment();
+        sum.add(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    // 🔹 Wartość, poniżej której (włącznie) jest podany procent pomiarów – górna granica przedziału
+    long percentile(double percent) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // 🔹 Podsumowanie do raportu: percentyle, maksimum i średnia w µs
+    Map<String, Object> summary() {
+        long n = total.sum();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("p50", percentile(50));
+        summary.put("p90", percentile(90));
+        summary.put("p99", percentile(99));
+        summary.put("p99.9", percentile(99.9));
+        summary.put("max", max.get());
+        summary.put("mean", n == 0 ? 0 : sum.sum() / n);
+        return summary;
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int shift = exponent - 5;
+        int sub = (int) Math.min(micros >> shift, 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return LINEAR + (exponent - 6) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 6;
+        int sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((long) (sub + 1) << (exponent - 5)) - 1;
+    }
+}
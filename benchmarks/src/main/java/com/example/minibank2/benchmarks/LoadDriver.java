@@ -0,0 +1,473 @@
+package com.example.minibank2.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generator ruchu dla działającej aplikacji (REST). Cztery polecenia:
+ *
+ *   generate – syntetyczne konta w formacie src/main/resources/data/accounts.json
+ *              (--accounts 1000 --seed 42 --out target/accounts.json)
+ *   seed     – zakłada konta przez POST /accounts i wpłaca saldo początkowe; z pliku accounts.json
+ *              (--accounts-file) albo hurtem (--accounts N); id kont trafiają do --ids target/load-accounts.txt
+ *   run      – ruch na kontach z --ids: mieszanka operacji (--mix transfer=40,deposit=20,last=25,history=10,balance=5),
+ *              konta wybierane rozkładem Zipfa (--skew 1.1), opcjonalne paczki ruchu (--burst-every 30 --burst-seconds 3
+ *              --burst-factor 5). Tryb open (domyślny) wysyła ze stałą częstością --rate niezależnie od odpowiedzi,
+ *              tryb closed – --connections wątków jeden po drugim (--think-ms)
+ *   compare  – porównanie percentyli dwóch raportów (old.json new.json)
+ *
+ * W trybie open opóźnienie liczymy od planowanego momentu wysłania, nie od faktycznego – gdy serwer
+ * zwalnia i wątki nie nadążają, czas oczekiwania w kolejce wchodzi do wyniku (brak coordinated omission).
+ * Osobno raportujemy czas obsługi (od wysłania do odpowiedzi). Ten sam --seed daje tę samą sekwencję
+ * operacji, więc raporty z dwóch przebiegów na tych samych kontach są porównywalne.
+ *
+ *   java -cp target/benchmarks.jar com.example.minibank2.benchmarks.LoadDriver seed --accounts 1000
+ *   java -cp target/benchmarks.jar com.example.minibank2.benchmarks.LoadDriver run --rate 200 --duration 60 \
+ *        --report target/load-before.json
+ *   java -cp target/benchmarks.jar com.example.minibank2.benchmarks.LoadDriver compare target/load-before.json target/load-after.json
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String[] OWNERS = {"Alicja", "Jan", "Maria", "Piotr", "Anna", "Tomasz", "Katarzyna", "Paweł"};
+    private static final String[] SURNAMES = {"Kowalska", "Nowak", "Wiśniewska", "Wójcik", "Kamińska", "Lewandowski"};
+    private static final String[] CURRENCIES = {"PLN", "PLN", "PLN", "EUR", "USD"};
+
+    enum Operation {
+        TRANSFER, DEPOSIT, LAST, HISTORY, BALANCE;
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: LoadDriver generate|seed|run|compare [options]");
+        }
+        switch (args[0]) {
+            case "generate" -> generate(options(args, 1));
+            case "seed" -> seed(options(args, 1));
+            case "run" -> run(options(args, 1));
+            case "compare" -> compare(Path.of(args[1]), Path.of(args[2]));
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    private static Map<String, String> options(String[] args, int from) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = from; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value at: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    // 🔹 Konta w formacie accounts.json (te same pola, co przy imporcie przez DataInitializer)
+    private static List<Map<String, Object>> syntheticAccounts(int count, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> account = new LinkedHashMap<>();
+            account.put("owner", OWNERS[random.nextInt(OWNERS.length)] + " " + SURNAMES[random.nextInt(SURNAMES.length)]);
+            account.put("number", String.format("LD%08d", i + 1));
+            account.put("currency", CURRENCIES[random.nextInt(CURRENCIES.length)]);
+            account.put("balance", BigDecimal.valueOf(100_000 + random.nextInt(10_000_000), 2));
+            account.put("status", "ACTIVE");
+            account.put("accountType", random.nextBoolean() ? "SAVINGS" : "CHECKING");
+            account.put("interestRate", BigDecimal.valueOf(random.nextInt(30), 1));
+            account.put("createdAt", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(700)).toString());
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private static void generate(Map<String, String> options) throws IOException {
+        int count = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        Path out = Path.of(options.getOrDefault("out", "target/accounts.json"));
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        JSON.writeValue(out.toFile(), syntheticAccounts(count, Long.parseLong(options.getOrDefault("seed", "42"))));
+        System.out.println(count + " accounts written to " + out);
+    }
+
+    // 🔹 Zakładanie kont przez API – równolegle, saldo początkowe jako wpłata
+    private static void seed(Map<String, String> options) throws Exception {
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        Path ids = Path.of(options.getOrDefault("ids", "target/load-accounts.txt"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "16"));
+        List<Map<String, Object>> accounts = new ArrayList<>();
+        if (options.containsKey("accounts-file")) {
+            for (JsonNode node : JSON.readTree(Path.of(options.get("accounts-file")).toFile())) {
+                accounts.add(JSON.convertValue(node, Map.class));
+            }
+        } else {
+            accounts = syntheticAccounts(Integer.parseInt(options.getOrDefault("accounts", "1000")),
+                    Long.parseLong(options.getOrDefault("seed", "42")));
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Long[] created = new Long[accounts.size()];
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(connections);
+        for (int i = 0; i < accounts.size(); i++) {
+            int index = i;
+            Map<String, Object> account = accounts.get(i);
+            pool.execute(() -> {
+                try {
+                    Map<String, Object> request = new LinkedHashMap<>();
+                    request.put("owner", account.get("owner"));
+                    request.put("currency", account.get("currency"));
+                    request.put("accountType", account.getOrDefault("accountType", "CHECKING"));
+                    HttpResponse<String> response = client.send(post(baseUrl + "/accounts", JSON.writeValueAsString(request)),
+                            HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                        return;
+                    }
+                    long id = JSON.readTree(response.body()).get("id").asLong();
+                    BigDecimal balance = new BigDecimal(String.valueOf(account.getOrDefault("balance", "0")));
+                    if (balance.signum() > 0) {
+                        client.send(post(baseUrl + "/accounts/" + id + "/deposit?amount=" + balance.toPlainString(), ""),
+                                HttpResponse.BodyHandlers.discarding());
+                    }
+                    created[index] = id;
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+
+        List<String> lines = new ArrayList<>();
+        for (Long id : created) {
+            if (id != null) {
+                lines.add(id.toString());
+            }
+        }
+        Files.createDirectories(ids.toAbsolutePath().getParent());
+        Files.write(ids, lines);
+        System.out.println(lines.size() + " accounts created (" + failures.get() + " failed), ids in " + ids);
+    }
+
+    static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Wyniki jednej operacji: opóźnienie od planowanego wysłania, czas obsługi i kody odpowiedzi.
+     */
+    static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram service = new LatencyHistogram();
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(long intended, long sent, long done, String status) {
+            latency.recordNanos(done - intended);
+            service.recordNanos(done - sent);
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        Map<String, Object> toReport(double seconds) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("count", latency.count());
+            report.put("ratePerSecond", Math.round(latency.count() / seconds * 10) / 10.0);
+            Map<String, Long> codes = new TreeMap<>();
+            statuses.forEach((code, count) -> codes.put(code, count.sum()));
+            report.put("status", codes);
+            report.put("latencyUs", latency.summary());
+            report.put("serviceTimeUs", service.summary());
+            return report;
+        }
+    }
+
+    /**
+     * Plan wysyłki w trybie open: kolejne planowane momenty wynikają z częstości, która w paczkach
+     * ruchu jest mnożona przez --burst-factor. Wątki biorą z planu kolejne sloty.
+     */
+    private static final class Schedule {
+        private final long start;
+        private final double rate;
+        private final long burstEvery;
+        private final long burstLength;
+        private final double burstFactor;
+        private long cursor;
+        private long index;
+
+        Schedule(long start, double rate, long burstEvery, long burstLength, double burstFactor) {
+            this.start = start;
+            this.rate = rate;
+            this.burstEvery = burstEvery;
+            this.burstLength = burstLength;
+            this.burstFactor = burstFactor;
+            this.cursor = start;
+        }
+
+        // zwraca {numer żądania, planowany moment}
+        synchronized long[] next() {
+            long[] slot = {index++, cursor};
+            long elapsed = cursor - start;
+            boolean burst = burstEvery > 0 && elapsed % burstEvery >= burstEvery - burstLength;
+            cursor += (long) (1e9 / (burst ? rate * burstFactor : rate));
+            return slot;
+        }
+    }
+
+    private record Mix(Operation[] operations, double[] cumulative) {
+
+        static Mix parse(String spec) {
+            Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+            for (String part : spec.split(",")) {
+                String[] pair = part.split("=");
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Double.parseDouble(pair[1]));
+            }
+            double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+            Operation[] operations = weights.keySet().toArray(new Operation[0]);
+            double[] cumulative = new double[operations.length];
+            double sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += weights.get(operations[i]) / total;
+                cumulative[i] = sum;
+            }
+            return new Mix(operations, cumulative);
+        }
+
+        Operation pick(double uniform) {
+            for (int i = 0; i < cumulative.length; i++) {
+                if (uniform < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    // 🔹 Żądanie numer n – losowość zależy tylko od seeda i numeru, nie od przeplotu wątków
+    private static HttpRequest request(String baseUrl, long n, long seed, Mix mix, Zipf zipf, long[] accounts) {
+        Random random = new Random(seed ^ (n * 0x9E3779B97F4A7C15L));
+        Operation operation = mix.pick(random.nextDouble());
+        long account = accounts[zipf.rank(random.nextDouble())];
+        HttpRequest.Builder builder = switch (operation) {
+            case TRANSFER -> {
+                long receiver = accounts[zipf.rank(random.nextDouble())];
+                if (receiver == account) {
+                    receiver = accounts[(zipf.rank(random.nextDouble()) + 1) % accounts.length];
+                }
+                String body = String.format("{\"senderId\":%d,\"receiverId\":%d,\"amount\":%s}",
+                        account, receiver, BigDecimal.valueOf(100 + random.nextInt(4_900), 2).toPlainString());
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/transfer"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+            case DEPOSIT -> HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/" + account + "/deposit?amount="
+                            + BigDecimal.valueOf(100 + random.nextInt(9_900), 2).toPlainString()))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+            case LAST -> HttpRequest.newBuilder(URI.create(baseUrl + "/transactions/" + account + "/last?limit=10")).GET();
+            case HISTORY -> HttpRequest.newBuilder(URI.create(baseUrl + "/transactions/" + account)).GET();
+            case BALANCE -> HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/" + account + "/balance")).GET();
+        };
+        return builder.timeout(Duration.ofSeconds(30)).header("X-Load-Operation", operation.key()).build();
+    }
+
+    private static void run(Map<String, String> options) throws Exception {
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String mode = options.getOrDefault("mode", "open");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "open".equals(mode) ? "64" : "8"));
+        long thinkNanos = Long.parseLong(options.getOrDefault("think-ms", "0")) * 1_000_000;
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Mix mix = Mix.parse(options.getOrDefault("mix", "transfer=40,deposit=20,last=25,history=10,balance=5"));
+        long[] accounts = Files.readAllLines(Path.of(options.getOrDefault("ids", "target/load-accounts.txt"))).stream()
+                .filter(line -> !line.isBlank())
+                .mapToLong(Long::parseLong)
+                .toArray();
+        if (accounts.length < 2) {
+            throw new IllegalStateException("Need at least two account ids – run 'seed' first");
+        }
+        Zipf zipf = new Zipf(accounts.length, Double.parseDouble(options.getOrDefault("skew", "1.1")));
+        Path reportFile = Path.of(options.getOrDefault("report", "target/load-report.json"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+        Stats all = new Stats();
+
+        long start = System.nanoTime() + 100_000_000L;
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        Schedule schedule = new Schedule(start, rate,
+                TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("burst-every", "0"))),
+                TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("burst-seconds", "0"))),
+                Double.parseDouble(options.getOrDefault("burst-factor", "1")));
+        AtomicInteger closedCounter = new AtomicInteger();
+
+        System.out.printf("%s loop: %s, %d accounts, %d connections, warmup %d s, measure %d s%n", mode,
+                "open".equals(mode) ? rate + " req/s" : "back-to-back", accounts.length, connections, warmup, duration);
+        ExecutorService workers = Executors.newFixedThreadPool(connections);
+        for (int w = 0; w < connections; w++) {
+            workers.execute(() -> {
+                while (true) {
+                    long n;
+                    long intended;
+                    if ("open".equals(mode)) {
+                        long[] slot = schedule.next();
+                        n = slot[0];
+                        intended = slot[1];
+                        if (intended >= end) {
+                            return;
+                        }
+                        long wait;
+                        while ((wait = intended - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    } else {
+                        intended = Math.max(System.nanoTime(), start);
+                        if (intended >= end) {
+                            return;
+                        }
+                        n = closedCounter.getAndIncrement();
+                    }
+                    HttpRequest request = request(baseUrl, n, seed, mix, zipf, accounts);
+                    long sent = System.nanoTime();
+                    String status;
+                    try {
+                        status = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+                    } catch (IOException e) {
+                        status = "io-error";
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long done = System.nanoTime();
+                    if (intended >= measureFrom) {
+                        Operation operation = Operation.valueOf(request.headers().firstValue("X-Load-Operation")
+                                .orElseThrow().toUpperCase());
+                        stats.get(operation).record(intended, sent, done, status);
+                        all.record(intended, sent, done, status);
+                    }
+                    if (thinkNanos > 0 && !"open".equals(mode)) {
+                        LockSupport.parkNanos(thinkNanos);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration + warmup + 120L, TimeUnit.SECONDS);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, String> config = new TreeMap<>(options);
+        config.putIfAbsent("mode", mode);
+        config.putIfAbsent("rate", String.valueOf(rate));
+        config.put("accounts", String.valueOf(accounts.length));
+        report.put("config", config);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        operations.put("all", all.toReport(duration));
+        stats.forEach((operation, each) -> {
+            if (each.latency.count() > 0) {
+                operations.put(operation.key(), each.toReport(duration));
+            }
+        });
+        report.put("operations", operations);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        JSON.writeValue(reportFile.toFile(), report);
+
+        System.out.printf("%-10s %9s %9s %9s %9s %9s %10s %10s  %s%n",
+                "operation", "count", "req/s", "p50 us", "p99 us", "p99.9 us", "max us", "svc p99", "status");
+        for (Map.Entry<String, Object> entry : operations.entrySet()) {
+            JsonNode node = JSON.valueToTree(entry.getValue());
+            System.out.printf("%-10s %9d %9.1f %9d %9d %9d %10d %10d  %s%n", entry.getKey(),
+                    node.get("count").asLong(), node.get("ratePerSecond").asDouble(),
+                    node.at("/latencyUs/p50").asLong(), node.at("/latencyUs/p99").asLong(),
+                    node.at("/latencyUs/p99.9").asLong(), node.at("/latencyUs/max").asLong(),
+                    node.at("/serviceTimeUs/p99").asLong(), node.get("status"));
+        }
+        System.out.println("Report written to " + reportFile);
+        System.exit(0); // wątki klienta HTTP nie są daemonami
+    }
+
+    // 🔹 Percentyle opóźnień per operacja: stary raport, nowy i zmiana w procentach
+    static void compare(Path before, Path after) throws IOException {
+        JsonNode old = JSON.readTree(before.toFile());
+        JsonNode current = JSON.readTree(after.toFile());
+        Map<String, String> differences = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = current.get("config").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode previous = old.get("config").get(entry.getKey());
+            if (!entry.getKey().equals("report") && (previous == null || !previous.equals(entry.getValue()))) {
+                differences.put(entry.getKey(), (previous == null ? "-" : previous.asText()) + " -> " + entry.getValue().asText());
+            }
+        }
+        for (Iterator<String> it = old.get("config").fieldNames(); it.hasNext(); ) {
+            String key = it.next();
+            if (!key.equals("report") && !current.get("config").has(key)) {
+                differences.put(key, old.get("config").get(key).asText() + " -> -");
+            }
+        }
+        if (!differences.isEmpty()) {
+            System.out.println("WARNING: runs used different settings " + differences);
+        }
+
+        int width = 10; // nazwy endpointów z TrafficReplay są dłuższe niż nazwy operacji
+        for (Iterator<String> it = current.get("operations").fieldNames(); it.hasNext(); ) {
+            width = Math.max(width, it.next().length());
+        }
+        System.out.printf("%-" + width + "s %-7s %12s %12s %9s%n", "operation", "pct", "before us", "after us", "change");
+        for (Iterator<Map.Entry<String, JsonNode>> it = current.get("operations").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode previous = old.get("operations").get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-" + width + "s  not present in %s%n", entry.getKey(), before);
+                continue;
+            }
+            for (String percentile : List.of("p50", "p90", "p99", "p99.9", "max")) {
+                long was = previous.get("latencyUs").get(percentile).asLong();
+                long now = entry.getValue().get("latencyUs").get(percentile).asLong();
+                System.out.printf("%-" + width + "s %-7s %12d %12d %+8.1f%%%n", entry.getKey(), percentile, was, now,
+                        was == 0 ? 0.0 : (now - was) * 100.0 / was);
+            }
+            System.out.printf("%-" + width + "s %-7s %12.1f %12.1f%n", entry.getKey(), "req/s",
+                    previous.get("ratePerSecond").asDouble(), entry.getValue().get("ratePerSecond").asDouble());
+        }
+    }
+}
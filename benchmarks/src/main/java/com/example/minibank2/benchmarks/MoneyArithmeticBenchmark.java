@@ -0,0 +1,136 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.exception.InsufficientFundsException;
+import com.example.minibank2.exception.InvalidAmountException;
+import com.example.minibank2.money.MinorUnits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Przelew w pamięci (wypłata z jednego konta + wpłata na drugie) na serii losowych kwot:
+ * dotychczasowe saldo BigDecimal (kopia starej logiki Account) kontra saldo long w groszach –
+ * raz z kwotą BigDecimal z API (jedna konwersja na wejściu), raz z kwotą już w groszach.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    private BigDecimal[] decimalAmounts;
+    private long[] minorAmounts;
+
+    private DecimalAccount decimalFrom;
+    private DecimalAccount decimalTo;
+    private Account from;
+    private Account to;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        decimalAmounts = new BigDecimal[AMOUNTS];
+        minorAmounts = new long[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            long cents = 1 + random.nextInt(1_000_000);
+            decimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+            minorAmounts[i] = cents;
+        }
+        BigDecimal opening = new BigDecimal("1000000000.00");
+        decimalFrom = new DecimalAccount(opening);
+        decimalTo = new DecimalAccount(opening);
+        from = new Account("A", "ACC-1", "PLN", opening, "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO);
+        to = new Account("B", "ACC-2", "PLN", opening, "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public void bigDecimalBalance(Blackhole bh) {
+        for (BigDecimal amount : decimalAmounts) {
+            decimalFrom.withdraw(amount);
+            decimalTo.deposit(amount);
+            // przelew powrotny, żeby saldo nie dryfowało między iteracjami
+            decimalTo.withdraw(amount);
+            decimalFrom.deposit(amount);
+        }
+        bh.consume(decimalFrom.balance);
+    }
+
+    @Benchmark
+    public void minorUnitsBalanceDecimalAmount(Blackhole bh) {
+        for (BigDecimal amount : decimalAmounts) {
+            from.withdraw(amount);
+            to.deposit(amount);
+            to.withdraw(amount);
+            from.deposit(amount);
+        }
+        bh.consume(from.getBalanceMinor());
+    }
+
+    @Benchmark
+    public void minorUnitsBalance(Blackhole bh) {
+        for (long amount : minorAmounts) {
+            from.withdrawMinor(amount);
+            to.depositMinor(amount);
+            to.withdrawMinor(amount);
+            from.depositMinor(amount);
+        }
+        bh.consume(from.getBalanceMinor());
+    }
+
+    @Benchmark
+    public void bigDecimalBalanceResponse(Blackhole bh) {
+        // odczyt salda do odpowiedzi: gotowy BigDecimal kontra konwersja z groszy
+        bh.consume(decimalFrom.balance);
+    }
+
+    @Benchmark
+    public void minorUnitsBalanceResponse(Blackhole bh) {
+        bh.consume(MinorUnits.toDecimal(from.getBalanceMinor(), from.getBalanceScale()));
+    }
+
+    /**
+     * Stara logika Account sprzed przejścia na jednostki podrzędne, skopiowana bez zmian.
+     */
+    static final class DecimalAccount {
+        BigDecimal balance;
+
+        DecimalAccount(BigDecimal balance) {
+            this.balance = balance;
+        }
+
+        void withdraw(BigDecimal amount) {
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new InvalidAmountException("Kwota musi być większa od 0");
+            }
+            if (this.balance.compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Brak wystarczających środków na koncie");
+            }
+            this.balance = this.balance.subtract(amount);
+        }
+
+        void deposit(BigDecimal amount) {
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new InvalidAmountException("Kwota musi być większa od 0");
+            }
+            this.balance = this.balance.add(amount);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.minibank2.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Uruchamia benchmarki gorących ścieżek, zapisuje wynik JMH (JSON) i porównuje go z zapisanym baseline'em.
+ * Regresja = wynik gorszy o więcej niż próg (domyślnie 10%) i o więcej niż błąd pomiaru JMH
+ * (większy z dwóch przebiegów) – sam szum nie zgłasza regresji. Kod wyjścia 1 przy regresji.
+ *
+ *   java -cp target/benchmarks.jar com.example.minibank2.benchmarks.RegressionCheck            (uruchom i porównaj)
+ *   ... RegressionCheck --update                                                               (zapisz nowy baseline)
+ *   ... RegressionCheck --compare old.json new.json                                            (porównaj dwa pliki)
+ *   opcje: --baseline baselines/hot-paths.json --threshold 10 --include 'AccountDomainBenchmark'
+ *
+ * Baseline jest zależny od maszyny – porównujemy przebiegi z tego samego sprzętu i JDK.
+ */
+public class RegressionCheck {
+
+    private static final String HOT_PATHS = "AccountDomainBenchmark|JsonSerializationBenchmark|TransferBenchmark";
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Path baseline = Path.of("baselines", "hot-paths.json");
+        Path result = Path.of("target", "jmh-result.json");
+        double threshold = 10.0;
+        String include = HOT_PATHS;
+        boolean update = false;
+        Path compareFrom = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--include" -> include = args[++i];
+                case "--update" -> update = true;
+                case "--compare" -> {
+                    compareFrom = Path.of(args[++i]);
+                    result = Path.of(args[++i]);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (compareFrom != null) {
+            System.exit(compare(compareFrom, result, threshold) ? 1 : 0);
+        }
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build()).run();
+
+        if (update || !Files.exists(baseline)) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline saved to " + baseline);
+            return;
+        }
+        System.exit(compare(baseline, result, threshold) ? 1 : 0);
+    }
+
+    // 🔹 Porównanie dwóch wyników JMH; true gdy któryś benchmark się pogorszył
+    static boolean compare(Path baselineFile, Path currentFile, double thresholdPercent) throws IOException {
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> current = read(currentFile);
+        boolean regressed = false;
+
+        System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  NEW%n", entry.getKey(), "-", now.value, "");
+                continue;
+            }
+            // zmiana dodatnia = gorzej, niezależnie od trybu (czas: więcej gorzej, przepustowość: mniej gorzej)
+            double change = (now.value - before.value) / before.value * 100.0;
+            if (now.higherIsBetter) {
+                change = -change;
+            }
+            double noise = Math.max(before.error, now.error);
+            boolean worse = change > thresholdPercent && Math.abs(now.value - before.value) > noise;
+            regressed |= worse;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.value, now.value,
+                    change, now.unit, worse ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-70s  not run in current results%n", missing);
+            }
+        }
+        System.out.println(regressed
+                ? "Regressions beyond " + thresholdPercent + "% found"
+                : "No regressions beyond " + thresholdPercent + "%");
+        return regressed;
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            JsonNode metric = run.get("primaryMetric");
+            String mode = run.get("mode").asText();
+            double error = metric.get("scoreError").asDouble();
+            scores.put(key(run), new Score(
+                    metric.get("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asText(),
+                    "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    // nazwa benchmarku + parametry, np. TransactionStoreBenchmark.h2Insert{accounts=1000, h2Storage=mem}
+    private static String key(JsonNode run) {
+        String name = run.get("benchmark").asText();
+        name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        JsonNode params = run.get("params");
+        if (params == null) {
+            return name;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            sorted.put(param.getKey(), param.getValue().asText());
+        }
+        return name + sorted;
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.MiniBank2Application;
+import com.example.minibank2.analytics.AnalyticsSnapshot;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.repository.TransactionRepository;
+import com.example.minibank2.service.AccountService;
+import com.example.minibank2.service.DailyAggregateService;
+import com.example.minibank2.service.TransactionService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Jak metody repozytoriów i serwisów zachowują się przy rosnącej bazie. Dla każdej skali
+ * (liczba kont; transakcji jest --tx-per-account razy więcej) podnosimy świeży kontekst aplikacji
+ * na H2 w pamięci, generujemy syntetyczne konta i historię przypisaną do kont rozkładem Zipfa
+ * (kilka "gorących" kont ma większość ruchu), a potem mierzymy medianę czasu wywołania każdej
+ * sondy. Metody per konto mierzymy dwa razy: dla konta najgorętszego [hot] i typowego [typical].
+ *
+ * Na końcu dopasowujemy nachylenie log(czas) do log(skala): ~0 to O(1)/O(log n), ~1 liniowo,
+ * powyżej progu (domyślnie 1.2, całość albo dwie największe skale) metoda jest oznaczana SUPER-LINEAR.
+ * Przy małych skalach dominuje stały narzut, więc nachylenie z dwóch największych skal jest ważniejsze.
+ *
+ * Uruchomienie (to nie jest benchmark JMH – to krzywe czasu od rozmiaru danych):
+ *   java -Xmx3g -cp target/benchmarks.jar com.example.minibank2.benchmarks.ScalingSuite \
+ *        --scales 1000,10000,100000 --tx-per-account 10 --skew 1.0 --samples 15
+ * Wynik: tabela na stdout i target/scaling-report.csv (czasy w mikrosekundach).
+ */
+public class ScalingSuite {
+
+    private static final LocalDateTime END = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int HISTORY_DAYS = 2 * 365;
+    private static final LocalDate FIRST_ACCOUNT = LocalDate.of(2020, 1, 1);
+    private static final int ACCOUNT_DAYS = 5 * 365;
+    private static final String[] CURRENCIES = {"PLN", "PLN", "PLN", "EUR", "USD", "JPY"};
+    private static final TransactionType[] TYPES = {
+            TransactionType.DEPOSIT, TransactionType.WITHDRAW, TransactionType.TRANSFER_IN, TransactionType.TRANSFER_OUT};
+    private static final Set<TransactionType> CREDIT_TYPES =
+            EnumSet.of(TransactionType.DEPOSIT, TransactionType.TRANSFER_IN, TransactionType.INTEREST);
+    private static final int BATCH = 1000;
+
+    // Podsumowania dzienne z wygenerowanej historii – jednym zapytaniem zamiast zadania backfill konto po koncie
+    private static final String BACKFILL_AGGREGATES =
+            "insert into daily_account_aggregates (account_id, business_date, " +
+            "deposit_count, deposit_sum, withdraw_count, withdraw_sum, transfer_in_count, transfer_in_sum, " +
+            "transfer_out_count, transfer_out_sum, interest_count, interest_sum) " +
+            "select account_id, cast(date_time as date), " +
+            "sum(case when type = 'DEPOSIT' then 1 else 0 end), sum(case when type = 'DEPOSIT' then amount else 0 end), " +
+            "sum(case when type = 'WITHDRAW' then 1 else 0 end), sum(case when type = 'WITHDRAW' then amount else 0 end), " +
+            "sum(case when type = 'TRANSFER_IN' then 1 else 0 end), sum(case when type = 'TRANSFER_IN' then amount else 0 end), " +
+            "sum(case when type = 'TRANSFER_OUT' then 1 else 0 end), sum(case when type = 'TRANSFER_OUT' then amount else 0 end), " +
+            "0, 0 from transactions group by account_id, cast(date_time as date)";
+
+    private static final String TYPICAL_ACCOUNT =
+            "select t.account_id from transactions t " +
+            "where t.account_id in (select account_id from transactions where date_time > ?) " +
+            "group by t.account_id having count(*) >= ? order by count(*), t.account_id limit 1";
+
+    private static volatile Object sink; // wyniki sond nie mogą zostać wyeliminowane przez JIT
+
+    public static void main(String[] args) throws Exception {
+        int[] scales = {1_000, 10_000, 100_000};
+        int txPerAccount = 10;
+        double skew = 1.0;
+        int samples = 15;
+        long budgetMillis = 3_000;
+        double flagSlope = 1.2;
+        Path out = Path.of("target", "scaling-report.csv");
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--scales" -> scales = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--tx-per-account" -> txPerAccount = Integer.parseInt(args[++i]);
+                case "--skew" -> skew = Double.parseDouble(args[++i]);
+                case "--samples" -> samples = Integer.parseInt(args[++i]);
+                case "--budget-ms" -> budgetMillis = Long.parseLong(args[++i]);
+                case "--flag-slope" -> flagSlope = Double.parseDouble(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        Arrays.sort(scales);
+
+        // sonda -> mediana w nanosekundach dla kolejnych skal
+        Map<String, double[]> results = new LinkedHashMap<>();
+        Map<String, Integer> failures = new LinkedHashMap<>();
+        int scaleCount = scales.length;
+        long budgetNanos = budgetMillis * 1_000_000;
+        for (int s = 0; s < scales.length; s++) {
+            int scale = scales[s];
+            try (ConfigurableApplicationContext context = start(scale)) {
+                long start = System.nanoTime();
+                Fixture fixture = populate(context, scale, txPerAccount, skew);
+                System.out.printf("scale %d: %d transactions (hot account %d has %d, typical %d has %d) generated in %d ms%n",
+                        scale, (long) scale * txPerAccount, fixture.hot, fixture.hotHistory,
+                        fixture.typical, fixture.typicalHistory,
+                        (System.nanoTime() - start) / 1_000_000);
+                List<Probe> probes = probes(context, fixture);
+                if (s == 0) {
+                    // pierwsza runda na najmniejszej skali tylko rozgrzewa JIT – inaczej zawyża czasy dla 1. skali
+                    probes.forEach(probe -> measure(probe, 3, budgetNanos / 10));
+                }
+                for (Probe probe : probes) {
+                    Sample sample = measure(probe, samples, budgetNanos);
+                    results.computeIfAbsent(probe.name, name -> filled(scaleCount))[s] = sample.medianNanos;
+                    if (sample.failures > 0) {
+                        failures.merge(probe.name, sample.failures, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        report(scales, results, failures, flagSlope, out);
+        reportCoverage(results.keySet());
+    }
+
+    // 🔹 Świeży kontekst aplikacji z osobną bazą H2 w pamięci dla każdej skali
+    private static ConfigurableApplicationContext start(int scale) {
+        return SpringApplication.run(MiniBank2Application.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:scaling" + scale + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.minibank2=WARN",
+                "--logging.level.org.hibernate.SQL=OFF",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF");
+    }
+
+    /**
+     * Konta i parametry sond dobrane tak, żeby selektywność zapytań była stała między skalami
+     * (np. próg salda wybiera ~1% kont), a rosła tylko liczba wierszy w tabelach.
+     */
+    private record Fixture(int accounts, long hot, long typical, long hotHistory, long typicalHistory, String owner,
+                           BigDecimal balanceThreshold, LocalDate newestAccounts, LocalDate oldestAccounts,
+                           LocalDateTime hotLastAt, LocalDateTime typicalLastAt) {
+    }
+
+    // 🔹 Synteza danych przez JDBC (wsadowo), potem podsumowania dzienne i przebudowa migawki analitycznej
+    private static Fixture populate(ConfigurableApplicationContext context, int accounts, int txPerAccount,
+                                    double skew) throws SQLException {
+        Random random = new Random(42);
+        DataSource dataSource = context.getBean(DataSource.class);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into accounts (created_at, owner, number, currency, balance_minor, balance_scale, " +
+                    "balance_version, status, account_type, interest_rate) values (?, ?, ?, ?, ?, ?, 0, ?, ?, ?)")) {
+                for (int i = 0; i < accounts; i++) {
+                    String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+                    int scale = MinorUnits.scaleOf(currency);
+                    insert.setDate(1, Date.valueOf(FIRST_ACCOUNT.plusDays((long) i * ACCOUNT_DAYS / accounts)));
+                    insert.setString(2, "Owner " + i / 4); // właściciel ma zwykle kilka kont
+                    insert.setString(3, String.format("SCL-%010d", i));
+                    insert.setString(4, currency);
+                    // saldo jednostajnie w [0, 100000) w walucie konta
+                    insert.setLong(5, (long) (random.nextDouble() * 100_000 * Math.pow(10, scale)));
+                    insert.setInt(6, scale);
+                    insert.setString(7, random.nextInt(10) == 0 ? "BLOCKED" : "ACTIVE");
+                    insert.setString(8, random.nextBoolean() ? "SAVINGS" : "CHECKING");
+                    insert.setBigDecimal(9, new BigDecimal("0.02"));
+                    insert.addBatch();
+                    if (i % BATCH == BATCH - 1) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            long firstId = jdbc.queryForObject("select min(id) from accounts", Long.class);
+            Zipf zipf = new Zipf(accounts, skew);
+            long total = (long) accounts * txPerAccount;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into transactions (account_id, date_time, type, amount, balance_after) values (?, ?, ?, ?, ?)")) {
+                for (long i = 0; i < total; i++) {
+                    insert.setLong(1, firstId + zipf.rank(random.nextDouble()));
+                    insert.setTimestamp(2, Timestamp.valueOf(END.minusSeconds(random.nextInt(HISTORY_DAYS * 86_400))));
+                    insert.setString(3, TYPES[random.nextInt(TYPES.length)].name());
+                    insert.setBigDecimal(4, BigDecimal.valueOf(1 + random.nextInt(100_000), 2));
+                    insert.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+                    insert.addBatch();
+                    if (i % BATCH == BATCH - 1) {
+                        insert.executeBatch();
+                    }
+                    if (i % 50_000 == 49_999) {
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            try (PreparedStatement backfill = connection.prepareStatement(BACKFILL_AGGREGATES)) {
+                backfill.executeUpdate();
+            }
+            connection.commit();
+
+            context.getBean(AnalyticsSnapshot.class).rebuild();
+
+            long hot = firstId; // ranga 1 w rozkładzie Zipfa
+            // typowe konto: historia nie krótsza niż średnia i ruch w ostatnich 90 dniach (okna dat coś zwracają)
+            Long typical = jdbc.queryForObject(TYPICAL_ACCOUNT, Long.class,
+                    Timestamp.valueOf(END.minusDays(90)), txPerAccount);
+            return new Fixture(accounts, hot, typical, history(jdbc, hot), history(jdbc, typical),
+                    "Owner " + accounts / 8,
+                    new BigDecimal("99000"),
+                    FIRST_ACCOUNT.plusDays((long) ACCOUNT_DAYS * 99 / 100),
+                    FIRST_ACCOUNT.plusDays(ACCOUNT_DAYS / 100),
+                    lastTransactionAt(jdbc, hot),
+                    lastTransactionAt(jdbc, typical));
+        }
+    }
+
+    private static long history(JdbcTemplate jdbc, long accountId) {
+        return jdbc.queryForObject("select count(*) from transactions where account_id = ?", Long.class, accountId);
+    }
+
+    private static LocalDateTime lastTransactionAt(JdbcTemplate jdbc, long accountId) {
+        Timestamp at = jdbc.queryForObject("select max(date_time) from transactions where account_id = ?",
+                Timestamp.class, accountId);
+        return at != null ? at.toLocalDateTime() : END;
+    }
+
+    private record Probe(String name, Callable<Object> call) {
+    }
+
+    // 🔹 Wszystkie metody wyszukujące repozytoriów oraz metody serwisów stojące za endpointami
+    private static List<Probe> probes(ConfigurableApplicationContext context, Fixture f) {
+        AccountRepository accounts = context.getBean(AccountRepository.class);
+        TransactionRepository transactions = context.getBean(TransactionRepository.class);
+        AccountService accountService = context.getBean(AccountService.class);
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        DailyAggregateService aggregates = context.getBean(DailyAggregateService.class);
+        AnalyticsSnapshot analytics = context.getBean(AnalyticsSnapshot.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        PageRequest firstPage = PageRequest.of(0, 50);
+        PageRequest lastPage = PageRequest.of(Math.max(0, f.accounts / 50 - 1), 50, Sort.by("id"));
+        BigDecimal amountThreshold = new BigDecimal("900.00");
+        BigDecimal small = new BigDecimal("1.00");
+
+        List<Probe> probes = new ArrayList<>();
+        probes.add(new Probe("AccountRepository.findByOwner(String)", () -> accounts.findByOwner(f.owner)));
+        probes.add(new Probe("AccountRepository.findTopByOrderByBalanceDesc()", accounts::findTopByOrderByBalanceDesc));
+        probes.add(new Probe("AccountRepository.findByBalanceGreaterThan(BigDecimal)",
+                () -> accounts.findByBalanceGreaterThan(f.balanceThreshold)));
+        probes.add(new Probe("AccountRepository.findByCreatedAtAfter(LocalDate)",
+                () -> accounts.findByCreatedAtAfter(f.newestAccounts)));
+        probes.add(new Probe("AccountRepository.findTopByOrderByCreatedAtAsc()", accounts::findTopByOrderByCreatedAtAsc));
+        probes.add(new Probe("AccountRepository.countByCurrency(String)", () -> accounts.countByCurrency("EUR")));
+        probes.add(new Probe("AccountRepository.findTopByStatusOrderByBalanceDesc(String)",
+                () -> accounts.findTopByStatusOrderByBalanceDesc("ACTIVE")));
+        probes.add(new Probe("AccountRepository.findAllByCreatedAtBefore(LocalDate)",
+                () -> accounts.findAllByCreatedAtBefore(f.oldestAccounts)));
+        probes.add(new Probe("AccountRepository.findTopByCurrencyOrderByBalanceDesc(String)",
+                () -> accounts.findTopByCurrencyOrderByBalanceDesc("USD")));
+        probes.add(new Probe("AccountRepository.findTop3ByOrderByBalanceDesc()", accounts::findTop3ByOrderByBalanceDesc));
+        probes.add(new Probe("AccountRepository.findByBalanceGreaterThan(BigDecimal, Pageable)",
+                () -> accounts.findByBalanceGreaterThan(f.balanceThreshold, firstPage)));
+        probes.add(new Probe("AccountRepository.findByCreatedAtAfter(LocalDate, Pageable)",
+                () -> accounts.findByCreatedAtAfter(f.newestAccounts, firstPage)));
+        probes.add(new Probe("AccountRepository.findByOwner(String, Pageable)",
+                () -> accounts.findByOwner(f.owner, firstPage)));
+        probes.add(new Probe("AccountRepository.findTop3ByOrderByBalanceDesc(Pageable)",
+                () -> accounts.findTop3ByOrderByBalanceDesc(firstPage)));
+        probes.add(new Probe("AccountRepository.findAllIds()", accounts::findAllIds));
+        probes.add(new Probe("AccountRepository.findByIdForUpdate(Long)",
+                () -> tx.execute(status -> accounts.findByIdForUpdate(f.typical))));
+
+        for (String kind : List.of("hot", "typical")) {
+            long id = kind.equals("hot") ? f.hot : f.typical;
+            LocalDateTime last = kind.equals("hot") ? f.hotLastAt : f.typicalLastAt;
+            String suffix = " [" + kind + "]";
+            probes.add(new Probe("TransactionRepository.findByAccountId(Long)" + suffix,
+                    () -> transactions.findByAccountId(id)));
+            probes.add(new Probe("TransactionRepository.findByAccountIdOrderByDateTimeDesc(Long)" + suffix,
+                    () -> transactions.findByAccountIdOrderByDateTimeDesc(id)));
+            probes.add(new Probe("TransactionRepository.findByAccountIdOrderByDateTimeDesc(Long, Pageable)" + suffix,
+                    () -> transactions.findByAccountIdOrderByDateTimeDesc(id, PageRequest.of(0, 10))));
+            probes.add(new Probe("TransactionRepository.findByAccountIdAndType(Long, TransactionType)" + suffix,
+                    () -> transactions.findByAccountIdAndType(id, TransactionType.DEPOSIT)));
+            probes.add(new Probe("TransactionRepository.findByAccountIdAndDateTimeBetween(Long, LocalDateTime, LocalDateTime)" + suffix,
+                    () -> transactions.findByAccountIdAndDateTimeBetween(id, END.minusDays(90), END)));
+            probes.add(new Probe("TransactionRepository.findByAccountIdAndDateTime(Long, LocalDateTime)" + suffix,
+                    () -> transactions.findByAccountIdAndDateTime(id, last)));
+            probes.add(new Probe("TransactionRepository.findByAccountIdAndAmountGreaterThan(Long, BigDecimal)" + suffix,
+                    () -> transactions.findByAccountIdAndAmountGreaterThan(id, amountThreshold)));
+            probes.add(new Probe("TransactionRepository.findTopByAccountIdAndDateTimeLessThanEqualOrderByDateTimeDescIdDesc(Long, LocalDateTime)" + suffix,
+                    () -> transactions.findTopByAccountIdAndDateTimeLessThanEqualOrderByDateTimeDescIdDesc(id, END.minusDays(365))));
+            probes.add(new Probe("TransactionRepository.findTopByAccountIdAndDateTimeGreaterThanOrderByDateTimeAscIdAsc(Long, LocalDateTime)" + suffix,
+                    () -> transactions.findTopByAccountIdAndDateTimeGreaterThanOrderByDateTimeAscIdAsc(id, END.minusDays(365))));
+            probes.add(new Probe("TransactionRepository.findByAccountIdOrderByDateTimeAscIdAsc(Long)" + suffix,
+                    () -> transactions.findByAccountIdOrderByDateTimeAscIdAsc(id)));
+            probes.add(new Probe("TransactionRepository.sumNetAmountAfter(Long, LocalDateTime, Collection)" + suffix,
+                    () -> transactions.sumNetAmountAfter(id, END.minusDays(365), CREDIT_TYPES)));
+
+            probes.add(new Probe("AccountService.getBalanceAt" + suffix,
+                    () -> accountService.getBalanceAt(id, END.minusDays(365))));
+            probes.add(new Probe("TransactionService.getTransactionsForAccount" + suffix,
+                    () -> transactionService.getTransactionsForAccount(id)));
+            probes.add(new Probe("TransactionService.getTransactionsForAccountByType" + suffix,
+                    () -> transactionService.getTransactionsForAccountByType(id, TransactionType.DEPOSIT)));
+            probes.add(new Probe("TransactionService.getTransactionsBetweenDates" + suffix,
+                    () -> transactionService.getTransactionsBetweenDates(id, END.minusDays(90), END)));
+            probes.add(new Probe("TransactionService.getTransactionSumForDate" + suffix,
+                    () -> transactionService.getTransactionSumForDate(id, last)));
+            probes.add(new Probe("TransactionService.getTransactionCount" + suffix,
+                    () -> transactionService.getTransactionCount(id)));
+            probes.add(new Probe("TransactionService.getLastNTransactions" + suffix,
+                    () -> transactionService.getLastNTransactions(id, 10)));
+            probes.add(new Probe("TransactionService.getMaxTransactionsByType" + suffix,
+                    () -> transactionService.getMaxTransactionsByType(id, TransactionType.DEPOSIT)));
+            probes.add(new Probe("TransactionService.getTransactionsAboveAmount" + suffix,
+                    () -> transactionService.getTransactionsAboveAmount(id, amountThreshold)));
+            probes.add(new Probe("DailyAggregateService.getDailyAggregates" + suffix,
+                    () -> aggregates.getDailyAggregates(id, END.toLocalDate().minusDays(90), END.toLocalDate())));
+            probes.add(new Probe("DailyAggregateService.getMonthlyAggregates" + suffix,
+                    () -> aggregates.getMonthlyAggregates(id, YearMonth.from(END).minusMonths(12), YearMonth.from(END))));
+            probes.add(new Probe("DailyAggregateService.getTransactionSumForDay" + suffix,
+                    () -> aggregates.getTransactionSumForDay(id, last.toLocalDate())));
+            probes.add(new Probe("AnalyticsSnapshot.amountStats" + suffix,
+                    () -> analytics.amountStats(id, amountThreshold).join()));
+        }
+
+        probes.add(new Probe("AccountService.getAllAccounts", accountService::getAllAccounts));
+        probes.add(new Probe("AccountService.findAccountById", () -> accountService.findAccountById(f.typical)));
+        probes.add(new Probe("AccountService.getBalance", () -> accountService.getBalance(f.typical)));
+        probes.add(new Probe("AccountService.findAccountsByOwner", () -> accountService.findAccountsByOwner(f.owner)));
+        probes.add(new Probe("AccountService.getAccountWithMaxBalanceSpring", accountService::getAccountWithMaxBalanceSpring));
+        probes.add(new Probe("AccountService.getAccountsWithBalanceGreaterThan",
+                () -> accountService.getAccountsWithBalanceGreaterThan(f.balanceThreshold)));
+        probes.add(new Probe("AccountService.getAccountsCreatedAfterDate",
+                () -> accountService.getAccountsCreatedAfterDate(f.newestAccounts)));
+        probes.add(new Probe("AccountService.getTheOldestAccount", accountService::getTheOldestAccount));
+        probes.add(new Probe("AccountService.getHowManyAccountWithCurrency",
+                () -> accountService.getHowManyAccountWithCurrency("EUR")));
+        probes.add(new Probe("AccountService.firstActiveAccountOrderByBalanceDesc",
+                () -> accountService.firstActiveAccountOrderByBalanceDesc("ACTIVE")));
+        probes.add(new Probe("AccountService.accountsCreatedBefore",
+                () -> accountService.accountsCreatedBefore(f.oldestAccounts)));
+        probes.add(new Probe("AccountService.accountWithHighestBalanceIn",
+                () -> accountService.accountWithHighestBalanceIn("USD")));
+        probes.add(new Probe("AccountService.top3HighestBalanceAccounts", accountService::top3HighestBalanceAccounts));
+        probes.add(new Probe("AccountService.getAccounts [first page]", () -> accountService.getAccounts(firstPage)));
+        probes.add(new Probe("AccountService.getAccounts [last page]", () -> accountService.getAccounts(lastPage)));
+        probes.add(new Probe("AccountService.getAccountsWithBalanceGreaterThan [paged]",
+                () -> accountService.getAccountsWithBalanceGreaterThan(f.balanceThreshold, firstPage)));
+        probes.add(new Probe("AccountService.getAccountsCreatedAfterDate [paged]",
+                () -> accountService.getAccountsCreatedAfterDate(f.newestAccounts, firstPage)));
+        probes.add(new Probe("AccountService.findAccountsByOwner [paged]",
+                () -> accountService.findAccountsByOwner(f.owner, firstPage)));
+        probes.add(new Probe("AccountService.top3HighestBalanceAccounts [paged]",
+                () -> accountService.top3HighestBalanceAccounts(firstPage)));
+        // zapisy: kwoty symboliczne, przelew typowe <-> gorące konto w obie strony, żeby salda się nie wyczerpały
+        boolean[] forward = {false};
+        probes.add(new Probe("AccountService.deposit", () -> accountService.deposit(f.typical, small)));
+        probes.add(new Probe("AccountService.transfer", () -> {
+            forward[0] = !forward[0];
+            accountService.transfer(forward[0] ? f.typical : f.hot, forward[0] ? f.hot : f.typical, small);
+            return null;
+        }));
+        probes.add(new Probe("AnalyticsSnapshot.balanceHistogram",
+                () -> analytics.balanceHistogram(new BigDecimal("1000"), null, null).join()));
+        probes.add(new Probe("AnalyticsSnapshot.totalsByCurrency", () -> analytics.totalsByCurrency(null).join()));
+        probes.add(new Probe("AnalyticsSnapshot.topOwners", () -> analytics.topOwners(10, null).join()));
+        probes.add(new Probe("AnalyticsSnapshot.accountsCreatedPerMonth", () -> analytics.accountsCreatedPerMonth(null).join()));
+        probes.add(new Probe("AnalyticsSnapshot.transactionVolumePerMonth", () -> analytics.transactionVolumePerMonth(null).join()));
+        return probes;
+    }
+
+    private record Sample(double medianNanos, int failures) {
+    }
+
+    // 🔹 Kilka wywołań na rozgrzewkę, potem mediana pojedynczych wywołań (z limitem czasu na sondę)
+    private static Sample measure(Probe probe, int samples, long budgetNanos) {
+        int failures = 0;
+        long warmupEnd = System.nanoTime() + budgetNanos / 5;
+        for (int i = 0; i < 5 && System.nanoTime() < warmupEnd; i++) {
+            failures += call(probe) ? 0 : 1;
+        }
+        long[] times = new long[samples];
+        int taken = 0;
+        long deadline = System.nanoTime() + budgetNanos;
+        while (taken < samples && (taken < 3 || System.nanoTime() < deadline)) {
+            long start = System.nanoTime();
+            failures += call(probe) ? 0 : 1;
+            times[taken++] = System.nanoTime() - start;
+        }
+        long[] measured = Arrays.copyOf(times, taken);
+        Arrays.sort(measured);
+        return new Sample(measured[taken / 2], failures);
+    }
+
+    // Wyjątek (np. brak transakcji) też jest wynikiem zapytania – liczymy czas, ale odnotowujemy go w raporcie
+    private static boolean call(Probe probe) {
+        try {
+            sink = probe.call.call();
+            return true;
+        } catch (Exception e) {
+            sink = e;
+            return false;
+        }
+    }
+
+    private static double[] filled(int length) {
+        double[] values = new double[length];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    // 🔹 Tabela czasów, nachylenie log-log i klasa złożoności; CSV do dalszej analizy
+    private static void report(int[] scales, Map<String, double[]> results, Map<String, Integer> failures,
+                               double flagSlope, Path out) throws IOException {
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        List<String> flagged = new ArrayList<>();
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(out))) {
+            csv.println("probe," + Arrays.stream(scales).mapToObj(scale -> "us@" + scale).collect(Collectors.joining(","))
+                    + ",slope,tail_slope,class,failures");
+
+            StringBuilder header = new StringBuilder(String.format("%-112s", "probe (median us)"));
+            for (int scale : scales) {
+                header.append(String.format(" %12s", scale));
+            }
+            System.out.println();
+            System.out.println(header.append(String.format(" %6s %6s  %s", "slope", "tail", "class")));
+
+            for (Map.Entry<String, double[]> entry : results.entrySet()) {
+                double[] nanos = entry.getValue();
+                double slope = slope(scales, nanos, 0);
+                double tail = slope(scales, nanos, scales.length - 2);
+                boolean superLinear = slope > flagSlope || tail > flagSlope;
+                String complexity = classify(Math.max(slope, tail), flagSlope);
+                if (superLinear) {
+                    flagged.add(entry.getKey());
+                }
+                int failed = failures.getOrDefault(entry.getKey(), 0);
+
+                StringBuilder line = new StringBuilder(String.format("%-112s", entry.getKey()));
+                StringBuilder row = new StringBuilder("\"" + entry.getKey() + "\"");
+                for (double value : nanos) {
+                    line.append(String.format(" %12.1f", value / 1_000));
+                    row.append(',').append(String.format("%.1f", value / 1_000));
+                }
+                line.append(String.format(" %6.2f %6.2f  %s%s", slope, tail, complexity,
+                        failed > 0 ? "  (" + failed + " calls threw)" : ""));
+                System.out.println(line);
+                csv.println(row + String.format(",%.3f,%.3f,%s,%d", slope, tail, complexity, failed));
+            }
+        }
+        System.out.println();
+        System.out.println(flagged.isEmpty()
+                ? "No super-linear probes (slope threshold " + flagSlope + ")"
+                : "SUPER-LINEAR (slope > " + flagSlope + "): " + String.join(", ", flagged));
+        System.out.println("Report written to " + out);
+    }
+
+    // Nachylenie prostej (MNK) w log(czas) od log(skala), od podanej skali do końca
+    private static double slope(int[] scales, double[] nanos, int from) {
+        double n = 0, sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (int i = Math.max(0, from); i < scales.length; i++) {
+            if (Double.isNaN(nanos[i]) || nanos[i] <= 0) {
+                continue;
+            }
+            double x = Math.log(scales[i]);
+            double y = Math.log(nanos[i]);
+            n++;
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+        }
+        double denominator = n * sxx - sx * sx;
+        return n < 2 || denominator == 0 ? Double.NaN : (n * sxy - sx * sy) / denominator;
+    }
+
+    private static String classify(double slope, double flagSlope) {
+        if (Double.isNaN(slope)) {
+            return "-";
+        }
+        if (slope > flagSlope) {
+            return "SUPER-LINEAR";
+        }
+        if (slope >= 0.8) {
+            return "O(n)";
+        }
+        if (slope >= 0.25) {
+            return "sub-linear";
+        }
+        return "O(1)/O(log n)";
+    }
+
+    // 🔹 Metody repozytoriów bez sondy – nowa metoda wyszukująca nie powinna ominąć pomiaru
+    private static void reportCoverage(Set<String> measured) {
+        Set<String> probed = measured.stream()
+                .map(name -> name.contains(" [") ? name.substring(0, name.indexOf(" [")) : name)
+                .collect(Collectors.toSet());
+        Set<String> missing = new TreeSet<>();
+        for (Class<?> repository : List.of(AccountRepository.class, TransactionRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String signature = repository.getSimpleName() + "." + method.getName() + "("
+                        + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(", "))
+                        + ")";
+                if (!method.isSynthetic() && !probed.contains(signature)) {
+                    missing.add(signature);
+                }
+            }
+        }
+        System.out.println(missing.isEmpty()
+                ? "All repository finders measured"
+                : "Repository methods without a probe: " + String.join(", ", missing));
+    }
+}
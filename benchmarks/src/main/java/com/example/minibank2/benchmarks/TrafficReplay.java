@@ -0,0 +1,331 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.web.TrafficLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Odtwarzanie ruchu nagranego przez TrafficCaptureFilter (minibank.capture.enabled=true) na świeżej
+ * instancji aplikacji. Dwa polecenia:
+ *
+ *   replay    – wysyła nagrane żądania w ich odstępach czasowych przyspieszonych --speed razy (1–20).
+ *               Konta, do których odwołuje się nagranie, a których ono nie zakłada, tworzy przed startem
+ *               (POST /accounts + wpłata --opening-balance); id z nagrania są mapowane na nowe w ścieżce
+ *               i w treści przelewu. Żądania dotyczące tego samego konta idą w kolejności z nagrania –
+ *               następne czeka na odpowiedź poprzedniego. Opóźnienie liczymy od chwili, gdy żądanie mogło
+ *               zostać wysłane (planowany moment i zakończenie poprzedników na tych kontach).
+ *               Wynik: --report target/replay-report.json i --captured-report target/captured-report.json
+ *               (czasy z nagrania), porównanie percentyli oraz zgodność statusów per endpoint.
+ *   summarize – raport z samego nagrania (--report); po odtworzeniu na instancji z włączonym nagrywaniem
+ *               dwa takie raporty porównują czasy obsługi mierzone po stronie serwera w obu przebiegach.
+ *
+ * Raporty mają układ raportu LoadDriver, więc działa też LoadDriver compare. Endpointy w raporcie to metoda
+ * i ścieżka z {id} w miejscu liczb, np. "POST /accounts/{id}/deposit".
+ *
+ *   java -cp target/benchmarks.jar com.example.minibank2.benchmarks.TrafficReplay replay ../capture/traffic-X.mbt \
+ *        --base-url http://localhost:8081 --speed 5
+ */
+public class TrafficReplay {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: TrafficReplay replay|summarize <traffic.mbt> [options]");
+        }
+        Path log = Path.of(args[1]);
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 2; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value at: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        switch (args[0]) {
+            case "replay" -> replay(read(log), log, options);
+            case "summarize" -> summarize(read(log), log, Path.of(options.getOrDefault("report", "target/captured-report.json")));
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    private static List<TrafficLog.Entry> read(Path log) throws IOException {
+        List<TrafficLog.Entry> entries = new ArrayList<>();
+        try (TrafficLog.Reader reader = TrafficLog.Reader.open(log)) {
+            reader.forEachRemaining(entries::add);
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("No requests in " + log);
+        }
+        return entries;
+    }
+
+    // 🔹 Endpoint bez konkretnych id: "GET /transactions/{id}/history"
+    static String template(TrafficLog.Entry entry) {
+        String path = entry.uri();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return entry.method() + " " + path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    private static double spanSeconds(List<TrafficLog.Entry> entries) {
+        TrafficLog.Entry last = entries.get(entries.size() - 1);
+        long micros = last.offsetMicros() + last.durationMicros() - entries.get(0).offsetMicros();
+        return Math.max(micros, 1_000) / 1e6;
+    }
+
+    // 🔹 Raport z czasów zapisanych w nagraniu (czas obsługi po stronie serwera)
+    private static Map<String, Object> capturedReport(List<TrafficLog.Entry> entries, Path log) {
+        LoadDriver.Stats all = new LoadDriver.Stats();
+        Map<String, LoadDriver.Stats> byEndpoint = new TreeMap<>();
+        for (TrafficLog.Entry entry : entries) {
+            long nanos = TimeUnit.MICROSECONDS.toNanos(entry.durationMicros());
+            String status = String.valueOf(entry.status());
+            all.record(0, 0, nanos, status);
+            byEndpoint.computeIfAbsent(template(entry), key -> new LoadDriver.Stats()).record(0, 0, nanos, status);
+        }
+        Map<String, Object> config = new TreeMap<>();
+        config.put("log", log.toString());
+        config.put("source", "capture");
+        return report(config, all, byEndpoint, spanSeconds(entries));
+    }
+
+    private static Map<String, Object> report(Map<String, Object> config, LoadDriver.Stats all,
+                                              Map<String, LoadDriver.Stats> byEndpoint, double seconds) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        operations.put("all", all.toReport(seconds));
+        byEndpoint.forEach((endpoint, stats) -> operations.put(endpoint, stats.toReport(seconds)));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static void write(Path file, Map<String, Object> report) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JSON.writeValue(file.toFile(), report);
+    }
+
+    private static void summarize(List<TrafficLog.Entry> entries, Path log, Path reportFile) throws IOException {
+        write(reportFile, capturedReport(entries, log));
+        System.out.println(entries.size() + " requests over " + Math.round(spanSeconds(entries)) + " s, report written to " + reportFile);
+    }
+
+    // 🔹 Konta, do których nagranie się odwołuje, a których samo nie zakłada – trzeba je utworzyć przed startem
+    private static Set<Long> preexistingAccounts(List<TrafficLog.Entry> entries) {
+        Set<Long> created = new LinkedHashSet<>();
+        Set<Long> needed = new LinkedHashSet<>();
+        for (TrafficLog.Entry entry : entries) {
+            for (long account : entry.accounts()) {
+                if (account > 0 && !created.contains(account)) {
+                    needed.add(account);
+                }
+            }
+            if (entry.createdAccountId() > 0) {
+                created.add(entry.createdAccountId());
+            }
+        }
+        return needed;
+    }
+
+    private static void createAccounts(HttpClient client, String baseUrl, Set<Long> accounts, String openingBalance,
+                                       Map<Long, Long> ids) throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (long account : accounts) {
+            pool.execute(() -> {
+                try {
+                    String body = "{\"owner\":\"Replay " + account + "\",\"currency\":\"PLN\",\"accountType\":\"CHECKING\"}";
+                    HttpResponse<String> response = client.send(LoadDriver.post(baseUrl + "/accounts", body),
+                            HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                        return;
+                    }
+                    long id = JSON.readTree(response.body()).get("id").asLong();
+                    client.send(LoadDriver.post(baseUrl + "/accounts/" + id + "/deposit?amount=" + openingBalance, ""),
+                            HttpResponse.BodyHandlers.discarding());
+                    ids.put(account, id);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        System.out.println(ids.size() + " accounts created on target (" + failures.get() + " failed)");
+    }
+
+    // 🔹 Żądanie z id przełożonymi na konta w nowej instancji; nieznane id zostają bez zmian
+    private static HttpRequest rewrite(String baseUrl, TrafficLog.Entry entry, Map<Long, Long> ids) throws IOException {
+        String uri = entry.uri();
+        String[] segments = uri.split("/", -1);
+        if (segments.length > 2) {
+            int end = segments[2].indexOf('?');
+            String id = end >= 0 ? segments[2].substring(0, end) : segments[2];
+            if (!id.isEmpty() && id.chars().allMatch(Character::isDigit)) {
+                segments[2] = ids.getOrDefault(Long.parseLong(id), Long.parseLong(id)) + segments[2].substring(id.length());
+                uri = String.join("/", segments);
+            }
+        }
+        byte[] body = entry.body();
+        if (uri.startsWith("/accounts/transfer") && body.length > 0) {
+            ObjectNode transfer = (ObjectNode) JSON.readTree(body);
+            for (String field : List.of("senderId", "receiverId")) {
+                if (transfer.hasNonNull(field)) {
+                    long id = transfer.get(field).asLong();
+                    transfer.put(field, ids.getOrDefault(id, id));
+                }
+            }
+            body = JSON.writeValueAsBytes(transfer);
+        }
+        HttpRequest.BodyPublisher publisher = body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody();
+        return HttpRequest.newBuilder(URI.create(baseUrl + uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(entry.method(), publisher)
+                .build();
+    }
+
+    private static void replay(List<TrafficLog.Entry> entries, Path log, Map<String, String> options) throws Exception {
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        if (speed < 1 || speed > 20) {
+            throw new IllegalArgumentException("--speed must be between 1 and 20");
+        }
+        String openingBalance = options.getOrDefault("opening-balance", "1000000");
+        Path reportFile = Path.of(options.getOrDefault("report", "target/replay-report.json"));
+        Path capturedFile = Path.of(options.getOrDefault("captured-report", "target/captured-report.json"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Map<Long, Long> ids = new ConcurrentHashMap<>();
+        createAccounts(client, baseUrl, preexistingAccounts(entries), openingBalance, ids);
+
+        LoadDriver.Stats all = new LoadDriver.Stats();
+        Map<String, LoadDriver.Stats> byEndpoint = new ConcurrentHashMap<>();
+        Map<String, LongAdder> matches = new ConcurrentHashMap<>();
+        Map<String, Map<String, LongAdder>> mismatches = new ConcurrentHashMap<>();
+        // ostatnie żądanie dotykające konta (id z nagrania) – kolejne na tym koncie czeka na jego odpowiedź
+        Map<Long, CompletableFuture<Void>> lastByAccount = new HashMap<>();
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>(entries.size());
+
+        long firstOffset = entries.get(0).offsetMicros();
+        long start = System.nanoTime();
+        for (TrafficLog.Entry entry : entries) {
+            long intended = start + (long) (TimeUnit.MICROSECONDS.toNanos(entry.offsetMicros() - firstOffset) / speed);
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Set<Long> touched = new LinkedHashSet<>();
+            for (long account : entry.accounts()) {
+                touched.add(account);
+            }
+            if (entry.createdAccountId() > 0) {
+                touched.add(entry.createdAccountId());
+            }
+            List<CompletableFuture<Void>> predecessors = new ArrayList<>();
+            for (long account : touched) {
+                CompletableFuture<Void> previous = lastByAccount.get(account);
+                if (previous != null && !previous.isDone()) {
+                    predecessors.add(previous);
+                }
+            }
+            String endpoint = template(entry);
+            CompletableFuture<Void> done = CompletableFuture.allOf(predecessors.toArray(CompletableFuture[]::new))
+                    .thenCompose(ignored -> {
+                        long eligible = Math.max(intended, System.nanoTime());
+                        HttpRequest request;
+                        try {
+                            request = rewrite(baseUrl, entry, ids);
+                        } catch (IOException e) {
+                            return CompletableFuture.failedFuture(e);
+                        }
+                        long sent = System.nanoTime();
+                        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                                .handle((response, error) -> {
+                                    long finished = System.nanoTime();
+                                    String status = error != null ? "error" : String.valueOf(response.statusCode());
+                                    if (error == null && entry.createdAccountId() > 0 && response.statusCode() == 200) {
+                                        try {
+                                            ids.put(entry.createdAccountId(), JSON.readTree(response.body()).get("id").asLong());
+                                        } catch (IOException e) {
+                                            status = "error";
+                                        }
+                                    }
+                                    all.record(eligible, sent, finished, status);
+                                    byEndpoint.computeIfAbsent(endpoint, key -> new LoadDriver.Stats())
+                                            .record(eligible, sent, finished, status);
+                                    if (status.equals(String.valueOf(entry.status()))) {
+                                        matches.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+                                    } else {
+                                        mismatches.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                                                .computeIfAbsent(entry.status() + "->" + status, key -> new LongAdder())
+                                                .increment();
+                                    }
+                                    return null;
+                                });
+                    });
+            // błąd jednego żądania nie może zablokować kolejnych na tym samym koncie
+            CompletableFuture<Void> settled = done.handle((ignored, error) -> null);
+            for (long account : touched) {
+                lastByAccount.put(account, settled);
+            }
+            inFlight.add(settled);
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> config = new TreeMap<>();
+        config.put("log", log.toString());
+        config.put("source", "replay");
+        config.put("speed", String.valueOf(speed));
+        config.put("base-url", baseUrl);
+        Map<String, Object> replayed = report(config, all, new TreeMap<>(byEndpoint), seconds);
+        write(reportFile, replayed);
+        write(capturedFile, capturedReport(entries, log));
+
+        System.out.printf("%d requests replayed in %.1f s (captured span %.1f s, speed %.1fx)%n",
+                entries.size(), seconds, spanSeconds(entries), speed);
+        System.out.println("Latency: captured = server time from the log, replayed = client time from eligibility");
+        LoadDriver.compare(capturedFile, reportFile);
+        System.out.printf("%n%-40s %9s %9s  %s%n", "endpoint", "same", "different", "captured->replayed");
+        for (String endpoint : new TreeMap<>(byEndpoint).keySet()) {
+            LongAdder same = matches.get(endpoint);
+            Map<String, Long> different = new TreeMap<>();
+            mismatches.getOrDefault(endpoint, Map.of()).forEach((change, count) -> different.put(change, count.sum()));
+            System.out.printf("%-40s %9d %9d  %s%n", endpoint, same == null ? 0 : same.sum(),
+                    different.values().stream().mapToLong(Long::longValue).sum(), different.isEmpty() ? "" : different);
+        }
+        System.out.println("Reports written to " + capturedFile + " and " + reportFile);
+        System.exit(0); // wątki klienta HTTP nie są daemonami
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.lsm.LsmEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Historia transakcji: H2 (tabela + indeks account_id, date_time jak w aplikacji) kontra silnik LSM.
+ * Zapis pojedynczej transakcji (autocommit vs WAL + memtabla) oraz odczyt zakresu 30 dni jednego konta.
+ * Oba magazyny są wstępnie wypełnione tymi samymi danymi; zapisy w trakcie pomiaru dokładają nowe wiersze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class TransactionStoreBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int DAYS = 4 * 365;
+
+    @Param({"mem", "file"})
+    public String h2Storage;
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"200000"})
+    public int preloadRows;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement rangeQuery;
+    private LsmEngine lsm;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("minibank-bench");
+        String url = h2Storage.equals("mem")
+                ? "jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1"
+                : "jdbc:h2:file:" + directory.resolve("h2").toAbsolutePath();
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table transactions (id bigint primary key, account_id bigint, " +
+                    "date_time timestamp(6), type varchar(20), amount numeric(38, 2), balance_after numeric(38, 2))");
+            statement.execute("create index idx_transactions_account_date on transactions (account_id, date_time)");
+        }
+        insert = connection.prepareStatement("insert into transactions values (?, ?, ?, ?, ?, ?)");
+        rangeQuery = connection.prepareStatement("select id, account_id, date_time, type, amount, balance_after " +
+                "from transactions where account_id = ? and date_time between ? and ? order by date_time, id");
+        lsm = new LsmEngine(directory.resolve("lsm"), 50_000, 4, 1024);
+
+        connection.setAutoCommit(false);
+        for (int i = 0; i < preloadRows; i++) {
+            TransactionResponse row = randomTransaction();
+            bind(row);
+            insert.addBatch();
+            if (i % 1000 == 999) {
+                insert.executeBatch();
+            }
+            lsm.append(row);
+        }
+        insert.executeBatch();
+        connection.commit();
+        connection.setAutoCommit(true);
+        lsm.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        lsm.close();
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void h2Insert() throws SQLException {
+        bind(randomTransaction());
+        insert.executeUpdate();
+    }
+
+    @Benchmark
+    public void lsmAppend() {
+        lsm.append(randomTransaction());
+    }
+
+    @Benchmark
+    public void h2RangeScan(Blackhole blackhole) throws SQLException {
+        long accountId = ThreadLocalRandom.current().nextLong(accounts);
+        LocalDateTime from = START.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 30));
+        rangeQuery.setLong(1, accountId);
+        rangeQuery.setTimestamp(2, Timestamp.valueOf(from));
+        rangeQuery.setTimestamp(3, Timestamp.valueOf(from.plusDays(30)));
+        try (ResultSet rs = rangeQuery.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getBigDecimal(5));
+            }
+        }
+    }
+
+    @Benchmark
+    public void lsmRangeScan(Blackhole blackhole) {
+        long accountId = ThreadLocalRandom.current().nextLong(accounts);
+        LocalDateTime from = START.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 30));
+        blackhole.consume(lsm.scan(accountId, from, from.plusDays(30)));
+    }
+
+    private TransactionResponse randomTransaction() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransactionResponse row = new TransactionResponse();
+        row.setId(++nextId);
+        row.setAccountId(random.nextLong(accounts));
+        row.setDateTime(START.plusSeconds(random.nextLong(DAYS * 86_400L)));
+        row.setType(random.nextBoolean() ? TransactionType.DEPOSIT : TransactionType.WITHDRAW);
+        row.setAmount(BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2));
+        row.setBalanceAfter(BigDecimal.valueOf(random.nextLong(1, 100_000_000), 2));
+        return row;
+    }
+
+    private void bind(TransactionResponse row) throws SQLException {
+        insert.setLong(1, row.getId());
+        insert.setLong(2, row.getAccountId());
+        insert.setTimestamp(3, Timestamp.valueOf(row.getDateTime()));
+        insert.setString(4, row.getType().name());
+        insert.setBigDecimal(5, row.getAmount());
+        insert.setBigDecimal(6, row.getBalanceAfter());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.minibank2.benchmarks;
+
+import com.example.minibank2.MiniBank2Application;
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountService.transfer na pełnym kontekście aplikacji z H2 w pamięci: blokady wierszy,
+ * zapis obu kont i dwóch transakcji, hooki po commicie (tablica sald, migawka analityczna).
+ * Przelewy idą na przemian w obie strony, żeby salda się nie wyczerpały.
+ * Rozgrzewka jest długa: JIT kompiluje ścieżki Springa, Hibernate i H2 dopiero po kilkudziesięciu
+ * sekundach (na jednym rdzeniu wynik spada z ~30 ms do ~2 ms na przelew).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TransferBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long first;
+    private long second;
+    private boolean forward;
+    private final BigDecimal amount = new BigDecimal("10.00");
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // argumenty wiersza poleceń wygrywają z application.properties zapisanym w jarze aplikacji
+        context = SpringApplication.run(MiniBank2Application.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:transferbench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.minibank2=WARN",
+                "--logging.level.org.hibernate.SQL=OFF",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF");
+        accountService = context.getBean(AccountService.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        first = accountRepository.save(new Account("Bench A", "ACC-BENCH-A", "PLN",
+                new BigDecimal("1000000.00"), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO)).getId();
+        second = accountRepository.save(new Account("Bench B", "ACC-BENCH-B", "PLN",
+                new BigDecimal("1000000.00"), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void transfer() {
+        forward = !forward;
+        if (forward) {
+            accountService.transfer(first, second, amount);
+        } else {
+            accountService.transfer(second, first, amount);
+        }
+    }
+}
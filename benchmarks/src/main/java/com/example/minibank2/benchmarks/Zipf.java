@@ -0,0 +1,30 @@
+package com.example.minibank2.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Rozkład Zipfa po rangach 0..n-1: P(ranga k) ~ 1 / (k+1)^skew. Ranga 0 to najgorętsze konto;
+ * skew 0 daje rozkład jednostajny, ~1 typowy ruch bankowy (kilka kont ma większość operacji).
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double skew) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    // 🔹 Ranga dla liczby losowej z [0, 1) – wyszukiwanie binarne w dystrybuancie
+    int rank(double uniform) {
+        int rank = Arrays.binarySearch(cumulative, uniform);
+        return rank >= 0 ? rank : Math.min(-rank - 1, cumulative.length - 1);
+    }
+}
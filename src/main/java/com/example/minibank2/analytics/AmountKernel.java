@@ -0,0 +1,20 @@
+package com.example.minibank2.analytics;
+
+/**
+ * Agregacja kolumny kwot w groszach (long): liczba, suma, minimum, maksimum i liczba kwot
+ * powyżej progu – w jednym przebiegu. Wariant z kluczem liczy tylko wiersze, w których
+ * kolumna kluczy (np. id konta) jest równa podanej wartości.
+ * Implementacje muszą dawać identyczny wynik; różnią się tylko sposobem przejścia po tablicy.
+ */
+public interface AmountKernel {
+
+    String name();
+
+    Stats stats(long[] amounts, int length, long threshold);
+
+    Stats stats(long[] amounts, long[] keys, long key, int length, long threshold);
+
+    // Dla pustego zbioru min = Long.MAX_VALUE, max = Long.MIN_VALUE
+    record Stats(long count, long sum, long min, long max, long countAbove) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.minibank2.analytics;
+
+// Wybór implementacji: wektorowa tylko gdy moduł jdk.incubator.vector jest załadowany do JVM
+public final class AmountKernels {
+
+    private AmountKernels() {
+    }
+
+    public static boolean vectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    public static AmountKernel select(boolean preferVector) {
+        if (preferVector && vectorAvailable()) {
+            return new VectorAmountKernel(); // klasa ładowana dopiero tutaj, więc bez modułu nic nie pęka
+        }
+        return new ScalarAmountKernel();
+    }
+}
@@ -0,0 +1,618 @@
+package com.example.minibank2.analytics;
+
+import com.example.minibank2.dto.AmountStatsResponse;
+import com.example.minibank2.dto.AnalyticsSnapshotStatsResponse;
+import com.example.minibank2.dto.BalanceBucketResponse;
+import com.example.minibank2.dto.CurrencyTotalResponse;
+import com.example.minibank2.dto.MonthlyAccountsResponse;
+import com.example.minibank2.dto.MonthlyVolumeResponse;
+import com.example.minibank2.dto.OwnerTotalResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/**
+ * Kolumnowa migawka kont i transakcji w pamięci dla zapytań analitycznych (histogramy sald,
+ * sumy per waluta, konta założone w miesiącu, obroty). Każde pole to osobna tablica prymitywów:
+ * kwoty w groszach jako long, miesiące jako int, a currency/status/owner zakodowane słownikowo.
+ * Zapytania przechodzą po kilku tablicach na osobnej puli wątków i nie dotykają tabel OLTP.
+ * Ścieżka zapisu po commicie tylko odkłada zmianę do kolejki; zmiany nanosi wątek analityczny
+ * przed zapytaniem albo gdy kolejka urośnie. Pełne wczytanie z bazy – przy starcie i na żądanie.
+ */
+@Component
+public class AnalyticsSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsSnapshot.class);
+
+    private static final String SELECT_ACCOUNTS =
+            "select id, owner, currency, status, balance_minor, balance_scale, created_at from accounts order by id";
+    private static final String SELECT_TRANSACTIONS =
+            "select t.id, t.account_id, t.date_time, t.type, t.amount, a.currency from transactions t " +
+            "left join accounts a on a.id = t.account_id order by t.id";
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int ANY = -2;                       // brak filtra
+    private static final int NO_MONTH = Integer.MIN_VALUE;
+    private static final int MAX_BUCKETS = 10_000;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ExecutorService executor;
+    private final int drainThreshold;
+    private final AmountKernel amountKernel;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final LongAdder applied = new LongAdder();
+
+    // chronione blokadą
+    private AccountColumns accounts = new AccountColumns();
+    private TransactionColumns transactions = new TransactionColumns();
+    private LocalDateTime rebuiltAt;
+    private long rebuildMillis;
+
+    public AnalyticsSnapshot(DataSource dataSource,
+                             @Value("${minibank.analytics.threads:2}") int threads,
+                             @Value("${minibank.analytics.fetch-size:1000}") int fetchSize,
+                             @Value("${minibank.analytics.drain-threshold:10000}") int drainThreshold,
+                             @Value("${minibank.analytics.vector:true}") boolean vector) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.drainThreshold = drainThreshold;
+        this.amountKernel = AmountKernels.select(vector);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.warn("Analytics snapshot could not be loaded on startup", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // 🔹 Pełne wczytanie kont i transakcji; zapisy w trakcie czekają w kolejce i są nanoszone na końcu
+    public AnalyticsSnapshotStatsResponse rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            // zmiany zakolejkowane do tej pory są już zacommitowane, więc wczytanie z bazy je obejmie
+            int dropped = 0;
+            while (changes.poll() != null) {
+                dropped++;
+            }
+            pending.addAndGet(-dropped);
+
+            AccountColumns loadedAccounts = new AccountColumns();
+            TransactionColumns loadedTransactions = new TransactionColumns();
+            streamingJdbcTemplate.query(SELECT_ACCOUNTS, rs -> {
+                Date createdAt = rs.getDate(7);
+                loadedAccounts.upsert(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        MinorUnits.rescale(rs.getLong(5), rs.getInt(6), 2), createdAt == null ? null : createdAt.toLocalDate());
+            });
+            streamingJdbcTemplate.query(SELECT_TRANSACTIONS, rs -> {
+                loadedTransactions.append(rs.getLong(1), rs.getLong(2),
+                        month(rs.getTimestamp(3).toLocalDateTime().toLocalDate()),
+                        TransactionType.valueOf(rs.getString(4)), cents(rs.getBigDecimal(5)),
+                        loadedAccounts.currencies.encode(rs.getString(6)));
+            });
+            loadedTransactions.loadedSize = loadedTransactions.size;
+
+            accounts = loadedAccounts;
+            transactions = loadedTransactions;
+            rebuiltAt = LocalDateTime.now();
+            rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            drainLocked();
+            logger.info("Analytics snapshot loaded: {} accounts, {} transactions in {} ms",
+                    accounts.size, transactions.size, rebuildMillis);
+            return statsLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 🔹 Zmiana konta (nowe, saldo, właściciel, status) – stan z chwili wywołania, naniesiony po commicie
+    public void onAccountChanged(Account account) {
+        long id = account.getId();
+        String owner = account.getOwner();
+        String currency = account.getCurrency();
+        String status = account.getStatus();
+        long balance = MinorUnits.rescale(account.getBalanceMinor(), account.getBalanceScale(), 2);
+        LocalDate createdAt = account.getCreatedAt();
+        afterCommit((a, t) -> a.upsert(id, owner, currency, status, balance, createdAt));
+    }
+
+    // 🔹 Samo saldo (zadania wsadowe aktualizujące konta przez JDBC); wywoływane po commicie
+    public void onBalanceChanged(long accountId, BigDecimal balance) {
+        long value = cents(balance);
+        afterCommit((a, t) -> a.updateBalance(accountId, value));
+    }
+
+    public void onAccountDeleted(Long accountId) {
+        afterCommit((a, t) -> a.delete(accountId));
+    }
+
+    public void onTransactionRecorded(TransactionResponse transaction) {
+        long id = transaction.getId();
+        long accountId = transaction.getAccountId();
+        int month = month(transaction.getDateTime().toLocalDate());
+        TransactionType type = transaction.getType();
+        long amount = cents(transaction.getAmount());
+        afterCommit((a, t) -> {
+            if (!t.isLoaded(id)) {
+                t.append(id, accountId, month, type, amount, a.currencyOf(accountId));
+            }
+        });
+    }
+
+    // 🔹 Histogram sald kont: przedziały o stałej szerokości, od najniższego do najwyższego salda
+    public CompletableFuture<List<BalanceBucketResponse>> balanceHistogram(BigDecimal bucketWidth,
+                                                                          String currency, String status) {
+        long width = cents(bucketWidth);
+        if (width <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        return query((a, t) -> {
+            int currencyFilter = filter(a.currencies, currency);
+            int statusFilter = filter(a.statuses, status);
+            long minBucket = Long.MAX_VALUE;
+            long maxBucket = Long.MIN_VALUE;
+            for (int row = 0; row < a.size; row++) {
+                if (a.matches(row, currencyFilter, statusFilter)) {
+                    long bucket = Math.floorDiv(a.balances[row], width);
+                    minBucket = Math.min(minBucket, bucket);
+                    maxBucket = Math.max(maxBucket, bucket);
+                }
+            }
+            if (minBucket > maxBucket) {
+                return List.of();
+            }
+            if (maxBucket - minBucket >= MAX_BUCKETS) {
+                throw new IllegalArgumentException("Bucket width too small: more than " + MAX_BUCKETS + " buckets");
+            }
+            long[] counts = new long[(int) (maxBucket - minBucket + 1)];
+            for (int row = 0; row < a.size; row++) {
+                if (a.matches(row, currencyFilter, statusFilter)) {
+                    counts[(int) (Math.floorDiv(a.balances[row], width) - minBucket)]++;
+                }
+            }
+            List<BalanceBucketResponse> result = new ArrayList<>(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                BalanceBucketResponse bucket = new BalanceBucketResponse();
+                bucket.setFrom(money((minBucket + i) * width));
+                bucket.setTo(money((minBucket + i + 1) * width));
+                bucket.setAccounts(counts[i]);
+                result.add(bucket);
+            }
+            return result;
+        });
+    }
+
+    // 🔹 Liczba kont i suma sald per waluta
+    public CompletableFuture<List<CurrencyTotalResponse>> totalsByCurrency(String status) {
+        return query((a, t) -> {
+            int statusFilter = filter(a.statuses, status);
+            int slots = a.currencies.size() + 1; // ostatni slot = brak waluty
+            long[] counts = new long[slots];
+            long[] sums = new long[slots];
+            for (int row = 0; row < a.size; row++) {
+                if (a.matches(row, ANY, statusFilter)) {
+                    int slot = a.currencyCodes[row] == Dictionary.NULL ? slots - 1 : a.currencyCodes[row];
+                    counts[slot]++;
+                    sums[slot] += a.balances[row];
+                }
+            }
+            List<CurrencyTotalResponse> result = new ArrayList<>();
+            for (int slot = 0; slot < slots; slot++) {
+                if (counts[slot] == 0) {
+                    continue;
+                }
+                CurrencyTotalResponse total = new CurrencyTotalResponse();
+                total.setCurrency(slot == slots - 1 ? null : a.currencies.decode(slot));
+                total.setAccounts(counts[slot]);
+                total.setTotalBalance(money(sums[slot]));
+                total.setAverageBalance(money(sums[slot]).divide(BigDecimal.valueOf(counts[slot]), 2, RoundingMode.HALF_UP));
+                result.add(total);
+            }
+            result.sort(Comparator.comparing(CurrencyTotalResponse::getCurrency,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
+        });
+    }
+
+    // 🔹 Liczba kont założonych w kolejnych miesiącach
+    public CompletableFuture<List<MonthlyAccountsResponse>> accountsCreatedPerMonth(String currency) {
+        return query((a, t) -> {
+            int currencyFilter = filter(a.currencies, currency);
+            Map<Integer, long[]> counts = new HashMap<>();
+            for (int row = 0; row < a.size; row++) {
+                if (a.createdMonths[row] != NO_MONTH && a.matches(row, currencyFilter, ANY)) {
+                    counts.computeIfAbsent(a.createdMonths[row], month -> new long[1])[0]++;
+                }
+            }
+            List<MonthlyAccountsResponse> result = new ArrayList<>(counts.size());
+            counts.forEach((month, count) -> {
+                MonthlyAccountsResponse monthly = new MonthlyAccountsResponse();
+                monthly.setMonth(yearMonth(month));
+                monthly.setAccounts(count[0]);
+                result.add(monthly);
+            });
+            result.sort(Comparator.comparing(MonthlyAccountsResponse::getMonth));
+            return result;
+        });
+    }
+
+    // 🔹 Obroty per miesiąc i typ transakcji (liczba, suma), opcjonalnie dla jednej waluty
+    public CompletableFuture<List<MonthlyVolumeResponse>> transactionVolumePerMonth(String currency) {
+        return query((a, t) -> {
+            int currencyFilter = filter(a.currencies, currency);
+            Map<Integer, long[]> totals = new HashMap<>(); // miesiąc -> [liczba, suma] per typ
+            for (int row = 0; row < t.size; row++) {
+                if (currencyFilter != ANY && t.currencyCodes[row] != currencyFilter) {
+                    continue;
+                }
+                long[] month = totals.computeIfAbsent(t.months[row], m -> new long[TYPES.length * 2]);
+                month[t.types[row] * 2]++;
+                month[t.types[row] * 2 + 1] += t.amounts[row];
+            }
+            List<MonthlyVolumeResponse> result = new ArrayList<>();
+            totals.forEach((month, values) -> {
+                for (TransactionType type : TYPES) {
+                    if (values[type.ordinal() * 2] == 0) {
+                        continue;
+                    }
+                    MonthlyVolumeResponse volume = new MonthlyVolumeResponse();
+                    volume.setMonth(yearMonth(month));
+                    volume.setType(type);
+                    volume.setTransactions(values[type.ordinal() * 2]);
+                    volume.setTotal(money(values[type.ordinal() * 2 + 1]));
+                    result.add(volume);
+                }
+            });
+            result.sort(Comparator.comparing(MonthlyVolumeResponse::getMonth).thenComparing(MonthlyVolumeResponse::getType));
+            return result;
+        });
+    }
+
+    // 🔹 Liczba, suma, min/max i liczba kwot powyżej progu – po wszystkich transakcjach albo jednego konta
+    public CompletableFuture<AmountStatsResponse> amountStats(Long accountId, BigDecimal above) {
+        long threshold = above == null ? Long.MAX_VALUE : cents(above);
+        return query((a, t) -> {
+            AmountKernel.Stats stats = accountId == null
+                    ? amountKernel.stats(t.amounts, t.size, threshold)
+                    : amountKernel.stats(t.amounts, t.accountIds, accountId, t.size, threshold);
+            AmountStatsResponse response = new AmountStatsResponse();
+            response.setAccountId(accountId);
+            response.setTransactions(stats.count());
+            response.setTotal(money(stats.sum()));
+            response.setMin(stats.count() == 0 ? null : money(stats.min()));
+            response.setMax(stats.count() == 0 ? null : money(stats.max()));
+            if (above != null) {
+                response.setAbove(above);
+                response.setTransactionsAbove(stats.countAbove());
+            }
+            response.setKernel(amountKernel.name());
+            return response;
+        });
+    }
+
+    // 🔹 Właściciele z największą sumą sald
+    public CompletableFuture<List<OwnerTotalResponse>> topOwners(int limit, String currency) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return query((a, t) -> {
+            int currencyFilter = filter(a.currencies, currency);
+            long[] counts = new long[a.owners.size()];
+            long[] sums = new long[a.owners.size()];
+            for (int row = 0; row < a.size; row++) {
+                if (a.ownerCodes[row] != Dictionary.NULL && a.matches(row, currencyFilter, ANY)) {
+                    counts[a.ownerCodes[row]]++;
+                    sums[a.ownerCodes[row]] += a.balances[row];
+                }
+            }
+            List<Integer> owners = new ArrayList<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    owners.add(code);
+                }
+            }
+            owners.sort(Comparator.comparingLong((Integer code) -> sums[code]).reversed());
+            return owners.stream().limit(limit).map(code -> {
+                OwnerTotalResponse owner = new OwnerTotalResponse();
+                owner.setOwner(a.owners.decode(code));
+                owner.setAccounts(counts[code]);
+                owner.setTotalBalance(money(sums[code]));
+                return owner;
+            }).toList();
+        });
+    }
+
+    public AnalyticsSnapshotStatsResponse getStats() {
+        lock.readLock().lock();
+        try {
+            return statsLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private AnalyticsSnapshotStatsResponse statsLocked() {
+        AnalyticsSnapshotStatsResponse stats = new AnalyticsSnapshotStatsResponse();
+        stats.setAccounts(accounts.size - accounts.deletedCount);
+        stats.setDeletedAccounts(accounts.deletedCount);
+        stats.setTransactions(transactions.size);
+        stats.setCurrencies(accounts.currencies.size());
+        stats.setStatuses(accounts.statuses.size());
+        stats.setOwners(accounts.owners.size());
+        stats.setPendingChanges(pending.get());
+        stats.setAppliedChanges(applied.sum());
+        stats.setEstimatedBytes(accounts.estimatedBytes() + transactions.estimatedBytes());
+        stats.setRebuiltAt(rebuiltAt);
+        stats.setRebuildMillis(rebuildMillis);
+        stats.setAmountKernel(amountKernel.name());
+        return stats;
+    }
+
+    // 🔹 Zapytanie na puli analitycznej: najpierw naniesienie zaległych zmian, potem odczyt pod blokadą do odczytu
+    private <T> CompletableFuture<T> query(BiFunction<AccountColumns, TransactionColumns, T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (pending.get() > 0) {
+                drain();
+            }
+            lock.readLock().lock();
+            try {
+                return query.apply(accounts, transactions);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }, executor);
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(change);
+                }
+            });
+        } else {
+            enqueue(change);
+        }
+    }
+
+    // Wątek zapisu nie czeka na blokadę migawki – przy dużej kolejce zleca naniesienie puli analitycznej
+    private void enqueue(Change change) {
+        changes.add(change);
+        if (pending.incrementAndGet() >= drainThreshold && drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        drain();
+                    } finally {
+                        drainScheduled.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false); // zamykanie aplikacji
+            }
+        }
+    }
+
+    private void drain() {
+        lock.writeLock().lock();
+        try {
+            drainLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void drainLocked() {
+        Change change;
+        while ((change = changes.poll()) != null) {
+            change.applyTo(accounts, transactions);
+            pending.decrementAndGet();
+            applied.increment();
+        }
+    }
+
+    private static int filter(Dictionary dictionary, String value) {
+        if (value == null) {
+            return ANY;
+        }
+        return dictionary.lookup(value); // Dictionary.UNKNOWN nie pasuje do żadnego wiersza
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static int month(LocalDate date) {
+        return date == null ? NO_MONTH : date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static YearMonth yearMonth(int month) {
+        return YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+    }
+
+    private interface Change {
+        void applyTo(AccountColumns accounts, TransactionColumns transactions);
+    }
+
+    /**
+     * Kolumny kont. Usunięte konto zostaje w tablicach jako wiersz oznaczony flagą
+     * (transakcje nadal wskazują jego walutę); miejsce odzyskuje dopiero przebudowa.
+     */
+    private static final class AccountColumns {
+        final Dictionary owners = new Dictionary();
+        final Dictionary currencies = new Dictionary();
+        final Dictionary statuses = new Dictionary();
+        final Map<Long, Integer> rowById = new HashMap<>();
+
+        long[] ids = new long[1024];
+        long[] balances = new long[1024];
+        int[] createdMonths = new int[1024];
+        int[] currencyCodes = new int[1024];
+        int[] statusCodes = new int[1024];
+        int[] ownerCodes = new int[1024];
+        boolean[] deleted = new boolean[1024];
+        int size;
+        int deletedCount;
+
+        void upsert(long id, String owner, String currency, String status, long balance, LocalDate createdAt) {
+            Integer row = rowById.get(id);
+            if (row == null) {
+                if (size == ids.length) {
+                    grow();
+                }
+                row = size++;
+                rowById.put(id, row);
+                ids[row] = id;
+            } else if (deleted[row]) {
+                return; // spóźniona zmiana usuniętego konta
+            }
+            ownerCodes[row] = owners.encode(owner);
+            currencyCodes[row] = currencies.encode(currency);
+            statusCodes[row] = statuses.encode(status);
+            balances[row] = balance;
+            createdMonths[row] = month(createdAt);
+        }
+
+        void updateBalance(long id, long balance) {
+            Integer row = rowById.get(id);
+            if (row != null) {
+                balances[row] = balance;
+            }
+        }
+
+        void delete(long id) {
+            Integer row = rowById.get(id);
+            if (row != null && !deleted[row]) {
+                deleted[row] = true;
+                deletedCount++;
+            }
+        }
+
+        int currencyOf(long accountId) {
+            Integer row = rowById.get(accountId);
+            return row == null ? Dictionary.NULL : currencyCodes[row];
+        }
+
+        boolean matches(int row, int currencyFilter, int statusFilter) {
+            return !deleted[row]
+                    && (currencyFilter == ANY || currencyCodes[row] == currencyFilter)
+                    && (statusFilter == ANY || statusCodes[row] == statusFilter);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            createdMonths = Arrays.copyOf(createdMonths, capacity);
+            currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            ownerCodes = Arrays.copyOf(ownerCodes, capacity);
+            deleted = Arrays.copyOf(deleted, capacity);
+        }
+
+        long estimatedBytes() {
+            return (long) ids.length * (8 + 8 + 4 + 4 + 4 + 4 + 1) + rowById.size() * 48L;
+        }
+    }
+
+    /**
+     * Kolumny transakcji (tylko dopisywane). Wiersze wczytane przy przebudowie są posortowane po id,
+     * więc zmianę z kolejki, która już była w bazie w chwili wczytania, rozpoznajemy wyszukiwaniem binarnym.
+     */
+    private static final class TransactionColumns {
+        long[] ids = new long[4096];
+        long[] accountIds = new long[4096];
+        int[] months = new int[4096];
+        byte[] types = new byte[4096];
+        long[] amounts = new long[4096];
+        int[] currencyCodes = new int[4096];
+        int size;
+        int loadedSize;
+
+        void append(long id, long accountId, int month, TransactionType type, long amount, int currency) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                months = Arrays.copyOf(months, capacity);
+                types = Arrays.copyOf(types, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+            }
+            ids[size] = id;
+            accountIds[size] = accountId;
+            months[size] = month;
+            types[size] = (byte) type.ordinal();
+            amounts[size] = amount;
+            currencyCodes[size] = currency;
+            size++;
+        }
+
+        boolean isLoaded(long id) {
+            return Arrays.binarySearch(ids, 0, loadedSize, id) >= 0;
+        }
+
+        long estimatedBytes() {
+            return (long) ids.length * (8 + 8 + 4 + 1 + 8 + 4);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.minibank2.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Słownik wartości tekstowych kolumny: każda różna wartość dostaje kolejny kod int,
+ * a kolumna w migawce trzyma już tylko kody. Null ma stały kod -1.
+ * Słownik tylko rośnie – kody raz nadane są ważne do przebudowy migawki.
+ */
+final class Dictionary {
+
+    static final int NULL = -1;
+    static final int UNKNOWN = Integer.MIN_VALUE; // wartości nie ma w słowniku
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    // 🔹 Kod istniejącej wartości bez dopisywania jej do słownika (filtry zapytań)
+    int lookup(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        return codes.getOrDefault(value, UNKNOWN);
+    }
+
+    String decode(int code) {
+        return code == NULL ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
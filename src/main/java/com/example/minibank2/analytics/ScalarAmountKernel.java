@@ -0,0 +1,51 @@
+package com.example.minibank2.analytics;
+
+// Zwykła pętla po tablicy – punkt odniesienia i wariant zapasowy, gdy Vector API jest niedostępne
+public final class ScalarAmountKernel implements AmountKernel {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public Stats stats(long[] amounts, int length, long threshold) {
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long above = 0;
+        for (int i = 0; i < length; i++) {
+            long amount = amounts[i];
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+            if (amount > threshold) {
+                above++;
+            }
+        }
+        return new Stats(length, sum, min, max, above);
+    }
+
+    @Override
+    public Stats stats(long[] amounts, long[] keys, long key, int length, long threshold) {
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long above = 0;
+        for (int i = 0; i < length; i++) {
+            if (keys[i] != key) {
+                continue;
+            }
+            long amount = amounts[i];
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+            if (amount > threshold) {
+                above++;
+            }
+        }
+        return new Stats(count, sum, min, max, above);
+    }
+}
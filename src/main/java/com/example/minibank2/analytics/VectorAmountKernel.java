@@ -0,0 +1,92 @@
+package com.example.minibank2.analytics;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Ta sama agregacja na Vector API (jdk.incubator.vector): kilka kwot na raz w rejestrze SIMD
+ * o preferowanej szerokości procesora, akumulatory per linia redukowane dopiero na końcu.
+ * Końcówka tablicy krótsza niż jeden wektor liczona jest skalarnie.
+ * Wymaga --add-modules jdk.incubator.vector; bez modułu używamy ScalarAmountKernel (patrz AmountKernels).
+ */
+public final class VectorAmountKernel implements AmountKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public Stats stats(long[] amounts, int length, long threshold) {
+        LongVector sums = LongVector.zero(SPECIES);
+        LongVector mins = LongVector.broadcast(SPECIES, Long.MAX_VALUE);
+        LongVector maxes = LongVector.broadcast(SPECIES, Long.MIN_VALUE);
+        long above = 0;
+        int i = 0;
+        int upper = SPECIES.loopBound(length);
+        for (; i < upper; i += SPECIES.length()) {
+            LongVector values = LongVector.fromArray(SPECIES, amounts, i);
+            sums = sums.add(values);
+            mins = mins.min(values);
+            maxes = maxes.max(values);
+            above += values.compare(VectorOperators.GT, threshold).trueCount();
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        long max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            long amount = amounts[i];
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+            if (amount > threshold) {
+                above++;
+            }
+        }
+        return new Stats(length, sum, min, max, above);
+    }
+
+    @Override
+    public Stats stats(long[] amounts, long[] keys, long key, int length, long threshold) {
+        LongVector sums = LongVector.zero(SPECIES);
+        LongVector mins = LongVector.broadcast(SPECIES, Long.MAX_VALUE);
+        LongVector maxes = LongVector.broadcast(SPECIES, Long.MIN_VALUE);
+        long count = 0;
+        long above = 0;
+        int i = 0;
+        int upper = SPECIES.loopBound(length);
+        for (; i < upper; i += SPECIES.length()) {
+            VectorMask<Long> selected = LongVector.fromArray(SPECIES, keys, i).compare(VectorOperators.EQ, key);
+            if (!selected.anyTrue()) {
+                continue;
+            }
+            LongVector values = LongVector.fromArray(SPECIES, amounts, i);
+            sums = sums.add(values, selected);
+            mins = mins.lanewise(VectorOperators.MIN, values, selected);
+            maxes = maxes.lanewise(VectorOperators.MAX, values, selected);
+            count += selected.trueCount();
+            above += values.compare(VectorOperators.GT, threshold).and(selected).trueCount();
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        long max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            if (keys[i] != key) {
+                continue;
+            }
+            long amount = amounts[i];
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+            if (amount > threshold) {
+                above++;
+            }
+        }
+        return new Stats(count, sum, min, max, above);
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.minibank2.archive;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Format pliku segmentu archiwum (niezmienny, kolumnowy, kompresowany).
+ * <pre>
+ * nagłówek: MAGIC, wersja, słownik typów transakcji (nazwy)
+ * bloki:    każdy blok to do N wierszy zapisanych kolumnami (account_id, id, sekundy, nanosekundy,
+ *           typ, kwota, saldo po) – liczby delta + varint – skompresowane Deflate;
+ *           od wersji 2 kwoty mają własną kolumnę skali (JPY 0, PLN 2, KWD 3 miejsca),
+ *           wersja 1 zapisywała wszystko w groszach (skala 2)
+ * indeks:   rzadki indeks bloków: offset, długość, liczba wierszy, min/max account_id, min/max data
+ * stopka:   offset indeksu, MAGIC
+ * </pre>
+ * Wiersze są posortowane po (account_id, date_time, id), więc do zapytania o jedno konto
+ * i zakres dat wystarczy rozpakować tylko bloki wskazane przez indeks.
+ * Ten sam format służy za posortowane pliki (runy) magazynu LSM.
+ */
+public final class SegmentFormat {
+
+    static final int MAGIC = 0x4D425347; // "MBSG"
+    static final byte VERSION = 2;
+    static final byte VERSION_FIXED_SCALE = 1; // segmenty sprzed kolumny skali – czytamy je nadal
+    static final int MONEY_SCALE = 2;          // skala kwot w segmentach wersji 1
+
+    private SegmentFormat() {}
+
+    public record BlockEntry(long offset, int length, int rows,
+                      long minAccountId, long maxAccountId, long minEpochSecond, long maxEpochSecond) {
+
+        public boolean mayContain(long accountId, long fromSecond, long toSecond) {
+            return accountId >= minAccountId && accountId <= maxAccountId
+                    && maxEpochSecond >= fromSecond && minEpochSecond <= toSecond;
+        }
+    }
+
+    public record SegmentIndex(int version, List<String> typeDictionary, List<BlockEntry> blocks) {
+
+        public long rows() {
+            return blocks.stream().mapToLong(BlockEntry::rows).sum();
+        }
+    }
+
+    /**
+     * Zapis strumieniowy: wiersze (już posortowane) buforujemy tylko do rozmiaru jednego bloku.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final int blockRows;
+        private final List<String> dictionary;
+        private final List<BlockEntry> blocks = new ArrayList<>();
+        private final List<TransactionResponse> pending = new ArrayList<>();
+        private long position;
+        private long rows;
+
+        public Writer(Path path, int blockRows) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.blockRows = blockRows;
+            this.dictionary = new ArrayList<>();
+            for (TransactionType type : TransactionType.values()) {
+                dictionary.add(type.name());
+            }
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(dictionary.size());
+            for (String name : dictionary) {
+                out.writeUTF(name);
+            }
+            write(header.toByteArray());
+        }
+
+        public void add(TransactionResponse row) throws IOException {
+            pending.add(row);
+            rows++;
+            if (pending.size() == blockRows) {
+                flushBlock();
+            }
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public long bytes() {
+            return position;
+        }
+
+        public void finish() throws IOException {
+            flushBlock();
+            long indexOffset = position;
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(index);
+            out.writeInt(blocks.size());
+            for (BlockEntry block : blocks) {
+                out.writeLong(block.offset());
+                out.writeInt(block.length());
+                out.writeInt(block.rows());
+                out.writeLong(block.minAccountId());
+                out.writeLong(block.maxAccountId());
+                out.writeLong(block.minEpochSecond());
+                out.writeLong(block.maxEpochSecond());
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+            write(index.toByteArray());
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void flushBlock() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(compressed))) {
+                writeColumns(out, pending, dictionary);
+            }
+            long minSecond = Long.MAX_VALUE;
+            long maxSecond = Long.MIN_VALUE;
+            for (TransactionResponse row : pending) {
+                long second = epochSecond(row.getDateTime());
+                minSecond = Math.min(minSecond, second);
+                maxSecond = Math.max(maxSecond, second);
+            }
+            byte[] bytes = compressed.toByteArray();
+            blocks.add(new BlockEntry(position, bytes.length, pending.size(),
+                    pending.get(0).getAccountId(), pending.get(pending.size() - 1).getAccountId(), minSecond, maxSecond));
+            write(bytes);
+            pending.clear();
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+    }
+
+    public static SegmentIndex readIndex(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(read(channel, size - 12, 12)));
+            long indexOffset = trailer.readLong();
+            if (trailer.readInt() != MAGIC) {
+                throw new IOException("Not a transaction segment (bad trailer): " + path);
+            }
+
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(read(channel, 0, (int) Math.min(size, 4096))));
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Unsupported transaction segment: " + path);
+            }
+            byte version = header.readByte();
+            if (version != VERSION && version != VERSION_FIXED_SCALE) {
+                throw new IOException("Unsupported transaction segment version " + version + ": " + path);
+            }
+            int dictionarySize = header.readUnsignedByte();
+            List<String> dictionary = new ArrayList<>(dictionarySize);
+            for (int i = 0; i < dictionarySize; i++) {
+                dictionary.add(header.readUTF());
+            }
+
+            DataInputStream index = new DataInputStream(new ByteArrayInputStream(
+                    read(channel, indexOffset, (int) (size - 12 - indexOffset))));
+            int blockCount = index.readInt();
+            List<BlockEntry> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new BlockEntry(index.readLong(), index.readInt(), index.readInt(),
+                        index.readLong(), index.readLong(), index.readLong(), index.readLong()));
+            }
+            return new SegmentIndex(version, List.copyOf(dictionary), List.copyOf(blocks));
+        }
+    }
+
+    public static List<TransactionResponse> readBlock(Path path, SegmentIndex index, BlockEntry block) throws IOException {
+        byte[] compressed;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            compressed = read(channel, block.offset(), block.length());
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            return readColumns(in, index.version(), index.typeDictionary());
+        }
+    }
+
+    // 🔹 Kolumny bloku: każda kolumna w całości, liczby jako delty w varint (dobrze się kompresują)
+    private static void writeColumns(DataOutputStream out, List<TransactionResponse> rows, List<String> dictionary)
+            throws IOException {
+        out.writeInt(rows.size());
+        long previous = 0;
+        for (TransactionResponse row : rows) {
+            writeVarLong(out, row.getAccountId() - previous);
+            previous = row.getAccountId();
+        }
+        previous = 0;
+        for (TransactionResponse row : rows) {
+            writeVarLong(out, zigZag(row.getId() - previous));
+            previous = row.getId();
+        }
+        previous = 0;
+        for (TransactionResponse row : rows) {
+            long second = epochSecond(row.getDateTime());
+            writeVarLong(out, zigZag(second - previous));
+            previous = second;
+        }
+        for (TransactionResponse row : rows) {
+            writeVarLong(out, row.getDateTime().getNano());
+        }
+        for (TransactionResponse row : rows) {
+            out.writeByte(dictionary.indexOf(row.getType().name()));
+        }
+        for (TransactionResponse row : rows) {
+            out.writeByte(moneyScale(row.getAmount()));
+        }
+        for (TransactionResponse row : rows) {
+            writeVarLong(out, zigZag(unscaled(row.getAmount())));
+        }
+        for (TransactionResponse row : rows) {
+            out.writeBoolean(row.getBalanceAfter() != null);
+        }
+        for (TransactionResponse row : rows) {
+            if (row.getBalanceAfter() != null) {
+                out.writeByte(moneyScale(row.getBalanceAfter()));
+            }
+        }
+        for (TransactionResponse row : rows) {
+            if (row.getBalanceAfter() != null) {
+                writeVarLong(out, zigZag(unscaled(row.getBalanceAfter())));
+            }
+        }
+    }
+
+    private static List<TransactionResponse> readColumns(DataInputStream in, int version, List<String> dictionary)
+            throws IOException {
+        int count = in.readInt();
+        List<TransactionResponse> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new TransactionResponse());
+        }
+        long previous = 0;
+        for (TransactionResponse row : rows) {
+            previous += readVarLong(in);
+            row.setAccountId(previous);
+        }
+        previous = 0;
+        for (TransactionResponse row : rows) {
+            previous += unZigZag(readVarLong(in));
+            row.setId(previous);
+        }
+        long[] seconds = new long[count];
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong(in));
+            seconds[i] = previous;
+        }
+        for (int i = 0; i < count; i++) {
+            rows.get(i).setDateTime(LocalDateTime.ofEpochSecond(seconds[i], (int) readVarLong(in), ZoneOffset.UTC));
+        }
+        for (TransactionResponse row : rows) {
+            row.setType(TransactionType.valueOf(dictionary.get(in.readUnsignedByte())));
+        }
+        int[] amountScales = readScales(in, version, count, null);
+        for (int i = 0; i < count; i++) {
+            rows.get(i).setAmount(BigDecimal.valueOf(unZigZag(readVarLong(in)), amountScales[i]));
+        }
+        boolean[] hasBalance = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            hasBalance[i] = in.readBoolean();
+        }
+        int[] balanceScales = readScales(in, version, count, hasBalance);
+        for (int i = 0; i < count; i++) {
+            if (hasBalance[i]) {
+                rows.get(i).setBalanceAfter(BigDecimal.valueOf(unZigZag(readVarLong(in)), balanceScales[i]));
+            }
+        }
+        return rows;
+    }
+
+    public static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // kwoty przechowujemy jako liczbę jednostek podrzędnych w skali samej kwoty (bez zer z kolumny bazy)
+    private static int moneyScale(BigDecimal value) {
+        return MinorUnits.normalize(value).scale();
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return MinorUnits.normalize(value).unscaledValue().longValueExact();
+    }
+
+    // skale kwot wiersza (present == null: wszystkie wiersze); w wersji 1 zawsze MONEY_SCALE
+    private static int[] readScales(DataInputStream in, int version, int count, boolean[] present) throws IOException {
+        int[] scales = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (present == null || present[i]) {
+                scales[i] = version == VERSION_FIXED_SCALE ? MONEY_SCALE : in.readUnsignedByte();
+            }
+        }
+        return scales;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated segment block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in segment block");
+    }
+
+    private static byte[] read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment file");
+            }
+        }
+        return buffer.array();
+    }
+}
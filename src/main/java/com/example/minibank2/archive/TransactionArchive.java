@@ -0,0 +1,285 @@
+package com.example.minibank2.archive;
+
+import com.example.minibank2.dto.TransactionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Zimna warstwa historii transakcji: niezmienne pliki segmentów na dysku lokalnym,
+ * jeden na miesiąc i zakres id kont ({yyyy-MM}_{od}_{do}.seg).
+ * Katalog segmentów trzymamy w pamięci; rzadki indeks bloków segmentu wczytujemy przy pierwszym
+ * użyciu. Zapytanie otwiera tylko segmenty, których miesiąc i zakres kont pokrywają się z zapytaniem,
+ * i rozpakowuje tylko bloki wskazane przez indeks. Przy wyłączonym archiwum wszystkie zapytania
+ * zwracają pustą listę.
+ */
+@Component
+public class TransactionArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchive.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{4}-\\d{2})_(\\d+)_(\\d+)\\.seg");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockRows;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private final LongAdder segmentsOpened = new LongAdder();
+    private final LongAdder blocksRead = new LongAdder();
+
+    public TransactionArchive(@Value("${minibank.archive.enabled:false}") boolean enabled,
+                              @Value("${minibank.archive.dir:archive}") String directory,
+                              @Value("${minibank.archive.block-rows:1024}") int blockRows) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.blockRows = blockRows;
+        if (enabled) {
+            loadCatalog();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 🔹 Czy archiwum może zawierać transakcje konta (sprawdzane po zakresach i indeksach segmentów)
+    public boolean mayContain(Long accountId) {
+        for (Segment segment : segments) {
+            if (segment.covers(accountId) && segment.index().blocks().stream()
+                    .anyMatch(block -> block.mayContain(accountId, Long.MIN_VALUE, Long.MAX_VALUE))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 🔹 Zarchiwizowane transakcje konta w zakresie dat (null = bez ograniczenia), rosnąco po dacie
+    public List<TransactionResponse> find(Long accountId, LocalDateTime from, LocalDateTime to) {
+        if (!enabled || segments.isEmpty()) {
+            return List.of();
+        }
+        long fromSecond = from == null ? Long.MIN_VALUE : SegmentFormat.epochSecond(from);
+        long toSecond = to == null ? Long.MAX_VALUE : SegmentFormat.epochSecond(to);
+        List<TransactionResponse> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (!segment.covers(accountId) || !segment.overlaps(from, to)) {
+                continue;
+            }
+            segmentsOpened.increment();
+            SegmentFormat.SegmentIndex index = segment.index();
+            for (SegmentFormat.BlockEntry block : index.blocks()) {
+                if (!block.mayContain(accountId, fromSecond, toSecond)) {
+                    continue;
+                }
+                blocksRead.increment();
+                for (TransactionResponse row : readBlock(segment, index, block)) {
+                    if (row.getAccountId().equals(accountId)
+                            && (from == null || !row.getDateTime().isBefore(from))
+                            && (to == null || !row.getDateTime().isAfter(to))) {
+                        result.add(row);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparing(TransactionResponse::getDateTime).thenComparing(TransactionResponse::getId));
+        return result;
+    }
+
+    // 🔹 Ostatnia zarchiwizowana transakcja konta nie późniejsza niż podany moment
+    public Optional<TransactionResponse> findLastAtOrBefore(Long accountId, LocalDateTime at) {
+        List<TransactionResponse> rows = find(accountId, null, at);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(rows.size() - 1));
+    }
+
+    public boolean hasSegment(YearMonth month, long rangeStart, long rangeEnd) {
+        return Files.exists(directory.resolve(segmentName(month, rangeStart, rangeEnd)));
+    }
+
+    // 🔹 Id transakcji zapisanych w segmencie (do dokończenia przerwanego archiwizowania)
+    public List<Long> transactionIds(YearMonth month, long rangeStart, long rangeEnd) {
+        Segment segment = new Segment(month, rangeStart, rangeEnd, directory.resolve(segmentName(month, rangeStart, rangeEnd)));
+        SegmentFormat.SegmentIndex index = segment.index();
+        List<Long> ids = new ArrayList<>();
+        for (SegmentFormat.BlockEntry block : index.blocks()) {
+            readBlock(segment, index, block).forEach(row -> ids.add(row.getId()));
+        }
+        return ids;
+    }
+
+    /**
+     * Nowy segment: zapis do pliku tymczasowego i atomowe przeniesienie pod docelową nazwę,
+     * więc czytelnicy nigdy nie widzą niedokończonego pliku.
+     */
+    public SegmentBuilder newSegment(YearMonth month, long rangeStart, long rangeEnd) {
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve(segmentName(month, rangeStart, rangeEnd));
+            Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            Files.delete(temp); // Writer tworzy plik sam (CREATE_NEW)
+            return new SegmentBuilder(new Segment(month, rangeStart, rangeEnd, target), temp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create archive segment", e);
+        }
+    }
+
+    public int getSegmentCount() { return segments.size(); }
+    public long getSegmentsOpened() { return segmentsOpened.sum(); }
+    public long getBlocksRead() { return blocksRead.sum(); }
+
+    public long getArchivedRows() {
+        return segments.stream().mapToLong(segment -> segment.index().rows()).sum();
+    }
+
+    public long getArchivedBytes() {
+        return segments.stream().mapToLong(segment -> {
+            try {
+                return Files.size(segment.path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }).sum();
+    }
+
+    private List<TransactionResponse> readBlock(Segment segment, SegmentFormat.SegmentIndex index,
+                                                SegmentFormat.BlockEntry block) {
+        try {
+            return SegmentFormat.readBlock(segment.path, index, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive segment " + segment.path, e);
+        }
+    }
+
+    private void loadCatalog() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(YearMonth.parse(matcher.group(1)),
+                            Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3)), file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list archive directory " + directory, e);
+        }
+        logger.info("Transaction archive: {} segments in {}", segments.size(), directory.toAbsolutePath());
+    }
+
+    private static String segmentName(YearMonth month, long rangeStart, long rangeEnd) {
+        return month + "_" + rangeStart + "_" + rangeEnd + ".seg";
+    }
+
+    public final class SegmentBuilder implements AutoCloseable {
+        private final Segment segment;
+        private final Path temp;
+        private final SegmentFormat.Writer writer;
+        private boolean published;
+
+        private SegmentBuilder(Segment segment, Path temp) throws IOException {
+            this.segment = segment;
+            this.temp = temp;
+            this.writer = new SegmentFormat.Writer(temp, blockRows);
+        }
+
+        // wiersze muszą przychodzić posortowane po (account_id, date_time, id)
+        public void add(TransactionResponse row) {
+            try {
+                writer.add(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive segment " + segment.path, e);
+            }
+        }
+
+        public long rows() { return writer.rows(); }
+        public long bytes() { return writer.bytes(); }
+
+        public void publish() {
+            try {
+                writer.finish();
+                writer.close();
+                try {
+                    Files.move(temp, segment.path, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, segment.path);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot publish archive segment " + segment.path, e);
+            }
+            published = true;
+            segments.add(segment);
+        }
+
+        @Override
+        public void close() {
+            if (published) {
+                return;
+            }
+            try {
+                writer.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Cannot remove unfinished segment {}", temp, e);
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final YearMonth month;
+        private final long rangeStart; // włącznie
+        private final long rangeEnd;   // wyłącznie
+        private final Path path;
+        private volatile SegmentFormat.SegmentIndex index;
+
+        Segment(YearMonth month, long rangeStart, long rangeEnd, Path path) {
+            this.month = month;
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.path = path;
+        }
+
+        boolean covers(long accountId) {
+            return accountId >= rangeStart && accountId < rangeEnd;
+        }
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+            LocalDateTime nextMonth = month.plusMonths(1).atDay(1).atStartOfDay();
+            return (from == null || from.isBefore(nextMonth)) && (to == null || !to.isBefore(monthStart));
+        }
+
+        SegmentFormat.SegmentIndex index() {
+            SegmentFormat.SegmentIndex loaded = index;
+            if (loaded == null) {
+                try {
+                    loaded = SegmentFormat.readIndex(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read archive segment index " + path, e);
+                }
+                index = loaded;
+            }
+            return loaded;
+        }
+    }
+}
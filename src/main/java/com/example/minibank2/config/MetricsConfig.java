@@ -0,0 +1,17 @@
+package com.example.minibank2.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Obsługa @Timed na klasach serwisów: timer minibank.service z tagami class/method/exception
+// (histogram i zakres kubełków w application.properties, eksport: /actuator/prometheus)
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
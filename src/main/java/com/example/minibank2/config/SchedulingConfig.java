@@ -0,0 +1,10 @@
+package com.example.minibank2.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Włącza @Scheduled dla zadań cyklicznych (harmonogramy ustawiane w application.properties)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package com.example.minibank2.config;
+
+import com.example.minibank2.sql.SqlLoggingDataSource;
+import com.example.minibank2.sql.SqlStatementLog;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Próbkowany log SQL i log wolnych zapytań: każdy DataSource opakowany w SqlLoggingDataSource
+// (metoda statyczna – post-procesor powstaje przed innymi beanami, SqlStatementLog pobieramy leniwie)
+// oraz liczniki Hibernate dla okien statystyk (HibernateStatsWindows)
+@Configuration
+public class SqlLoggingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourcePostProcessor(ObjectProvider<SqlStatementLog> statementLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlLoggingDataSource)) {
+                    SqlStatementLog log = statementLog.getObject();
+                    if (log.isEnabled()) {
+                        return new SqlLoggingDataSource(dataSource, log);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statisticsHibernateCustomizer(
+            @Value("${minibank.hibernate-stats.enabled:true}") boolean enabled) {
+        return properties -> properties.put(AvailableSettings.GENERATE_STATISTICS, String.valueOf(enabled));
+    }
+}
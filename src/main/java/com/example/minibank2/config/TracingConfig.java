@@ -0,0 +1,24 @@
+package com.example.minibank2.config;
+
+import com.example.minibank2.trace.TracingSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Podpięcie śladu żądań pod Hibernate: tekst SQL z StatementInspector, czasy zapytań i flushy z listenera sesji
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer tracingHibernateCustomizer(
+            @Value("${minibank.tracing.enabled:true}") boolean enabled) {
+        return properties -> {
+            if (enabled) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new TracingSessionListener.SqlCapture());
+                properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TracingSessionListener.class.getName());
+            }
+        };
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -58,6 +59,18 @@ public class AccountController {
         return ResponseEntity.ok(accountService.findAccountById(id));
     }
 
+    // 🔹 GET /accounts/{id}/balance → bieżące saldo konta (z tablicy sald poza stertą)
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long id) {
+        return ResponseEntity.ok(accountService.getBalance(id));
+    }
+
+    // 🔹 GET /accounts/{id}/balance-at?at=2024-03-03T12:00 → saldo konta na dany moment
+    @GetMapping("/{id}/balance-at")
+    public ResponseEntity<BigDecimal> getBalanceAt(@PathVariable Long id, @RequestParam LocalDateTime at) {
+        return ResponseEntity.ok(accountService.getBalanceAt(id, at));
+    }
+
     // 🔹 GET /accounts/owner/{owner} → pobranie kont po właścicielu
     @GetMapping("/owner/{owner}")
     public ResponseEntity<List<AccountResponse>> findAccountByOwner(@PathVariable String owner) {
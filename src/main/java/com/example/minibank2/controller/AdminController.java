@@ -0,0 +1,343 @@
+package com.example.minibank2.controller;
+
+import com.example.minibank2.analytics.AnalyticsSnapshot;
+import com.example.minibank2.archive.TransactionArchive;
+import com.example.minibank2.dto.AggregateBackfillResponse;
+import com.example.minibank2.dto.AnalyticsSnapshotStatsResponse;
+import com.example.minibank2.dto.ArchiveRunResponse;
+import com.example.minibank2.dto.ArchiveStatsResponse;
+import com.example.minibank2.dto.BalanceMigrationResponse;
+import com.example.minibank2.dto.BalanceTableStatsResponse;
+import com.example.minibank2.dto.ConcurrencyLimiterResponse;
+import com.example.minibank2.dto.EndpointResourceResponse;
+import com.example.minibank2.dto.ExplainPlanResponse;
+import com.example.minibank2.dto.HibernateStatsWindowResponse;
+import com.example.minibank2.dto.HistoryBufferStatsResponse;
+import com.example.minibank2.dto.HistoryStoreStatsResponse;
+import com.example.minibank2.dto.InterestAccrualResponse;
+import com.example.minibank2.dto.JfrDumpResponse;
+import com.example.minibank2.dto.ReconciliationResponse;
+import com.example.minibank2.dto.SingleFlightStatsResponse;
+import com.example.minibank2.dto.SqlShapeStatsResponse;
+import com.example.minibank2.dto.StatementRunResponse;
+import com.example.minibank2.dto.TraceResponse;
+import com.example.minibank2.dto.TraceSummaryResponse;
+import com.example.minibank2.jfr.FlightRecording;
+import com.example.minibank2.job.BalanceAfterMigrationJob;
+import com.example.minibank2.job.DailyAggregateBackfillJob;
+import com.example.minibank2.job.InterestAccrualJob;
+import com.example.minibank2.job.ReconciliationJob;
+import com.example.minibank2.job.StatementJob;
+import com.example.minibank2.job.TransactionArchiveJob;
+import com.example.minibank2.lsm.LsmEngine;
+import com.example.minibank2.lsm.LsmTransactionHistoryStore;
+import com.example.minibank2.money.OffHeapBalanceTable;
+import com.example.minibank2.service.RecentTransactionsBuffer;
+import com.example.minibank2.service.SingleFlight;
+import com.example.minibank2.sql.HibernateStatsWindows;
+import com.example.minibank2.sql.RepositoryExplainer;
+import com.example.minibank2.sql.SqlStatementLog;
+import com.example.minibank2.trace.RequestTracer;
+import com.example.minibank2.web.AdaptiveConcurrencyLimiter;
+import com.example.minibank2.web.ConcurrencyLimitFilter;
+import com.example.minibank2.web.ResourceAccountingFilter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AdminController udostępnia endpointy diagnostyczne i operacyjne
+ * (stan limiterów, zadania wsadowe itp.). Nie jest przeznaczony dla klientów banku.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final SingleFlight singleFlight;
+    private final RecentTransactionsBuffer recentTransactionsBuffer;
+    private final DailyAggregateBackfillJob dailyAggregateBackfillJob;
+    private final BalanceAfterMigrationJob balanceAfterMigrationJob;
+    private final InterestAccrualJob interestAccrualJob;
+    private final ReconciliationJob reconciliationJob;
+    private final StatementJob statementJob;
+    private final TransactionArchiveJob transactionArchiveJob;
+    private final TransactionArchive transactionArchive;
+    private final Optional<LsmTransactionHistoryStore> lsmHistoryStore;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final OffHeapBalanceTable balanceTable;
+    private final RequestTracer requestTracer;
+    private final FlightRecording flightRecording;
+    private final SqlStatementLog sqlStatementLog;
+    private final HibernateStatsWindows hibernateStatsWindows;
+    private final RepositoryExplainer repositoryExplainer;
+    private final ResourceAccountingFilter resourceAccountingFilter;
+
+    public AdminController(ConcurrencyLimitFilter concurrencyLimitFilter,
+                           SingleFlight singleFlight,
+                           RecentTransactionsBuffer recentTransactionsBuffer,
+                           DailyAggregateBackfillJob dailyAggregateBackfillJob,
+                           BalanceAfterMigrationJob balanceAfterMigrationJob,
+                           InterestAccrualJob interestAccrualJob,
+                           ReconciliationJob reconciliationJob,
+                           StatementJob statementJob,
+                           TransactionArchiveJob transactionArchiveJob,
+                           TransactionArchive transactionArchive,
+                           Optional<LsmTransactionHistoryStore> lsmHistoryStore,
+                           AnalyticsSnapshot analyticsSnapshot,
+                           OffHeapBalanceTable balanceTable,
+                           RequestTracer requestTracer,
+                           FlightRecording flightRecording,
+                           SqlStatementLog sqlStatementLog,
+                           HibernateStatsWindows hibernateStatsWindows,
+                           RepositoryExplainer repositoryExplainer,
+                           ResourceAccountingFilter resourceAccountingFilter) {
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.singleFlight = singleFlight;
+        this.recentTransactionsBuffer = recentTransactionsBuffer;
+        this.dailyAggregateBackfillJob = dailyAggregateBackfillJob;
+        this.balanceAfterMigrationJob = balanceAfterMigrationJob;
+        this.interestAccrualJob = interestAccrualJob;
+        this.reconciliationJob = reconciliationJob;
+        this.statementJob = statementJob;
+        this.transactionArchiveJob = transactionArchiveJob;
+        this.transactionArchive = transactionArchive;
+        this.lsmHistoryStore = lsmHistoryStore;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.balanceTable = balanceTable;
+        this.requestTracer = requestTracer;
+        this.flightRecording = flightRecording;
+        this.sqlStatementLog = sqlStatementLog;
+        this.hibernateStatsWindows = hibernateStatsWindows;
+        this.repositoryExplainer = repositoryExplainer;
+        this.resourceAccountingFilter = resourceAccountingFilter;
+    }
+
+    // 🔹 GET /admin/limiter → bieżące limity współbieżności per grupa endpointów
+    @GetMapping("/limiter")
+    public ResponseEntity<List<ConcurrencyLimiterResponse>> getLimiterStats() {
+        return ResponseEntity.ok(concurrencyLimitFilter.getLimiters().stream()
+                .map(this::toLimiterResponse)
+                .toList());
+    }
+
+    // 🔹 GET /admin/single-flight → skuteczność łączenia identycznych zapytań
+    @GetMapping("/single-flight")
+    public ResponseEntity<SingleFlightStatsResponse> getSingleFlightStats() {
+        SingleFlightStatsResponse dto = new SingleFlightStatsResponse();
+        dto.setCalls(singleFlight.getCalls());
+        dto.setExecutions(singleFlight.getExecutions());
+        dto.setCoalesced(singleFlight.getCoalesced());
+        dto.setFreshHits(singleFlight.getFreshHits());
+        dto.setCoalescingRatio(singleFlight.getCoalescingRatio());
+        return ResponseEntity.ok(dto);
+    }
+
+    // 🔹 GET /admin/history-buffer → trafienia bufora ostatnich transakcji
+    @GetMapping("/history-buffer")
+    public ResponseEntity<HistoryBufferStatsResponse> getHistoryBufferStats() {
+        HistoryBufferStatsResponse dto = new HistoryBufferStatsResponse();
+        dto.setHits(recentTransactionsBuffer.getHits());
+        dto.setMisses(recentTransactionsBuffer.getMisses());
+        dto.setBufferedAccounts(recentTransactionsBuffer.getBufferedAccounts());
+        dto.setMaxBufferedAccounts(recentTransactionsBuffer.getMaxBufferedAccounts());
+        return ResponseEntity.ok(dto);
+    }
+
+    // 🔹 POST /admin/aggregates/backfill → przeliczenie dziennych podsumowań z całej historii
+    @PostMapping("/aggregates/backfill")
+    public ResponseEntity<AggregateBackfillResponse> backfillDailyAggregates() {
+        return ResponseEntity.ok(dailyAggregateBackfillJob.run());
+    }
+
+    // 🔹 POST /admin/migrations/balance-after → uzupełnienie salda po transakcji w istniejącej historii
+    @PostMapping("/migrations/balance-after")
+    public ResponseEntity<BalanceMigrationResponse> migrateBalanceAfter() {
+        return ResponseEntity.ok(balanceAfterMigrationJob.run());
+    }
+
+    // 🔹 POST /admin/interest/accrue?date=2024-03-03 → naliczenie odsetek za dzień (domyślnie wczoraj)
+    @PostMapping("/interest/accrue")
+    public ResponseEntity<InterestAccrualResponse> accrueInterest(@RequestParam(required = false) LocalDate date) {
+        LocalDate accrualDate = date != null ? date : LocalDate.now().minusDays(1);
+        return ResponseEntity.ok(interestAccrualJob.run(accrualDate));
+    }
+
+    // 🔹 POST /admin/reconciliation?mode=FULL|INCREMENTAL → uzgodnienie sald z księgowaniami
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ReconciliationResponse> reconcile(
+            @RequestParam(defaultValue = "INCREMENTAL") ReconciliationJob.Mode mode) {
+        return ResponseEntity.ok(reconciliationJob.run(mode));
+    }
+
+    // 🔹 GET /admin/reconciliation/last → raport z ostatniego uzgodnienia
+    @GetMapping("/reconciliation/last")
+    public ResponseEntity<ReconciliationResponse> getLastReconciliation() {
+        ReconciliationResponse report = reconciliationJob.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    // 🔹 POST /admin/statements?month=2024-03&format=CSV → wyciągi miesięczne dla wszystkich kont
+    @PostMapping("/statements")
+    public ResponseEntity<StatementRunResponse> generateStatements(
+            @RequestParam YearMonth month,
+            @RequestParam(defaultValue = "CSV") StatementJob.Format format) {
+        return ResponseEntity.ok(statementJob.run(month, format));
+    }
+
+    // 🔹 POST /admin/archive/run → przeniesienie starej historii transakcji do segmentów archiwum
+    @PostMapping("/archive/run")
+    public ResponseEntity<ArchiveRunResponse> archiveTransactions() {
+        return ResponseEntity.ok(transactionArchiveJob.run());
+    }
+
+    // 🔹 GET /admin/archive → stan archiwum (segmenty, rozmiar, ile segmentów/bloków czytały zapytania)
+    @GetMapping("/archive")
+    public ResponseEntity<ArchiveStatsResponse> getArchiveStats() {
+        ArchiveStatsResponse response = new ArchiveStatsResponse();
+        response.setEnabled(transactionArchive.isEnabled());
+        response.setSegments(transactionArchive.getSegmentCount());
+        response.setArchivedRows(transactionArchive.getArchivedRows());
+        response.setArchivedBytes(transactionArchive.getArchivedBytes());
+        response.setSegmentsOpened(transactionArchive.getSegmentsOpened());
+        response.setBlocksRead(transactionArchive.getBlocksRead());
+        return ResponseEntity.ok(response);
+    }
+
+    // 🔹 GET /admin/history-store → stan magazynu LSM historii (memtabla, runy, kompakcje, filtr Blooma)
+    @GetMapping("/history-store")
+    public ResponseEntity<HistoryStoreStatsResponse> getHistoryStoreStats() {
+        return ResponseEntity.ok(toHistoryStoreResponse(requireLsmStore().getEngine()));
+    }
+
+    // 🔹 POST /admin/history-store/rebuild → odbudowa magazynu LSM z tabeli transactions
+    @PostMapping("/history-store/rebuild")
+    public ResponseEntity<HistoryStoreStatsResponse> rebuildHistoryStore() {
+        LsmTransactionHistoryStore store = requireLsmStore();
+        long rows = store.rebuild();
+        HistoryStoreStatsResponse response = toHistoryStoreResponse(store.getEngine());
+        response.setRebuiltRows(rows);
+        return ResponseEntity.ok(response);
+    }
+
+    private LsmTransactionHistoryStore requireLsmStore() {
+        return lsmHistoryStore.orElseThrow(() ->
+                new IllegalArgumentException("LSM history store is not enabled (minibank.history-store=lsm)"));
+    }
+
+    private HistoryStoreStatsResponse toHistoryStoreResponse(LsmEngine engine) {
+        HistoryStoreStatsResponse response = new HistoryStoreStatsResponse();
+        response.setMemtableRows(engine.getMemtableRows());
+        response.setRuns(engine.getRuns());
+        response.setRunRows(engine.getRunRows());
+        response.setFlushes(engine.getFlushes());
+        response.setCompactions(engine.getCompactions());
+        response.setRunsSkippedByBloom(engine.getRunsSkippedByBloom());
+        response.setRunsScanned(engine.getRunsScanned());
+        return response;
+    }
+
+    // 🔹 GET /admin/analytics → stan migawki analitycznej (wiersze, słowniki, zaległe zmiany)
+    @GetMapping("/analytics")
+    public ResponseEntity<AnalyticsSnapshotStatsResponse> getAnalyticsSnapshot() {
+        return ResponseEntity.ok(analyticsSnapshot.getStats());
+    }
+
+    // 🔹 POST /admin/analytics/rebuild → ponowne wczytanie migawki z bazy
+    @PostMapping("/analytics/rebuild")
+    public ResponseEntity<AnalyticsSnapshotStatsResponse> rebuildAnalyticsSnapshot() {
+        return ResponseEntity.ok(analyticsSnapshot.rebuild());
+    }
+
+    // 🔹 GET /admin/balance-table → zajętość i trafienia tablicy sald poza stertą
+    @GetMapping("/balance-table")
+    public ResponseEntity<BalanceTableStatsResponse> getBalanceTableStats() {
+        BalanceTableStatsResponse dto = new BalanceTableStatsResponse();
+        dto.setEnabled(balanceTable.isEnabled());
+        dto.setCapacity(balanceTable.getCapacity());
+        dto.setEntries(balanceTable.getEntries());
+        dto.setOffHeapBytes(balanceTable.getOffHeapBytes());
+        dto.setHits(balanceTable.getHits());
+        dto.setMisses(balanceTable.getMisses());
+        dto.setLoads(balanceTable.getLoads());
+        dto.setPublishes(balanceTable.getPublishes());
+        dto.setInvalidations(balanceTable.getInvalidations());
+        return ResponseEntity.ok(dto);
+    }
+
+    // 🔹 GET /admin/traces?limit=20 → ostatnie zachowane ślady żądań (wolne i wylosowane), od najnowszych
+    @GetMapping("/traces")
+    public ResponseEntity<List<TraceSummaryResponse>> getTraces(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(requestTracer.getTraces(limit));
+    }
+
+    // 🔹 GET /admin/traces/{id} → odcinki jednego śladu (kontroler, JSON, serwis, repozytorium, SQL, commit)
+    @GetMapping("/traces/{id}")
+    public ResponseEntity<TraceResponse> getTrace(@PathVariable long id) {
+        return ResponseEntity.of(requestTracer.getTrace(id));
+    }
+
+    // 🔹 GET /admin/traces/{id}/waterfall → ten sam ślad jako tekstowy widok kaskadowy
+    @GetMapping(value = "/traces/{id}/waterfall", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getTraceWaterfall(@PathVariable long id) {
+        return ResponseEntity.of(requestTracer.getTrace(id).map(RequestTracer::waterfall));
+    }
+
+    // 🔹 POST /admin/jfr/dump → zrzut bieżącego nagrania JFR (zdarzenia minibank.* + profil default) do pliku
+    @PostMapping("/jfr/dump")
+    public ResponseEntity<JfrDumpResponse> dumpFlightRecording() throws IOException {
+        return ResponseEntity.ok(flightRecording.dump());
+    }
+
+    // 🔹 GET /admin/sql?limit=20 → kształty zapytań SQL według łącznego czasu (liczba, średnia, p99, max)
+    @GetMapping("/sql")
+    public ResponseEntity<List<SqlShapeStatsResponse>> getSqlStats(@RequestParam(defaultValue = "20") int limit) {
+        if (!sqlStatementLog.isEnabled()) {
+            throw new IllegalArgumentException("SQL statement log is disabled (minibank.sql-log.enabled=false)");
+        }
+        return ResponseEntity.ok(sqlStatementLog.getStats(limit));
+    }
+
+    // 🔹 POST /admin/sql/reset → zerowanie statystyk SQL (nowe okno pomiaru, np. przed testem obciążeniowym)
+    @PostMapping("/sql/reset")
+    public ResponseEntity<Void> resetSqlStats() {
+        sqlStatementLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    // 🔹 GET /admin/hibernate/stats?limit=10 → statystyki Hibernate w oknach czasowych (bieżące okno pierwsze)
+    @GetMapping("/hibernate/stats")
+    public ResponseEntity<List<HibernateStatsWindowResponse>> getHibernateStats(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(hibernateStatsWindows.getWindows(limit));
+    }
+
+    // 🔹 GET /admin/sql/explain → EXPLAIN SQL-a każdej metody AccountRepository/TransactionRepository + użycie indeksu
+    @GetMapping("/sql/explain")
+    public ResponseEntity<List<ExplainPlanResponse>> explainRepositories() {
+        return ResponseEntity.ok(repositoryExplainer.explainAll());
+    }
+
+    // 🔹 GET /admin/endpoints/resources?sort=allocated|cpu → metody kontrolerów według alokacji / CPU na żądanie
+    @GetMapping("/endpoints/resources")
+    public ResponseEntity<List<EndpointResourceResponse>> getEndpointResources(
+            @RequestParam(defaultValue = "allocated") String sort) {
+        return ResponseEntity.ok(resourceAccountingFilter.getRanking(sort));
+    }
+
+    private ConcurrencyLimiterResponse toLimiterResponse(AdaptiveConcurrencyLimiter limiter) {
+        ConcurrencyLimiterResponse dto = new ConcurrencyLimiterResponse();
+        dto.setGroup(limiter.getGroup().name());
+        dto.setLimit(limiter.getLimit());
+        dto.setInFlight(limiter.getInFlight());
+        dto.setRejected(limiter.getRejected());
+        dto.setMinRttMillis(limiter.getMinRttMillis());
+        dto.setSmoothedRttMillis(limiter.getSmoothedRttMillis());
+        return dto;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.minibank2.controller;
+
+import com.example.minibank2.analytics.AnalyticsSnapshot;
+import com.example.minibank2.dto.AmountStatsResponse;
+import com.example.minibank2.dto.BalanceBucketResponse;
+import com.example.minibank2.dto.CurrencyTotalResponse;
+import com.example.minibank2.dto.MonthlyAccountsResponse;
+import com.example.minibank2.dto.MonthlyVolumeResponse;
+import com.example.minibank2.dto.OwnerTotalResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AnalyticsController odpowiada na zapytania raportowe z kolumnowej migawki w pamięci.
+ * Odpowiedzi liczone są asynchronicznie na puli analitycznej – wątek Tomcata zostaje zwolniony,
+ * a tabele kont i transakcji nie są skanowane.
+ */
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsSnapshot analyticsSnapshot;
+
+    public AnalyticsController(AnalyticsSnapshot analyticsSnapshot) {
+        this.analyticsSnapshot = analyticsSnapshot;
+    }
+
+    // 🔹 GET /analytics/balances/histogram?bucket=1000&currency=PLN&status=ACTIVE → histogram sald
+    @GetMapping("/balances/histogram")
+    public CompletableFuture<ResponseEntity<List<BalanceBucketResponse>>> getBalanceHistogram(
+            @RequestParam(defaultValue = "1000") BigDecimal bucket,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String status) {
+        return analyticsSnapshot.balanceHistogram(bucket, currency, status).thenApply(ResponseEntity::ok);
+    }
+
+    // 🔹 GET /analytics/balances/by-currency → liczba kont i suma sald per waluta
+    @GetMapping("/balances/by-currency")
+    public CompletableFuture<ResponseEntity<List<CurrencyTotalResponse>>> getTotalsByCurrency(
+            @RequestParam(required = false) String status) {
+        return analyticsSnapshot.totalsByCurrency(status).thenApply(ResponseEntity::ok);
+    }
+
+    // 🔹 GET /analytics/balances/top-owners?limit=10 → właściciele z największą sumą sald
+    @GetMapping("/balances/top-owners")
+    public CompletableFuture<ResponseEntity<List<OwnerTotalResponse>>> getTopOwners(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String currency) {
+        return analyticsSnapshot.topOwners(limit, currency).thenApply(ResponseEntity::ok);
+    }
+
+    // 🔹 GET /analytics/accounts/created-per-month → liczba nowych kont w kolejnych miesiącach
+    @GetMapping("/accounts/created-per-month")
+    public CompletableFuture<ResponseEntity<List<MonthlyAccountsResponse>>> getAccountsCreatedPerMonth(
+            @RequestParam(required = false) String currency) {
+        return analyticsSnapshot.accountsCreatedPerMonth(currency).thenApply(ResponseEntity::ok);
+    }
+
+    // 🔹 GET /analytics/transactions/volume-per-month?currency=PLN → obroty per miesiąc i typ
+    @GetMapping("/transactions/volume-per-month")
+    public CompletableFuture<ResponseEntity<List<MonthlyVolumeResponse>>> getTransactionVolumePerMonth(
+            @RequestParam(required = false) String currency) {
+        return analyticsSnapshot.transactionVolumePerMonth(currency).thenApply(ResponseEntity::ok);
+    }
+
+    // 🔹 GET /analytics/transactions/amounts?accountId=1&above=500 → liczba, suma, min/max i liczba kwot powyżej progu
+    @GetMapping("/transactions/amounts")
+    public CompletableFuture<ResponseEntity<AmountStatsResponse>> getAmountStats(
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) BigDecimal above) {
+        return analyticsSnapshot.amountStats(accountId, above).thenApply(ResponseEntity::ok);
+    }
+}
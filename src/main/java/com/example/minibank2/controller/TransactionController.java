@@ -1,17 +1,21 @@
 package com.example.minibank2.controller;
 
+import com.example.minibank2.dto.PeriodAggregateResponse;
 import com.example.minibank2.dto.TransactionResponse;
 import com.example.minibank2.dto.TransferRequest;
 import com.example.minibank2.dto.TransferResponse;
 import com.example.minibank2.entity.TransactionType;
 import com.example.minibank2.service.AccountService;
+import com.example.minibank2.service.DailyAggregateService;
 import com.example.minibank2.service.TransactionService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -20,10 +24,13 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final AccountService accountService;
+    private final DailyAggregateService dailyAggregateService;
 
-    public TransactionController(TransactionService transactionService, AccountService accountService) {
+    public TransactionController(TransactionService transactionService, AccountService accountService,
+                                 DailyAggregateService dailyAggregateService) {
         this.transactionService = transactionService;
         this.accountService = accountService;
+        this.dailyAggregateService = dailyAggregateService;
     }
 
     // 🔹 GET /transactions → zwraca wszystkie transakcje danego konta
@@ -57,6 +64,32 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.getTransactionSumForDate(accountId, date));
     }
 
+    // 🔹 GET - Suma transakcji z całego dnia (z dziennych podsumowań)
+    @GetMapping("/{accountId}/sum/day")
+    public ResponseEntity<BigDecimal> getTransactionSumForDay(
+            @PathVariable Long accountId,
+            @RequestParam LocalDate date) {
+        return ResponseEntity.ok(dailyAggregateService.getTransactionSumForDay(accountId, date));
+    }
+
+    // 🔹 GET - Podsumowania dzienne (liczby i sumy per typ) w zakresie dat
+    @GetMapping("/{accountId}/aggregates/daily")
+    public ResponseEntity<List<PeriodAggregateResponse>> getDailyAggregates(
+            @PathVariable Long accountId,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        return ResponseEntity.ok(dailyAggregateService.getDailyAggregates(accountId, from, to));
+    }
+
+    // 🔹 GET - Podsumowania miesięczne w zakresie miesięcy, np. from=2024-01&to=2024-03
+    @GetMapping("/{accountId}/aggregates/monthly")
+    public ResponseEntity<List<PeriodAggregateResponse>> getMonthlyAggregates(
+            @PathVariable Long accountId,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to) {
+        return ResponseEntity.ok(dailyAggregateService.getMonthlyAggregates(accountId, from, to));
+    }
+
     // 🔹 GET - Pobranie liczby transakcji na koncie
     @GetMapping("/{accountId}/count")
     public ResponseEntity<Long> getTransactionCount(@PathVariable Long accountId) {
@@ -0,0 +1,21 @@
+package com.example.minibank2.dto;
+
+public class AggregateBackfillResponse {
+
+    private long accounts;
+    private long transactions;
+    private long aggregates;
+    private long durationMillis;
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+
+    public long getTransactions() { return transactions; }
+    public void setTransactions(long transactions) { this.transactions = transactions; }
+
+    public long getAggregates() { return aggregates; }
+    public void setAggregates(long aggregates) { this.aggregates = aggregates; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+}
@@ -0,0 +1,39 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+
+public class AmountStatsResponse {
+
+    private Long accountId;        // null = wszystkie transakcje
+    private long transactions;
+    private BigDecimal total;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal above;      // próg z zapytania (opcjonalny)
+    private Long transactionsAbove;
+    private String kernel;         // implementacja, która policzyła wynik
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public long getTransactions() { return transactions; }
+    public void setTransactions(long transactions) { this.transactions = transactions; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public BigDecimal getMin() { return min; }
+    public void setMin(BigDecimal min) { this.min = min; }
+
+    public BigDecimal getMax() { return max; }
+    public void setMax(BigDecimal max) { this.max = max; }
+
+    public BigDecimal getAbove() { return above; }
+    public void setAbove(BigDecimal above) { this.above = above; }
+
+    public Long getTransactionsAbove() { return transactionsAbove; }
+    public void setTransactionsAbove(Long transactionsAbove) { this.transactionsAbove = transactionsAbove; }
+
+    public String getKernel() { return kernel; }
+    public void setKernel(String kernel) { this.kernel = kernel; }
+}
@@ -0,0 +1,55 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+
+public class AnalyticsSnapshotStatsResponse {
+
+    private int accounts;
+    private int deletedAccounts;   // usunięte konta zostają w kolumnach do przebudowy
+    private int transactions;
+    private int currencies;        // rozmiary słowników
+    private int statuses;
+    private int owners;
+    private long pendingChanges;   // zmiany z zapisu czekające na naniesienie
+    private long appliedChanges;
+    private long estimatedBytes;
+    private LocalDateTime rebuiltAt;
+    private long rebuildMillis;
+    private String amountKernel;   // scalar albo vector-<bity>
+
+    public int getAccounts() { return accounts; }
+    public void setAccounts(int accounts) { this.accounts = accounts; }
+
+    public int getDeletedAccounts() { return deletedAccounts; }
+    public void setDeletedAccounts(int deletedAccounts) { this.deletedAccounts = deletedAccounts; }
+
+    public int getTransactions() { return transactions; }
+    public void setTransactions(int transactions) { this.transactions = transactions; }
+
+    public int getCurrencies() { return currencies; }
+    public void setCurrencies(int currencies) { this.currencies = currencies; }
+
+    public int getStatuses() { return statuses; }
+    public void setStatuses(int statuses) { this.statuses = statuses; }
+
+    public int getOwners() { return owners; }
+    public void setOwners(int owners) { this.owners = owners; }
+
+    public long getPendingChanges() { return pendingChanges; }
+    public void setPendingChanges(long pendingChanges) { this.pendingChanges = pendingChanges; }
+
+    public long getAppliedChanges() { return appliedChanges; }
+    public void setAppliedChanges(long appliedChanges) { this.appliedChanges = appliedChanges; }
+
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public void setEstimatedBytes(long estimatedBytes) { this.estimatedBytes = estimatedBytes; }
+
+    public LocalDateTime getRebuiltAt() { return rebuiltAt; }
+    public void setRebuiltAt(LocalDateTime rebuiltAt) { this.rebuiltAt = rebuiltAt; }
+
+    public long getRebuildMillis() { return rebuildMillis; }
+    public void setRebuildMillis(long rebuildMillis) { this.rebuildMillis = rebuildMillis; }
+
+    public String getAmountKernel() { return amountKernel; }
+    public void setAmountKernel(String amountKernel) { this.amountKernel = amountKernel; }
+}
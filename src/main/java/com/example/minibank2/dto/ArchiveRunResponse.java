@@ -0,0 +1,39 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+
+public class ArchiveRunResponse {
+
+    private LocalDateTime cutoff;   // archiwizujemy transakcje starsze niż ta chwila (pełne miesiące)
+    private int months;
+    private int segmentsWritten;
+    private int segmentsResumed;    // segment istniał – dokończono tylko usuwanie z bazy
+    private long rowsArchived;
+    private long rowsDeleted;
+    private long bytesWritten;
+    private long durationMillis;
+
+    public LocalDateTime getCutoff() { return cutoff; }
+    public void setCutoff(LocalDateTime cutoff) { this.cutoff = cutoff; }
+
+    public int getMonths() { return months; }
+    public void setMonths(int months) { this.months = months; }
+
+    public int getSegmentsWritten() { return segmentsWritten; }
+    public void setSegmentsWritten(int segmentsWritten) { this.segmentsWritten = segmentsWritten; }
+
+    public int getSegmentsResumed() { return segmentsResumed; }
+    public void setSegmentsResumed(int segmentsResumed) { this.segmentsResumed = segmentsResumed; }
+
+    public long getRowsArchived() { return rowsArchived; }
+    public void setRowsArchived(long rowsArchived) { this.rowsArchived = rowsArchived; }
+
+    public long getRowsDeleted() { return rowsDeleted; }
+    public void setRowsDeleted(long rowsDeleted) { this.rowsDeleted = rowsDeleted; }
+
+    public long getBytesWritten() { return bytesWritten; }
+    public void setBytesWritten(long bytesWritten) { this.bytesWritten = bytesWritten; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+}
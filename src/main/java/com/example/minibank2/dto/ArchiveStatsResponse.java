@@ -0,0 +1,29 @@
+package com.example.minibank2.dto;
+
+public class ArchiveStatsResponse {
+
+    private boolean enabled;
+    private int segments;
+    private long archivedRows;
+    private long archivedBytes;
+    private long segmentsOpened; // ile razy zapytania musiały otworzyć segment
+    private long blocksRead;     // ile bloków rozpakowano
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getSegments() { return segments; }
+    public void setSegments(int segments) { this.segments = segments; }
+
+    public long getArchivedRows() { return archivedRows; }
+    public void setArchivedRows(long archivedRows) { this.archivedRows = archivedRows; }
+
+    public long getArchivedBytes() { return archivedBytes; }
+    public void setArchivedBytes(long archivedBytes) { this.archivedBytes = archivedBytes; }
+
+    public long getSegmentsOpened() { return segmentsOpened; }
+    public void setSegmentsOpened(long segmentsOpened) { this.segmentsOpened = segmentsOpened; }
+
+    public long getBlocksRead() { return blocksRead; }
+    public void setBlocksRead(long blocksRead) { this.blocksRead = blocksRead; }
+}
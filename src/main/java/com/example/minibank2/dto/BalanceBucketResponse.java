@@ -0,0 +1,19 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+
+public class BalanceBucketResponse {
+
+    private BigDecimal from; // włącznie
+    private BigDecimal to;   // wyłącznie
+    private long accounts;
+
+    public BigDecimal getFrom() { return from; }
+    public void setFrom(BigDecimal from) { this.from = from; }
+
+    public BigDecimal getTo() { return to; }
+    public void setTo(BigDecimal to) { this.to = to; }
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+}
@@ -0,0 +1,21 @@
+package com.example.minibank2.dto;
+
+public class BalanceMigrationResponse {
+
+    private long accounts;
+    private long transactionsUpdated;
+    private int partitions;
+    private long durationMillis;
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+
+    public long getTransactionsUpdated() { return transactionsUpdated; }
+    public void setTransactionsUpdated(long transactionsUpdated) { this.transactionsUpdated = transactionsUpdated; }
+
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+}
@@ -0,0 +1,41 @@
+package com.example.minibank2.dto;
+
+public class BalanceTableStatsResponse {
+
+    private boolean enabled;
+    private int capacity;
+    private int entries;
+    private long offHeapBytes;
+    private long hits;
+    private long misses;
+    private long loads;
+    private long publishes;
+    private long invalidations;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public int getEntries() { return entries; }
+    public void setEntries(int entries) { this.entries = entries; }
+
+    public long getOffHeapBytes() { return offHeapBytes; }
+    public void setOffHeapBytes(long offHeapBytes) { this.offHeapBytes = offHeapBytes; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getLoads() { return loads; }
+    public void setLoads(long loads) { this.loads = loads; }
+
+    public long getPublishes() { return publishes; }
+    public void setPublishes(long publishes) { this.publishes = publishes; }
+
+    public long getInvalidations() { return invalidations; }
+    public void setInvalidations(long invalidations) { this.invalidations = invalidations; }
+}
@@ -0,0 +1,29 @@
+package com.example.minibank2.dto;
+
+public class ConcurrencyLimiterResponse {
+
+    private String group;
+    private int limit;
+    private int inFlight;
+    private long rejected;
+    private double minRttMillis;
+    private double smoothedRttMillis;
+
+    public String getGroup() { return group; }
+    public void setGroup(String group) { this.group = group; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public int getInFlight() { return inFlight; }
+    public void setInFlight(int inFlight) { this.inFlight = inFlight; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public double getMinRttMillis() { return minRttMillis; }
+    public void setMinRttMillis(double minRttMillis) { this.minRttMillis = minRttMillis; }
+
+    public double getSmoothedRttMillis() { return smoothedRttMillis; }
+    public void setSmoothedRttMillis(double smoothedRttMillis) { this.smoothedRttMillis = smoothedRttMillis; }
+}
@@ -0,0 +1,23 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+
+public class CurrencyTotalResponse {
+
+    private String currency;
+    private long accounts;
+    private BigDecimal totalBalance;
+    private BigDecimal averageBalance;
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+
+    public BigDecimal getTotalBalance() { return totalBalance; }
+    public void setTotalBalance(BigDecimal totalBalance) { this.totalBalance = totalBalance; }
+
+    public BigDecimal getAverageBalance() { return averageBalance; }
+    public void setAverageBalance(BigDecimal averageBalance) { this.averageBalance = averageBalance; }
+}
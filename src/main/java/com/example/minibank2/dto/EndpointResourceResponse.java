@@ -0,0 +1,37 @@
+package com.example.minibank2.dto;
+
+public class EndpointResourceResponse {
+
+    private String handler;                     // np. AccountController.transfer
+    private long requests;
+    private long allocatedBytesPerRequest;      // średnia od startu
+    private long allocatedBytesP99;             // z ostatnich ~2 minut (okno percentyli Micrometera)
+    private long allocatedBytesTotal;
+    private long cpuMicrosPerRequest;
+    private long cpuMicrosP99;
+    private double cpuSecondsTotal;
+
+    public String getHandler() { return handler; }
+    public void setHandler(String handler) { this.handler = handler; }
+
+    public long getRequests() { return requests; }
+    public void setRequests(long requests) { this.requests = requests; }
+
+    public long getAllocatedBytesPerRequest() { return allocatedBytesPerRequest; }
+    public void setAllocatedBytesPerRequest(long allocatedBytesPerRequest) { this.allocatedBytesPerRequest = allocatedBytesPerRequest; }
+
+    public long getAllocatedBytesP99() { return allocatedBytesP99; }
+    public void setAllocatedBytesP99(long allocatedBytesP99) { this.allocatedBytesP99 = allocatedBytesP99; }
+
+    public long getAllocatedBytesTotal() { return allocatedBytesTotal; }
+    public void setAllocatedBytesTotal(long allocatedBytesTotal) { this.allocatedBytesTotal = allocatedBytesTotal; }
+
+    public long getCpuMicrosPerRequest() { return cpuMicrosPerRequest; }
+    public void setCpuMicrosPerRequest(long cpuMicrosPerRequest) { this.cpuMicrosPerRequest = cpuMicrosPerRequest; }
+
+    public long getCpuMicrosP99() { return cpuMicrosP99; }
+    public void setCpuMicrosP99(long cpuMicrosP99) { this.cpuMicrosP99 = cpuMicrosP99; }
+
+    public double getCpuSecondsTotal() { return cpuSecondsTotal; }
+    public void setCpuSecondsTotal(double cpuSecondsTotal) { this.cpuSecondsTotal = cpuSecondsTotal; }
+}
@@ -0,0 +1,35 @@
+package com.example.minibank2.dto;
+
+import java.util.List;
+
+public class ExplainPlanResponse {
+
+    private String repository;
+    private String method;              // nazwa z typami parametrów, np. findByOwner(String, Pageable)
+    private String sql;                 // SQL wygenerowany przez Hibernate (parametry jako ?)
+    private String plan;                // wynik EXPLAIN
+    private Boolean indexUsed;          // każda tabela przez indeks; null = nie oceniono (błąd albo baza inna niż H2)
+    private List<String> tableScans;    // tabele czytane w całości
+    private String error;
+
+    public String getRepository() { return repository; }
+    public void setRepository(String repository) { this.repository = repository; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+
+    public String getPlan() { return plan; }
+    public void setPlan(String plan) { this.plan = plan; }
+
+    public Boolean getIndexUsed() { return indexUsed; }
+    public void setIndexUsed(Boolean indexUsed) { this.indexUsed = indexUsed; }
+
+    public List<String> getTableScans() { return tableScans; }
+    public void setTableScans(List<String> tableScans) { this.tableScans = tableScans; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
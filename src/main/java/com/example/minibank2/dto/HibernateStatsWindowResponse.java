@@ -0,0 +1,88 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class HibernateStatsWindowResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;               // bieżące (niezamknięte) okno kończy się "teraz"
+    private long sessionsOpened;
+    private long transactions;
+    private long preparedStatements;        // wszystkie instrukcje JDBC wysłane przez Hibernate
+    private long queriesExecuted;           // zapytania HQL/natywne (bez find/ładowań po id)
+    private long queryMaxMillis;            // najwolniejsze zapytanie od startu (Hibernate nie zeruje w oknie)
+    private long entitiesLoaded;
+    private long entitiesFetched;
+    private long entitiesInserted;
+    private long entitiesUpdated;
+    private long entitiesDeleted;
+    private long collectionsLoaded;
+    private long flushes;
+    private long secondLevelCacheHits;
+    private long secondLevelCacheMisses;
+    private long secondLevelCachePuts;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private Map<String, Long> topQueries;   // HQL → liczba wykonań w oknie, malejąco
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+
+    public long getSessionsOpened() { return sessionsOpened; }
+    public void setSessionsOpened(long sessionsOpened) { this.sessionsOpened = sessionsOpened; }
+
+    public long getTransactions() { return transactions; }
+    public void setTransactions(long transactions) { this.transactions = transactions; }
+
+    public long getPreparedStatements() { return preparedStatements; }
+    public void setPreparedStatements(long preparedStatements) { this.preparedStatements = preparedStatements; }
+
+    public long getQueriesExecuted() { return queriesExecuted; }
+    public void setQueriesExecuted(long queriesExecuted) { this.queriesExecuted = queriesExecuted; }
+
+    public long getQueryMaxMillis() { return queryMaxMillis; }
+    public void setQueryMaxMillis(long queryMaxMillis) { this.queryMaxMillis = queryMaxMillis; }
+
+    public long getEntitiesLoaded() { return entitiesLoaded; }
+    public void setEntitiesLoaded(long entitiesLoaded) { this.entitiesLoaded = entitiesLoaded; }
+
+    public long getEntitiesFetched() { return entitiesFetched; }
+    public void setEntitiesFetched(long entitiesFetched) { this.entitiesFetched = entitiesFetched; }
+
+    public long getEntitiesInserted() { return entitiesInserted; }
+    public void setEntitiesInserted(long entitiesInserted) { this.entitiesInserted = entitiesInserted; }
+
+    public long getEntitiesUpdated() { return entitiesUpdated; }
+    public void setEntitiesUpdated(long entitiesUpdated) { this.entitiesUpdated = entitiesUpdated; }
+
+    public long getEntitiesDeleted() { return entitiesDeleted; }
+    public void setEntitiesDeleted(long entitiesDeleted) { this.entitiesDeleted = entitiesDeleted; }
+
+    public long getCollectionsLoaded() { return collectionsLoaded; }
+    public void setCollectionsLoaded(long collectionsLoaded) { this.collectionsLoaded = collectionsLoaded; }
+
+    public long getFlushes() { return flushes; }
+    public void setFlushes(long flushes) { this.flushes = flushes; }
+
+    public long getSecondLevelCacheHits() { return secondLevelCacheHits; }
+    public void setSecondLevelCacheHits(long secondLevelCacheHits) { this.secondLevelCacheHits = secondLevelCacheHits; }
+
+    public long getSecondLevelCacheMisses() { return secondLevelCacheMisses; }
+    public void setSecondLevelCacheMisses(long secondLevelCacheMisses) { this.secondLevelCacheMisses = secondLevelCacheMisses; }
+
+    public long getSecondLevelCachePuts() { return secondLevelCachePuts; }
+    public void setSecondLevelCachePuts(long secondLevelCachePuts) { this.secondLevelCachePuts = secondLevelCachePuts; }
+
+    public long getQueryCacheHits() { return queryCacheHits; }
+    public void setQueryCacheHits(long queryCacheHits) { this.queryCacheHits = queryCacheHits; }
+
+    public long getQueryCacheMisses() { return queryCacheMisses; }
+    public void setQueryCacheMisses(long queryCacheMisses) { this.queryCacheMisses = queryCacheMisses; }
+
+    public Map<String, Long> getTopQueries() { return topQueries; }
+    public void setTopQueries(Map<String, Long> topQueries) { this.topQueries = topQueries; }
+}
@@ -0,0 +1,21 @@
+package com.example.minibank2.dto;
+
+public class HistoryBufferStatsResponse {
+
+    private long hits;
+    private long misses;
+    private int bufferedAccounts;
+    private int maxBufferedAccounts;
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public int getBufferedAccounts() { return bufferedAccounts; }
+    public void setBufferedAccounts(int bufferedAccounts) { this.bufferedAccounts = bufferedAccounts; }
+
+    public int getMaxBufferedAccounts() { return maxBufferedAccounts; }
+    public void setMaxBufferedAccounts(int maxBufferedAccounts) { this.maxBufferedAccounts = maxBufferedAccounts; }
+}
@@ -0,0 +1,37 @@
+package com.example.minibank2.dto;
+
+public class HistoryStoreStatsResponse {
+
+    private long memtableRows;
+    private int runs;
+    private long runRows;
+    private long flushes;
+    private long compactions;
+    private long runsSkippedByBloom; // runy odrzucone przez filtr Blooma bez czytania indeksu
+    private long runsScanned;
+    private Long rebuiltRows;        // tylko w odpowiedzi na odbudowę
+
+    public long getMemtableRows() { return memtableRows; }
+    public void setMemtableRows(long memtableRows) { this.memtableRows = memtableRows; }
+
+    public int getRuns() { return runs; }
+    public void setRuns(int runs) { this.runs = runs; }
+
+    public long getRunRows() { return runRows; }
+    public void setRunRows(long runRows) { this.runRows = runRows; }
+
+    public long getFlushes() { return flushes; }
+    public void setFlushes(long flushes) { this.flushes = flushes; }
+
+    public long getCompactions() { return compactions; }
+    public void setCompactions(long compactions) { this.compactions = compactions; }
+
+    public long getRunsSkippedByBloom() { return runsSkippedByBloom; }
+    public void setRunsSkippedByBloom(long runsSkippedByBloom) { this.runsSkippedByBloom = runsSkippedByBloom; }
+
+    public long getRunsScanned() { return runsScanned; }
+    public void setRunsScanned(long runsScanned) { this.runsScanned = runsScanned; }
+
+    public Long getRebuiltRows() { return rebuiltRows; }
+    public void setRebuiltRows(Long rebuiltRows) { this.rebuiltRows = rebuiltRows; }
+}
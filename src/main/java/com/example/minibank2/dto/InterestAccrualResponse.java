@@ -0,0 +1,48 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class InterestAccrualResponse {
+
+    private LocalDate accrualDate;
+    private int chunks;
+    private int chunksSkipped; // rozliczone już wcześniej (wznowienie po awarii)
+    private long accountsProcessed;
+    private long postings;
+    private BigDecimal totalInterest = BigDecimal.ZERO;
+    private int parallelism;
+    private long durationMillis;
+    private double accountsPerSecond;
+    private double accountsPerSecondPerCore;
+
+    public LocalDate getAccrualDate() { return accrualDate; }
+    public void setAccrualDate(LocalDate accrualDate) { this.accrualDate = accrualDate; }
+
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+
+    public int getChunksSkipped() { return chunksSkipped; }
+    public void setChunksSkipped(int chunksSkipped) { this.chunksSkipped = chunksSkipped; }
+
+    public long getAccountsProcessed() { return accountsProcessed; }
+    public void setAccountsProcessed(long accountsProcessed) { this.accountsProcessed = accountsProcessed; }
+
+    public long getPostings() { return postings; }
+    public void setPostings(long postings) { this.postings = postings; }
+
+    public BigDecimal getTotalInterest() { return totalInterest; }
+    public void setTotalInterest(BigDecimal totalInterest) { this.totalInterest = totalInterest; }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public double getAccountsPerSecond() { return accountsPerSecond; }
+    public void setAccountsPerSecond(double accountsPerSecond) { this.accountsPerSecond = accountsPerSecond; }
+
+    public double getAccountsPerSecondPerCore() { return accountsPerSecondPerCore; }
+    public void setAccountsPerSecondPerCore(double accountsPerSecondPerCore) { this.accountsPerSecondPerCore = accountsPerSecondPerCore; }
+}
@@ -0,0 +1,28 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class JfrDumpResponse {
+
+    private String file;
+    private long sizeBytes;
+    private LocalDateTime from;         // najstarsze dane w zrzucie (ograniczone przez max-age/max-size)
+    private LocalDateTime to;
+    private List<String> recordings;    // trwające nagrania, z których pochodzi migawka
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+
+    public List<String> getRecordings() { return recordings; }
+    public void setRecordings(List<String> recordings) { this.recordings = recordings; }
+}
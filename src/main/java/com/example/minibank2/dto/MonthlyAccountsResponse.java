@@ -0,0 +1,15 @@
+package com.example.minibank2.dto;
+
+import java.time.YearMonth;
+
+public class MonthlyAccountsResponse {
+
+    private YearMonth month;
+    private long accounts;
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+}
@@ -0,0 +1,26 @@
+package com.example.minibank2.dto;
+
+import com.example.minibank2.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public class MonthlyVolumeResponse {
+
+    private YearMonth month;
+    private TransactionType type;
+    private long transactions;
+    private BigDecimal total;
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public TransactionType getType() { return type; }
+    public void setType(TransactionType type) { this.type = type; }
+
+    public long getTransactions() { return transactions; }
+    public void setTransactions(long transactions) { this.transactions = transactions; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+}
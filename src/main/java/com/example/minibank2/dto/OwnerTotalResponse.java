@@ -0,0 +1,19 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+
+public class OwnerTotalResponse {
+
+    private String owner;
+    private long accounts;
+    private BigDecimal totalBalance;
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public long getAccounts() { return accounts; }
+    public void setAccounts(long accounts) { this.accounts = accounts; }
+
+    public BigDecimal getTotalBalance() { return totalBalance; }
+    public void setTotalBalance(BigDecimal totalBalance) { this.totalBalance = totalBalance; }
+}
@@ -0,0 +1,68 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class PeriodAggregateResponse {
+
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private long depositCount;
+    private BigDecimal depositSum = BigDecimal.ZERO;
+    private long withdrawCount;
+    private BigDecimal withdrawSum = BigDecimal.ZERO;
+    private long transferInCount;
+    private BigDecimal transferInSum = BigDecimal.ZERO;
+    private long transferOutCount;
+    private BigDecimal transferOutSum = BigDecimal.ZERO;
+    private long interestCount;
+    private BigDecimal interestSum = BigDecimal.ZERO;
+    private long totalCount;
+    private BigDecimal netAmount = BigDecimal.ZERO; // wpływy minus wypływy
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public long getDepositCount() { return depositCount; }
+    public void setDepositCount(long depositCount) { this.depositCount = depositCount; }
+
+    public BigDecimal getDepositSum() { return depositSum; }
+    public void setDepositSum(BigDecimal depositSum) { this.depositSum = depositSum; }
+
+    public long getWithdrawCount() { return withdrawCount; }
+    public void setWithdrawCount(long withdrawCount) { this.withdrawCount = withdrawCount; }
+
+    public BigDecimal getWithdrawSum() { return withdrawSum; }
+    public void setWithdrawSum(BigDecimal withdrawSum) { this.withdrawSum = withdrawSum; }
+
+    public long getTransferInCount() { return transferInCount; }
+    public void setTransferInCount(long transferInCount) { this.transferInCount = transferInCount; }
+
+    public BigDecimal getTransferInSum() { return transferInSum; }
+    public void setTransferInSum(BigDecimal transferInSum) { this.transferInSum = transferInSum; }
+
+    public long getTransferOutCount() { return transferOutCount; }
+    public void setTransferOutCount(long transferOutCount) { this.transferOutCount = transferOutCount; }
+
+    public BigDecimal getTransferOutSum() { return transferOutSum; }
+    public void setTransferOutSum(BigDecimal transferOutSum) { this.transferOutSum = transferOutSum; }
+
+    public long getInterestCount() { return interestCount; }
+    public void setInterestCount(long interestCount) { this.interestCount = interestCount; }
+
+    public BigDecimal getInterestSum() { return interestSum; }
+    public void setInterestSum(BigDecimal interestSum) { this.interestSum = interestSum; }
+
+    public long getTotalCount() { return totalCount; }
+    public void setTotalCount(long totalCount) { this.totalCount = totalCount; }
+
+    public BigDecimal getNetAmount() { return netAmount; }
+    public void setNetAmount(BigDecimal netAmount) { this.netAmount = netAmount; }
+}
@@ -0,0 +1,38 @@
+package com.example.minibank2.dto;
+
+import java.math.BigDecimal;
+
+public class ReconciliationDiscrepancy {
+
+    private Long accountId;
+    private BigDecimal storedBalance;
+    private BigDecimal expectedBalance; // saldo otwarcia + suma netto księgowań
+    private BigDecimal difference;
+    private long transactionCount;
+
+    public ReconciliationDiscrepancy() {}
+
+    public ReconciliationDiscrepancy(Long accountId, BigDecimal storedBalance, BigDecimal expectedBalance,
+                                     long transactionCount) {
+        this.accountId = accountId;
+        this.storedBalance = storedBalance;
+        this.expectedBalance = expectedBalance;
+        this.difference = storedBalance.subtract(expectedBalance);
+        this.transactionCount = transactionCount;
+    }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public BigDecimal getStoredBalance() { return storedBalance; }
+    public void setStoredBalance(BigDecimal storedBalance) { this.storedBalance = storedBalance; }
+
+    public BigDecimal getExpectedBalance() { return expectedBalance; }
+    public void setExpectedBalance(BigDecimal expectedBalance) { this.expectedBalance = expectedBalance; }
+
+    public BigDecimal getDifference() { return difference; }
+    public void setDifference(BigDecimal difference) { this.difference = difference; }
+
+    public long getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(long transactionCount) { this.transactionCount = transactionCount; }
+}
@@ -0,0 +1,53 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReconciliationResponse {
+
+    private String mode;
+    private LocalDateTime startedAt;
+    private long fromTransactionId;  // znacznik, od którego szukano zmienionych kont
+    private long toTransactionId;    // nowy znacznik po zakończeniu
+    private long accountsChecked;
+    private long accountsUnverifiable; // historia bez balanceAfter – nie da się ustalić salda otwarcia
+    private long rowsScanned;
+    private int partitions;
+    private long durationMillis;
+    private long throttledMillis;
+    private List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public long getFromTransactionId() { return fromTransactionId; }
+    public void setFromTransactionId(long fromTransactionId) { this.fromTransactionId = fromTransactionId; }
+
+    public long getToTransactionId() { return toTransactionId; }
+    public void setToTransactionId(long toTransactionId) { this.toTransactionId = toTransactionId; }
+
+    public long getAccountsChecked() { return accountsChecked; }
+    public void setAccountsChecked(long accountsChecked) { this.accountsChecked = accountsChecked; }
+
+    public long getAccountsUnverifiable() { return accountsUnverifiable; }
+    public void setAccountsUnverifiable(long accountsUnverifiable) { this.accountsUnverifiable = accountsUnverifiable; }
+
+    public long getRowsScanned() { return rowsScanned; }
+    public void setRowsScanned(long rowsScanned) { this.rowsScanned = rowsScanned; }
+
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public long getThrottledMillis() { return throttledMillis; }
+    public void setThrottledMillis(long throttledMillis) { this.throttledMillis = throttledMillis; }
+
+    public List<ReconciliationDiscrepancy> getDiscrepancies() { return discrepancies; }
+    public void setDiscrepancies(List<ReconciliationDiscrepancy> discrepancies) { this.discrepancies = discrepancies; }
+}
@@ -0,0 +1,25 @@
+package com.example.minibank2.dto;
+
+public class SingleFlightStatsResponse {
+
+    private long calls;
+    private long executions;
+    private long coalesced;
+    private long freshHits;
+    private double coalescingRatio;
+
+    public long getCalls() { return calls; }
+    public void setCalls(long calls) { this.calls = calls; }
+
+    public long getExecutions() { return executions; }
+    public void setExecutions(long executions) { this.executions = executions; }
+
+    public long getCoalesced() { return coalesced; }
+    public void setCoalesced(long coalesced) { this.coalesced = coalesced; }
+
+    public long getFreshHits() { return freshHits; }
+    public void setFreshHits(long freshHits) { this.freshHits = freshHits; }
+
+    public double getCoalescingRatio() { return coalescingRatio; }
+    public void setCoalescingRatio(double coalescingRatio) { this.coalescingRatio = coalescingRatio; }
+}
@@ -0,0 +1,33 @@
+package com.example.minibank2.dto;
+
+public class SqlShapeStatsResponse {
+
+    private String shape;           // SQL z literałami zamienionymi na ?
+    private long count;
+    private long errors;
+    private double totalMillis;
+    private long meanMicros;
+    private long p99Micros;         // z histogramu – dokładność do ~12%
+    private long maxMicros;
+
+    public String getShape() { return shape; }
+    public void setShape(String shape) { this.shape = shape; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+
+    public double getTotalMillis() { return totalMillis; }
+    public void setTotalMillis(double totalMillis) { this.totalMillis = totalMillis; }
+
+    public long getMeanMicros() { return meanMicros; }
+    public void setMeanMicros(long meanMicros) { this.meanMicros = meanMicros; }
+
+    public long getP99Micros() { return p99Micros; }
+    public void setP99Micros(long p99Micros) { this.p99Micros = p99Micros; }
+
+    public long getMaxMicros() { return maxMicros; }
+    public void setMaxMicros(long maxMicros) { this.maxMicros = maxMicros; }
+}
@@ -0,0 +1,47 @@
+package com.example.minibank2.dto;
+
+import java.time.YearMonth;
+
+public class StatementRunResponse {
+
+    private YearMonth month;
+    private String format;
+    private String directory;
+    private int partitions;
+    private long statements;   // liczba plików (konta z ruchem w danym miesiącu)
+    private long rows;
+    private long bytesWritten; // po kompresji
+    private long durationMillis;
+    private double rowsPerSecond;
+    private long peakHeapBytes;
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+
+    public long getStatements() { return statements; }
+    public void setStatements(long statements) { this.statements = statements; }
+
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+
+    public long getBytesWritten() { return bytesWritten; }
+    public void setBytesWritten(long bytesWritten) { this.bytesWritten = bytesWritten; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public long getPeakHeapBytes() { return peakHeapBytes; }
+    public void setPeakHeapBytes(long peakHeapBytes) { this.peakHeapBytes = peakHeapBytes; }
+}
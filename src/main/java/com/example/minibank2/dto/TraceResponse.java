@@ -0,0 +1,15 @@
+package com.example.minibank2.dto;
+
+import java.util.List;
+
+public class TraceResponse {
+
+    private TraceSummaryResponse trace;
+    private List<TraceSpanResponse> spans;
+
+    public TraceSummaryResponse getTrace() { return trace; }
+    public void setTrace(TraceSummaryResponse trace) { this.trace = trace; }
+
+    public List<TraceSpanResponse> getSpans() { return spans; }
+    public void setSpans(List<TraceSpanResponse> spans) { this.spans = spans; }
+}
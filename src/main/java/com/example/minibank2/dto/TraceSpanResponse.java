@@ -0,0 +1,25 @@
+package com.example.minibank2.dto;
+
+public class TraceSpanResponse {
+
+    private String kind;
+    private String name;
+    private int depth;
+    private long offsetMicros;
+    private long durationMicros;
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+
+    public long getOffsetMicros() { return offsetMicros; }
+    public void setOffsetMicros(long offsetMicros) { this.offsetMicros = offsetMicros; }
+
+    public long getDurationMicros() { return durationMicros; }
+    public void setDurationMicros(long durationMicros) { this.durationMicros = durationMicros; }
+}
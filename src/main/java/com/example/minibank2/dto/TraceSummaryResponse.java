@@ -0,0 +1,39 @@
+package com.example.minibank2.dto;
+
+import java.time.LocalDateTime;
+
+public class TraceSummaryResponse {
+
+    private long id;
+    private LocalDateTime startedAt;
+    private String request;
+    private int status;
+    private long durationMicros;
+    private int spans;
+    private int droppedSpans;
+    private String keptBecause;
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public String getRequest() { return request; }
+    public void setRequest(String request) { this.request = request; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public long getDurationMicros() { return durationMicros; }
+    public void setDurationMicros(long durationMicros) { this.durationMicros = durationMicros; }
+
+    public int getSpans() { return spans; }
+    public void setSpans(int spans) { this.spans = spans; }
+
+    public int getDroppedSpans() { return droppedSpans; }
+    public void setDroppedSpans(int droppedSpans) { this.droppedSpans = droppedSpans; }
+
+    public String getKeptBecause() { return keptBecause; }
+    public void setKeptBecause(String keptBecause) { this.keptBecause = keptBecause; }
+}
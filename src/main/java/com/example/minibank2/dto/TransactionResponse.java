@@ -9,6 +9,7 @@ public class TransactionResponse {
     private Long accountId;
     private TransactionType type;
     private BigDecimal amount;
+    private BigDecimal balanceAfter;
     private LocalDateTime dateTime;
 
     public Long getId() {
@@ -43,6 +44,14 @@ public class TransactionResponse {
         this.amount = amount;
     }
 
+    public BigDecimal getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(BigDecimal balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
     public LocalDateTime getDateTime() {
         return dateTime;
     }
@@ -2,6 +2,7 @@ package com.example.minibank2.entity;
 
 import com.example.minibank2.exception.InsufficientFundsException;
 import com.example.minibank2.exception.InvalidAmountException;
+import com.example.minibank2.money.MinorUnits;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -10,6 +11,11 @@ import java.time.LocalDate;
  * Klasa Account reprezentuje konto bankowe w naszej aplikacji MiniBank2.0.
  * Jest to encja JPA, co oznacza, że każda instancja tej klasy będzie odwzorowana
  * na wiersz w tabeli "accounts" w bazie danych H2.
+ * Saldo trzymamy jako long w jednostkach podrzędnych waluty (skala zapisana obok);
+ * BigDecimal zwracają i przyjmują tylko metody na granicy API (getBalance, setBalance, deposit, withdraw).
+ * Waluta, status i oprocentowanie to wspólne instancje (CanonicalValues), a id jest typu prostego –
+ * przy milionach kont w pamięci nie płacimy za osobny String, BigDecimal i Long w każdym obiekcie.
+ * Do cache'owania (np. wyników współdzielonych przez SingleFlight) służy niemutowalny AccountSnapshot (toSnapshot).
  */
 @Entity
 @Table(name = "accounts")
@@ -17,18 +23,26 @@ public class Account {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id; // unikalny identyfikator konta, generowany automatycznie
+    private long id; // unikalny identyfikator konta, generowany automatycznie (0 = jeszcze niezapisane)
     private LocalDate createdAt;
     private String owner;    // właściciel konta, np. "Alicja Kowalska"
     private String number;   // numer konta, np. "PL1234567890"
+    @Convert(converter = CanonicalCodeConverter.class)
     private String currency; // waluta konta, np. "PLN"
-    private BigDecimal balance; // saldo konta
+    @Column(name = "balance_minor")
+    private long balance;       // saldo konta w jednostkach podrzędnych (np. grosze)
+    @Column(name = "balance_scale")
+    private int balanceScale = MinorUnits.DEFAULT_SCALE; // miejsca po przecinku waluty konta
+    @Column(name = "balance_version")
+    private long balanceVersion; // licznik zmian salda (kolejność publikacji do tablicy sald poza stertą)
+    @Convert(converter = CanonicalCodeConverter.class)
     private String status;      // status konta, np. "ACTIVE" lub "BLOCKED"
 
     // nowe pola do testowania dodatkowych funkcji
     @Enumerated(EnumType.STRING)
     private AccountType accountType;     // typ konta, np. "SAVINGS" lub "CHECKING"
 
+    @Convert(converter = CanonicalRateConverter.class)
     private BigDecimal interestRate; // oprocentowanie konta
 
     // Domyślny konstruktor wymagany przez JPA
@@ -39,17 +53,17 @@ public class Account {
                    String status, AccountType accountType, BigDecimal interestRate) {
         this.owner = owner;
         this.number = number;
-        this.currency = currency;
-        this.balance = balance;
-        this.status = status;
+        setCurrency(currency);
+        setBalance(balance);
+        setStatus(status);
         this.accountType = accountType;
-        this.interestRate = interestRate;
+        setInterestRate(interestRate);
         this.createdAt = LocalDate.now();
     }
 
     // Gettery i settery dla wszystkich pól
     public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
+    public void setId(Long id) { this.id = id == null ? 0 : id; }
 
     public String getOwner() { return owner; }
     public void setOwner(String owner) { this.owner = owner; }
@@ -58,13 +72,26 @@ public class Account {
     public void setNumber(String number) { this.number = number; }
 
     public String getCurrency() { return currency; }
-    public void setCurrency(String currency) { this.currency = currency; }
+    // zmiana waluty przelicza saldo na skalę nowej waluty
+    public void setCurrency(String currency) {
+        int scale = MinorUnits.scaleOf(currency);
+        this.balance = MinorUnits.rescale(this.balance, this.balanceScale, scale);
+        this.balanceScale = scale;
+        this.currency = CanonicalValues.code(currency);
+    }
+
+    public BigDecimal getBalance() { return MinorUnits.toDecimal(balance, balanceScale); }
+    public void setBalance(BigDecimal balance) { this.balance = balance == null ? 0 : MinorUnits.toMinor(balance, balanceScale); }
+
+    public long getBalanceMinor() { return balance; }
+    public void setBalanceMinor(long balanceMinor) { this.balance = balanceMinor; }
 
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public int getBalanceScale() { return balanceScale; }
+
+    public long getBalanceVersion() { return balanceVersion; }
 
     public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) { this.status = CanonicalValues.code(status); }
 
     public AccountType getAccountType() {
         return accountType;
@@ -75,7 +102,7 @@ public class Account {
     }
 
     public BigDecimal getInterestRate() { return interestRate; }
-    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = CanonicalValues.rate(interestRate); }
 
     public LocalDate getCreatedAt() {
         return createdAt;
@@ -85,22 +112,40 @@ public class Account {
         this.createdAt = createdAt;
     }
 
-    // metody wpłaty i wypłaty środków z konta wraz z walidacją
+    // niemutowalna, zwarta kopia konta do trzymania w pamięci
+    public AccountSnapshot toSnapshot() {
+        return new AccountSnapshot(id, owner, number, currency, balance, balanceScale, balanceVersion, status,
+                accountType, interestRate, createdAt == null ? AccountSnapshot.NO_DATE : (int) createdAt.toEpochDay());
+    }
+
+    // metody wpłaty i wypłaty środków z konta wraz z walidacją;
+    // kwota z API jest raz zamieniana na jednostki podrzędne (bez zaokrąglania – nadmiarowe miejsca
+    // po przecinku to InvalidAmountException), dalej liczymy na long
     public void withdraw(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        withdrawMinor(MinorUnits.toMinorExact(amount, balanceScale));
+    }
+
+    public void deposit(BigDecimal amount) {
+        depositMinor(MinorUnits.toMinorExact(amount, balanceScale));
+    }
+
+    public void withdrawMinor(long amount) {
+        if (amount <= 0) {
             throw new InvalidAmountException("Kwota musi być większa od 0");
         }
-        if (this.balance.compareTo(amount) < 0) {
+        if (this.balance < amount) {
             throw new InsufficientFundsException("Brak wystarczających środków na koncie");
         }
-        this.balance = this.balance.subtract(amount);
+        this.balance = MinorUnits.subtract(this.balance, amount);
+        this.balanceVersion++;
     }
 
-    public void deposit(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public void depositMinor(long amount) {
+        if (amount <= 0) {
             throw new InvalidAmountException("Kwota musi być większa od 0");
         }
-        this.balance = this.balance.add(amount);
+        this.balance = MinorUnits.add(this.balance, amount);
+        this.balanceVersion++;
     }
 
 }
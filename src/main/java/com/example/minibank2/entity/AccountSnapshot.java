@@ -0,0 +1,34 @@
+package com.example.minibank2.entity;
+
+import com.example.minibank2.money.MinorUnits;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Niemutowalna kopia konta do cache'owania. Same typy proste tam, gdzie się da:
+ * id bez opakowania, saldo w jednostkach podrzędnych, data założenia jako dzień epoki
+ * (zamiast osobnego LocalDate na konto); waluta, status i oprocentowanie to wspólne instancje.
+ */
+public record AccountSnapshot(long id,
+                              String owner,
+                              String number,
+                              String currency,
+                              long balanceMinor,
+                              int balanceScale,
+                              long balanceVersion,
+                              String status,
+                              AccountType accountType,
+                              BigDecimal interestRate,
+                              int createdEpochDay) {
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    public BigDecimal balance() {
+        return MinorUnits.toDecimal(balanceMinor, balanceScale);
+    }
+
+    public LocalDate createdAt() {
+        return createdEpochDay == NO_DATE ? null : LocalDate.ofEpochDay(createdEpochDay);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.minibank2.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Kody wczytywane z bazy (waluta, status) zamieniamy na wspólne instancje.
+ */
+@Converter
+public class CanonicalCodeConverter implements AttributeConverter<String, String> {
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return attribute;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return CanonicalValues.code(dbData);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.minibank2.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Oprocentowanie wczytywane z bazy zamieniamy na wspólną instancję BigDecimal.
+ */
+@Converter
+public class CanonicalRateConverter implements AttributeConverter<BigDecimal, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(BigDecimal attribute) {
+        return attribute;
+    }
+
+    @Override
+    public BigDecimal convertToEntityAttribute(BigDecimal dbData) {
+        return CanonicalValues.rate(dbData);
+    }
+}
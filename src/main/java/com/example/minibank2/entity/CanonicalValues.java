@@ -0,0 +1,45 @@
+package com.example.minibank2.entity;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wspólne instancje powtarzalnych wartości kont: kody walut i statusów oraz oprocentowania
+ * (prawie zawsze 0.00 albo 0.02). Zamiast osobnego Stringa / BigDecimal w każdym koncie
+ * wszystkie konta wskazują ten sam obiekt. Pula jest ograniczona – po jej zapełnieniu
+ * nowe wartości zwracamy bez współdzielenia, więc dowolne dane wejściowe jej nie rozdmuchają.
+ */
+final class CanonicalValues {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final ConcurrentHashMap<String, String> CODES = new ConcurrentHashMap<>();
+    // klucz to BigDecimal.equals – 0.02 i 0.020 zostają osobnymi instancjami (inna skala w odpowiedzi)
+    private static final ConcurrentHashMap<BigDecimal, BigDecimal> RATES = new ConcurrentHashMap<>();
+
+    private CanonicalValues() {
+    }
+
+    static String code(String value) {
+        return canonical(CODES, value);
+    }
+
+    static BigDecimal rate(BigDecimal value) {
+        return canonical(RATES, value);
+    }
+
+    private static <T> T canonical(ConcurrentHashMap<T, T> pool, T value) {
+        if (value == null) {
+            return null;
+        }
+        T shared = pool.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (pool.size() >= MAX_ENTRIES) {
+            return value;
+        }
+        shared = pool.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+}
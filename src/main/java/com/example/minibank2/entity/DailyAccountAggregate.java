@@ -0,0 +1,101 @@
+package com.example.minibank2.entity;
+
+import com.example.minibank2.money.MinorUnits;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Dzienne podsumowanie ruchu na koncie: liczba i suma transakcji każdego typu.
+ * Wiersz jest aktualizowany przy każdym zapisie transakcji, dzięki czemu zapytania
+ * o sumy z dnia/miesiąca nie muszą skanować całej historii.
+ * account_id celowo nie jest kluczem obcym – podsumowania nie blokują usuwania kont.
+ */
+@Entity
+@Table(name = "daily_account_aggregates",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "business_date"}))
+public class DailyAccountAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    // sumy w skali MAX_SCALE (jak kwoty w transactions), gettery zwracają je bez zer dopisanych przez bazę
+    private long depositCount;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal depositSum = BigDecimal.ZERO;
+    private long withdrawCount;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal withdrawSum = BigDecimal.ZERO;
+    private long transferInCount;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal transferInSum = BigDecimal.ZERO;
+    private long transferOutCount;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal transferOutSum = BigDecimal.ZERO;
+    @ColumnDefault("0") // kolumny dodane później – istniejące wiersze dostają zera
+    private long interestCount;
+    @ColumnDefault("0")
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal interestSum = BigDecimal.ZERO;
+
+    public DailyAccountAggregate() {}
+
+    public DailyAccountAggregate(Long accountId, LocalDate businessDate) {
+        this.accountId = accountId;
+        this.businessDate = businessDate;
+    }
+
+    // 🔹 Doliczenie pojedynczej transakcji do podsumowania dnia
+    public void apply(TransactionType type, BigDecimal amount) {
+        switch (type) {
+            case DEPOSIT -> {
+                depositCount++;
+                depositSum = depositSum.add(amount);
+            }
+            case WITHDRAW -> {
+                withdrawCount++;
+                withdrawSum = withdrawSum.add(amount);
+            }
+            case TRANSFER_IN -> {
+                transferInCount++;
+                transferInSum = transferInSum.add(amount);
+            }
+            case TRANSFER_OUT -> {
+                transferOutCount++;
+                transferOutSum = transferOutSum.add(amount);
+            }
+            case INTEREST -> {
+                interestCount++;
+                interestSum = interestSum.add(amount);
+            }
+        }
+    }
+
+    public Long getId() { return id; }
+    public Long getAccountId() { return accountId; }
+    public LocalDate getBusinessDate() { return businessDate; }
+
+    public long getDepositCount() { return depositCount; }
+    public BigDecimal getDepositSum() { return MinorUnits.normalize(depositSum); }
+
+    public long getWithdrawCount() { return withdrawCount; }
+    public BigDecimal getWithdrawSum() { return MinorUnits.normalize(withdrawSum); }
+
+    public long getTransferInCount() { return transferInCount; }
+    public BigDecimal getTransferInSum() { return MinorUnits.normalize(transferInSum); }
+
+    public long getTransferOutCount() { return transferOutCount; }
+    public BigDecimal getTransferOutSum() { return MinorUnits.normalize(transferOutSum); }
+
+    public long getInterestCount() { return interestCount; }
+    public BigDecimal getInterestSum() { return MinorUnits.normalize(interestSum); }
+}
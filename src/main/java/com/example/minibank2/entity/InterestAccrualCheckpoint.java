@@ -0,0 +1,59 @@
+package com.example.minibank2.entity;
+
+import com.example.minibank2.money.MinorUnits;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Punkt kontrolny naliczania odsetek: zakres id kont przetworzony dla danego dnia.
+ * Wiersz zapisywany jest w tej samej transakcji co księgowania odsetek, więc
+ * po awarii wznowione zadanie pomija dokładnie te zakresy, które zostały zatwierdzone.
+ */
+@Entity
+@Table(name = "interest_accrual_checkpoints",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"accrual_date", "range_start"}))
+public class InterestAccrualCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart; // włącznie
+
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;   // wyłącznie
+
+    private int postings;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal totalInterest;
+    private LocalDateTime completedAt;
+
+    public InterestAccrualCheckpoint() {}
+
+    public Long getId() { return id; }
+
+    public LocalDate getAccrualDate() { return accrualDate; }
+    public void setAccrualDate(LocalDate accrualDate) { this.accrualDate = accrualDate; }
+
+    public long getRangeStart() { return rangeStart; }
+    public void setRangeStart(long rangeStart) { this.rangeStart = rangeStart; }
+
+    public long getRangeEnd() { return rangeEnd; }
+    public void setRangeEnd(long rangeEnd) { this.rangeEnd = rangeEnd; }
+
+    public int getPostings() { return postings; }
+    public void setPostings(int postings) { this.postings = postings; }
+
+    public BigDecimal getTotalInterest() { return MinorUnits.normalize(totalInterest); }
+    public void setTotalInterest(BigDecimal totalInterest) { this.totalInterest = totalInterest; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,53 @@
+package com.example.minibank2.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Znacznik postępu uzgadniania sald: największe id transakcji, które zostało już
+ * uwzględnione. Tryb przyrostowy sprawdza tylko konta z nowszymi transakcjami
+ * oraz konta z nierozwiązanym rozjazdem – ich lista jest zapisywana razem ze znacznikiem,
+ * więc przeżywa restart aplikacji.
+ */
+@Entity
+@Table(name = "reconciliation_watermarks")
+public class ReconciliationWatermark {
+
+    @Id
+    private String name;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    private LocalDateTime updatedAt;
+
+    // konta z rozjazdem potwierdzonym w ostatnim sprawdzeniu – sprawdzane ponownie przy każdym uruchomieniu
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "reconciliation_open_discrepancies", joinColumns = @JoinColumn(name = "watermark_name"))
+    @Column(name = "account_id")
+    private Set<Long> openDiscrepancies = new HashSet<>();
+
+    public ReconciliationWatermark() {}
+
+    public ReconciliationWatermark(String name, long lastTransactionId, LocalDateTime updatedAt,
+                                   Set<Long> openDiscrepancies) {
+        this.name = name;
+        this.lastTransactionId = lastTransactionId;
+        this.updatedAt = updatedAt;
+        this.openDiscrepancies = new HashSet<>(openDiscrepancies);
+    }
+
+    public String getName() { return name; }
+
+    public long getLastTransactionId() { return lastTransactionId; }
+    public void setLastTransactionId(long lastTransactionId) { this.lastTransactionId = lastTransactionId; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Set<Long> getOpenDiscrepancies() { return openDiscrepancies; }
+    public void setOpenDiscrepancies(Set<Long> openDiscrepancies) { this.openDiscrepancies = openDiscrepancies; }
+}
@@ -1,5 +1,6 @@
 package com.example.minibank2.entity;
 
+import com.example.minibank2.money.MinorUnits;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
@@ -8,13 +9,18 @@ import java.time.LocalDateTime;
 import com.example.minibank2.entity.TransactionType;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = @Index(name = "idx_transactions_account_date", columnList = "account_id, date_time"))
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private LocalDateTime dateTime;
+    // skala MAX_SCALE mieści każdą walutę (JPY 0, PLN 2, KWD 3 miejsca) – NUMERIC(38,2) obcinał KWD
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
     private BigDecimal amount;
+    @Column(precision = 38, scale = MinorUnits.MAX_SCALE)
+    private BigDecimal balanceAfter; // saldo konta zaraz po tej transakcji
     @Enumerated(EnumType.STRING)
     private TransactionType type;
     @ManyToOne
@@ -48,14 +54,23 @@ public class Transaction {
         this.dateTime = dateTime;
     }
 
+    // kwoty bez zer dopisanych przez kolumnę o skali MAX_SCALE
     public BigDecimal getAmount() {
-        return amount;
+        return MinorUnits.normalize(amount);
     }
 
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
 
+    public BigDecimal getBalanceAfter() {
+        return MinorUnits.normalize(balanceAfter);
+    }
+
+    public void setBalanceAfter(BigDecimal balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
     public TransactionType getType() {
         return type;
     }
@@ -4,5 +4,11 @@ public enum TransactionType {
     DEPOSIT,        // wpłata
     WITHDRAW,       // wypłata
     TRANSFER_IN,    // przelew przychodzący
-    TRANSFER_OUT    // przelew wychodzący
+    TRANSFER_OUT,   // przelew wychodzący
+    INTEREST;       // naliczone odsetki
+
+    // czy transakcja zwiększa saldo konta
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN || this == INTEREST;
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.minibank2.jfr;
+
+import java.math.BigDecimal;
+
+/**
+ * Kwoty w zdarzeniach JFR zapisujemy jako przedział rzędu wielkości, nie dokładną wartość –
+ * nagrania trafiają do ludzi spoza banku (profilowanie), a do analizy wydajności rząd wielkości wystarcza.
+ */
+public final class AmountBucket {
+
+    private static final String[] BUCKETS = {
+            "<1", "1-10", "10-100", "100-1k", "1k-10k", "10k-100k", "100k-1M", ">=1M"
+    };
+
+    private AmountBucket() {
+    }
+
+    // 🔹 Przedział kwoty: <1, 1-10, 10-100, ..., >=1M (null/ujemna → "invalid")
+    public static String of(BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
+            return "invalid";
+        }
+        if (amount.compareTo(BigDecimal.ONE) < 0) {
+            return BUCKETS[0];
+        }
+        // liczba cyfr części całkowitej: 1-9 → 1, 10-99 → 2, ...
+        int digits = amount.precision() - amount.scale();
+        return BUCKETS[Math.min(digits, BUCKETS.length - 1)];
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.minibank2.jfr;
+
+import com.example.minibank2.dto.JfrDumpResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Ciągłe nagranie JFR w aplikacji (profil "default" JDK – narzut rzędu 1%) z naszymi zdarzeniami
+ * minibank.*, trzymane w repozytorium JFR na dysku przez max-age / do max-size. Na żądanie zrzucamy
+ * migawkę wszystkich trwających nagrań w JVM – także tych uruchomionych flagą -XX:StartFlightRecording.
+ */
+@Component
+public class FlightRecording {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecording.class);
+
+    private final boolean continuous;
+    private final Path directory;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    public FlightRecording(@Value("${minibank.jfr.continuous:true}") boolean continuous,
+                           @Value("${minibank.jfr.dir:jfr}") String directory,
+                           @Value("${minibank.jfr.max-age-minutes:15}") long maxAgeMinutes,
+                           @Value("${minibank.jfr.max-size-mb:100}") long maxSizeMb) {
+        this.continuous = continuous;
+        this.directory = Path.of(directory);
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!continuous || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            logger.warn("Cannot load JFR 'default' settings, recording only minibank events", e);
+            recording = new Recording();
+        }
+        recording.setName("minibank-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        for (Class<? extends Event> event : List.of(TransferEvent.class, DepositEvent.class,
+                WithdrawEvent.class, TransactionRecordedEvent.class)) {
+            recording.enable(event).withoutStackTrace();
+        }
+        recording.start();
+    }
+
+    // 🔹 Zrzut migawki trwających nagrań do pliku jfr/minibank-<czas>.jfr
+    public JfrDumpResponse dump() throws IOException {
+        if (!FlightRecorder.isAvailable() || FlightRecorder.getFlightRecorder().getRecordings().isEmpty()) {
+            throw new IllegalArgumentException("No JFR recording is running (minibank.jfr.continuous=false and no -XX:StartFlightRecording)");
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve("minibank-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.dump(file);
+            JfrDumpResponse response = new JfrDumpResponse();
+            response.setFile(file.toAbsolutePath().toString());
+            response.setSizeBytes(Files.size(file));
+            if (snapshot.getStartTime() != null) {
+                response.setFrom(LocalDateTime.ofInstant(snapshot.getStartTime(), ZoneId.systemDefault()));
+            }
+            if (snapshot.getStopTime() != null) {
+                response.setTo(LocalDateTime.ofInstant(snapshot.getStopTime(), ZoneId.systemDefault()));
+            }
+            response.setRecordings(FlightRecorder.getFlightRecorder().getRecordings().stream()
+                    .filter(each -> each.getState() == RecordingState.RUNNING)
+                    .map(Recording::getName)
+                    .toList());
+            return response;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.minibank2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("minibank.TransactionRecorded")
+@Label("Transaction Recorded")
+@Category({"MiniBank", "Money Movement"})
+@Description("Transaction row saved together with daily aggregate, history buffer and analytics updates")
+@StackTrace(false)
+public class TransactionRecordedEvent extends Event {
+
+    @Label("Account Id")
+    public long accountId;
+
+    @Label("Transaction Type")
+    public String type;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+}
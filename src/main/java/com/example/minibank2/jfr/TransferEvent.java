@@ -0,0 +1,33 @@
+package com.example.minibank2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("minibank.Transfer")
+@Label("Transfer")
+@Category({"MiniBank", "Money Movement"})
+@Description("Transfer between two accounts, including row lock wait")
+@StackTrace(false)
+public class TransferEvent extends Event {
+
+    @Label("Sender Id")
+    public long senderId;
+
+    @Label("Receiver Id")
+    public long receiverId;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Outcome")
+    public String outcome;
+}
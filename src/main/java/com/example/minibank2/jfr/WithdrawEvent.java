@@ -0,0 +1,30 @@
+package com.example.minibank2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("minibank.Withdraw")
+@Label("Withdraw")
+@Category({"MiniBank", "Money Movement"})
+@Description("Withdraw on a single account, including row lock wait")
+@StackTrace(false)
+public class WithdrawEvent extends Event {
+
+    @Label("Account Id")
+    public long accountId;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,26 @@
+package com.example.minibank2.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Podział posortowanej listy identyfikatorów kont na ciągłe, rozłączne partycje
+ * (zakresy id) do równoległego przetwarzania przez zadania wsadowe.
+ */
+final class AccountPartitions {
+
+    private AccountPartitions() {}
+
+    static List<List<Long>> split(List<Long> sortedIds, int partitions) {
+        List<List<Long>> result = new ArrayList<>();
+        if (sortedIds.isEmpty()) {
+            return result;
+        }
+        int count = Math.max(1, Math.min(partitions, sortedIds.size()));
+        int size = (sortedIds.size() + count - 1) / count;
+        for (int from = 0; from < sortedIds.size(); from += size) {
+            result.add(sortedIds.subList(from, Math.min(from + size, sortedIds.size())));
+        }
+        return result;
+    }
+}
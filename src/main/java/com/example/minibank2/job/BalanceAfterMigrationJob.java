@@ -0,0 +1,122 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.dto.BalanceMigrationResponse;
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.repository.TransactionRepository;
+import com.example.minibank2.service.RecentTransactionsBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migracja uzupełniająca balanceAfter w istniejącej historii transakcji.
+ * Konta dzielone są na rozłączne partycje (zakresy id) przetwarzane równolegle.
+ * Saldo początkowe konta = bieżące saldo minus zmiana netto z całej historii;
+ * od niego liczymy saldo narastająco w kolejności (date_time, id).
+ * Każde konto jest migrowane w osobnej transakcji z blokadą wiersza konta,
+ * więc równoległy przelew nie wejdzie w środek przeliczenia.
+ */
+@Component
+public class BalanceAfterMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceAfterMigrationJob.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final RecentTransactionsBuffer recentTransactionsBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+
+    public BalanceAfterMigrationJob(AccountRepository accountRepository,
+                                    TransactionRepository transactionRepository,
+                                    RecentTransactionsBuffer recentTransactionsBuffer,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${minibank.jobs.threads:4}") int threads) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.recentTransactionsBuffer = recentTransactionsBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads;
+    }
+
+    public BalanceMigrationResponse run() {
+        long start = System.currentTimeMillis();
+        List<List<Long>> partitions = AccountPartitions.split(accountRepository.findAllIds(), threads);
+        AtomicLong accounts = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, partitions.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Long> partition : partitions) {
+                futures.add(executor.submit(() -> {
+                    for (Long accountId : partition) {
+                        Long changed = transactionTemplate.execute(status -> migrateAccount(accountId));
+                        updated.addAndGet(changed == null ? 0 : changed);
+                        accounts.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Balance migration interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Balance migration failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            recentTransactionsBuffer.clear(); // bufor trzyma odpowiedzi sprzed uzupełnienia balanceAfter
+        }
+
+        BalanceMigrationResponse report = new BalanceMigrationResponse();
+        report.setAccounts(accounts.get());
+        report.setTransactionsUpdated(updated.get());
+        report.setPartitions(partitions.size());
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        logger.info("balanceAfter migrated for {} accounts ({} transactions updated) in {} ms",
+                report.getAccounts(), report.getTransactionsUpdated(), report.getDurationMillis());
+        return report;
+    }
+
+    private long migrateAccount(Long accountId) {
+        Account account = accountRepository.findByIdForUpdate(accountId).orElse(null);
+        if (account == null) {
+            return 0; // konto usunięte w międzyczasie
+        }
+        List<Transaction> history = transactionRepository.findByAccountIdOrderByDateTimeAscIdAsc(accountId);
+
+        BigDecimal net = BigDecimal.ZERO;
+        for (Transaction transaction : history) {
+            net = transaction.getType().isCredit() ? net.add(transaction.getAmount()) : net.subtract(transaction.getAmount());
+        }
+
+        BigDecimal running = account.getBalance().subtract(net);
+        long changed = 0;
+        for (Transaction transaction : history) {
+            running = transaction.getType().isCredit()
+                    ? running.add(transaction.getAmount())
+                    : running.subtract(transaction.getAmount());
+            if (transaction.getBalanceAfter() == null || transaction.getBalanceAfter().compareTo(running) != 0) {
+                transaction.setBalanceAfter(running); // zapis przy flushu na końcu transakcji
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
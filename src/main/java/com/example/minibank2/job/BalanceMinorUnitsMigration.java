@@ -0,0 +1,130 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.money.MinorUnits;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jednorazowa migracja starego schematu, w którym saldo konta było kolumną DECIMAL "balance".
+ * ddl-auto=update dokłada kolumny balance_minor i balance_scale, ale nie przenosi danych –
+ * robimy to tutaj przy starcie: saldo każdej waluty mnożymy przez 10^skala (HALF_UP),
+ * po czym starą kolumnę usuwamy. Kolumny salda dołożone do istniejącej tabeli są nullowalne –
+ * puste wartości uzupełniamy i zakładamy NOT NULL. Kolumny z kwotami historii i podsumowań
+ * miały skalę 2 (KWD tracił trzecie miejsce) – poszerzamy je do MinorUnits.MAX_SCALE,
+ * bo ddl-auto=update nie zmienia typu istniejącej kolumny. Na nowej bazie migracja nic nie robi.
+ * Migracja działa przy tworzeniu beanów – po aktualizacji schematu przez entityManagerFactory,
+ * a przed startem serwera WWW, więc żadne żądanie nie trafi na niezmigrowane saldo.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class BalanceMinorUnitsMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceMinorUnitsMigration.class);
+
+    private static final String LEGACY_COLUMN =
+            "select count(*) from information_schema.columns " +
+            "where upper(table_name) = 'ACCOUNTS' and upper(column_name) = 'BALANCE'";
+    private static final String CURRENCIES = "select distinct currency from accounts";
+    private static final String MIGRATE_CURRENCY =
+            "update accounts set balance_scale = ?, balance_minor = cast(round(balance * ?, 0) as bigint) " +
+            "where balance is not null and currency = ?";
+    private static final String MIGRATE_NO_CURRENCY =
+            "update accounts set balance_scale = ?, balance_minor = cast(round(balance * ?, 0) as bigint) " +
+            "where balance is not null and currency is null";
+    private static final String DROP_LEGACY_COLUMN = "alter table accounts drop column balance";
+    private static final String NULLABLE_COLUMN =
+            "select count(*) from information_schema.columns " +
+            "where upper(table_name) = 'ACCOUNTS' and upper(column_name) = ? and is_nullable = 'YES'";
+    private static final String COLUMN_SCALE =
+            "select numeric_scale from information_schema.columns " +
+            "where upper(table_name) = ? and upper(column_name) = ?";
+    // tabela -> kolumny z kwotami w skali MAX_SCALE
+    private static final Map<String, List<String>> AMOUNT_COLUMNS = new LinkedHashMap<>();
+    // kolumna -> wartość dla wierszy sprzed jej dodania
+    private static final Map<String, Integer> BALANCE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        BALANCE_COLUMNS.put("balance_minor", 0);
+        BALANCE_COLUMNS.put("balance_scale", MinorUnits.DEFAULT_SCALE);
+        BALANCE_COLUMNS.put("balance_version", 0);
+        AMOUNT_COLUMNS.put("transactions", List.of("amount", "balance_after"));
+        AMOUNT_COLUMNS.put("daily_account_aggregates",
+                List.of("deposit_sum", "withdraw_sum", "transfer_in_sum", "transfer_out_sum", "interest_sum"));
+        AMOUNT_COLUMNS.put("interest_accrual_checkpoints", List.of("total_interest"));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceMinorUnitsMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void run() {
+        migrateLegacyBalance();
+        BALANCE_COLUMNS.forEach(this::requireColumn);
+        AMOUNT_COLUMNS.forEach((table, columns) -> columns.forEach(column -> widenAmountColumn(table, column)));
+    }
+
+    private void migrateLegacyBalance() {
+        Integer legacy = jdbcTemplate.queryForObject(LEGACY_COLUMN, Integer.class);
+        if (legacy == null || legacy == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Integer migrated = transactionTemplate.execute(status -> {
+            int rows = 0;
+            List<String> currencies = jdbcTemplate.queryForList(CURRENCIES, String.class);
+            for (String currency : currencies) {
+                int scale = MinorUnits.scaleOf(currency);
+                BigDecimal factor = BigDecimal.ONE.scaleByPowerOfTen(scale);
+                rows += currency == null
+                        ? jdbcTemplate.update(MIGRATE_NO_CURRENCY, scale, factor)
+                        : jdbcTemplate.update(MIGRATE_CURRENCY, scale, factor, currency);
+            }
+            jdbcTemplate.execute(DROP_LEGACY_COLUMN);
+            return rows;
+        });
+        logger.info("Account balances migrated to minor units: {} rows in {} ms",
+                migrated, System.currentTimeMillis() - start);
+    }
+
+    // 🔹 Poszerzenie kolumny z kwotą do skali MAX_SCALE (wartości zostają, dochodzą tylko miejsca po przecinku)
+    private void widenAmountColumn(String table, String column) {
+        List<Integer> scales = jdbcTemplate.queryForList(COLUMN_SCALE, Integer.class,
+                table.toUpperCase(), column.toUpperCase());
+        if (scales.isEmpty() || scales.get(0) == null || scales.get(0) >= MinorUnits.MAX_SCALE) {
+            return;
+        }
+        jdbcTemplate.execute("alter table " + table + " alter column " + column
+                + " set data type numeric(38, " + MinorUnits.MAX_SCALE + ")");
+        logger.info("Column {}.{} widened from scale {} to {}", table, column, scales.get(0), MinorUnits.MAX_SCALE);
+    }
+
+    // 🔹 Uzupełnienie pustych wartości i NOT NULL (encja mapuje te kolumny na typy proste)
+    private void requireColumn(String column, int fill) {
+        Integer nullable = jdbcTemplate.queryForObject(NULLABLE_COLUMN, Integer.class, column.toUpperCase());
+        if (nullable == null || nullable == 0) {
+            return;
+        }
+        Integer filled = transactionTemplate.execute(status -> {
+            int rows = jdbcTemplate.update("update accounts set " + column + " = ? where " + column + " is null", fill);
+            jdbcTemplate.execute("alter table accounts alter column " + column + " set not null");
+            return rows;
+        });
+        logger.info("Column accounts.{} set to NOT NULL ({} empty rows filled with {})", column, filled, fill);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.archive.TransactionArchive;
+import com.example.minibank2.dto.AggregateBackfillResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.DailyAccountAggregate;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.repository.DailyAccountAggregateRepository;
+import com.example.minibank2.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Przelicza dzienne podsumowania od zera na podstawie istniejącej historii transakcji –
+ * z bazy i z archiwum (dni przeniesione do segmentów nie tracą swoich sum).
+ * Każde konto przetwarzane jest w osobnej transakcji bazodanowej (usuń + zapisz od nowa),
+ * więc zadanie można bezpiecznie powtórzyć. Transakcja zaczyna się od blokady wiersza konta
+ * (tej samej, którą trzymają wpłaty, wypłaty, przelewy i naliczanie odsetek), więc przeliczenie
+ * nie ściga się z bieżącym MERGE w DailyAggregateService.record. Przeznaczone do jednorazowego uruchomienia
+ * po wdrożeniu podsumowań lub po ręcznych poprawkach danych.
+ */
+@Component
+public class DailyAggregateBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyAggregateBackfillJob.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final DailyAccountAggregateRepository aggregateRepository;
+    private final TransactionArchive transactionArchive;
+    private final TransactionTemplate transactionTemplate;
+
+    public DailyAggregateBackfillJob(AccountRepository accountRepository,
+                                     TransactionRepository transactionRepository,
+                                     DailyAccountAggregateRepository aggregateRepository,
+                                     TransactionArchive transactionArchive,
+                                     PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public AggregateBackfillResponse run() {
+        long start = System.currentTimeMillis();
+        AggregateBackfillResponse report = new AggregateBackfillResponse();
+
+        Page<Account> page = accountRepository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        while (true) {
+            for (Account account : page) {
+                transactionTemplate.executeWithoutResult(status -> backfillAccount(account.getId(), report));
+                report.setAccounts(report.getAccounts() + 1);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = accountRepository.findAll(page.nextPageable());
+        }
+
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        logger.info("Daily aggregates backfilled: {} accounts, {} transactions, {} aggregates in {} ms",
+                report.getAccounts(), report.getTransactions(), report.getAggregates(), report.getDurationMillis());
+        return report;
+    }
+
+    private void backfillAccount(Long accountId, AggregateBackfillResponse report) {
+        // bez blokady równoległe pierwsze księgowanie dnia kończyło saveAll duplikatem klucza,
+        // a księgowanie zatwierdzone między odczytem a zapisem znikało z podsumowania
+        if (accountRepository.findByIdForUpdate(accountId).isEmpty()) {
+            return; // konto usunięte po odczycie strony
+        }
+        aggregateRepository.deleteByAccountId(accountId);
+
+        List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
+        Map<LocalDate, DailyAccountAggregate> byDay = new TreeMap<>();
+        Set<Long> hotIds = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            hotIds.add(transaction.getId());
+            LocalDate day = transaction.getDateTime().toLocalDate();
+            byDay.computeIfAbsent(day, d -> new DailyAccountAggregate(accountId, d))
+                    .apply(transaction.getType(), transaction.getAmount());
+        }
+        // wiersze już w segmencie, ale jeszcze nieusunięte z bazy (przerwany archiwizator) liczymy raz
+        int archived = 0;
+        for (TransactionResponse row : transactionArchive.find(accountId, null, null)) {
+            if (hotIds.contains(row.getId())) {
+                continue;
+            }
+            LocalDate day = row.getDateTime().toLocalDate();
+            byDay.computeIfAbsent(day, d -> new DailyAccountAggregate(accountId, d))
+                    .apply(row.getType(), row.getAmount());
+            archived++;
+        }
+        aggregateRepository.saveAll(byDay.values());
+
+        report.setTransactions(report.getTransactions() + transactions.size() + archived);
+        report.setAggregates(report.getAggregates() + byDay.size());
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.analytics.AnalyticsSnapshot;
+import com.example.minibank2.dto.InterestAccrualResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.entity.InterestAccrualCheckpoint;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.money.OffHeapBalanceTable;
+import com.example.minibank2.repository.InterestAccrualCheckpointRepository;
+import com.example.minibank2.repository.TransactionHistoryStore;
+import com.example.minibank2.service.DailyAggregateService;
+import com.example.minibank2.service.RecentTransactionsBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Silnik naliczania dziennych odsetek dla kont SAVINGS.
+ * Przestrzeń id kont dzielona jest na stałe zakresy (chunki) wyrównane do rozmiaru chunka,
+ * więc po restarcie dostajemy dokładnie te same zakresy. Chunki przetwarzane są na puli
+ * fork-join; każdy chunk to jedna transakcja bazodanowa, w której:
+ * blokujemy wiersze kont, liczymy odsetki na BigDecimal z jawnym zaokrągleniem,
+ * wsadowo (JDBC batch) podnosimy salda, wstawiamy transakcje INTEREST i aktualizujemy
+ * dzienne podsumowania, a na końcu zapisujemy punkt kontrolny chunka.
+ * Unikalny punkt kontrolny (dzień, początek zakresu) gwarantuje, że chunk nie zostanie
+ * zaksięgowany dwa razy – nawet gdy dwa uruchomienia dla tego samego dnia pracują równolegle.
+ * Oprocentowanie traktujemy jako roczny ułamek (0.02 = 2%), dzielony przez liczbę dni w roku.
+ */
+@Component
+public class InterestAccrualJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualJob.class);
+
+    private static final String SELECT_CHUNK =
+            "select id, balance_minor, balance_scale, interest_rate from accounts " +
+            "where account_type = ? and status = 'ACTIVE' and id >= ? and id < ? " +
+            "and interest_rate > 0 order by id for update";
+    // zmiana netto sald po chwili księgowania odsetek (zadanie uruchomione po północy albo za miniony dzień)
+    private static final String SELECT_LATER_NET =
+            "select account_id, sum(case when type in (" +
+            Arrays.stream(TransactionType.values())
+                    .filter(TransactionType::isCredit)
+                    .map(type -> "'" + type.name() + "'")
+                    .collect(Collectors.joining(", ")) +
+            ") then amount else -amount end) from transactions " +
+            "where account_id >= ? and account_id < ? and date_time > ? group by account_id";
+    private static final String REBASE_LATER =
+            "update transactions set balance_after = balance_after + ? where account_id = ? and date_time > ?";
+    private static final String SELECT_LATER =
+            "select id, account_id, date_time, type, amount, balance_after from transactions " +
+            "where account_id >= ? and account_id < ? and date_time > ? order by id";
+    private static final String UPDATE_BALANCE = "update accounts set balance_minor = ?, balance_version = balance_version + 1 where id = ?";
+    private static final String INSERT_POSTING =
+            "insert into transactions (account_id, amount, balance_after, date_time, type) values (?, ?, ?, ?, ?)";
+    private static final String SELECT_POSTED =
+            "select id, account_id, date_time, type, amount, balance_after from transactions " +
+            "where type = ? and date_time = ? and account_id >= ? and account_id < ? order by id";
+    private static final String INSERT_CHECKPOINT =
+            "insert into interest_accrual_checkpoints " +
+            "(accrual_date, range_start, range_end, postings, total_interest, completed_at) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InterestAccrualCheckpointRepository checkpointRepository;
+    private final DailyAggregateService dailyAggregateService;
+    private final RecentTransactionsBuffer recentTransactionsBuffer;
+    private final TransactionHistoryStore historyStore;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final OffHeapBalanceTable balanceTable;
+    private final int chunkSize;
+    private final int parallelism;
+    private final RoundingMode roundingMode;
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              InterestAccrualCheckpointRepository checkpointRepository,
+                              DailyAggregateService dailyAggregateService,
+                              RecentTransactionsBuffer recentTransactionsBuffer,
+                              TransactionHistoryStore historyStore,
+                              AnalyticsSnapshot analyticsSnapshot,
+                              OffHeapBalanceTable balanceTable,
+                              @Value("${minibank.interest.chunk-size:1000}") int chunkSize,
+                              @Value("${minibank.interest.parallelism:0}") int parallelism,
+                              @Value("${minibank.interest.rounding:HALF_EVEN}") RoundingMode roundingMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.dailyAggregateService = dailyAggregateService;
+        this.recentTransactionsBuffer = recentTransactionsBuffer;
+        this.historyStore = historyStore;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.balanceTable = balanceTable;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.roundingMode = roundingMode;
+    }
+
+    public InterestAccrualResponse run(LocalDate accrualDate) {
+        // dzień musi być zamknięty – księgowanie z 23:59:59 dnia bieżącego lub przyszłego wyprzedziłoby nowsze wpisy
+        if (!accrualDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Interest can only be accrued for a past day, got " + accrualDate);
+        }
+        long start = System.nanoTime();
+        InterestAccrualResponse report = new InterestAccrualResponse();
+        report.setAccrualDate(accrualDate);
+        report.setParallelism(parallelism);
+
+        Long minId = jdbcTemplate.queryForObject("select min(id) from accounts where account_type = ?",
+                Long.class, AccountType.SAVINGS.name());
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from accounts where account_type = ?",
+                Long.class, AccountType.SAVINGS.name());
+        if (minId == null) {
+            return finish(report, start);
+        }
+
+        long firstChunk = minId / chunkSize;
+        long lastChunk = maxId / chunkSize;
+        Set<Long> done = checkpointRepository.findByAccrualDate(accrualDate).stream()
+                .map(InterestAccrualCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+
+        ChunkStats stats = new ChunkStats();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ChunkRangeTask(accrualDate, firstChunk, lastChunk + 1, done, stats));
+        } finally {
+            pool.shutdown();
+        }
+
+        report.setChunks((int) (lastChunk - firstChunk + 1));
+        report.setChunksSkipped(stats.skipped.get());
+        report.setAccountsProcessed(stats.accounts.get());
+        report.setPostings(stats.postings.get());
+        report.setTotalInterest(stats.totalInterest.get());
+        return finish(report, start);
+    }
+
+    private InterestAccrualResponse finish(InterestAccrualResponse report, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        report.setDurationMillis(durationNanos / 1_000_000);
+        double seconds = Math.max(durationNanos, 1) / 1_000_000_000.0;
+        report.setAccountsPerSecond(report.getAccountsProcessed() / seconds);
+        report.setAccountsPerSecondPerCore(report.getAccountsPerSecond() / parallelism);
+        logger.info("Interest accrued for {}: {} accounts, {} postings, total {} in {} ms ({} chunks skipped)",
+                report.getAccrualDate(), report.getAccountsProcessed(), report.getPostings(),
+                report.getTotalInterest(), report.getDurationMillis(), report.getChunksSkipped());
+        return report;
+    }
+
+    // 🔹 Jeden chunk = jedna transakcja: księgowania + punkt kontrolny albo nic.
+    //    Odsetki liczymy od salda na koniec dnia naliczenia (bieżące saldo minus księgowania późniejsze
+    //    niż chwila księgowania odsetek), a późniejszym księgowaniom podnosimy balance_after o odsetki –
+    //    łańcuch sald (data, id) zostaje spójny także przy uruchomieniu po północy albo za miniony dzień.
+    private void processChunk(LocalDate accrualDate, long rangeStart, long rangeEnd, ChunkStats stats) {
+        List<Long> accountIds = new ArrayList<>();
+        Map<Long, BigDecimal> newBalances = new HashMap<>();
+        boolean[] rebased = {false};
+        Timestamp postedAt = postingTime(accrualDate);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> balanceUpdates = new ArrayList<>();
+                List<Object[]> postings = new ArrayList<>();
+                List<Object[]> rebases = new ArrayList<>();
+                List<DailyAggregateService.Posting> aggregatePostings = new ArrayList<>();
+                BigDecimal chunkInterest = BigDecimal.ZERO;
+                BigDecimal daysInYear = BigDecimal.valueOf(accrualDate.lengthOfYear());
+
+                List<Object[]> rows = jdbcTemplate.query(SELECT_CHUNK,
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getBigDecimal(4)},
+                        AccountType.SAVINGS.name(), rangeStart, rangeEnd);
+                // wiersze kont są już zablokowane – późniejszych księgowań nie przybędzie do commitu
+                Map<Long, BigDecimal> laterNet = new HashMap<>();
+                jdbcTemplate.query(SELECT_LATER_NET, rs -> {
+                    laterNet.put(rs.getLong(1), rs.getBigDecimal(2));
+                }, rangeStart, rangeEnd, postedAt);
+                for (Object[] row : rows) {
+                    long accountId = (Long) row[0];
+                    long balanceMinor = (Long) row[1];
+                    int scale = (Integer) row[2];
+                    BigDecimal rate = (BigDecimal) row[3];
+                    BigDecimal later = laterNet.get(accountId);
+                    BigDecimal balanceAtDate = MinorUnits.toDecimal(balanceMinor, scale)
+                            .subtract(later != null ? later : BigDecimal.ZERO);
+                    // odsetki zaokrąglane do jednostki podrzędnej waluty konta (grosz, jen)
+                    BigDecimal interest = balanceAtDate.multiply(rate).divide(daysInYear, scale, roundingMode);
+                    if (interest.signum() <= 0) {
+                        continue;
+                    }
+                    long newBalanceMinor = MinorUnits.add(balanceMinor, interest.unscaledValue().longValueExact());
+                    balanceUpdates.add(new Object[]{newBalanceMinor, accountId});
+                    postings.add(new Object[]{accountId, interest, balanceAtDate.add(interest), postedAt,
+                            TransactionType.INTEREST.name()});
+                    if (later != null) {
+                        rebases.add(new Object[]{interest, accountId, postedAt});
+                    }
+                    aggregatePostings.add(new DailyAggregateService.Posting(accountId, interest));
+                    accountIds.add(accountId);
+                    newBalances.put(accountId, MinorUnits.toDecimal(newBalanceMinor, scale));
+                    chunkInterest = chunkInterest.add(interest);
+                }
+
+                if (!postings.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_BALANCE, balanceUpdates);
+                    jdbcTemplate.batchUpdate(INSERT_POSTING, postings);
+                    if (!rebases.isEmpty()) {
+                        jdbcTemplate.batchUpdate(REBASE_LATER, rebases);
+                        rebased[0] = true;
+                    }
+                    dailyAggregateService.recordBatch(accrualDate, TransactionType.INTEREST, aggregatePostings);
+                }
+                jdbcTemplate.update(INSERT_CHECKPOINT, accrualDate, rangeStart, rangeEnd, postings.size(),
+                        chunkInterest, Timestamp.valueOf(LocalDateTime.now()));
+
+                stats.accounts.addAndGet(rows.size());
+                stats.postings.addAndGet(postings.size());
+                stats.totalInterest.accumulateAndGet(chunkInterest, BigDecimal::add);
+            });
+        } catch (DuplicateKeyException e) {
+            // inne uruchomienie zaksięgowało ten chunk w międzyczasie – nasza transakcja została wycofana
+            stats.skipped.incrementAndGet();
+            return;
+        }
+        accountIds.forEach(recentTransactionsBuffer::evict);
+        accountIds.forEach(balanceTable::invalidate); // salda zmienione SQL-em, z pominięciem encji
+        if (!accountIds.isEmpty()) {
+            feedPostings(postedAt, rangeStart, rangeEnd, newBalances);
+        }
+        if (rebased[0] && historyStore.requiresFeed()) {
+            // magazyn historii trzyma kopie balance_after – późniejsze księgowania podajemy jeszcze raz
+            jdbcTemplate.query(SELECT_LATER, rs -> {
+                historyStore.onRecorded(postingRow(rs));
+            }, rangeStart, rangeEnd, postedAt);
+        }
+    }
+
+    // 🔹 Księgowania wstawione wsadowo (bez id w pamięci) odczytujemy po commicie
+    //    i przekazujemy do magazynu historii oraz migawki analitycznej (transakcja + bieżące saldo konta)
+    private void feedPostings(Timestamp postedAt, long rangeStart, long rangeEnd, Map<Long, BigDecimal> newBalances) {
+        jdbcTemplate.query(SELECT_POSTED, rs -> {
+            TransactionResponse row = postingRow(rs);
+            if (historyStore.requiresFeed()) {
+                historyStore.onRecorded(row);
+            }
+            analyticsSnapshot.onTransactionRecorded(row);
+            analyticsSnapshot.onBalanceChanged(row.getAccountId(), newBalances.get(row.getAccountId()));
+        }, TransactionType.INTEREST.name(), postedAt, rangeStart, rangeEnd);
+    }
+
+    private static TransactionResponse postingRow(ResultSet rs) throws SQLException {
+        TransactionResponse row = new TransactionResponse();
+        row.setId(rs.getLong(1));
+        row.setAccountId(rs.getLong(2));
+        row.setDateTime(rs.getTimestamp(3).toLocalDateTime());
+        row.setType(TransactionType.valueOf(rs.getString(4)));
+        row.setAmount(MinorUnits.normalize(rs.getBigDecimal(5)));
+        row.setBalanceAfter(MinorUnits.normalize(rs.getBigDecimal(6)));
+        return row;
+    }
+
+    private static Timestamp postingTime(LocalDate accrualDate) {
+        return Timestamp.valueOf(accrualDate.atTime(23, 59, 59));
+    }
+
+    private final class ChunkRangeTask extends RecursiveAction {
+        private final LocalDate accrualDate;
+        private final long fromChunk;
+        private final long toChunk; // wyłącznie
+        private final Set<Long> done;
+        private final ChunkStats stats;
+
+        ChunkRangeTask(LocalDate accrualDate, long fromChunk, long toChunk, Set<Long> done, ChunkStats stats) {
+            this.accrualDate = accrualDate;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.done = done;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                long middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ChunkRangeTask(accrualDate, fromChunk, middle, done, stats),
+                        new ChunkRangeTask(accrualDate, middle, toChunk, done, stats));
+                return;
+            }
+            long rangeStart = fromChunk * chunkSize;
+            if (done.contains(rangeStart)) {
+                stats.skipped.incrementAndGet();
+                return;
+            }
+            processChunk(accrualDate, rangeStart, rangeStart + chunkSize, stats);
+        }
+    }
+
+    private static final class ChunkStats {
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicLong accounts = new AtomicLong();
+        final AtomicLong postings = new AtomicLong();
+        final AtomicReference<BigDecimal> totalInterest = new AtomicReference<>(BigDecimal.ZERO);
+    }
+}
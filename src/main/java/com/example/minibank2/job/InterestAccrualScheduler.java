@@ -0,0 +1,22 @@
+package com.example.minibank2.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Nocne naliczanie odsetek za poprzedni dzień; cron "-" (domyślnie) wyłącza harmonogram
+@Component
+public class InterestAccrualScheduler {
+
+    private final InterestAccrualJob interestAccrualJob;
+
+    public InterestAccrualScheduler(InterestAccrualJob interestAccrualJob) {
+        this.interestAccrualJob = interestAccrualJob;
+    }
+
+    @Scheduled(cron = "${minibank.interest.cron:-}")
+    public void accrueForPreviousDay() {
+        interestAccrualJob.run(LocalDate.now().minusDays(1));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.minibank2.job;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wspólny budżet odczytów (wierszy na sekundę) dla wątków zadania wsadowego.
+ * Każdy wątek po przeczytaniu porcji danych "płaci" za nią i w razie potrzeby czeka,
+ * tak aby łączne tempo wszystkich wątków nie przekroczyło limitu. 0 = bez limitu.
+ */
+final class IoBudget {
+
+    private final long nanosPerRow;
+    private long nextFreeAt = System.nanoTime();
+    private long throttledNanos;
+
+    IoBudget(long rowsPerSecond) {
+        this.nanosPerRow = rowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / rowsPerSecond : 0;
+    }
+
+    void consume(long rows) throws InterruptedException {
+        if (nanosPerRow == 0 || rows <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeAt);
+            nextFreeAt = start + rows * nanosPerRow;
+            waitNanos = start - now;
+            throttledNanos += Math.max(0, waitNanos);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    synchronized long getThrottledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos);
+    }
+}
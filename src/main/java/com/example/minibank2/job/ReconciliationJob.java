@@ -0,0 +1,252 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.dto.ReconciliationDiscrepancy;
+import com.example.minibank2.dto.ReconciliationResponse;
+import com.example.minibank2.entity.ReconciliationWatermark;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.repository.ReconciliationWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Uzgadnianie sald: dla każdego konta porównujemy zapisane saldo z saldem wynikającym z księgowań,
+ * czyli saldem otwarcia (balanceAfter pierwszej transakcji minus jej kwota) powiększonym
+ * o sumę netto wszystkich transakcji. Rozjazd oznacza zgubioną aktualizację salda albo
+ * brakujące/zdublowane księgowanie.
+ * Konta dzielone są na partycje sprawdzane równolegle, porcjami, w krótkich transakcjach
+ * tylko do odczytu – zadanie nie blokuje zapisów. Tempo odczytu ogranicza wspólny budżet
+ * wierszy na sekundę. Tryb przyrostowy sprawdza tylko konta z transakcjami nowszymi niż znacznik
+ * (oraz konta z rozjazdem wykrytym wcześniej – ich lista jest zapisana przy znaczniku).
+ */
+@Component
+public class ReconciliationJob {
+
+    public enum Mode { FULL, INCREMENTAL }
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+    private static final String WATERMARK = "ledger";
+
+    private static final String SIGNED_AMOUNT = "case when %1$s.type in (" +
+            Arrays.stream(TransactionType.values())
+                    .filter(TransactionType::isCredit)
+                    .map(type -> "'" + type.name() + "'")
+                    .collect(Collectors.joining(", ")) +
+            ") then %1$s.amount else -%1$s.amount end";
+
+    // jedno zapytanie = jeden spójny odczyt salda i księgowań danej porcji kont
+    private static final String CHECK_BATCH =
+            "select a.id, a.balance_minor, coalesce(n.cnt, 0), coalesce(n.net, 0), f.balance_after, f.signed_amount, " +
+            "a.balance_scale " +
+            "from accounts a " +
+            "left join (select t.account_id, count(*) cnt, sum(" + SIGNED_AMOUNT.formatted("t") + ") net " +
+            "           from transactions t where t.account_id in (:ids) group by t.account_id) n " +
+            "       on n.account_id = a.id " +
+            "left join (select r.account_id, r.balance_after, r.signed_amount from (" +
+            "             select t.account_id, t.balance_after, " + SIGNED_AMOUNT.formatted("t") + " signed_amount, " +
+            "                    row_number() over (partition by t.account_id order by t.date_time, t.id) rn " +
+            "             from transactions t where t.account_id in (:ids)) r where r.rn = 1) f " +
+            "       on f.account_id = a.id " +
+            "where a.id in (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReconciliationWatermarkRepository watermarkRepository;
+    private final int threads;
+    private final int batchSize;
+    private final long rowsPerSecond;
+    private final long watermarkOverlap;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationResponse lastReport;
+
+    public ReconciliationJob(JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ReconciliationWatermarkRepository watermarkRepository,
+                             @Value("${minibank.jobs.threads:4}") int threads,
+                             @Value("${minibank.reconciliation.batch-size:500}") int batchSize,
+                             @Value("${minibank.reconciliation.rows-per-second:50000}") long rowsPerSecond,
+                             @Value("${minibank.reconciliation.watermark-overlap:1000}") long watermarkOverlap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.watermarkRepository = watermarkRepository;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.rowsPerSecond = rowsPerSecond;
+        this.watermarkOverlap = watermarkOverlap;
+    }
+
+    public ReconciliationResponse run(Mode mode) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        try {
+            return reconcile(mode);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationResponse getLastReport() {
+        return lastReport;
+    }
+
+    private ReconciliationResponse reconcile(Mode mode) {
+        long start = System.currentTimeMillis();
+        ReconciliationResponse report = new ReconciliationResponse();
+        report.setMode(mode.name());
+        report.setStartedAt(LocalDateTime.now());
+
+        ReconciliationWatermark stored = watermarkRepository.findById(WATERMARK)
+                .orElseGet(() -> new ReconciliationWatermark(WATERMARK, 0L, null, Set.of()));
+        long watermark = stored.getLastTransactionId();
+        Set<Long> openDiscrepancies = new TreeSet<>(stored.getOpenDiscrepancies());
+        // znacznik ustalamy przed skanem – transakcje dopisane w trakcie sprawdzi kolejne uruchomienie
+        Long maxTransactionId = jdbcTemplate.queryForObject("select max(id) from transactions", Long.class);
+        long newWatermark = maxTransactionId == null ? watermark : Math.max(watermark, maxTransactionId);
+
+        List<Long> accountIds;
+        if (mode == Mode.FULL) {
+            accountIds = jdbcTemplate.queryForList("select id from accounts order by id", Long.class);
+            report.setFromTransactionId(0);
+        } else {
+            // zakładka chroni przed transakcjami z niższym id zatwierdzonymi już po poprzednim skanie
+            long from = Math.max(0, watermark - watermarkOverlap);
+            TreeSet<Long> touched = new TreeSet<>(jdbcTemplate.queryForList(
+                    "select distinct account_id from transactions where id > ?", Long.class, from));
+            touched.addAll(openDiscrepancies);
+            accountIds = new ArrayList<>(touched);
+            report.setFromTransactionId(from);
+        }
+
+        List<List<Long>> partitions = AccountPartitions.split(accountIds, threads);
+        IoBudget budget = new IoBudget(rowsPerSecond);
+        AtomicLong checked = new AtomicLong();
+        AtomicLong unverifiable = new AtomicLong();
+        AtomicLong rows = new AtomicLong();
+        List<ReconciliationDiscrepancy> suspects = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, partitions.size()));
+        try {
+            List<Future<List<ReconciliationDiscrepancy>>> futures = new ArrayList<>();
+            for (List<Long> partition : partitions) {
+                futures.add(executor.submit(() -> {
+                    List<ReconciliationDiscrepancy> found = new ArrayList<>();
+                    for (int from = 0; from < partition.size(); from += batchSize) {
+                        List<Long> batch = partition.subList(from, Math.min(from + batchSize, partition.size()));
+                        BatchResult result = checkBatch(batch);
+                        checked.addAndGet(result.checked);
+                        unverifiable.addAndGet(result.unverifiable);
+                        rows.addAndGet(result.rows);
+                        found.addAll(result.discrepancies);
+                        budget.consume(result.rows);
+                    }
+                    return found;
+                }));
+            }
+            for (Future<List<ReconciliationDiscrepancy>> future : futures) {
+                suspects.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reconciliation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // rozjazd mógł być chwilowy (przelew w toku między odczytami) – potwierdzamy ponownym odczytem
+        List<ReconciliationDiscrepancy> confirmed = suspects.isEmpty()
+                ? List.of()
+                : checkBatch(suspects.stream().map(ReconciliationDiscrepancy::getAccountId).toList()).discrepancies;
+        List<ReconciliationDiscrepancy> sorted = new ArrayList<>(confirmed);
+        sorted.sort(Comparator.comparing(ReconciliationDiscrepancy::getAccountId));
+
+        openDiscrepancies.removeAll(accountIds);
+        sorted.forEach(discrepancy -> openDiscrepancies.add(discrepancy.getAccountId()));
+        // znacznik i otwarte rozjazdy w jednym wierszu – po restarcie przyrostowe uruchomienie ich nie zgubi
+        watermarkRepository.save(new ReconciliationWatermark(WATERMARK, newWatermark, LocalDateTime.now(),
+                openDiscrepancies));
+
+        report.setToTransactionId(newWatermark);
+        report.setAccountsChecked(checked.get());
+        report.setAccountsUnverifiable(unverifiable.get());
+        report.setRowsScanned(rows.get());
+        report.setPartitions(partitions.size());
+        report.setDiscrepancies(sorted);
+        report.setThrottledMillis(budget.getThrottledMillis());
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        lastReport = report;
+
+        if (sorted.isEmpty()) {
+            logger.info("Reconciliation ({}) checked {} accounts, no discrepancies", mode, report.getAccountsChecked());
+        } else {
+            logger.warn("Reconciliation ({}) found {} discrepancies in {} accounts: {}", mode, sorted.size(),
+                    report.getAccountsChecked(), sorted.stream().map(ReconciliationDiscrepancy::getAccountId).toList());
+        }
+        return report;
+    }
+
+    private BatchResult checkBatch(Collection<Long> accountIds) {
+        BatchResult result = new BatchResult();
+        readOnlyTransaction.executeWithoutResult(status ->
+                namedJdbcTemplate.query(CHECK_BATCH, new MapSqlParameterSource("ids", accountIds), rs -> {
+                    long accountId = rs.getLong(1);
+                    BigDecimal stored = MinorUnits.toDecimal(rs.getLong(2), rs.getInt(7));
+                    long count = rs.getLong(3);
+                    BigDecimal net = rs.getBigDecimal(4);
+                    BigDecimal firstBalanceAfter = rs.getBigDecimal(5);
+                    BigDecimal firstSignedAmount = rs.getBigDecimal(6);
+
+                    result.rows += 1 + count;
+                    if (count > 0 && firstBalanceAfter == null) {
+                        result.unverifiable++; // historia sprzed migracji balanceAfter
+                        return;
+                    }
+                    result.checked++;
+                    BigDecimal expected = count == 0
+                            ? stored
+                            : firstBalanceAfter.subtract(firstSignedAmount).add(net);
+                    if (stored.compareTo(expected) != 0) {
+                        result.discrepancies.add(new ReconciliationDiscrepancy(accountId, stored, expected, count));
+                    }
+                }));
+        return result;
+    }
+
+    private static final class BatchResult {
+        long checked;
+        long unverifiable;
+        long rows;
+        final List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+    }
+}
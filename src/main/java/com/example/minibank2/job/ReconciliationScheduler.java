@@ -0,0 +1,20 @@
+package com.example.minibank2.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Cykliczne uzgadnianie przyrostowe; cron "-" (domyślnie) wyłącza harmonogram
+@Component
+public class ReconciliationScheduler {
+
+    private final ReconciliationJob reconciliationJob;
+
+    public ReconciliationScheduler(ReconciliationJob reconciliationJob) {
+        this.reconciliationJob = reconciliationJob;
+    }
+
+    @Scheduled(cron = "${minibank.reconciliation.cron:-}")
+    public void reconcileIncrementally() {
+        reconciliationJob.run(ReconciliationJob.Mode.INCREMENTAL);
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.dto.StatementRunResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generowanie miesięcznych wyciągów dla wszystkich kont w jednym przebiegu.
+ * Każda partycja kont (zakres id) to jedno strumieniowe zapytanie posortowane po
+ * (account_id, date_time, id) – wiersze są czytane kursorem i od razu zapisywane do
+ * skompresowanego pliku konta, więc w pamięci jest naraz co najwyżej jeden otwarty wyciąg
+ * na wątek, niezależnie od liczby transakcji. Partycje przetwarzane są równolegle.
+ * Pliki: {katalog}/{yyyy-MM}/{accountId}.csv.gz albo .json.gz; konta bez ruchu w miesiącu pomijamy.
+ */
+@Component
+public class StatementJob {
+
+    public enum Format { CSV, JSON }
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementJob.class);
+
+    private static final String SELECT_PARTITION =
+            "select t.account_id, t.id, t.date_time, t.type, t.amount, t.balance_after from transactions t " +
+            "where t.account_id between ? and ? and t.date_time >= ? and t.date_time < ? " +
+            "order by t.account_id, t.date_time, t.id";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path baseDirectory;
+    private final int threads;
+
+    public StatementJob(DataSource dataSource,
+                        JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${minibank.statements.dir:statements}") String baseDirectory,
+                        @Value("${minibank.statements.fetch-size:1000}") int fetchSize,
+                        @Value("${minibank.jobs.threads:4}") int threads) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.baseDirectory = Paths.get(baseDirectory);
+        this.threads = threads;
+    }
+
+    public StatementRunResponse run(YearMonth month, Format format) {
+        long start = System.nanoTime();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        Path directory = baseDirectory.resolve(month.toString());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create statement directory " + directory, e);
+        }
+
+        List<Long> accountIds = jdbcTemplate.queryForList("select id from accounts order by id", Long.class);
+        List<List<Long>> partitions = AccountPartitions.split(accountIds, threads);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        AtomicLong statements = new AtomicLong();
+        AtomicLong rows = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, partitions.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Long> partition : partitions) {
+                futures.add(executor.submit(() -> {
+                    StatementStream stream = new StatementStream(directory, month, format, statements, rows, bytes);
+                    try {
+                        streamingJdbcTemplate.query(SELECT_PARTITION, stream,
+                                partition.get(0), partition.get(partition.size() - 1), from, to);
+                    } finally {
+                        stream.close();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statement generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        StatementRunResponse report = new StatementRunResponse();
+        report.setMonth(month);
+        report.setFormat(format.name());
+        report.setDirectory(directory.toAbsolutePath().toString());
+        report.setPartitions(partitions.size());
+        report.setStatements(statements.get());
+        report.setRows(rows.get());
+        report.setBytesWritten(bytes.get());
+        report.setDurationMillis(durationNanos / 1_000_000);
+        report.setRowsPerSecond(rows.get() / (Math.max(durationNanos, 1) / 1_000_000_000.0));
+        // suma szczytów pul sterty od początku przebiegu (górne oszacowanie – obejmuje też inne wątki)
+        report.setPeakHeapBytes(heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+        logger.info("Statements for {} written: {} accounts, {} rows in {} ms ({} rows/s)", month,
+                report.getStatements(), report.getRows(), report.getDurationMillis(), (long) report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * Odbiera posortowane wiersze jednej partycji; zmiana account_id zamyka bieżący plik i otwiera następny.
+     */
+    private final class StatementStream implements RowCallbackHandler {
+        private final Path directory;
+        private final YearMonth month;
+        private final Format format;
+        private final AtomicLong statements;
+        private final AtomicLong rows;
+        private final AtomicLong bytes;
+
+        private long currentAccountId = -1;
+        private CountingOutputStream counter;
+        private Writer writer;
+        private JsonGenerator json;
+        private BigDecimal closingBalance;
+
+        StatementStream(Path directory, YearMonth month, Format format,
+                        AtomicLong statements, AtomicLong rows, AtomicLong bytes) {
+            this.directory = directory;
+            this.month = month;
+            this.format = format;
+            this.statements = statements;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long accountId = rs.getLong(1);
+            long id = rs.getLong(2);
+            String dateTime = rs.getTimestamp(3).toLocalDateTime().toString();
+            TransactionType type = TransactionType.valueOf(rs.getString(4));
+            BigDecimal amount = rs.getBigDecimal(5);
+            BigDecimal balanceAfter = rs.getBigDecimal(6);
+            try {
+                if (accountId != currentAccountId) {
+                    close();
+                    open(accountId, type, amount, balanceAfter);
+                }
+                if (json != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", id);
+                    json.writeStringField("dateTime", dateTime);
+                    json.writeStringField("type", type.name());
+                    json.writeNumberField("amount", amount);
+                    if (balanceAfter != null) {
+                        json.writeNumberField("balanceAfter", balanceAfter);
+                    }
+                    json.writeEndObject();
+                } else {
+                    writer.write(id + "," + dateTime + "," + type.name() + "," + amount.toPlainString() + ","
+                            + (balanceAfter == null ? "" : balanceAfter.toPlainString()) + "\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write statement for account " + accountId, e);
+            }
+            closingBalance = balanceAfter;
+            rows.incrementAndGet();
+        }
+
+        private void open(long accountId, TransactionType firstType, BigDecimal firstAmount,
+                          BigDecimal firstBalanceAfter) throws IOException {
+            String extension = format == Format.JSON ? ".json.gz" : ".csv.gz";
+            counter = new CountingOutputStream(Files.newOutputStream(directory.resolve(accountId + extension)));
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(counter), StandardCharsets.UTF_8));
+            currentAccountId = accountId;
+            if (format == Format.JSON) {
+                json = objectMapper.getFactory().createGenerator(writer);
+                json.writeStartObject();
+                json.writeNumberField("accountId", accountId);
+                json.writeStringField("month", month.toString());
+                if (firstBalanceAfter != null) {
+                    BigDecimal opening = firstType.isCredit()
+                            ? firstBalanceAfter.subtract(firstAmount)
+                            : firstBalanceAfter.add(firstAmount);
+                    json.writeNumberField("openingBalance", opening);
+                }
+                json.writeArrayFieldStart("transactions");
+            } else {
+                writer.write("id,date_time,type,amount,balance_after\n");
+            }
+        }
+
+        void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                if (json != null) {
+                    json.writeEndArray();
+                    if (closingBalance != null) {
+                        json.writeNumberField("closingBalance", closingBalance);
+                    }
+                    json.writeEndObject();
+                    json.close(); // zamyka też writer
+                } else {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close statement for account " + currentAccountId, e);
+            }
+            statements.incrementAndGet();
+            bytes.addAndGet(counter.count);
+            writer = null;
+            json = null;
+            counter = null;
+            closingBalance = null;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
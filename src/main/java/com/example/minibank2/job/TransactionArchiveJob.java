@@ -0,0 +1,152 @@
+package com.example.minibank2.job;
+
+import com.example.minibank2.archive.TransactionArchive;
+import com.example.minibank2.dto.ArchiveRunResponse;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.service.RecentTransactionsBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Przenosi transakcje starsze niż horyzont (pełne miesiące) z tabeli transactions do segmentów archiwum.
+ * Dla każdego miesiąca i zakresu id kont: wiersze czytane są strumieniowo w kolejności
+ * (account_id, date_time, id) i zapisywane do nowego segmentu, a dopiero po jego opublikowaniu
+ * usuwane z bazy – po id, porcjami, w osobnych transakcjach. Jeśli zadanie przerwie się między
+ * publikacją a usunięciem, kolejne uruchomienie zobaczy gotowy segment i dokończy tylko usuwanie;
+ * do tego czasu odczyty łączą obie warstwy bez duplikatów (po id).
+ */
+@Component
+public class TransactionArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveJob.class);
+
+    private static final String SELECT_RANGE =
+            "select t.id, t.account_id, t.date_time, t.type, t.amount, t.balance_after from transactions t " +
+            "where t.account_id >= ? and t.account_id < ? and t.date_time >= ? and t.date_time < ? " +
+            "order by t.account_id, t.date_time, t.id";
+    private static final int DELETE_BATCH = 1000;
+
+    private final TransactionArchive archive;
+    private final RecentTransactionsBuffer recentTransactionsBuffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonMonths;
+    private final long accountsPerSegment;
+
+    public TransactionArchiveJob(TransactionArchive archive,
+                                 RecentTransactionsBuffer recentTransactionsBuffer,
+                                 JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${minibank.archive.horizon-months:24}") int horizonMonths,
+                                 @Value("${minibank.archive.accounts-per-segment:10000}") long accountsPerSegment) {
+        this.archive = archive;
+        this.recentTransactionsBuffer = recentTransactionsBuffer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonMonths = horizonMonths;
+        this.accountsPerSegment = accountsPerSegment;
+    }
+
+    public synchronized ArchiveRunResponse run() {
+        if (!archive.isEnabled()) {
+            throw new IllegalStateException("Transaction archive is disabled (minibank.archive.enabled=false)");
+        }
+        long start = System.currentTimeMillis();
+        YearMonth cutoffMonth = YearMonth.now().minusMonths(horizonMonths);
+        LocalDateTime cutoff = cutoffMonth.atDay(1).atStartOfDay();
+        ArchiveRunResponse report = new ArchiveRunResponse();
+        report.setCutoff(cutoff);
+
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "select min(date_time) from transactions where date_time < ?", Timestamp.class, Timestamp.valueOf(cutoff));
+        if (oldest != null) {
+            for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(cutoffMonth); month = month.plusMonths(1)) {
+                archiveMonth(month, report);
+            }
+            recentTransactionsBuffer.clear(); // bufory mogły uznać historię konta za kompletną
+        }
+
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        logger.info("Archived {} transactions older than {} into {} segments ({} bytes) in {} ms",
+                report.getRowsArchived(), cutoff, report.getSegmentsWritten(), report.getBytesWritten(),
+                report.getDurationMillis());
+        return report;
+    }
+
+    private void archiveMonth(YearMonth month, ArchiveRunResponse report) {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        TreeSet<Long> rangeStarts = new TreeSet<>();
+        jdbcTemplate.queryForList("select distinct account_id from transactions where date_time >= ? and date_time < ?",
+                        Long.class, from, to)
+                .forEach(accountId -> rangeStarts.add(accountId / accountsPerSegment * accountsPerSegment));
+        if (rangeStarts.isEmpty()) {
+            return;
+        }
+        report.setMonths(report.getMonths() + 1);
+
+        for (long rangeStart : rangeStarts) {
+            long rangeEnd = rangeStart + accountsPerSegment;
+            List<Long> archivedIds;
+            if (archive.hasSegment(month, rangeStart, rangeEnd)) {
+                // segment jest już zapisany – późne wiersze tego miesiąca zostają w bazie (odczyty i tak je łączą)
+                archivedIds = archive.transactionIds(month, rangeStart, rangeEnd);
+                report.setSegmentsResumed(report.getSegmentsResumed() + 1);
+            } else {
+                archivedIds = new ArrayList<>();
+                try (TransactionArchive.SegmentBuilder segment = archive.newSegment(month, rangeStart, rangeEnd)) {
+                    streamingJdbcTemplate.query(SELECT_RANGE, rs -> {
+                        TransactionResponse row = new TransactionResponse();
+                        row.setId(rs.getLong(1));
+                        row.setAccountId(rs.getLong(2));
+                        row.setDateTime(rs.getTimestamp(3).toLocalDateTime());
+                        row.setType(TransactionType.valueOf(rs.getString(4)));
+                        row.setAmount(MinorUnits.normalize(rs.getBigDecimal(5)));
+                        row.setBalanceAfter(MinorUnits.normalize(rs.getBigDecimal(6)));
+                        segment.add(row);
+                        archivedIds.add(row.getId());
+                    }, rangeStart, rangeEnd, from, to);
+                    segment.publish();
+                    report.setSegmentsWritten(report.getSegmentsWritten() + 1);
+                    report.setRowsArchived(report.getRowsArchived() + segment.rows());
+                    report.setBytesWritten(report.getBytesWritten() + segment.bytes());
+                }
+            }
+            report.setRowsDeleted(report.getRowsDeleted() + deleteArchived(archivedIds));
+        }
+    }
+
+    private long deleteArchived(List<Long> ids) {
+        long deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+            List<Object[]> batch = ids.subList(from, Math.min(from + DELETE_BATCH, ids.size())).stream()
+                    .map(id -> new Object[]{id})
+                    .toList();
+            int[] counts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate("delete from transactions where id = ?", batch));
+            for (int count : counts) {
+                deleted += Math.max(count, 0);
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.minibank2.lsm;
+
+import com.example.minibank2.archive.SegmentFormat;
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Magazyn historii transakcji w stylu LSM (log-structured merge), niezależny od Springa.
+ * Zapis: dopisanie do logu WAL + wstawienie do memtabli (posortowana mapa w pamięci).
+ * Pełna memtabla jest zamrażana i w tle zapisywana jako niezmienny, posortowany run
+ * (format segmentu archiwum) z filtrem Blooma po account_id. Gdy runów jest zbyt wiele,
+ * kompakcja w tle scala je w jeden (scalanie k-drogowe, w pamięci po jednym bloku z runu).
+ * Odczyt zakresu: memtable + runy, przy czym runy bez danego konta odrzuca filtr Blooma,
+ * a w pozostałych czytamy tylko bloki wskazane przez rzadki indeks.
+ * Po restarcie niezapisane memtable są odtwarzane z WAL.
+ * Pliki runów scalonych przez kompakcję są kasowane dopiero po zakończeniu trwających odczytów.
+ * Ten sam wiersz (id) dopisany ponownie, np. z poprawionym balance_after, zastępuje starszą kopię:
+ * odczyt i kompakcja biorą kopię z najnowszego źródła (memtabla, potem runy od najnowszego).
+ */
+public final class LsmEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LsmEngine.class);
+    private static final Pattern RUN_NAME = Pattern.compile("run-(\\d+)-(\\d+)\\.seg");
+    private static final Pattern WAL_NAME = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Comparator<TransactionResponse> ORDER = Comparator
+            .comparing(TransactionResponse::getAccountId)
+            .thenComparing(TransactionResponse::getDateTime)
+            .thenComparing(TransactionResponse::getId);
+
+    private final Path directory;
+    private final int memtableRows;
+    private final int compactionTrigger;
+    private final int blockRows;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // odczyt trzyma blokadę do odczytu przez cały przebieg po runach; kasowanie plików runów czeka na blokadę do zapisu
+    private final ReadWriteLock runFiles = new ReentrantReadWriteLock();
+    private final List<Memtable> flushing = new CopyOnWriteArrayList<>();
+    private final List<LsmRun> runs = new CopyOnWriteArrayList<>();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lsm-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Memtable active;
+    private long nextSequence;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong runsSkippedByBloom = new AtomicLong();
+    private final AtomicLong runsScanned = new AtomicLong();
+
+    public LsmEngine(Path directory, int memtableRows, int compactionTrigger, int blockRows) throws IOException {
+        this.directory = directory;
+        this.memtableRows = memtableRows;
+        this.compactionTrigger = Math.max(2, compactionTrigger);
+        this.blockRows = blockRows;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    // 🔹 Dopisanie transakcji (WAL + memtabla); pełna memtabla idzie do zapisu w tle
+    public void append(TransactionResponse row) {
+        Memtable target;
+        lock.readLock().lock();
+        try {
+            target = active;
+            target.log(row);
+            target.rows.put(Key.of(row), row);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (target.rows.size() >= memtableRows) {
+            rotate(target);
+        }
+    }
+
+    // 🔹 Transakcje konta w zakresie dat (null = bez ograniczenia), rosnąco po (data, id)
+    public List<TransactionResponse> scan(long accountId, LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from == null ? Long.MIN_VALUE : SegmentFormat.epochSecond(from);
+        long toSecond = to == null ? Long.MAX_VALUE : SegmentFormat.epochSecond(to);
+        Map<Long, TransactionResponse> byId = new HashMap<>();
+
+        Key low = new Key(accountId, fromSecond, 0, Long.MIN_VALUE);
+        Key high = new Key(accountId, toSecond, Integer.MAX_VALUE, Long.MAX_VALUE);
+        // od najnowszego źródła – pierwsza kopia wiersza wygrywa
+        active.rows.subMap(low, true, high, true).values().forEach(row -> byId.putIfAbsent(row.getId(), row));
+        for (Memtable memtable : newestFirst(flushing)) {
+            memtable.rows.subMap(low, true, high, true).values().forEach(row -> byId.putIfAbsent(row.getId(), row));
+        }
+
+        List<TransactionResponse> fromRuns = new ArrayList<>();
+        runFiles.readLock().lock();
+        try {
+            for (LsmRun run : newestFirst(runs)) {
+                try {
+                    if (run.scan(accountId, fromSecond, toSecond, fromRuns)) {
+                        runsScanned.incrementAndGet();
+                    } else {
+                        runsSkippedByBloom.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read LSM run " + run.data, e);
+                }
+            }
+        } finally {
+            runFiles.readLock().unlock();
+        }
+        fromRuns.forEach(row -> byId.putIfAbsent(row.getId(), row));
+
+        List<TransactionResponse> result = new ArrayList<>(byId.size());
+        for (TransactionResponse row : byId.values()) {
+            if ((from == null || !row.getDateTime().isBefore(from)) && (to == null || !row.getDateTime().isAfter(to))) {
+                result.add(row);
+            }
+        }
+        result.sort(ORDER);
+        return result;
+    }
+
+    private static <T> List<T> newestFirst(List<T> oldestFirst) {
+        List<T> copy = new ArrayList<>(oldestFirst);
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    // 🔹 Wymuszenie zapisu bieżącej memtabli i odczekanie na prace w tle (flush, kompakcja)
+    public void flush() {
+        Memtable current = active;
+        if (!current.rows.isEmpty()) {
+            rotate(current);
+        }
+        awaitBackgroundWork();
+    }
+
+    public void awaitBackgroundWork() {
+        try {
+            background.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("LSM background work failed", e.getCause());
+        }
+    }
+
+    // 🔹 Usunięcie całej zawartości (np. przed odbudową z bazy)
+    public void clear() {
+        awaitBackgroundWork();
+        lock.writeLock().lock();
+        runFiles.writeLock().lock();
+        try {
+            active.closeLog();
+            Files.deleteIfExists(active.log);
+            for (Memtable memtable : flushing) {
+                Files.deleteIfExists(memtable.log);
+            }
+            flushing.clear();
+            for (LsmRun run : runs) {
+                run.delete();
+            }
+            runs.clear();
+            active = newMemtable();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear LSM store " + directory, e);
+        } finally {
+            runFiles.writeLock().unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        awaitBackgroundWork();
+        background.shutdown();
+        try {
+            background.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        active.closeLog(); // niezapisana memtabla zostaje w WAL i wróci przy starcie
+    }
+
+    public long getMemtableRows() { return active.rows.size() + flushing.stream().mapToLong(m -> m.rows.size()).sum(); }
+    public int getRuns() { return runs.size(); }
+    public long getRunRows() { return runs.stream().mapToLong(LsmRun::rows).sum(); }
+    public long getFlushes() { return flushes.get(); }
+    public long getCompactions() { return compactions.get(); }
+    public long getRunsSkippedByBloom() { return runsSkippedByBloom.get(); }
+    public long getRunsScanned() { return runsScanned.get(); }
+
+    private void rotate(Memtable full) {
+        lock.writeLock().lock();
+        try {
+            if (active != full) {
+                return; // inny wątek już zamienił memtablę
+            }
+            full.closeLog();
+            flushing.add(full);
+            active = newMemtable();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        background.submit(() -> flushMemtable(full));
+    }
+
+    private void flushMemtable(Memtable memtable) {
+        try {
+            LsmRun run = LsmRun.write(directory, memtable.sequence, memtable.sequence,
+                    memtable.rows.values().iterator(), memtable.rows.size(), blockRows);
+            runs.add(run);
+            flushing.remove(memtable);
+            Files.deleteIfExists(memtable.log);
+            flushes.incrementAndGet();
+            if (runs.size() >= compactionTrigger) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            // memtabla zostaje w pamięci i w WAL – dane są dalej czytelne i wrócą po restarcie
+            logger.error("LSM flush of memtable {} failed", memtable.sequence, e);
+        }
+    }
+
+    // 🔹 Scalenie wszystkich runów w jeden (kompakcja "size-tiered" z jednym poziomem)
+    private void compact() throws IOException {
+        List<LsmRun> inputs = List.copyOf(runs);
+        long first = inputs.stream().mapToLong(run -> run.firstSequence).min().orElseThrow();
+        long last = inputs.stream().mapToLong(run -> run.lastSequence).max().orElseThrow();
+        long rows = inputs.stream().mapToLong(LsmRun::rows).sum();
+        LsmRun merged = LsmRun.write(directory, first, last, new MergingIterator(inputs), rows, blockRows);
+        // najpierw nowy run, potem usunięcie starych – czytelnik nigdy nie traci danych (duplikaty odsiewa id);
+        // pliki wejść kasujemy dopiero, gdy skończą się odczyty, które mogły jeszcze skopiować starą listę runów
+        runFiles.writeLock().lock();
+        try {
+            runs.add(merged);
+            runs.removeAll(inputs);
+            runs.sort(Comparator.comparingLong(run -> run.firstSequence)); // od najstarszego – kolejność wieku dla odczytu
+            for (LsmRun input : inputs) {
+                input.delete();
+            }
+        } finally {
+            runFiles.writeLock().unlock();
+        }
+        compactions.incrementAndGet();
+    }
+
+    private Memtable newMemtable() {
+        long sequence = nextSequence++;
+        Path log = directory.resolve(String.format("wal-%012d.log", sequence));
+        try {
+            return new Memtable(sequence, log, new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(log))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create LSM write-ahead log", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        long maxSequence = -1;
+        List<Path> logs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher run = RUN_NAME.matcher(name);
+                Matcher wal = WAL_NAME.matcher(name);
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (run.matches()) {
+                    long first = Long.parseLong(run.group(1));
+                    long last = Long.parseLong(run.group(2));
+                    runs.add(LsmRun.open(file, first, last));
+                    maxSequence = Math.max(maxSequence, last);
+                } else if (wal.matches()) {
+                    logs.add(file);
+                }
+            }
+        }
+        runs.sort(Comparator.comparingLong(run -> run.firstSequence)); // od najstarszego, jak przy zapisie
+        // run objęty przez wynik kompakcji jest zbędny (przerwana kompakcja)
+        List<LsmRun> redundant = runs.stream()
+                .filter(run -> runs.stream().anyMatch(other -> other != run
+                        && other.firstSequence <= run.firstSequence && other.lastSequence >= run.lastSequence
+                        && other.lastSequence - other.firstSequence > run.lastSequence - run.firstSequence))
+                .toList();
+        runs.removeAll(redundant);
+        for (LsmRun run : redundant) {
+            run.delete();
+        }
+
+        logs.sort(Comparator.naturalOrder());
+        List<Memtable> replayed = new ArrayList<>();
+        for (Path log : logs) {
+            Matcher wal = WAL_NAME.matcher(log.getFileName().toString());
+            wal.matches();
+            long sequence = Long.parseLong(wal.group(1));
+            maxSequence = Math.max(maxSequence, sequence);
+            if (runs.stream().anyMatch(run -> run.covers(sequence))) {
+                Files.delete(log); // memtabla zdążyła trafić do runu
+                continue;
+            }
+            replayed.add(Memtable.replay(sequence, log));
+        }
+        nextSequence = maxSequence + 1;
+        active = newMemtable();
+        for (Memtable memtable : replayed) {
+            flushing.add(memtable);
+            background.submit(() -> flushMemtable(memtable));
+        }
+        logger.info("LSM store in {}: {} runs, {} memtables replayed from WAL", directory.toAbsolutePath(),
+                runs.size(), replayed.size());
+    }
+
+    private record Key(long accountId, long epochSecond, int nano, long id) implements Comparable<Key> {
+
+        static Key of(TransactionResponse row) {
+            return new Key(row.getAccountId(), SegmentFormat.epochSecond(row.getDateTime()),
+                    row.getDateTime().getNano(), row.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(accountId, other.accountId);
+            if (result == 0) {
+                result = Long.compare(epochSecond, other.epochSecond);
+            }
+            if (result == 0) {
+                result = Integer.compare(nano, other.nano);
+            }
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class Memtable {
+        final long sequence;
+        final Path log;
+        final ConcurrentSkipListMap<Key, TransactionResponse> rows = new ConcurrentSkipListMap<>();
+        private DataOutputStream out;
+
+        Memtable(long sequence, Path log, DataOutputStream out) {
+            this.sequence = sequence;
+            this.log = log;
+            this.out = out;
+        }
+
+        static Memtable replay(long sequence, Path log) throws IOException {
+            Memtable memtable = new Memtable(sequence, log, null); // odtworzona memtabla tylko czeka na zapis
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log)))) {
+                while (true) {
+                    TransactionResponse row = new TransactionResponse();
+                    row.setAccountId(in.readLong());
+                    row.setId(in.readLong());
+                    row.setDateTime(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                    row.setType(TransactionType.valueOf(in.readUTF()));
+                    row.setAmount(new BigDecimal(in.readUTF()));
+                    row.setBalanceAfter(in.readBoolean() ? new BigDecimal(in.readUTF()) : null);
+                    memtable.rows.put(Key.of(row), row);
+                }
+            } catch (EOFException e) {
+                // koniec logu (ostatni rekord mógł zostać urwany przy awarii – pomijamy go)
+            }
+            return memtable;
+        }
+
+        // rekord trafia do systemu plików przed wstawieniem do memtabli (przeżywa awarię procesu)
+        synchronized void log(TransactionResponse row) {
+            try {
+                out.writeLong(row.getAccountId());
+                out.writeLong(row.getId());
+                out.writeLong(SegmentFormat.epochSecond(row.getDateTime()));
+                out.writeInt(row.getDateTime().getNano());
+                out.writeUTF(row.getType().name());
+                out.writeUTF(row.getAmount().toPlainString());
+                out.writeBoolean(row.getBalanceAfter() != null);
+                if (row.getBalanceAfter() != null) {
+                    out.writeUTF(row.getBalanceAfter().toPlainString());
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to LSM write-ahead log " + log, e);
+            }
+        }
+
+        synchronized void closeLog() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close LSM write-ahead log {}", log, e);
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Scalanie k-drogowe posortowanych runów; ten sam wiersz (to samo id) w kilku runach oddajemy raz –
+     * kopię z najnowszego runu (wejścia są od najstarszego).
+     */
+    private static final class MergingIterator implements Iterator<TransactionResponse> {
+        private final PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator
+                .comparing((Cursor cursor) -> cursor.head, ORDER)
+                .thenComparing(cursor -> -cursor.age));
+        private TransactionResponse last;
+
+        MergingIterator(List<LsmRun> inputs) {
+            for (int i = 0; i < inputs.size(); i++) {
+                Iterator<TransactionResponse> rows = inputs.get(i).iterator();
+                if (rows.hasNext()) {
+                    queue.add(new Cursor(rows, i));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!queue.isEmpty() && last != null && queue.peek().head.getId().equals(last.getId())
+                    && ORDER.compare(queue.peek().head, last) == 0) {
+                advance(queue.poll());
+            }
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public TransactionResponse next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Cursor cursor = queue.poll();
+            last = cursor.head;
+            advance(cursor);
+            return last;
+        }
+
+        private void advance(Cursor cursor) {
+            if (cursor.rows.hasNext()) {
+                cursor.head = cursor.rows.next();
+                queue.add(cursor);
+            }
+        }
+
+        private static final class Cursor {
+            final Iterator<TransactionResponse> rows;
+            final int age; // pozycja runu na liście wejść – większa = nowszy
+            TransactionResponse head;
+
+            Cursor(Iterator<TransactionResponse> rows, int age) {
+                this.rows = rows;
+                this.age = age;
+                this.head = rows.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.minibank2.lsm;
+
+import com.example.minibank2.archive.SegmentFormat;
+import com.example.minibank2.dto.TransactionResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Niezmienny, posortowany plik LSM (format segmentu archiwum) + filtr Blooma w pliku obok.
+ * Run obejmuje ciągły zakres numerów sekwencji memtabli – flush daje run [s, s],
+ * kompakcja sklejonych runów [od, do].
+ */
+final class LsmRun {
+
+    final long firstSequence;
+    final long lastSequence;
+    final Path data;
+    final Path bloomFile;
+    final SegmentFormat.SegmentIndex index;
+    final BloomFilter bloom;
+
+    private LsmRun(long firstSequence, long lastSequence, Path data, Path bloomFile,
+                   SegmentFormat.SegmentIndex index, BloomFilter bloom) {
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.data = data;
+        this.bloomFile = bloomFile;
+        this.index = index;
+        this.bloom = bloom;
+    }
+
+    static String fileName(long firstSequence, long lastSequence) {
+        return String.format("run-%012d-%012d", firstSequence, lastSequence);
+    }
+
+    // 🔹 Zapis posortowanych wierszy jako nowego runu (najpierw pliki tymczasowe, potem atomowa zamiana)
+    static LsmRun write(Path directory, long firstSequence, long lastSequence, Iterator<TransactionResponse> sortedRows,
+                        long expectedRows, int blockRows) throws IOException {
+        String name = fileName(firstSequence, lastSequence);
+        Path data = directory.resolve(name + ".seg");
+        Path bloomFile = directory.resolve(name + ".bloom");
+        Path dataTemp = directory.resolve(name + ".seg.tmp");
+        Path bloomTemp = directory.resolve(name + ".bloom.tmp");
+        Files.deleteIfExists(dataTemp);
+
+        BloomFilter bloom = new BloomFilter(Math.max(1, expectedRows));
+        try (SegmentFormat.Writer writer = new SegmentFormat.Writer(dataTemp, blockRows)) {
+            while (sortedRows.hasNext()) {
+                TransactionResponse row = sortedRows.next();
+                writer.add(row);
+                bloom.add(row.getAccountId());
+            }
+            writer.finish();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(bloomTemp)))) {
+            bloom.writeTo(out);
+        }
+        Files.move(bloomTemp, bloomFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+        return new LsmRun(firstSequence, lastSequence, data, bloomFile, SegmentFormat.readIndex(data), bloom);
+    }
+
+    static LsmRun open(Path data, long firstSequence, long lastSequence) throws IOException {
+        Path bloomFile = data.resolveSibling(fileName(firstSequence, lastSequence) + ".bloom");
+        SegmentFormat.SegmentIndex index = SegmentFormat.readIndex(data);
+        BloomFilter bloom;
+        if (Files.exists(bloomFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(bloomFile)))) {
+                bloom = BloomFilter.readFrom(in);
+            }
+        } else {
+            // brak filtra (np. przerwany zapis) – odtwarzamy go z danych
+            bloom = new BloomFilter(Math.max(1, index.rows()));
+            for (SegmentFormat.BlockEntry block : index.blocks()) {
+                for (TransactionResponse row : SegmentFormat.readBlock(data, index, block)) {
+                    bloom.add(row.getAccountId());
+                }
+            }
+        }
+        return new LsmRun(firstSequence, lastSequence, data, bloomFile, index, bloom);
+    }
+
+    boolean covers(long sequence) {
+        return sequence >= firstSequence && sequence <= lastSequence;
+    }
+
+    long rows() {
+        return index.rows();
+    }
+
+    // 🔹 Wiersze konta z zakresu sekund; zwraca false, gdy filtr Blooma pozwolił pominąć plik
+    boolean scan(long accountId, long fromSecond, long toSecond, List<TransactionResponse> into) throws IOException {
+        if (!bloom.mightContain(accountId)) {
+            return false;
+        }
+        for (SegmentFormat.BlockEntry block : index.blocks()) {
+            if (!block.mayContain(accountId, fromSecond, toSecond)) {
+                continue;
+            }
+            for (TransactionResponse row : SegmentFormat.readBlock(data, index, block)) {
+                long second = SegmentFormat.epochSecond(row.getDateTime());
+                if (row.getAccountId() == accountId && second >= fromSecond && second <= toSecond) {
+                    into.add(row);
+                }
+            }
+        }
+        return true;
+    }
+
+    // 🔹 Sekwencyjny odczyt całego runu blok po bloku (kompakcja) – w pamięci tylko jeden blok
+    Iterator<TransactionResponse> iterator() {
+        return new Iterator<>() {
+            private int nextBlock;
+            private List<TransactionResponse> current = List.of();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position >= current.size() && nextBlock < index.blocks().size()) {
+                    try {
+                        current = SegmentFormat.readBlock(data, index, index.blocks().get(nextBlock++));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read LSM run " + data, e);
+                    }
+                    position = 0;
+                }
+                return position < current.size();
+            }
+
+            @Override
+            public TransactionResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(position++);
+            }
+        };
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(data);
+        Files.deleteIfExists(bloomFile);
+    }
+}
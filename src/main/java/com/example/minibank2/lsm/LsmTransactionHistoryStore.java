@@ -0,0 +1,146 @@
+package com.example.minibank2.lsm;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.repository.TransactionHistoryStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Magazyn historii oparty na lokalnym silniku LSM (minibank.history-store=lsm).
+ * Księgowania trafiają do niego po commicie w bazie; przy pierwszym włączeniu
+ * (albo po utracie katalogu) trzeba go odbudować z tabeli transactions – /admin/history-store/rebuild.
+ */
+@Component
+@ConditionalOnProperty(name = "minibank.history-store", havingValue = "lsm")
+public class LsmTransactionHistoryStore implements TransactionHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LsmTransactionHistoryStore.class);
+
+    private final LsmEngine engine;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public LsmTransactionHistoryStore(DataSource dataSource,
+                                      @Value("${minibank.lsm.dir:lsm}") String directory,
+                                      @Value("${minibank.lsm.memtable-rows:50000}") int memtableRows,
+                                      @Value("${minibank.lsm.compaction-trigger:4}") int compactionTrigger,
+                                      @Value("${minibank.archive.block-rows:1024}") int blockRows) {
+        try {
+            this.engine = new LsmEngine(Paths.get(directory), memtableRows, compactionTrigger, blockRows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open LSM history store in " + directory, e);
+        }
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1000);
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountId(Long accountId) {
+        return engine.scan(accountId, null, null);
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdNewestFirst(Long accountId) {
+        List<TransactionResponse> rows = new ArrayList<>(engine.scan(accountId, null, null));
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    @Override
+    public List<TransactionResponse> findLatest(Long accountId, int limit) {
+        List<TransactionResponse> newestFirst = findByAccountIdNewestFirst(accountId);
+        return newestFirst.subList(0, Math.min(limit, newestFirst.size()));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndType(Long accountId, TransactionType type) {
+        return engine.scan(accountId, null, null).stream()
+                .filter(row -> row.getType() == type)
+                .toList();
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndDateTimeBetween(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return engine.scan(accountId, from, to);
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndDateTime(Long accountId, LocalDateTime dateTime) {
+        return engine.scan(accountId, dateTime, dateTime);
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndAmountGreaterThan(Long accountId, BigDecimal amount) {
+        return engine.scan(accountId, null, null).stream()
+                .filter(row -> row.getAmount().compareTo(amount) > 0)
+                .toList();
+    }
+
+    // 🔹 Dopisanie dopiero po commicie – wycofane księgowanie nie trafia do magazynu
+    @Override
+    public void onRecorded(TransactionResponse transaction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    engine.append(transaction);
+                }
+            });
+        } else {
+            engine.append(transaction);
+        }
+    }
+
+    @Override
+    public boolean requiresFeed() {
+        return true;
+    }
+
+    // 🔹 Odbudowa całego magazynu z tabeli transactions (strumieniowo)
+    public long rebuild() {
+        engine.clear();
+        long[] rows = {0};
+        streamingJdbcTemplate.query(
+                "select id, account_id, date_time, type, amount, balance_after from transactions order by id", rs -> {
+                    TransactionResponse row = new TransactionResponse();
+                    row.setId(rs.getLong(1));
+                    row.setAccountId(rs.getLong(2));
+                    row.setDateTime(rs.getTimestamp(3).toLocalDateTime());
+                    row.setType(TransactionType.valueOf(rs.getString(4)));
+                    row.setAmount(MinorUnits.normalize(rs.getBigDecimal(5)));
+                    row.setBalanceAfter(MinorUnits.normalize(rs.getBigDecimal(6)));
+                    engine.append(row);
+                    rows[0]++;
+                });
+        engine.flush();
+        logger.info("LSM history store rebuilt from database: {} transactions", rows[0]);
+        return rows[0];
+    }
+
+    public LsmEngine getEngine() {
+        return engine;
+    }
+
+    @PreDestroy
+    public void close() {
+        engine.close();
+    }
+}
@@ -3,6 +3,7 @@ package com.example.minibank2.mapper;
 import com.example.minibank2.dto.AccountResponse;
 import com.example.minibank2.dto.CreateAccountResponse;
 import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountSnapshot;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -26,6 +27,25 @@ public class AccountMapper {
         return dto;
     }
 
+    // DTO z niemutowalnej migawki współdzielonej przez SingleFlight (każdy wywołujący dostaje własne)
+    public AccountResponse toAccountResponse(AccountSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+
+        AccountResponse dto = new AccountResponse();
+        dto.setId(snapshot.id());
+        dto.setOwner(snapshot.owner());
+        dto.setNumber(snapshot.number());
+        dto.setCurrency(snapshot.currency());
+        dto.setBalance(snapshot.balance());
+        dto.setStatus(snapshot.status());
+        dto.setAccountType(snapshot.accountType());
+        dto.setInterestRate(snapshot.interestRate());
+        dto.setCreatedAt(snapshot.createdAt());
+        return dto;
+    }
+
     public CreateAccountResponse toCreateAccountResponse(Account account) {
         if (account == null) {
             return null;
@@ -0,0 +1,39 @@
+package com.example.minibank2.mapper;
+
+import com.example.minibank2.dto.PeriodAggregateResponse;
+import com.example.minibank2.entity.DailyAccountAggregate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class AggregateMapper {
+
+    // Zsumowanie dziennych podsumowań w jeden okres (dzień, miesiąc, dowolny zakres)
+    public PeriodAggregateResponse toPeriodAggregateResponse(Long accountId, LocalDate from, LocalDate to,
+                                                             List<DailyAccountAggregate> days) {
+        PeriodAggregateResponse dto = new PeriodAggregateResponse();
+        dto.setAccountId(accountId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        for (DailyAccountAggregate day : days) {
+            dto.setDepositCount(dto.getDepositCount() + day.getDepositCount());
+            dto.setDepositSum(dto.getDepositSum().add(day.getDepositSum()));
+            dto.setWithdrawCount(dto.getWithdrawCount() + day.getWithdrawCount());
+            dto.setWithdrawSum(dto.getWithdrawSum().add(day.getWithdrawSum()));
+            dto.setTransferInCount(dto.getTransferInCount() + day.getTransferInCount());
+            dto.setTransferInSum(dto.getTransferInSum().add(day.getTransferInSum()));
+            dto.setTransferOutCount(dto.getTransferOutCount() + day.getTransferOutCount());
+            dto.setTransferOutSum(dto.getTransferOutSum().add(day.getTransferOutSum()));
+            dto.setInterestCount(dto.getInterestCount() + day.getInterestCount());
+            dto.setInterestSum(dto.getInterestSum().add(day.getInterestSum()));
+        }
+        dto.setTotalCount(dto.getDepositCount() + dto.getWithdrawCount()
+                + dto.getTransferInCount() + dto.getTransferOutCount() + dto.getInterestCount());
+        dto.setNetAmount(dto.getDepositSum().add(dto.getTransferInSum()).add(dto.getInterestSum())
+                .subtract(dto.getWithdrawSum())
+                .subtract(dto.getTransferOutSum()));
+        return dto;
+    }
+}
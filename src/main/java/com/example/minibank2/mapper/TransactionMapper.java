@@ -13,6 +13,7 @@ public class TransactionMapper {
         response.setAccountId(transaction.getAccount().getId());
         response.setType(transaction.getType());
         response.setAmount(transaction.getAmount());
+        response.setBalanceAfter(transaction.getBalanceAfter());
         response.setDateTime(transaction.getDateTime());
         return response;
     }
@@ -0,0 +1,114 @@
+package com.example.minibank2.money;
+
+import com.example.minibank2.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kwoty jako long w jednostkach podrzędnych waluty (grosze, centy; jen bez części ułamkowej).
+ * Skala waluty pochodzi z ISO 4217 (java.util.Currency); nieznana waluta albo jej brak = 2 miejsca.
+ * BigDecimal pojawia się tylko na granicy (żądania, odpowiedzi, historia transakcji) –
+ * konwersja w tę stronę zaokrągla HALF_UP, tak jak dotychczasowe setScale(2, HALF_UP).
+ * Arytmetyka jest sprawdzana: przekroczenie zakresu long to błąd kwoty, a nie cichy overflow.
+ * Kwoty z żądań nie są zaokrąglane – więcej miejsc po przecinku niż ma waluta konta to błąd kwoty
+ * (toMinorExact), inaczej saldo i wiersz historii rozjechałyby się o zaokrąglenie.
+ */
+public final class MinorUnits {
+
+    public static final int DEFAULT_SCALE = 2;
+    // skala kolumn z kwotami (historia transakcji, podsumowania) – mieści każdą walutę
+    public static final int MAX_SCALE = 6;
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final Map<String, Integer> SCALES = new ConcurrentHashMap<>();
+
+    private MinorUnits() {
+    }
+
+    // 🔹 Liczba miejsc po przecinku waluty (PLN 2, JPY 0, KWD 3)
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return DEFAULT_SCALE;
+        }
+        return SCALES.computeIfAbsent(currency, code -> {
+            try {
+                int digits = Currency.getInstance(code).getDefaultFractionDigits();
+                return digits < 0 || digits >= POWERS_OF_TEN.length ? DEFAULT_SCALE : digits;
+            } catch (IllegalArgumentException e) {
+                return DEFAULT_SCALE; // kod spoza ISO 4217
+            }
+        });
+    }
+
+    public static long toMinor(BigDecimal amount, int scale) {
+        try {
+            return amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException("Kwota poza dopuszczalnym zakresem: " + amount);
+        }
+    }
+
+    // 🔹 Kwota z API w jednostkach podrzędnych bez zaokrąglania (0.50 dla JPY albo 1.0005 dla KWD to błąd)
+    public static long toMinorExact(BigDecimal amount, int scale) {
+        if (amount.stripTrailingZeros().scale() > scale) {
+            throw new InvalidAmountException("Kwota " + amount.toPlainString()
+                    + " ma więcej miejsc po przecinku niż waluta konta (" + scale + ")");
+        }
+        return toMinor(amount, scale);
+    }
+
+    public static BigDecimal toDecimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    public static long add(long left, long right) {
+        try {
+            return Math.addExact(left, right);
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException("Przekroczony dopuszczalny zakres kwoty");
+        }
+    }
+
+    public static long subtract(long left, long right) {
+        try {
+            return Math.subtractExact(left, right);
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException("Przekroczony dopuszczalny zakres kwoty");
+        }
+    }
+
+    // 🔹 Kwota odczytana z kolumny o skali MAX_SCALE bez zer dopisanych przez bazę
+    //    (co najmniej DEFAULT_SCALE miejsc, jak w dotychczasowych odpowiedziach: 100.00, 0.50, 100.125)
+    public static BigDecimal normalize(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() < DEFAULT_SCALE ? stripped.setScale(DEFAULT_SCALE) : stripped;
+    }
+
+    // 🔹 Zmiana skali: w górę dokładnie (z kontrolą zakresu), w dół z zaokrągleniem HALF_UP
+    public static long rescale(long minor, int fromScale, int toScale) {
+        if (fromScale == toScale) {
+            return minor;
+        }
+        if (toScale > fromScale) {
+            try {
+                return Math.multiplyExact(minor, POWERS_OF_TEN[toScale - fromScale]);
+            } catch (ArithmeticException e) {
+                throw new InvalidAmountException("Przekroczony dopuszczalny zakres kwoty");
+            }
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        long quotient = minor / divisor;
+        long remainder = Math.abs(minor % divisor);
+        if (remainder * 2 >= divisor) {
+            quotient += Long.signum(minor); // HALF_UP = od zera
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.minibank2.money;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tablica sald kont poza stertą: jeden bufor direct podzielony na sloty po 32 bajty
+ * (id konta, saldo w jednostkach podrzędnych, wersja, skala waluty), adresowane otwarcie
+ * (linear probing) po haszu id. GC widzi jeden obiekt zamiast milionów encji.
+ *
+ * Tablica jest tylko szybką warstwą przed bazą – źródłem prawdy zostaje tabela accounts.
+ * Pole wersji w slocie pełni kilka ról naraz (wszystkie zmiany przez compare-and-set):
+ *  0         – slot pusty albo unieważniony, trzeba wczytać z bazy,
+ *  ujemna    – dzierżawa wczytania (lease) – saldo w slocie jeszcze nieważne,
+ *  nieparzysta dodatnia – zapis w toku (seqlock), czytelnik ponawia odczyt,
+ *  parzysta dodatnia    – 2 * (balance_version + 1), saldo aktualne.
+ * Nowe saldo publikujemy po commicie razem z balance_version z bazy; starsza wersja
+ * nie nadpisze nowszej, a publikacja w trakcie dzierżawy ją unieważnia, więc wczytanie
+ * sprzed commita nie może zostawić w tablicy nieaktualnego salda.
+ */
+@Component
+public class OffHeapBalanceTable {
+
+    static final int SLOT_BYTES = 32;
+    private static final int KEY = 0;
+    private static final int BALANCE = 8;
+    private static final int VERSION = 16;
+    private static final int SCALE = 24;
+    private static final int MAX_CAPACITY = 1 << 25; // 1 GiB – limit pojedynczego ByteBuffer
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final boolean enabled;
+    private final ByteBuffer slots;
+    private final int capacity;
+    private final int mask;
+    private final int maxEntries;
+
+    private final AtomicInteger entries = new AtomicInteger();
+    private final AtomicLong leases = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder publishes = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public OffHeapBalanceTable(@Value("${minibank.balance-table.enabled:true}") boolean enabled,
+                               @Value("${minibank.balance-table.capacity:1048576}") int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid balance table capacity: " + requestedCapacity);
+        }
+        this.enabled = enabled;
+        this.capacity = enabled ? Integer.highestOneBit(requestedCapacity - 1) << 1 : 0;
+        this.mask = capacity - 1;
+        this.maxEntries = capacity / 4 * 3; // powyżej 75% zapełnienia nowe konta nie trafiają do tablicy
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Saldo konta odczytane z tablicy: minor units, skala waluty i balance_version z bazy.
+     */
+    public record Entry(long balanceMinor, int scale, long version) {
+    }
+
+    // 🔹 Spójny odczyt slotu (seqlock); null gdy konta nie ma w tablicy albo slot jest nieważny
+    public Entry get(long accountId) {
+        if (!enabled) {
+            return null;
+        }
+        int slot = find(accountId);
+        if (slot >= 0) {
+            int base = slot * SLOT_BYTES;
+            while (true) {
+                long before = (long) LONGS.getVolatile(slots, base + VERSION);
+                if (before <= 0) {
+                    break;
+                }
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long balance = (long) LONGS.getVolatile(slots, base + BALANCE);
+                int scale = (int) INTS.getVolatile(slots, base + SCALE);
+                if ((long) LONGS.getVolatile(slots, base + VERSION) == before) {
+                    hits.increment();
+                    return new Entry(balance, scale, before / 2 - 1);
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // 🔹 Dzierżawa wczytania slotu z bazy; 0 = nie wczytujemy (tablica pełna albo ktoś już wczytuje)
+    public long beginLoad(long accountId) {
+        if (!enabled) {
+            return 0;
+        }
+        int slot = findOrInsert(accountId);
+        if (slot < 0) {
+            return 0;
+        }
+        long lease = -leases.incrementAndGet();
+        return LONGS.compareAndSet(slots, slot * SLOT_BYTES + VERSION, 0L, lease) ? lease : 0;
+    }
+
+    // 🔹 Wpisanie salda wczytanego z bazy – tylko jeśli w międzyczasie nikt nie unieważnił dzierżawy
+    public void completeLoad(long accountId, long lease, long balanceMinor, int scale, long version) {
+        if (lease == 0) {
+            return;
+        }
+        int slot = find(accountId);
+        if (slot < 0) {
+            return;
+        }
+        int base = slot * SLOT_BYTES;
+        long target = stamp(version);
+        // dzierżawa -> "zapis w toku"; dopiero po wygranym CAS wolno nam pisać saldo
+        if (LONGS.compareAndSet(slots, base + VERSION, lease, target - 1)) {
+            LONGS.setVolatile(slots, base + BALANCE, balanceMinor);
+            INTS.setVolatile(slots, base + SCALE, scale);
+            LONGS.setRelease(slots, base + VERSION, target);
+            loads.increment();
+        }
+    }
+
+    // 🔹 Zwolnienie dzierżawy, gdy wczytanie się nie udało (np. konto usunięte)
+    public void abortLoad(long accountId, long lease) {
+        if (lease == 0) {
+            return;
+        }
+        int slot = find(accountId);
+        if (slot >= 0) {
+            LONGS.compareAndSet(slots, slot * SLOT_BYTES + VERSION, lease, 0L);
+        }
+    }
+
+    // 🔹 Nowe saldo po commicie; starsza wersja przegrywa z nowszą już obecną w slocie
+    public void publish(long accountId, long balanceMinor, int scale, long version) {
+        if (!enabled) {
+            return;
+        }
+        int slot = find(accountId);
+        if (slot < 0) {
+            return; // konta nie ma w tablicy – wczyta je następny odczyt
+        }
+        int base = slot * SLOT_BYTES;
+        long target = stamp(version);
+        while (true) {
+            long current = (long) LONGS.getVolatile(slots, base + VERSION);
+            if (current == 0 || current >= target) {
+                return;
+            }
+            if (current < 0) {
+                // trwa wczytanie – mogło przeczytać bazę przed naszym commitem, więc je unieważniamy
+                if (LONGS.compareAndSet(slots, base + VERSION, current, 0L)) {
+                    invalidations.increment();
+                    return;
+                }
+                continue;
+            }
+            if ((current & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (LONGS.compareAndSet(slots, base + VERSION, current, target - 1)) {
+                LONGS.setVolatile(slots, base + BALANCE, balanceMinor);
+                INTS.setVolatile(slots, base + SCALE, scale);
+                LONGS.setRelease(slots, base + VERSION, target);
+                publishes.increment();
+                return;
+            }
+        }
+    }
+
+    // 🔹 Publikacja dopiero po commicie – rollback nie może zostawić salda w tablicy
+    public void publishAfterCommit(long accountId, long balanceMinor, int scale, long version) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(accountId, balanceMinor, scale, version);
+                }
+            });
+        } else {
+            publish(accountId, balanceMinor, scale, version);
+        }
+    }
+
+    // 🔹 Unieważnienie slotu (zapis z pominięciem encji, usunięcie konta)
+    public void invalidate(long accountId) {
+        if (!enabled) {
+            return;
+        }
+        int slot = find(accountId);
+        if (slot < 0) {
+            return;
+        }
+        int base = slot * SLOT_BYTES;
+        while (true) {
+            long current = (long) LONGS.getVolatile(slots, base + VERSION);
+            if (current == 0) {
+                return;
+            }
+            if (current > 0 && (current & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (LONGS.compareAndSet(slots, base + VERSION, current, 0L)) {
+                invalidations.increment();
+                return;
+            }
+        }
+    }
+
+    // Wersja w slocie: parzysta i dodatnia, żeby 0 (pamięć wyzerowana) znaczyło "brak salda"
+    private static long stamp(long version) {
+        return (version + 1) * 2;
+    }
+
+    private int find(long accountId) {
+        int slot = home(accountId);
+        for (int probes = 0; probes < capacity; probes++) {
+            long key = (long) LONGS.getVolatile(slots, slot * SLOT_BYTES + KEY);
+            if (key == accountId) {
+                return slot;
+            }
+            if (key == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Sloty nie są zwalniane – usunięte konto zostaje jako slot unieważniony dla tego samego id
+    private int findOrInsert(long accountId) {
+        if (accountId <= 0) {
+            return -1;
+        }
+        int slot = home(accountId);
+        for (int probes = 0; probes < capacity; probes++) {
+            int offset = slot * SLOT_BYTES + KEY;
+            long key = (long) LONGS.getVolatile(slots, offset);
+            if (key == accountId) {
+                return slot;
+            }
+            if (key == 0) {
+                if (entries.get() >= maxEntries) {
+                    return -1;
+                }
+                if (LONGS.compareAndSet(slots, offset, 0L, accountId)) {
+                    entries.incrementAndGet();
+                    return slot;
+                }
+                continue; // inny wątek zajął ten slot – sprawdzamy go jeszcze raz
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int home(long accountId) {
+        long h = accountId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public int getCapacity() { return capacity; }
+    public int getEntries() { return entries.get(); }
+    public long getOffHeapBytes() { return (long) capacity * SLOT_BYTES; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getLoads() { return loads.sum(); }
+    public long getPublishes() { return publishes.sum(); }
+    public long getInvalidations() { return invalidations.sum(); }
+}
@@ -2,8 +2,12 @@ package com.example.minibank2.repository;
 
 import com.example.minibank2.entity.Account;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 
@@ -22,23 +26,51 @@ import java.util.Optional;
  */
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    // Saldo jest w jednostkach podrzędnych – próg w walucie mnożymy przez 10^skala konta (dokładnie, bez double)
+    String BALANCE_UNIT = "(case a.balanceScale when 0 then 1 when 1 then 10 when 2 then 100 when 3 then 1000 " +
+            "when 4 then 10000 when 5 then 100000 else 1000000 end)";
+    // Saldo jako kwota nominalna – sortowanie po samym balance_minor stawia 6000 JPY za 100.00 PLN
+    String BALANCE_VALUE = "cast(a.balance as BigDecimal) / " + BALANCE_UNIT;
+
     // Możemy tu dodawać własne zapytania, np.:
     // List<Account> findByOwner(String owner);
 
     List<Account> findByOwner(String owner);
+    @Query("select a from Account a order by " + BALANCE_VALUE + " desc limit 1")
     Optional<Account> findTopByOrderByBalanceDesc();  // metoda do znalezienia konta z najwyższym saldem
+    @Query("select a from Account a where a.balance > :amount * " + BALANCE_UNIT)
     List<Account> findByBalanceGreaterThan(BigDecimal amount); // metoda do znajdywania kont o saldzie większym niż podanym z palca
     List<Account> findByCreatedAtAfter(LocalDate date); // znalezienie konta utworzonego po dacie
     Optional<Account> findTopByOrderByCreatedAtAsc(); // pierwsze konto (najstarsze) po dacie utworzenia (createdAt).
     Long countByCurrency(String currency); // Policz, ile jest kont w danej walucie (currency).
+    @Query("select a from Account a where a.status = :status order by " + BALANCE_VALUE + " desc limit 1")
     Optional<Account> findTopByStatusOrderByBalanceDesc(String status); // Znajdź pierwsze konto, które ma status „ACTIVE”, posortowane malejąco po saldzie.
     List<Account> findAllByCreatedAtBefore(LocalDate date); // Znajdź wszystkie konta utworzone przed
     Optional<Account> findTopByCurrencyOrderByBalanceDesc(String currency); // Znajdź konto o najwyższym saldzie w danej walucie
+    @Query("select a from Account a order by " + BALANCE_VALUE + " desc limit 3")
     List<Account> findTop3ByOrderByBalanceDesc(); // 3 konta z najwyższym saldem
+    @Query("select a from Account a where a.balance > :amount * " + BALANCE_UNIT)
     Page<Account> findByBalanceGreaterThan(BigDecimal amount, Pageable pageable);
     Page<Account> findByCreatedAtAfter(LocalDate date, Pageable pageable);
     Page<Account> findByOwner(String owner, Pageable pageable);
-    Page<Account> findTop3ByOrderByBalanceDesc(Pageable pageable);
+    // 3 konta z najwyższym saldem, stronicowane w obrębie tej trójki (limit z zapytania przegrywa z rozmiarem strony)
+    default Page<Account> findTop3ByOrderByBalanceDesc(Pageable pageable) {
+        List<Account> top3 = findTop3ByOrderByBalanceDesc();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(top3);
+        }
+        int from = (int) Math.min(pageable.getOffset(), top3.size());
+        int to = Math.min(from + pageable.getPageSize(), top3.size());
+        return new PageImpl<>(top3.subList(from, to), pageable, top3.size());
+    }
+
+    @Query("select a.id from Account a order by a.id")
+    List<Long> findAllIds(); // identyfikatory wszystkich kont, rosnąco – do podziału pracy zadań wsadowych
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(Long id); // konto z blokadą wiersza do końca transakcji
 
 
 
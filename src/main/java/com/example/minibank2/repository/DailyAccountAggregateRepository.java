@@ -0,0 +1,21 @@
+package com.example.minibank2.repository;
+
+import com.example.minibank2.entity.DailyAccountAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyAccountAggregateRepository extends JpaRepository<DailyAccountAggregate, Long> {
+
+    // podsumowania z zakresu dni (włącznie), rosnąco po dacie
+    List<DailyAccountAggregate> findByAccountIdAndBusinessDateBetweenOrderByBusinessDateAsc(
+            Long accountId, LocalDate from, LocalDate to);
+
+    // usunięcie podsumowań konta – używane przy przeliczaniu od nowa (backfill)
+    @Modifying
+    @Query("delete from DailyAccountAggregate a where a.accountId = :accountId")
+    void deleteByAccountId(Long accountId);
+}
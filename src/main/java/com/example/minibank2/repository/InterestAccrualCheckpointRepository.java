@@ -0,0 +1,13 @@
+package com.example.minibank2.repository;
+
+import com.example.minibank2.entity.InterestAccrualCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InterestAccrualCheckpointRepository extends JpaRepository<InterestAccrualCheckpoint, Long> {
+
+    // zakresy kont już rozliczone dla danego dnia
+    List<InterestAccrualCheckpoint> findByAccrualDate(LocalDate accrualDate);
+}
@@ -0,0 +1,68 @@
+package com.example.minibank2.repository;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.mapper.TransactionMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Domyślny magazyn historii: zapytania do tabeli transactions przez TransactionRepository
+@Component
+@ConditionalOnProperty(name = "minibank.history-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaTransactionHistoryStore implements TransactionHistoryStore {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+
+    public JpaTransactionHistoryStore(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountId(Long accountId) {
+        return toResponses(transactionRepository.findByAccountId(accountId));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdNewestFirst(Long accountId) {
+        return toResponses(transactionRepository.findByAccountIdOrderByDateTimeDesc(accountId));
+    }
+
+    @Override
+    public List<TransactionResponse> findLatest(Long accountId, int limit) {
+        return toResponses(transactionRepository.findByAccountIdOrderByDateTimeDesc(accountId, PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndType(Long accountId, TransactionType type) {
+        return toResponses(transactionRepository.findByAccountIdAndType(accountId, type));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndDateTimeBetween(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return toResponses(transactionRepository.findByAccountIdAndDateTimeBetween(accountId, from, to));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndDateTime(Long accountId, LocalDateTime dateTime) {
+        return toResponses(transactionRepository.findByAccountIdAndDateTime(accountId, dateTime));
+    }
+
+    @Override
+    public List<TransactionResponse> findByAccountIdAndAmountGreaterThan(Long accountId, BigDecimal amount) {
+        return toResponses(transactionRepository.findByAccountIdAndAmountGreaterThan(accountId, amount));
+    }
+
+    private List<TransactionResponse> toResponses(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(transactionMapper::toTransactionResponse)
+                .toList();
+    }
+}
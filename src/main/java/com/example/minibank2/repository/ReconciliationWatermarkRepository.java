@@ -0,0 +1,7 @@
+package com.example.minibank2.repository;
+
+import com.example.minibank2.entity.ReconciliationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconciliationWatermarkRepository extends JpaRepository<ReconciliationWatermark, String> {
+}
@@ -0,0 +1,39 @@
+package com.example.minibank2.repository;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Źródło odczytów historii transakcji dla TransactionService.
+ * Domyślnie tabela transactions (JPA); opcjonalnie magazyn LSM (minibank.history-store=lsm),
+ * zasilany zatwierdzonymi księgowaniami. Saldo i jego zmiany zawsze pozostają w bazie.
+ */
+public interface TransactionHistoryStore {
+
+    List<TransactionResponse> findByAccountId(Long accountId);
+
+    List<TransactionResponse> findByAccountIdNewestFirst(Long accountId);
+
+    List<TransactionResponse> findLatest(Long accountId, int limit);
+
+    List<TransactionResponse> findByAccountIdAndType(Long accountId, TransactionType type);
+
+    List<TransactionResponse> findByAccountIdAndDateTimeBetween(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    List<TransactionResponse> findByAccountIdAndDateTime(Long accountId, LocalDateTime dateTime);
+
+    List<TransactionResponse> findByAccountIdAndAmountGreaterThan(Long accountId, BigDecimal amount);
+
+    // księgowanie zapisane w bazie – magazyn poza bazą przejmuje je po commicie
+    default void onRecorded(TransactionResponse transaction) {
+    }
+
+    // czy zadania wsadowe piszące JDBC z pominięciem TransactionService muszą przekazać swoje księgowania
+    default boolean requiresFeed() {
+        return false;
+    }
+}
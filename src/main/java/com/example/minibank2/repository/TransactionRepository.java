@@ -2,12 +2,16 @@ package com.example.minibank2.repository;
 
 import com.example.minibank2.entity.Transaction;
 import com.example.minibank2.entity.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
@@ -17,6 +21,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // transakcje dla danego konta posortowane po dacie
     List<Transaction> findByAccountIdOrderByDateTimeDesc(Long accountId);
 
+    // N najnowszych transakcji konta (limit przez Pageable, bez wczytywania całej historii)
+    List<Transaction> findByAccountIdOrderByDateTimeDesc(Long accountId, Pageable pageable);
+
     // Pobranie transakcji dla konta + typ transakcji
     List<Transaction> findByAccountIdAndType(Long accountId, TransactionType type);
 
@@ -29,4 +36,18 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Pobranie transakcji powyżej określonej kwoty
     List<Transaction> findByAccountIdAndAmountGreaterThan(Long accountId, BigDecimal amount);
 
+    // Ostatnia transakcja konta nie późniejsza niż podany moment (seek po indeksie account_id, date_time)
+    Optional<Transaction> findTopByAccountIdAndDateTimeLessThanEqualOrderByDateTimeDescIdDesc(Long accountId, LocalDateTime at);
+
+    // Pierwsza transakcja konta po podanym momencie
+    Optional<Transaction> findTopByAccountIdAndDateTimeGreaterThanOrderByDateTimeAscIdAsc(Long accountId, LocalDateTime at);
+
+    // Cała historia konta w kolejności księgowania – do przeliczania sald
+    List<Transaction> findByAccountIdOrderByDateTimeAscIdAsc(Long accountId);
+
+    // Zmiana salda netto od podanego momentu (wpływy na plus, wypływy na minus)
+    @Query("select coalesce(sum(case when t.type in :creditTypes then t.amount else -t.amount end), 0) " +
+            "from Transaction t where t.account.id = :accountId and t.dateTime > :at")
+    BigDecimal sumNetAmountAfter(Long accountId, LocalDateTime at, Collection<TransactionType> creditTypes);
+
 }
@@ -1,5 +1,6 @@
 package com.example.minibank2.service;
 
+import com.example.minibank2.analytics.AnalyticsSnapshot;
 import com.example.minibank2.dto.AccountResponse;
 import com.example.minibank2.dto.CreateAccountRequest;
 import com.example.minibank2.dto.CreateAccountResponse;
@@ -10,8 +11,17 @@ import com.example.minibank2.exception.AccountNotFoundException;
 import com.example.minibank2.exception.InsufficientFundsException;
 import com.example.minibank2.exception.TransferToSameAccountException;
 import com.example.minibank2.exception.InvalidAmountException;
+import com.example.minibank2.jfr.AmountBucket;
+import com.example.minibank2.jfr.DepositEvent;
+import com.example.minibank2.jfr.TransferEvent;
+import com.example.minibank2.jfr.WithdrawEvent;
 import com.example.minibank2.mapper.AccountMapper;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.money.OffHeapBalanceTable;
 import com.example.minibank2.repository.AccountRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,31 +31,54 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Comparator;
+import java.util.Currency;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * AccountService to warstwa logiki biznesowej dla kont bankowych.
  * Odpowiada za pobieranie danych z repozytorium i wykonywanie operacji na kontach.
  */
 @Service
+@Timed("minibank.service")
 public class AccountService {
 
     private final AccountRepository accountRepository;
     private final TransactionService transactionService;
     private final NumberGeneratorService numberGeneratorService;
     private final AccountMapper accountMapper;
+    private final SingleFlight singleFlight;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final OffHeapBalanceTable balanceTable;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> transferAmounts = new ConcurrentHashMap<>();
+    private static final Set<String> ISO_CURRENCIES = Currency.getAvailableCurrencies().stream()
+            .map(Currency::getCurrencyCode)
+            .collect(Collectors.toUnmodifiableSet());
     private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
 
     // Konstruktor z wstrzykiwaniem zależności
     public AccountService(AccountRepository accountRepository,
                           TransactionService transactionService,
                           NumberGeneratorService numberGeneratorService,
-                          AccountMapper accountMapper) {
+                          AccountMapper accountMapper,
+                          SingleFlight singleFlight,
+                          AnalyticsSnapshot analyticsSnapshot,
+                          OffHeapBalanceTable balanceTable,
+                          MeterRegistry meterRegistry) {
         this.accountRepository = accountRepository;
         this.transactionService = transactionService;
         this.numberGeneratorService = numberGeneratorService;
         this.accountMapper = accountMapper;
+        this.singleFlight = singleFlight;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.balanceTable = balanceTable;
+        this.meterRegistry = meterRegistry;
     }
 
     // 🔹 Metoda pomocnicza do pobrania konta lub rzucenia wyjątku
@@ -54,6 +87,18 @@ public class AccountService {
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with id " + accountId));
     }
 
+    // 🔹 Konto z blokadą wiersza – zmiany salda są szeregowane, więc balance_version rośnie bez luk
+    private Account lockAccountOrThrow(Long accountId) {
+        return accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id " + accountId));
+    }
+
+    // 🔹 Nowe saldo trafia do tablicy sald po commicie
+    private void publishBalance(Account account) {
+        balanceTable.publishAfterCommit(account.getId(), account.getBalanceMinor(),
+                account.getBalanceScale(), account.getBalanceVersion());
+    }
+
     // 🔹 Zwraca listę wszystkich kont
     public List<AccountResponse> getAllAccounts() {
         return accountRepository.findAll().stream()
@@ -70,10 +115,11 @@ public class AccountService {
         account.setCreatedAt(LocalDate.now());
         account.setNumber(numberGeneratorService.generateAccountNumber());
         account.setStatus("ACTIVE");
-        account.setBalance(BigDecimal.ZERO);
+        account.setBalanceMinor(0);
         account.setInterestRate(request.getAccountType() == AccountType.SAVINGS ? new BigDecimal("0.02") : BigDecimal.ZERO);
 
         Account savedAccount = accountRepository.save(account);
+        analyticsSnapshot.onAccountChanged(savedAccount);
         return accountMapper.toCreateAccountResponse(savedAccount);
     }
 
@@ -82,6 +128,7 @@ public class AccountService {
         Account account = getAccountOrThrow(id);
         account.setOwner(request.getOwner());
         Account updatedAccount = accountRepository.save(account);
+        analyticsSnapshot.onAccountChanged(updatedAccount);
         return accountMapper.toAccountResponse(updatedAccount);
     }
 
@@ -89,6 +136,8 @@ public class AccountService {
     public AccountResponse deleteAccount(Long id) {
         Account account = getAccountOrThrow(id);
         accountRepository.delete(account);
+        balanceTable.invalidate(id);
+        analyticsSnapshot.onAccountDeleted(id);
         logger.info("Account with id {} has been deleted", id);
         return accountMapper.toAccountResponse(account);
     }
@@ -98,6 +147,28 @@ public class AccountService {
         return accountMapper.toAccountResponse(getAccountOrThrow(id));
     }
 
+    // 🔹 Bieżące saldo konta – z tablicy sald poza stertą, a przy braku z bazy (i do tablicy)
+    public BigDecimal getBalance(Long id) {
+        OffHeapBalanceTable.Entry cached = balanceTable.get(id);
+        if (cached != null) {
+            return MinorUnits.toDecimal(cached.balanceMinor(), cached.scale());
+        }
+        long lease = balanceTable.beginLoad(id);
+        try {
+            Account account = getAccountOrThrow(id);
+            balanceTable.completeLoad(id, lease, account.getBalanceMinor(),
+                    account.getBalanceScale(), account.getBalanceVersion());
+            return account.getBalance();
+        } finally {
+            balanceTable.abortLoad(id, lease); // no-op, jeśli wczytanie się udało
+        }
+    }
+
+    // 🔹 Saldo konta na wskazany moment (reklamacje, wyciągi)
+    public BigDecimal getBalanceAt(Long id, LocalDateTime at) {
+        return transactionService.getBalanceAt(getAccountOrThrow(id), at);
+    }
+
     // 🔹 Pobranie kont dla właściciela
     public List<AccountResponse> findAccountsByOwner(String owner) {
         List<Account> accounts = accountRepository.findByOwner(owner);
@@ -109,9 +180,11 @@ public class AccountService {
 
     // 🔹 Konto z najwyższym saldem (Spring)
     public AccountResponse getAccountWithMaxBalanceSpring() {
-        Account account = accountRepository.findTopByOrderByBalanceDesc()
-                .orElseThrow(() -> new AccountNotFoundException("No accounts in database"));
-        return accountMapper.toAccountResponse(account);
+        return singleFlight.execute("accounts:highest-balance", () -> {
+            Account account = accountRepository.findTopByOrderByBalanceDesc()
+                    .orElseThrow(() -> new AccountNotFoundException("No accounts in database"));
+            return account.toSnapshot();
+        }, accountMapper::toAccountResponse);
     }
 
     // 🔹 Znajdowanie konta z saldem większym niż podane
@@ -134,14 +207,17 @@ public class AccountService {
 
     // 🔹 Najstarsze konto
     public AccountResponse getTheOldestAccount() {
-        Account account = accountRepository.findTopByOrderByCreatedAtAsc()
-                .orElseThrow(() -> new AccountNotFoundException("No accounts found"));
-        return accountMapper.toAccountResponse(account);
+        return singleFlight.execute("accounts:oldest", () -> {
+            Account account = accountRepository.findTopByOrderByCreatedAtAsc()
+                    .orElseThrow(() -> new AccountNotFoundException("No accounts found"));
+            return account.toSnapshot();
+        }, accountMapper::toAccountResponse);
     }
 
     // 🔹 Liczba kont w danej walucie
     public Long getHowManyAccountWithCurrency(String currency) {
-        return accountRepository.countByCurrency(currency);
+        return singleFlight.execute("accounts:count-by-currency:" + currency,
+                () -> accountRepository.countByCurrency(currency));
     }
 
     // 🔹 Pierwsze konto z aktywnym statusem posortowane malejąco po saldzie
@@ -176,41 +252,133 @@ public class AccountService {
         return accounts.stream().map(accountMapper::toAccountResponse).toList();
     }
 
-    // 🔹 Wykonanie przelewu między kontami
+    // 🔹 Wykonanie przelewu między kontami (zdarzenie JFR minibank.Transfer: czas, oczekiwanie na blokady, wynik)
     @Transactional
     public void transfer(Long senderId, Long receiverId, BigDecimal amount) {
-        if (senderId.equals(receiverId)) {
-            throw new TransferToSameAccountException("Nie można wykonać przelewu na to samo konto.");
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        event.senderId = senderId;
+        event.receiverId = receiverId;
+        event.amountBucket = AmountBucket.of(amount);
+        event.outcome = "ok";
+        try {
+            if (senderId.equals(receiverId)) {
+                throw new TransferToSameAccountException("Nie można wykonać przelewu na to samo konto.");
+            }
+
+            rejectIfKnownInsufficient(senderId, amount);
+
+            // blokady zawsze w kolejności id, żeby dwa przeciwne przelewy się nie zakleszczyły
+            long lockStart = System.nanoTime();
+            Account sender;
+            Account receiver;
+            if (senderId < receiverId) {
+                sender = lockAccountOrThrow(senderId);
+                receiver = lockAccountOrThrow(receiverId);
+            } else {
+                receiver = lockAccountOrThrow(receiverId);
+                sender = lockAccountOrThrow(senderId);
+            }
+            event.lockWait = System.nanoTime() - lockStart;
+
+            // bez przewalutowania obie strony dostają tę samą kwotę nominalną – musi się ona dać zapisać
+            // w walucie o mniejszej liczbie miejsc po przecinku (1.50 z PLN na JPY odrzucamy, a nie zaokrąglamy)
+            MinorUnits.toMinorExact(amount, Math.min(sender.getBalanceScale(), receiver.getBalanceScale()));
+            sender.withdraw(amount);
+            receiver.deposit(amount);
+
+            accountRepository.save(sender);
+            accountRepository.save(receiver);
+            publishBalance(sender);
+            publishBalance(receiver);
+            analyticsSnapshot.onAccountChanged(sender);
+            analyticsSnapshot.onAccountChanged(receiver);
+
+            transactionService.recordTransfer(sender, receiver, amount);
+            recordTransferAmount(sender.getCurrency(), amount);
+        } catch (RuntimeException e) {
+            event.outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
         }
+    }
 
-        Account sender = getAccountOrThrow(senderId);
-        Account receiver = getAccountOrThrow(receiverId);
-
-        sender.withdraw(amount);
-        receiver.deposit(amount);
-
-        accountRepository.save(sender);
-        accountRepository.save(receiver);
+    // 🔹 Rozkład kwot wykonanych przelewów per waluta (minibank_transfer_amount w /actuator/prometheus).
+    //    Waluta konta to dowolny tekst od klienta – tag ograniczamy do kodów ISO 4217 (reszta to "other"),
+    //    a liczniki trzymamy w mapie, żeby nie budować ich przy każdym przelewie.
+    private void recordTransferAmount(String currency, BigDecimal amount) {
+        String tag = currency != null && ISO_CURRENCIES.contains(currency) ? currency : "other";
+        transferAmounts.computeIfAbsent(tag, code -> DistributionSummary.builder("minibank.transfer.amount")
+                        .description("Amounts of executed transfers")
+                        .tag("currency", code)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(0.01)
+                        .maximumExpectedValue(10_000_000.0)
+                        .register(meterRegistry))
+                .record(amount.doubleValue());
+    }
 
-        transactionService.recordTransfer(sender, receiver, amount);
+    // 🔹 Przelew, którego saldo nadawcy z tablicy nie pokrywa, odrzucamy bez blokowania wierszy.
+    //    Tablica może być najwyżej o commit w tyle za bazą, a pełna walidacja i tak idzie na encji.
+    private void rejectIfKnownInsufficient(Long senderId, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return;
+        }
+        OffHeapBalanceTable.Entry cached = balanceTable.get(senderId);
+        if (cached != null && cached.balanceMinor() < MinorUnits.toMinor(amount, cached.scale())) {
+            throw new InsufficientFundsException("Brak wystarczających środków na koncie");
+        }
     }
     // Metoda do wpłaty kasy na konto
     @Transactional
     public AccountResponse deposit(Long accountId, BigDecimal amount) {
-        Account account = getAccountOrThrow(accountId);
-        account.deposit(amount);
-        accountRepository.save(account);
-        transactionService.recordDeposit(account, amount);
-        return accountMapper.toAccountResponse(account);
+        DepositEvent event = new DepositEvent();
+        event.begin();
+        event.accountId = accountId;
+        event.amountBucket = AmountBucket.of(amount);
+        event.outcome = "ok";
+        try {
+            long lockStart = System.nanoTime();
+            Account account = lockAccountOrThrow(accountId);
+            event.lockWait = System.nanoTime() - lockStart;
+            account.deposit(amount);
+            accountRepository.save(account);
+            publishBalance(account);
+            analyticsSnapshot.onAccountChanged(account);
+            transactionService.recordDeposit(account, amount);
+            return accountMapper.toAccountResponse(account);
+        } catch (RuntimeException e) {
+            event.outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
     }
     // Metoda do wypłaty kasy z konta
     @Transactional
     public AccountResponse withdraw(Long accountId, BigDecimal amount) {
-        Account account = getAccountOrThrow(accountId);
-        account.withdraw(amount);
-        accountRepository.save(account);
-        transactionService.recordWithdraw(account, amount);
-        return accountMapper.toAccountResponse(account);
+        WithdrawEvent event = new WithdrawEvent();
+        event.begin();
+        event.accountId = accountId;
+        event.amountBucket = AmountBucket.of(amount);
+        event.outcome = "ok";
+        try {
+            long lockStart = System.nanoTime();
+            Account account = lockAccountOrThrow(accountId);
+            event.lockWait = System.nanoTime() - lockStart;
+            account.withdraw(amount);
+            accountRepository.save(account);
+            publishBalance(account);
+            analyticsSnapshot.onAccountChanged(account);
+            transactionService.recordWithdraw(account, amount);
+            return accountMapper.toAccountResponse(account);
+        } catch (RuntimeException e) {
+            event.outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
     }
 
     // METODY Z PAGINACJĄ
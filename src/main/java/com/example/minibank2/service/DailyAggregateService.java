@@ -0,0 +1,150 @@
+package com.example.minibank2.service;
+
+import com.example.minibank2.dto.PeriodAggregateResponse;
+import com.example.minibank2.entity.DailyAccountAggregate;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.exception.TransactionNotFoundException;
+import com.example.minibank2.mapper.AggregateMapper;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.repository.DailyAccountAggregateRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * DailyAggregateService utrzymuje dzienne podsumowania transakcji per konto
+ * i odpowiada na zapytania o sumy dzienne/miesięczne wyłącznie na ich podstawie.
+ */
+@Service
+public class DailyAggregateService {
+
+    // Upsert jednym poleceniem: inkrementacja istniejącego dnia albo wstawienie nowego wiersza
+    private static final String MERGE_POSTING =
+            "merge into daily_account_aggregates t " +
+            "using (values (cast(? as bigint), cast(? as date), cast(? as numeric(38, " + MinorUnits.MAX_SCALE + ")))) " +
+            "s(account_id, business_date, amount) " +
+            "on t.account_id = s.account_id and t.business_date = s.business_date " +
+            "when matched then update set %1$s_count = t.%1$s_count + 1, %1$s_sum = t.%1$s_sum + s.amount " +
+            "when not matched then insert (account_id, business_date, %2$s) values (s.account_id, s.business_date, %3$s)";
+
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    private final DailyAccountAggregateRepository aggregateRepository;
+    private final AggregateMapper aggregateMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyAggregateService(DailyAccountAggregateRepository aggregateRepository, AggregateMapper aggregateMapper,
+                                 JdbcTemplate jdbcTemplate) {
+        this.aggregateRepository = aggregateRepository;
+        this.aggregateMapper = aggregateMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔹 Doliczenie transakcji do podsumowania dnia – w tej samej transakcji co zapis transakcji.
+    //    Upsert zamiast odczytu z blokadą: pierwszego księgowania dnia nie ma czego zablokować.
+    //    MERGE nie jest atomowy względem równoległego insertu – przegrany dostaje naruszenie unikalności
+    //    dopiero po commicie zwycięzcy, więc powtórzony MERGE trafia już w gałąź "when matched".
+    public void record(Transaction transaction) {
+        String sql = mergeSql(transaction.getType());
+        Object[] args = {transaction.getAccount().getId(),
+                Date.valueOf(transaction.getDateTime().toLocalDate()), transaction.getAmount()};
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update(sql, args);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_MERGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // 🔹 Wsadowe doliczenie księgowań jednego typu z jednego dnia (zadania wsadowe, JDBC batch)
+    public void recordBatch(LocalDate day, TransactionType type, List<Posting> postings) {
+        Date businessDate = Date.valueOf(day);
+        jdbcTemplate.batchUpdate(mergeSql(type), postings.stream()
+                .map(posting -> new Object[]{posting.accountId(), businessDate, posting.amount()})
+                .toList());
+    }
+
+    private static String mergeSql(TransactionType type) {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        for (TransactionType each : TransactionType.values()) {
+            String eachPrefix = columnPrefix(each);
+            columns.add(eachPrefix + "_count").add(eachPrefix + "_sum");
+            values.add(each == type ? "1" : "0").add(each == type ? "s.amount" : "0");
+        }
+        return String.format(MERGE_POSTING, columnPrefix(type), columns, values);
+    }
+
+    private static String columnPrefix(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> "deposit";
+            case WITHDRAW -> "withdraw";
+            case TRANSFER_IN -> "transfer_in";
+            case TRANSFER_OUT -> "transfer_out";
+            case INTEREST -> "interest";
+        };
+    }
+
+    // 🔹 Podsumowania dzień po dniu w zakresie dat (włącznie)
+    public List<PeriodAggregateResponse> getDailyAggregates(Long accountId, LocalDate from, LocalDate to) {
+        List<DailyAccountAggregate> days = findDays(accountId, from, to);
+        return days.stream()
+                .map(day -> aggregateMapper.toPeriodAggregateResponse(
+                        accountId, day.getBusinessDate(), day.getBusinessDate(), List.of(day)))
+                .toList();
+    }
+
+    // 🔹 Podsumowania miesiąc po miesiącu w zakresie miesięcy (włącznie)
+    public List<PeriodAggregateResponse> getMonthlyAggregates(Long accountId, YearMonth from, YearMonth to) {
+        List<DailyAccountAggregate> days = findDays(accountId, from.atDay(1), to.atEndOfMonth());
+        Map<YearMonth, List<DailyAccountAggregate>> byMonth = new TreeMap<>();
+        for (DailyAccountAggregate day : days) {
+            byMonth.computeIfAbsent(YearMonth.from(day.getBusinessDate()), month -> new ArrayList<>()).add(day);
+        }
+        return byMonth.entrySet().stream()
+                .map(entry -> aggregateMapper.toPeriodAggregateResponse(
+                        accountId, entry.getKey().atDay(1), entry.getKey().atEndOfMonth(), entry.getValue()))
+                .toList();
+    }
+
+    // 🔹 Suma kwot wszystkich transakcji z danego dnia
+    public BigDecimal getTransactionSumForDay(Long accountId, LocalDate day) {
+        DailyAccountAggregate aggregate = findDays(accountId, day, day).get(0);
+        return aggregate.getDepositSum()
+                .add(aggregate.getWithdrawSum())
+                .add(aggregate.getTransferInSum())
+                .add(aggregate.getTransferOutSum())
+                .add(aggregate.getInterestSum());
+    }
+
+    private List<DailyAccountAggregate> findDays(Long accountId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' date cannot be before 'from' date");
+        }
+        List<DailyAccountAggregate> days =
+                aggregateRepository.findByAccountIdAndBusinessDateBetweenOrderByBusinessDateAsc(accountId, from, to);
+        if (days.isEmpty()) {
+            throw new TransactionNotFoundException("No transactions for account id " + accountId + " between dates");
+        }
+        return days;
+    }
+
+    // Pojedyncze księgowanie do wsadowej aktualizacji podsumowań
+    public record Posting(long accountId, BigDecimal amount) {
+    }
+}
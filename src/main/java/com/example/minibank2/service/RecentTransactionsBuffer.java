@@ -0,0 +1,238 @@
+package com.example.minibank2.service;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.Transaction;
+import com.example.minibank2.mapper.TransactionMapper;
+import com.example.minibank2.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bufor ostatnich transakcji trzymany w pamięci osobno dla każdego aktywnego konta.
+ * Każde konto ma pierścień o stałej głębokości (najnowsze transakcje), wypełniany leniwie
+ * przy pierwszym odczycie i uzupełniany po commicie przy zapisie nowej transakcji.
+ * Łączna liczba buforowanych transakcji jest ograniczona – przy przekroczeniu budżetu
+ * usuwamy w całości bufor najdawniej używanego konta (LRU).
+ */
+@Component
+public class RecentTransactionsBuffer {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final int depth;
+    private final int maxBuffers;
+
+    private final Map<Long, AccountRing> rings;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RecentTransactionsBuffer(TransactionRepository transactionRepository,
+                                    TransactionMapper transactionMapper,
+                                    @Value("${minibank.history-buffer.depth:50}") int depth,
+                                    @Value("${minibank.history-buffer.max-transactions:100000}") int maxTransactions) {
+        if (depth < 1 || maxTransactions < depth) {
+            throw new IllegalArgumentException("Invalid history buffer size: depth=" + depth + ", max=" + maxTransactions);
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.depth = depth;
+        this.maxBuffers = maxTransactions / depth;
+        this.rings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AccountRing> eldest) {
+                return size() > maxBuffers;
+            }
+        };
+    }
+
+    // 🔹 N najnowszych transakcji konta (malejąco po dacie), o ile bufor potrafi je podać
+    public Optional<List<TransactionResponse>> latest(Long accountId, int limit) {
+        if (limit > depth) {
+            // większy limit obsłużymy tylko gdy bufor zawiera całą historię konta
+            return all(accountId).map(list -> list.subList(0, Math.min(limit, list.size())));
+        }
+        AccountRing ring = ringFor(accountId);
+        synchronized (ring) {
+            if (ring.loaded) {
+                hits.increment();
+                return Optional.of(ring.newest(limit));
+            }
+        }
+        misses.increment();
+        load(accountId, ring);
+        synchronized (ring) {
+            return Optional.of(ring.newest(limit));
+        }
+    }
+
+    // 🔹 Cała historia konta – tylko gdy mieści się w buforze
+    public Optional<List<TransactionResponse>> all(Long accountId) {
+        AccountRing ring = ringFor(accountId);
+        synchronized (ring) {
+            if (ring.loaded) {
+                if (!ring.complete) {
+                    return Optional.empty();
+                }
+                hits.increment();
+                return Optional.of(ring.newest(depth));
+            }
+        }
+        misses.increment();
+        load(accountId, ring);
+        synchronized (ring) {
+            return ring.complete ? Optional.of(ring.newest(depth)) : Optional.empty();
+        }
+    }
+
+    // 🔹 Nowa transakcja trafia do bufora dopiero po commicie, żeby rollback nie zostawił śmieci
+    public void onRecorded(Transaction transaction) {
+        TransactionResponse response = transactionMapper.toTransactionResponse(transaction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(response);
+                }
+            });
+        } else {
+            append(response);
+        }
+    }
+
+    public void evict(Long accountId) {
+        synchronized (rings) {
+            rings.remove(accountId);
+        }
+    }
+
+    public void clear() {
+        synchronized (rings) {
+            rings.clear();
+        }
+    }
+
+    private void append(TransactionResponse response) {
+        AccountRing ring;
+        synchronized (rings) {
+            ring = rings.get(response.getAccountId());
+        }
+        if (ring != null) {
+            synchronized (ring) {
+                ring.append(response);
+            }
+        }
+    }
+
+    private AccountRing ringFor(Long accountId) {
+        synchronized (rings) {
+            return rings.computeIfAbsent(accountId, id -> new AccountRing(depth));
+        }
+    }
+
+    private void load(Long accountId, AccountRing ring) {
+        List<TransactionResponse> newestFirst = transactionRepository
+                .findByAccountIdOrderByDateTimeDesc(accountId, PageRequest.of(0, depth))
+                .stream()
+                .map(transactionMapper::toTransactionResponse)
+                .toList();
+        synchronized (ring) {
+            if (!ring.loaded) {
+                ring.load(newestFirst, newestFirst.size() < depth);
+            }
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    public int getBufferedAccounts() {
+        synchronized (rings) {
+            return rings.size();
+        }
+    }
+
+    public int getMaxBufferedAccounts() { return maxBuffers; }
+
+    /**
+     * Pierścień o stałej pojemności. Dopóki nie został wczytany z bazy, nowe transakcje
+     * odkładamy na bok i dokładamy po wczytaniu. Transakcji, która już jest w pierścieniu
+     * (to samo id), nie dokładamy drugi raz.
+     */
+    private static final class AccountRing {
+        private final TransactionResponse[] slots;
+        private int head;       // indeks najnowszego elementu
+        private int size;
+        private boolean loaded;
+        private boolean complete; // bufor zawiera całą historię konta
+        private List<TransactionResponse> pending;
+
+        AccountRing(int depth) {
+            this.slots = new TransactionResponse[depth];
+            this.head = -1;
+        }
+
+        void load(List<TransactionResponse> newestFirst, boolean wholeHistory) {
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                push(newestFirst.get(i));
+            }
+            complete = wholeHistory;
+            loaded = true;
+            if (pending != null) {
+                pending.forEach(this::append); // append pomija te, które baza już zwróciła
+                pending = null;
+            }
+        }
+
+        void append(TransactionResponse response) {
+            if (!loaded) {
+                if (pending == null) {
+                    pending = new ArrayList<>();
+                }
+                pending.add(response);
+                return;
+            }
+            if (contains(response.getId())) {
+                // odczyt z bazy po commicie, ale przed afterCommit – wiersz już jest w pierścieniu
+                return;
+            }
+            if (size == slots.length) {
+                complete = false; // najstarsza transakcja wypada z bufora
+            }
+            push(response);
+        }
+
+        private boolean contains(Long id) {
+            for (int i = 0; i < size; i++) {
+                if (slots[Math.floorMod(head - i, slots.length)].getId().equals(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void push(TransactionResponse response) {
+            head = (head + 1) % slots.length;
+            slots[head] = response;
+            size = Math.min(size + 1, slots.length);
+        }
+
+        List<TransactionResponse> newest(int limit) {
+            int count = Math.min(limit, size);
+            List<TransactionResponse> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(slots[Math.floorMod(head - i, slots.length)]);
+            }
+            return List.copyOf(result);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.minibank2.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * SingleFlight łączy identyczne, równoległe odczyty w jedno wywołanie.
+ * Pierwszy wątek z danym kluczem wykonuje zapytanie, pozostałe czekają na jego wynik.
+ * Opcjonalnie wynik jest trzymany przez krótkie okno świeżości (domyślnie wyłączone),
+ * więc dashboardy odpytujące co chwilę ten sam endpoint nie trafiają do bazy.
+ * Wynik jest współdzielony między wątkami, więc loader powinien zwracać wartość niemutowalną
+ * (np. AccountSnapshot), a DTO budować z niej osobno dla każdego wywołującego.
+ */
+@Component
+public class SingleFlight {
+
+    private final long freshnessNanos;
+    private final int maxCachedEntries;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedResult> recentResults = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder freshHits = new LongAdder();
+
+    public SingleFlight(@Value("${minibank.single-flight.freshness:0ms}") Duration freshness,
+                        @Value("${minibank.single-flight.max-cached-entries:10000}") int maxCachedEntries) {
+        this.freshnessNanos = freshness.toNanos();
+        this.maxCachedEntries = maxCachedEntries;
+    }
+
+    // 🔹 Wykonanie loadera raz dla wszystkich równoległych wywołań z tym samym kluczem
+    //    (tylko dla wyników niemutowalnych, np. Long)
+    public <T> T execute(String key, Supplier<T> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    // 🔹 Jak wyżej, ale każdy wywołujący (także ten wykonujący loader) dostaje własny widok
+    //    współdzielonego wyniku, np. świeże DTO zbudowane z niemutowalnej migawki
+    public <S, T> T execute(String key, Supplier<S> loader, Function<? super S, ? extends T> view) {
+        return view.apply(shared(key, loader));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T shared(String key, Supplier<T> loader) {
+        calls.increment();
+
+        if (freshnessNanos > 0) {
+            CachedResult cached = recentResults.get(key);
+            if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+                freshHits.increment();
+                return (T) cached.value;
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        executions.increment();
+        try {
+            T value = loader.get();
+            remember(key, value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void remember(String key, Object value) {
+        if (freshnessNanos <= 0) {
+            return;
+        }
+        if (recentResults.size() >= maxCachedEntries) {
+            long now = System.nanoTime();
+            recentResults.values().removeIf(cached -> cached.expiresAt - now <= 0);
+            if (recentResults.size() >= maxCachedEntries) {
+                return; // za dużo świeżych wpisów – nie cache'ujemy, samo łączenie nadal działa
+            }
+        }
+        recentResults.put(key, new CachedResult(value, System.nanoTime() + freshnessNanos));
+    }
+
+    // Wyjątek z wątku wykonującego (np. AccountNotFoundException) przekazujemy dalej bez opakowania
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    public long getCalls() { return calls.sum(); }
+    public long getExecutions() { return executions.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getFreshHits() { return freshHits.sum(); }
+
+    // Jaka część wywołań nie musiała wykonywać zapytania (0 = brak łączenia)
+    public double getCoalescingRatio() {
+        long total = calls.sum();
+        return total == 0 ? 0 : 1.0 - (double) executions.sum() / total;
+    }
+
+    private record CachedResult(Object value, long expiresAt) {
+    }
+}
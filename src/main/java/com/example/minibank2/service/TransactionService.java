@@ -1,76 +1,175 @@
 package com.example.minibank2.service;
 
+import com.example.minibank2.analytics.AnalyticsSnapshot;
+import com.example.minibank2.archive.TransactionArchive;
 import com.example.minibank2.dto.TransactionResponse;
 import com.example.minibank2.entity.Account;
 import com.example.minibank2.entity.Transaction;
 import com.example.minibank2.entity.TransactionType;
 import com.example.minibank2.exception.TransactionNotFoundException;
+import com.example.minibank2.jfr.AmountBucket;
+import com.example.minibank2.jfr.TransactionRecordedEvent;
 import com.example.minibank2.mapper.TransactionMapper;
+import com.example.minibank2.money.MinorUnits;
+import com.example.minibank2.repository.TransactionHistoryStore;
 import com.example.minibank2.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("minibank.service")
 public class TransactionService {
 
+    private static final List<TransactionType> CREDIT_TYPES = Arrays.stream(TransactionType.values())
+            .filter(TransactionType::isCredit)
+            .toList();
+    private static final Comparator<TransactionResponse> OLDEST_FIRST =
+            Comparator.comparing(TransactionResponse::getDateTime).thenComparing(TransactionResponse::getId);
+    private static final Comparator<TransactionResponse> NEWEST_FIRST = OLDEST_FIRST.reversed();
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final SingleFlight singleFlight;
+    private final RecentTransactionsBuffer recentTransactionsBuffer;
+    private final DailyAggregateService dailyAggregateService;
+    private final TransactionArchive transactionArchive;
+    private final TransactionHistoryStore historyStore;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final EntityManager entityManager;
 
-    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                              SingleFlight singleFlight, RecentTransactionsBuffer recentTransactionsBuffer,
+                              DailyAggregateService dailyAggregateService, TransactionArchive transactionArchive,
+                              TransactionHistoryStore historyStore, AnalyticsSnapshot analyticsSnapshot,
+                              EntityManager entityManager) {
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
+        this.singleFlight = singleFlight;
+        this.recentTransactionsBuffer = recentTransactionsBuffer;
+        this.dailyAggregateService = dailyAggregateService;
+        this.transactionArchive = transactionArchive;
+        this.historyStore = historyStore;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.entityManager = entityManager;
     }
 
     // 🔹 Metoda pomocnicza do tworzenia obiektu Transaction
     private Transaction createTransaction(Account account, BigDecimal amount, TransactionType type) {
+        requireLocked(account);
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
-        transaction.setAmount(amount);
+        // kwota w skali waluty konta – ta sama, którą zmieniono saldo (Account.deposit/withdraw ją zwalidowało)
+        transaction.setAmount(MinorUnits.toDecimal(MinorUnits.toMinorExact(amount, account.getBalanceScale()),
+                account.getBalanceScale()));
         transaction.setType(type);
         transaction.setDateTime(LocalDateTime.now());
+        transaction.setBalanceAfter(account.getBalance()); // saldo po operacji, w tej samej transakcji co jego zmiana
         return transaction;
     }
 
+    // 🔹 balanceAfter jest poprawne tylko wtedy, gdy zmiana salda i zapis transakcji idą pod blokadą wiersza konta
+    //    (AccountService bierze ją przez findByIdForUpdate) – bez niej dwie równoległe wpłaty zapisałyby to samo saldo
+    private void requireLocked(Account account) {
+        if (entityManager.getLockMode(account) != LockModeType.PESSIMISTIC_WRITE) {
+            throw new IllegalStateException("Account " + account.getId()
+                    + " must be locked with findByIdForUpdate before recording a transaction");
+        }
+    }
+
+    // 🔹 Zapis transakcji + aktualizacja podsumowania dnia, bufora ostatnich transakcji, magazynu historii i migawki analitycznej
+    //    (zdarzenie JFR minibank.TransactionRecorded z czasem całości)
+    private void save(Transaction transaction) {
+        TransactionRecordedEvent event = new TransactionRecordedEvent();
+        event.begin();
+        Transaction saved = transactionRepository.save(transaction);
+        dailyAggregateService.record(saved);
+        recentTransactionsBuffer.onRecorded(saved);
+        TransactionResponse response = transactionMapper.toTransactionResponse(saved);
+        historyStore.onRecorded(response);
+        analyticsSnapshot.onTransactionRecorded(response);
+        if (event.shouldCommit()) {
+            event.accountId = response.getAccountId();
+            event.type = response.getType().name();
+            event.amountBucket = AmountBucket.of(response.getAmount());
+            event.commit();
+        }
+    }
+
     // 🔹 Metoda do zapisu transakcji wpłaty
     public void recordDeposit(Account account, BigDecimal amount) {
-        transactionRepository.save(createTransaction(account, amount, TransactionType.DEPOSIT));
+        save(createTransaction(account, amount, TransactionType.DEPOSIT));
     }
 
     // 🔹 Metoda do zapisu transakcji wypłaty
     public void recordWithdraw(Account account, BigDecimal amount) {
-        transactionRepository.save(createTransaction(account, amount, TransactionType.WITHDRAW));
+        save(createTransaction(account, amount, TransactionType.WITHDRAW));
     }
 
     // 🔹 Zapisywanie transferu (withdraw + deposit)
     public void recordTransfer(Account sender, Account receiver, BigDecimal amount) {
-        transactionRepository.save(createTransaction(sender, amount, TransactionType.TRANSFER_OUT));
-        transactionRepository.save(createTransaction(receiver, amount, TransactionType.TRANSFER_IN));
+        save(createTransaction(sender, amount, TransactionType.TRANSFER_OUT));
+        save(createTransaction(receiver, amount, TransactionType.TRANSFER_IN));
     }
 
-    // 🔹 Pobieranie historii transakcji dla konta
+    // 🔹 Dołączenie zarchiwizowanych transakcji do wyniku z bazy (bez duplikatów po id);
+    //    gdy archiwum nic nie zwróci, wynik z bazy zostaje bez zmian
+    private List<TransactionResponse> withArchived(Long accountId, List<TransactionResponse> hot,
+                                                   LocalDateTime from, LocalDateTime to,
+                                                   Predicate<TransactionResponse> filter,
+                                                   Comparator<TransactionResponse> order) {
+        List<TransactionResponse> cold = transactionArchive.find(accountId, from, to).stream()
+                .filter(filter)
+                .toList();
+        if (cold.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = hot.stream().map(TransactionResponse::getId).collect(Collectors.toSet());
+        List<TransactionResponse> merged = new ArrayList<>(hot);
+        cold.stream().filter(row -> !hotIds.contains(row.getId())).forEach(merged::add);
+        merged.sort(order);
+        return merged;
+    }
+
+    // 🔹 Pobieranie historii transakcji dla konta (krótka historia prosto z bufora w pamięci)
     public List<TransactionResponse> getTransactionsForAccount(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdOrderByDateTimeDesc(accountId);
+        List<TransactionResponse> transactions;
+        if (transactionArchive.mayContain(accountId)) {
+            // bufor nie wie o archiwum – pełną historię składamy z bazy i segmentów
+            transactions = withArchived(accountId,
+                    historyStore.findByAccountIdNewestFirst(accountId),
+                    null, null, row -> true, NEWEST_FIRST);
+        } else {
+            transactions = recentTransactionsBuffer.all(accountId)
+                    .orElseGet(() -> historyStore.findByAccountIdNewestFirst(accountId));
+        }
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions for account id " + accountId);
         }
-        return transactions.stream()
-                .map(transactionMapper::toTransactionResponse)
-                .toList();
+        return transactions;
     }
 
     // 🔹 Pobranie historii filtrowanej po typie
     public List<TransactionResponse> getTransactionsForAccountByType(Long accountId, TransactionType type) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdAndType(accountId, type);
+        List<TransactionResponse> transactions = withArchived(accountId,
+                historyStore.findByAccountIdAndType(accountId, type),
+                null, null, row -> row.getType() == type, OLDEST_FIRST);
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions of type " + type + " for account id " + accountId);
         }
-        return transactions.stream()
-                .map(transactionMapper::toTransactionResponse)
-                .toList();
+        return transactions;
     }
 
     // 🔹 Pobranie transakcji z zakresu dat
@@ -78,64 +177,115 @@ public class TransactionService {
         if (to.isBefore(from)) {
             throw new IllegalArgumentException("'to' date cannot be before 'from' date");
         }
-        List<Transaction> transactions = transactionRepository.findByAccountIdAndDateTimeBetween(accountId, from, to);
+        List<TransactionResponse> transactions = withArchived(accountId,
+                historyStore.findByAccountIdAndDateTimeBetween(accountId, from, to),
+                from, to, row -> true, OLDEST_FIRST);
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions for account id " + accountId + " between dates");
         }
-        return transactions.stream()
-                .map(transactionMapper::toTransactionResponse)
-                .toList();
+        return transactions;
     }
 
     // 🔹 Pobranie sumy transakcji z danego dnia
     public BigDecimal getTransactionSumForDate(Long accountId, LocalDateTime date) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdAndDateTime(accountId, date);
+        List<TransactionResponse> transactions = withArchived(accountId,
+                historyStore.findByAccountIdAndDateTime(accountId, date),
+                date, date, row -> true, OLDEST_FIRST);
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions for account id " + accountId + " on date " + date);
         }
         return transactions.stream()
-                .map(Transaction::getAmount)
+                .map(TransactionResponse::getAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    // 🔹 Saldo konta na dany moment – z salda zapisanego przy ostatniej transakcji przed tym momentem
+    public BigDecimal getBalanceAt(Account account, LocalDateTime at) {
+        Long accountId = account.getId();
+        Optional<Transaction> lastBefore = transactionRepository
+                .findTopByAccountIdAndDateTimeLessThanEqualOrderByDateTimeDescIdDesc(accountId, at);
+        if (lastBefore.isPresent() && lastBefore.get().getBalanceAfter() != null) {
+            return lastBefore.get().getBalanceAfter();
+        }
+        if (lastBefore.isEmpty()) {
+            // ostatnia transakcja przed tym momentem mogła już trafić do archiwum
+            Optional<TransactionResponse> archived = transactionArchive.findLastAtOrBefore(accountId, at);
+            if (archived.isPresent() && archived.get().getBalanceAfter() != null) {
+                return archived.get().getBalanceAfter();
+            }
+        }
+
+        if (lastBefore.isEmpty()) {
+            // brak ruchu przed tym momentem: saldo sprzed pierwszej późniejszej transakcji
+            Optional<Transaction> firstAfter = transactionRepository
+                    .findTopByAccountIdAndDateTimeGreaterThanOrderByDateTimeAscIdAsc(accountId, at);
+            if (firstAfter.isEmpty()) {
+                return account.getBalance();
+            }
+            Transaction next = firstAfter.get();
+            if (next.getBalanceAfter() != null) {
+                BigDecimal amount = next.getAmount();
+                return next.getType().isCredit()
+                        ? next.getBalanceAfter().subtract(amount)
+                        : next.getBalanceAfter().add(amount);
+            }
+        }
+
+        // historia bez balanceAfter (sprzed migracji) – cofamy bieżące saldo o ruch po tym momencie
+        BigDecimal netAfter = transactionRepository.sumNetAmountAfter(accountId, at, CREDIT_TYPES);
+        return MinorUnits.normalize(account.getBalance().subtract(netAfter));
+    }
+
     // 🔹 Pobranie liczby transakcji na koncie
     public Long getTransactionCount(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
-        if (transactions.isEmpty()) {
-            throw new TransactionNotFoundException("No transactions for account id " + accountId);
-        }
-        return (long) transactions.size();
+        return singleFlight.execute("transactions:count:" + accountId, () -> {
+            List<TransactionResponse> transactions = withArchived(accountId,
+                    historyStore.findByAccountId(accountId),
+                    null, null, row -> true, OLDEST_FIRST);
+            if (transactions.isEmpty()) {
+                throw new TransactionNotFoundException("No transactions for account id " + accountId);
+            }
+            return (long) transactions.size();
+        });
     }
 
     // 🔹 Pobranie ostatnich N transakcji
+    //    (limit=0 jak dawniej: 404 dla konta bez transakcji, inaczej pusta lista)
     public List<TransactionResponse> getLastNTransactions(Long accountId, Integer limit) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdOrderByDateTimeDesc(accountId);
+        if (limit == null || limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        int fetch = Math.max(limit, 1); // przy limit=0 sprawdzamy tylko, czy konto ma jakąkolwiek transakcję
+        List<TransactionResponse> transactions = recentTransactionsBuffer.latest(accountId, fetch)
+                .orElseGet(() -> historyStore.findLatest(accountId, fetch));
+        if (transactions.size() < fetch) {
+            // baza ma mniej niż N – resztę dobieramy z archiwum (starsze od wszystkiego w bazie)
+            List<TransactionResponse> merged = withArchived(accountId, transactions, null, null, row -> true, NEWEST_FIRST);
+            transactions = merged.subList(0, Math.min(fetch, merged.size()));
+        }
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions for account id " + accountId);
         }
-        return transactions.stream()
-                .map(transactionMapper::toTransactionResponse)
-                .limit(limit)
-                .toList();
+        return transactions.subList(0, Math.min(limit, transactions.size()));
     }
 
     // 🔹 Pobranie największej transakcji (deposit/withdraw)
     public TransactionResponse getMaxTransactionsByType(Long accountId, TransactionType type) {
-        return transactionRepository.findByAccountIdAndType(accountId, type).stream()
-                .max(Comparator.comparing(Transaction::getAmount))
-                .map(transactionMapper::toTransactionResponse)
+        return withArchived(accountId, historyStore.findByAccountIdAndType(accountId, type),
+                null, null, row -> row.getType() == type, OLDEST_FIRST).stream()
+                .max(Comparator.comparing(TransactionResponse::getAmount))
                 .orElseThrow(() -> new TransactionNotFoundException(
                         "No transactions of type " + type + " for account id " + accountId));
     }
 
     // 🔹 Pobranie transakcji powyżej określonej kwoty
     public List<TransactionResponse> getTransactionsAboveAmount(Long accountId, BigDecimal amount) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdAndAmountGreaterThan(accountId, amount);
+        List<TransactionResponse> transactions = withArchived(accountId,
+                historyStore.findByAccountIdAndAmountGreaterThan(accountId, amount),
+                null, null, row -> row.getAmount().compareTo(amount) > 0, OLDEST_FIRST);
         if (transactions.isEmpty()) {
             throw new TransactionNotFoundException("No transactions above amount " + amount + " for account id " + accountId);
         }
-        return transactions.stream()
-                .map(transactionMapper::toTransactionResponse)
-                .toList();
+        return transactions;
     }
 }
@@ -0,0 +1,145 @@
+package com.example.minibank2.sql;
+
+import com.example.minibank2.dto.HibernateStatsWindowResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statystyki Hibernate (hibernate.generate_statistics) w oknach czasowych. Liczniki Hibernate rosną
+ * od startu aplikacji, więc co window-seconds zapamiętujemy migawkę i trzymamy różnice między kolejnymi
+ * migawkami – ostatnie okna plus bieżące, jeszcze niezamknięte. Zamiast podpinać debugger widać,
+ * w którym okresie przybyło zapytań, ładowań encji czy flushy i które zapytania HQL szły najczęściej.
+ */
+@Component
+public class HibernateStatsWindows {
+
+    private static final int TOP_QUERIES = 10;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final Statistics statistics;
+    private final Deque<HibernateStatsWindowResponse> windows = new ArrayDeque<>();
+    private Snapshot last;
+
+    public HibernateStatsWindows(EntityManagerFactory entityManagerFactory,
+                                 @Value("${minibank.hibernate-stats.enabled:true}") boolean enabled,
+                                 @Value("${minibank.hibernate-stats.windows:60}") int capacity) {
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        last = snapshot();
+    }
+
+    // 🔹 Zamknięcie okna: różnica od poprzedniej migawki trafia na listę ostatnich okien
+    @Scheduled(fixedRateString = "${minibank.hibernate-stats.window-seconds:60}",
+            initialDelayString = "${minibank.hibernate-stats.window-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void closeWindow() {
+        if (!isEnabled()) {
+            return;
+        }
+        Snapshot now = snapshot();
+        windows.addFirst(diff(last, now));
+        while (windows.size() > capacity) {
+            windows.removeLast();
+        }
+        last = now;
+    }
+
+    public boolean isEnabled() {
+        return enabled && statistics.isStatisticsEnabled();
+    }
+
+    // 🔹 Bieżące okno (do teraz) i zamknięte okna, od najnowszych
+    public synchronized List<HibernateStatsWindowResponse> getWindows(int limit) {
+        if (!isEnabled()) {
+            throw new IllegalArgumentException("Hibernate statistics are disabled (minibank.hibernate-stats.enabled=false)");
+        }
+        List<HibernateStatsWindowResponse> result = new ArrayList<>();
+        result.add(diff(last, snapshot()));
+        windows.stream().limit(Math.max(0, limit - 1)).forEach(result::add);
+        return result;
+    }
+
+    private Snapshot snapshot() {
+        Map<String, Long> queries = new HashMap<>();
+        for (String query : statistics.getQueries()) {
+            queries.put(query, statistics.getQueryStatistics(query).getExecutionCount());
+        }
+        return new Snapshot(LocalDateTime.now(), new long[]{
+                statistics.getSessionOpenCount(),
+                statistics.getTransactionCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getEntityInsertCount(),
+                statistics.getEntityUpdateCount(),
+                statistics.getEntityDeleteCount(),
+                statistics.getCollectionLoadCount(),
+                statistics.getFlushCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount()
+        }, statistics.getQueryExecutionMaxTime(), queries);
+    }
+
+    private static HibernateStatsWindowResponse diff(Snapshot from, Snapshot to) {
+        long[] d = new long[to.counters().length];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = to.counters()[i] - from.counters()[i];
+        }
+        HibernateStatsWindowResponse response = new HibernateStatsWindowResponse();
+        response.setFrom(from.at());
+        response.setTo(to.at());
+        response.setSessionsOpened(d[0]);
+        response.setTransactions(d[1]);
+        response.setPreparedStatements(d[2]);
+        response.setQueriesExecuted(d[3]);
+        response.setEntitiesLoaded(d[4]);
+        response.setEntitiesFetched(d[5]);
+        response.setEntitiesInserted(d[6]);
+        response.setEntitiesUpdated(d[7]);
+        response.setEntitiesDeleted(d[8]);
+        response.setCollectionsLoaded(d[9]);
+        response.setFlushes(d[10]);
+        response.setSecondLevelCacheHits(d[11]);
+        response.setSecondLevelCacheMisses(d[12]);
+        response.setSecondLevelCachePuts(d[13]);
+        response.setQueryCacheHits(d[14]);
+        response.setQueryCacheMisses(d[15]);
+        response.setQueryMaxMillis(to.queryMaxMillis());
+        Map<String, Long> top = new LinkedHashMap<>();
+        to.queries().entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue() - from.queries().getOrDefault(e.getKey(), 0L)))
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_QUERIES)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        response.setTopQueries(top);
+        return response;
+    }
+
+    private record Snapshot(LocalDateTime at, long[] counters, long queryMaxMillis, Map<String, Long> queries) {
+    }
+}
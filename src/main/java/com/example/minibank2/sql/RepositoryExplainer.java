@@ -0,0 +1,198 @@
+package com.example.minibank2.sql;
+
+import com.example.minibank2.dto.ExplainPlanResponse;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.repository.TransactionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * EXPLAIN dla SQL generowanego przez metody AccountRepository i TransactionRepository. SQL-a nie składamy
+ * sami – każdą metodę wywołujemy z przykładowymi argumentami w transakcji wycofywanej na końcu
+ * i zbieramy teksty faktycznie wysłane do bazy (SqlStatementLog.capture), potem każdy z nich
+ * (np. zapytanie strony i count) idzie przez EXPLAIN z parametrami NULL.
+ *
+ * Ocena użycia indeksu czyta komentarze w planie H2: "PUBLIC.TABELA.tableScan" to odczyt całej tabeli,
+ * "PUBLIC.INDEKS: warunek" (albo samo "PUBLIC.INDEKS" przy odczycie w kolejności indeksu) to dostęp
+ * przez indeks. indexUsed = każda tabela zapytania czytana przez indeks. Dla innych baz zwracamy sam plan.
+ */
+@Component
+public class RepositoryExplainer {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* ([\\w.\"]+)\\.tableScan");
+    private static final Pattern ACCESS = Pattern.compile("/\\* ([\\w.\"]+)(?::| \\*/)");
+
+    private final Map<Class<?>, Object> repositories;
+    private final DataSource dataSource;
+    private final SqlStatementLog statementLog;
+    private final TransactionTemplate transactionTemplate;
+
+    public RepositoryExplainer(AccountRepository accountRepository,
+                               TransactionRepository transactionRepository,
+                               DataSource dataSource,
+                               SqlStatementLog statementLog,
+                               PlatformTransactionManager transactionManager) {
+        this.repositories = Map.of(AccountRepository.class, accountRepository,
+                TransactionRepository.class, transactionRepository);
+        this.dataSource = dataSource;
+        this.statementLog = statementLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<ExplainPlanResponse> explainAll() {
+        if (!statementLog.isEnabled()) {
+            throw new IllegalArgumentException("EXPLAIN needs the SQL statement log to capture generated SQL (minibank.sql-log.enabled=false)");
+        }
+        List<ExplainPlanResponse> result = new ArrayList<>();
+        for (Class<?> repository : List.of(AccountRepository.class, TransactionRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !method.isSynthetic())
+                    .sorted(Comparator.comparing(RepositoryExplainer::signature))
+                    .forEach(method -> result.addAll(explain(repository, method)));
+        }
+        return result;
+    }
+
+    private List<ExplainPlanResponse> explain(Class<?> repository, Method method) {
+        String[] error = new String[1];
+        List<String> statements = SqlStatementLog.capture(() -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                method.invoke(repositories.get(repository), sampleArguments(method));
+            } catch (InvocationTargetException e) {
+                error[0] = e.getTargetException().toString();
+            } catch (IllegalAccessException e) {
+                error[0] = e.toString();
+            } finally {
+                status.setRollbackOnly();
+            }
+        }));
+        List<ExplainPlanResponse> result = new ArrayList<>();
+        for (String sql : new LinkedHashSet<>(statements)) {
+            ExplainPlanResponse response = response(repository, method);
+            response.setSql(sql);
+            explain(sql, response);
+            result.add(response);
+        }
+        if (result.isEmpty()) {
+            ExplainPlanResponse response = response(repository, method);
+            response.setError(error[0] != null ? error[0] : "No SQL executed");
+            result.add(response);
+        }
+        return result;
+    }
+
+    private void explain(String sql, ExplainPlanResponse response) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(plan.isEmpty() ? "" : "\n").append(rows.getString(1));
+                }
+            }
+            response.setPlan(plan.toString());
+            if ("H2".equals(connection.getMetaData().getDatabaseProductName())) {
+                List<String> scans = new ArrayList<>();
+                Matcher matcher = TABLE_SCAN.matcher(plan);
+                while (matcher.find()) {
+                    scans.add(matcher.group(1));
+                }
+                response.setTableScans(scans);
+                boolean indexAccess = false;
+                Matcher access = ACCESS.matcher(plan);
+                while (access.find()) {
+                    indexAccess |= !access.group(1).endsWith(".tableScan");
+                }
+                response.setIndexUsed(indexAccess && scans.isEmpty());
+            }
+        } catch (SQLException e) {
+            response.setError(e.getMessage());
+        }
+    }
+
+    // 🔹 Przykładowe argumenty: wartości nie muszą niczego znaleźć, ważny jest kształt zapytania
+    private static Object[] sampleArguments(Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = sample(types[i]);
+        }
+        return arguments;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object sample(Type type) {
+        Class<?> raw = type instanceof ParameterizedType parameterized ? (Class<?>) parameterized.getRawType() : (Class<?>) type;
+        if (raw == Long.class || raw == long.class) {
+            return 1L;
+        }
+        if (raw == String.class) {
+            return "sample";
+        }
+        if (raw == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (raw == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        if (Collection.class.isAssignableFrom(raw) && type instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element && element.isEnum()) {
+            return EnumSet.allOf((Class<Enum>) element);
+        }
+        return null;
+    }
+
+    private static ExplainPlanResponse response(Class<?> repository, Method method) {
+        ExplainPlanResponse response = new ExplainPlanResponse();
+        response.setRepository(repository.getSimpleName());
+        response.setMethod(signature(method));
+        return response;
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
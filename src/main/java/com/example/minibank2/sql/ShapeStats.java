@@ -0,0 +1,77 @@
+package com.example.minibank2.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statystyki jednego kształtu zapytania (SQL bez literałów): liczba wykonań, łączny czas, błędy
+ * i histogram czasów w µs – do 15 µs co 1 µs, wyżej 8 przedziałów na podwojenie (błąd percentyla do ~12%).
+ */
+final class ShapeStats {
+
+    private static final int LINEAR = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int MAX_EXPONENT = 40;
+
+    final String shape;
+    private final AtomicLongArray buckets = new AtomicLongArray(LINEAR + (MAX_EXPONENT - 3) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    ShapeStats(String shape) {
+        this.shape = shape;
+    }
+
+    void record(long micros, boolean failed) {
+        buckets.incrementAndGet(index(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    long count() { return count.sum(); }
+    long totalMicros() { return totalMicros.sum(); }
+    long errors() { return errors.sum(); }
+    long maxMicros() { return maxMicros.get(); }
+
+    // 🔹 Górna granica przedziału, w którym wypada podany percentyl (nie więcej niż maksimum)
+    long percentileMicros(double percent) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int sub = (int) Math.min(micros >> (exponent - 3), 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((long) (sub + 1) << (exponent - 3)) - 1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.minibank2.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource mierzący czas wykonania każdego zapytania – także z JdbcTemplate i surowych połączeń
+ * (zadania wsadowe, agregaty, LSM), których nie widać w hakach Hibernate. Połączenia i instrukcje
+ * są opakowane w proxy; mierzymy wywołania execute*, reszta idzie prosto do sterownika.
+ * unwrap() przechodzi do puli (DelegatingDataSource), więc metryki Hikari w actuatorze działają dalej.
+ */
+public class SqlLoggingDataSource extends DelegatingDataSource {
+
+    private final SqlStatementLog log;
+
+    public SqlLoggingDataSource(DataSource target, SqlStatementLog log) {
+        super(target);
+        this.log = log;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = forward(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement/prepareCall(sql, ...) – tekst znany od razu; createStatement – dopiero przy execute(sql)
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "addBatch":
+                    if (args != null && args.length == 1 && args[0] instanceof String sql) {
+                        batchSql = sql;
+                    }
+                    return forward(target, method, args);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            if (name.endsWith("Batch")) {
+                sql = "batch: " + (preparedSql != null ? preparedSql : batchSql);
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = forward(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                if (sql != null) {
+                    log.record(sql, System.nanoTime() - start, failed);
+                }
+            }
+        }
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
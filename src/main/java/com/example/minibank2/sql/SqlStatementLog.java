@@ -0,0 +1,220 @@
+package com.example.minibank2.sql;
+
+import com.example.minibank2.dto.SqlShapeStatsResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Log zapytań SQL zamiast stałego DEBUG org.hibernate.SQL / TRACE BasicBinder: loguje losową próbkę
+ * (sample-rate) i każde zapytanie wolniejsze niż slow-threshold-ms. W logu jest tylko kształt zapytania
+ * (literały zamienione na ?) i liczba parametrów – wartości parametrów nigdy nie trafiają do logu.
+ *
+ * Wątek zapytania tylko aktualizuje statystyki kształtu i ewentualnie wrzuca rekord do ograniczonej
+ * kolejki; formatowaniem i zapisem zajmuje się wątek "sql-log". Pełna kolejka = rekord pominięty (dropped).
+ * Statystyki (liczba, łączny czas, p99) są dla wszystkich zapytań, nie tylko logowanych: GET /admin/sql.
+ */
+@Component
+public class SqlStatementLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementLog.class);
+
+    static final String OTHER_SHAPES = "(other shapes)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?:, ?\\?)+\\)");
+
+    // zapytania wykonane w bieżącym wątku podczas capture() – dla EXPLAIN metod repozytoriów
+    private static final ThreadLocal<List<String>> CAPTURE = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    // tekst SQL → statystyki jego kształtu; Hibernate używa tych samych napisów, więc zwykle to jedno get()
+    private final Map<String, ShapeStats> bySql = new ConcurrentHashMap<>();
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong logged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread loggerThread;
+
+    private record Entry(String shape, long micros, int parameters, boolean slow, boolean failed) {
+    }
+
+    public SqlStatementLog(@Value("${minibank.sql-log.enabled:true}") boolean enabled,
+                           @Value("${minibank.sql-log.sample-rate:0.01}") double sampleRate,
+                           @Value("${minibank.sql-log.slow-threshold-ms:100}") long slowThresholdMs,
+                           @Value("${minibank.sql-log.queue-capacity:10000}") int queueCapacity,
+                           @Value("${minibank.sql-log.max-shapes:500}") int maxShapes) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.maxShapes = Math.max(1, maxShapes);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (enabled) {
+            loggerThread = new Thread(this::logLoop, "sql-log");
+            loggerThread.setDaemon(true);
+            loggerThread.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 🔹 Wywoływane po każdym wykonaniu zapytania (SqlLoggingDataSource)
+    public void record(String sql, long nanos, boolean failed) {
+        List<String> captured = CAPTURE.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        ShapeStats stats = statsFor(sql);
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        stats.record(micros, failed);
+        boolean slow = nanos >= slowThresholdNanos;
+        if (slow || failed || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            if (!queue.offer(new Entry(stats.shape, micros, parameters(sql), slow, failed))) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    // 🔹 Teksty SQL wykonane przez akcję w tym wątku (w kolejności wykonania)
+    public static List<String> capture(Runnable action) {
+        List<String> captured = new ArrayList<>();
+        CAPTURE.set(captured);
+        try {
+            action.run();
+        } finally {
+            CAPTURE.remove();
+        }
+        return captured;
+    }
+
+    private ShapeStats statsFor(String sql) {
+        ShapeStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String shape = shape(sql);
+        stats = shapes.get(shape);
+        if (stats == null) {
+            stats = shapes.size() < maxShapes
+                    ? shapes.computeIfAbsent(shape, ShapeStats::new)
+                    : shapes.computeIfAbsent(OTHER_SHAPES, ShapeStats::new);
+        }
+        // zapytania z literałami wklejonymi w tekst dają wiele napisów jednego kształtu – pamięć podręczna ma limit
+        if (bySql.size() < maxShapes * 4) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    // 🔹 Kształt zapytania: literały → ?, listy IN (?, ?, ...) zwinięte, białe znaki pojedyncze
+    public static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return IN_LIST.matcher(shape).replaceAll("(?, ...)");
+    }
+
+    private static int parameters(String sql) {
+        int count = 0;
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (c == '?' && !inLiteral) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<SqlShapeStatsResponse> getStats(int limit) {
+        return shapes.values().stream()
+                .filter(stats -> stats.count() > 0)
+                .sorted(Comparator.comparingLong(ShapeStats::totalMicros).reversed())
+                .limit(Math.max(1, limit))
+                .map(SqlStatementLog::toResponse)
+                .toList();
+    }
+
+    // 🔹 Nowe okno pomiaru – kształty zostają, liczniki od zera
+    public void reset() {
+        shapes.replaceAll((shape, stats) -> new ShapeStats(shape));
+        bySql.clear();
+    }
+
+    public long getLogged() {
+        return logged.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private static SqlShapeStatsResponse toResponse(ShapeStats stats) {
+        SqlShapeStatsResponse response = new SqlShapeStatsResponse();
+        response.setShape(stats.shape);
+        response.setCount(stats.count());
+        response.setErrors(stats.errors());
+        response.setTotalMillis(stats.totalMicros() / 1000.0);
+        response.setMeanMicros(stats.count() == 0 ? 0 : stats.totalMicros() / stats.count());
+        response.setP99Micros(stats.percentileMicros(99));
+        response.setMaxMicros(stats.maxMicros());
+        return response;
+    }
+
+    private void logLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.slow() || entry.failed()) {
+                    logger.warn("[{}] {} ms, {} params (redacted) | {}", entry.failed() ? "failed" : "slow",
+                            entry.micros() / 1000.0, entry.parameters(), entry.shape());
+                } else {
+                    logger.info("[sample] {} ms, {} params (redacted) | {}",
+                            entry.micros() / 1000.0, entry.parameters(), entry.shape());
+                }
+                logged.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (loggerThread != null) {
+            try {
+                loggerThread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.minibank2.trace;
+
+import com.example.minibank2.dto.TraceResponse;
+import com.example.minibank2.dto.TraceSpanResponse;
+import com.example.minibank2.dto.TraceSummaryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lekki tracing w obrębie procesu: jedno żądanie HTTP = jeden ślad z zagnieżdżonymi odcinkami
+ * (kontroler, odczyt JSON, walidacja, metoda serwisu, wywołanie repozytorium, pojedyncze zapytania SQL,
+ * flush Hibernate, commit). Ślad żądania trzymamy w ThreadLocal – odcinki otwierają aspekty
+ * i haki Hibernate z tego samego wątku; poza śledzonym żądaniem każde wywołanie to jeden odczyt ThreadLocal.
+ *
+ * Odcinki zbieramy dla każdego żądania, a decyzja o zachowaniu zapada na końcu: zostaje losowa próbka
+ * (sample-rate) i zawsze żądania wolniejsze niż slow-threshold-ms. Zachowanych jest ostatnich capacity śladów.
+ */
+@Component
+public class RequestTracer {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+    private static final int WATERFALL_WIDTH = 50;
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int capacity;
+    private final int maxSpans;
+    private final Deque<Trace> kept = new ArrayDeque<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong traced = new AtomicLong();
+    private final AtomicLong keptSlow = new AtomicLong();
+    private final AtomicLong keptSampled = new AtomicLong();
+
+    public RequestTracer(@Value("${minibank.tracing.enabled:true}") boolean enabled,
+                         @Value("${minibank.tracing.sample-rate:0.01}") double sampleRate,
+                         @Value("${minibank.tracing.slow-threshold-ms:250}") long slowThresholdMillis,
+                         @Value("${minibank.tracing.capacity:100}") int capacity,
+                         @Value("${minibank.tracing.max-spans:500}") int maxSpans) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.capacity = capacity;
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Jeden odcinek śladu; end == 0 oznacza odcinek jeszcze otwarty.
+     */
+    static final class Span {
+        final String kind;
+        final String name;
+        final int depth;
+        final long start;
+        long end;
+
+        Span(String kind, String name, int depth, long start) {
+            this.kind = kind;
+            this.name = name;
+            this.depth = depth;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Ślad jednego żądania – używany tylko przez wątek, który je obsługuje, do chwili zakończenia.
+     */
+    public static final class Trace {
+        final long id;
+        final String request;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long start = System.nanoTime();
+        final int maxSpans;
+        final List<Span> spans = new ArrayList<>();
+        final Deque<Span> open = new ArrayDeque<>();
+        long end;
+        int status;
+        int droppedSpans;
+        String keptBecause;
+        boolean commitHookRegistered;
+        String pendingSql;
+
+        Trace(long id, String request, int maxSpans) {
+            this.id = id;
+            this.request = request;
+            this.maxSpans = maxSpans;
+        }
+
+        Span start(String kind, String name) {
+            return start(kind, name, System.nanoTime());
+        }
+
+        Span start(String kind, String name, long now) {
+            if (spans.size() >= maxSpans) {
+                droppedSpans++;
+                return null;
+            }
+            Span span = new Span(kind, name, open.size(), now);
+            spans.add(span);
+            open.push(span);
+            return span;
+        }
+
+        // 🔹 Zamknięcie odcinka razem z niezamkniętymi odcinkami wewnątrz niego (np. po wyjątku)
+        void end(Span span, long now) {
+            if (span.end != 0 || !open.contains(span)) {
+                return;
+            }
+            Span top;
+            do {
+                top = open.pop();
+                top.end = now;
+            } while (top != span);
+        }
+    }
+
+    // 🔹 Początek śladu żądania (null, gdy tracing jest wyłączony)
+    public Trace begin(String request) {
+        if (!enabled) {
+            return null;
+        }
+        Trace trace = new Trace(ids.incrementAndGet(), request, maxSpans);
+        trace.start("http", request, trace.start);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    // 🔹 Koniec śladu: zamyka otwarte odcinki i decyduje, czy ślad zostaje (wolny albo wylosowany)
+    public void finish(Trace trace, int status) {
+        if (trace == null) {
+            return;
+        }
+        CURRENT.remove();
+        trace.end = System.nanoTime();
+        trace.status = status;
+        while (!trace.open.isEmpty()) {
+            trace.open.pop().end = trace.end;
+        }
+        traced.incrementAndGet();
+        if (trace.end - trace.start >= slowThresholdNanos) {
+            trace.keptBecause = "slow";
+            keptSlow.incrementAndGet();
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            trace.keptBecause = "sampled";
+            keptSampled.incrementAndGet();
+        } else {
+            return;
+        }
+        synchronized (kept) {
+            kept.addFirst(trace);
+            while (kept.size() > capacity) {
+                kept.removeLast();
+            }
+        }
+    }
+
+    // 🔹 Otwarcie odcinka w bieżącym śladzie; poza śledzonym żądaniem zwraca null
+    static Span start(String kind, String name) {
+        Trace trace = CURRENT.get();
+        return trace == null ? null : trace.start(kind, name);
+    }
+
+    static void end(Span span) {
+        Trace trace = CURRENT.get();
+        if (span != null && trace != null) {
+            trace.end(span, System.nanoTime());
+        }
+    }
+
+    // 🔹 Zamknięcie najgłębszego otwartego odcinka danego rodzaju (walidacja kończy się dopiero wejściem do kontrolera)
+    static void endOpen(String kind) {
+        Trace trace = CURRENT.get();
+        if (trace != null && !trace.open.isEmpty() && trace.open.peek().kind.equals(kind)) {
+            trace.end(trace.open.peek(), System.nanoTime());
+        }
+    }
+
+    static boolean isTracing() {
+        return CURRENT.get() != null;
+    }
+
+    // 🔹 SQL z StatementInspector – odcinek otwieramy dopiero przy wykonaniu zapytania
+    static void setPendingSql(String sql) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.pendingSql = sql;
+        }
+    }
+
+    static String takePendingSql() {
+        Trace trace = CURRENT.get();
+        if (trace == null || trace.pendingSql == null) {
+            return "?";
+        }
+        String sql = trace.pendingSql;
+        trace.pendingSql = null;
+        return sql;
+    }
+
+    // 🔹 Odcinek "commit" od beforeCommit do afterCompletion bieżącej transakcji Springa (raz na transakcję)
+    static void traceCommit() {
+        Trace trace = CURRENT.get();
+        if (trace == null || trace.commitHookRegistered || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        trace.commitHookRegistered = true;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Span commit;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commit = start("commit", readOnly ? "read-only transaction" : "transaction");
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                end(commit);
+                trace.commitHookRegistered = false;
+            }
+        });
+    }
+
+    public List<TraceSummaryResponse> getTraces(int limit) {
+        List<TraceSummaryResponse> result = new ArrayList<>();
+        synchronized (kept) {
+            Iterator<Trace> it = kept.iterator();
+            while (it.hasNext() && result.size() < limit) {
+                result.add(toSummary(it.next()));
+            }
+        }
+        return result;
+    }
+
+    public Optional<TraceResponse> getTrace(long id) {
+        Trace found = null;
+        synchronized (kept) {
+            for (Trace trace : kept) {
+                if (trace.id == id) {
+                    found = trace;
+                    break;
+                }
+            }
+        }
+        if (found == null) {
+            return Optional.empty();
+        }
+        TraceResponse response = new TraceResponse();
+        response.setTrace(toSummary(found));
+        List<TraceSpanResponse> spans = new ArrayList<>(found.spans.size());
+        for (Span span : found.spans) {
+            TraceSpanResponse dto = new TraceSpanResponse();
+            dto.setKind(span.kind);
+            dto.setName(span.name);
+            dto.setDepth(span.depth);
+            dto.setOffsetMicros(TimeUnit.NANOSECONDS.toMicros(span.start - found.start));
+            dto.setDurationMicros(TimeUnit.NANOSECONDS.toMicros(span.end - span.start));
+            spans.add(dto);
+        }
+        response.setSpans(spans);
+        return Optional.of(response);
+    }
+
+    private static TraceSummaryResponse toSummary(Trace trace) {
+        TraceSummaryResponse dto = new TraceSummaryResponse();
+        dto.setId(trace.id);
+        dto.setStartedAt(trace.startedAt);
+        dto.setRequest(trace.request);
+        dto.setStatus(trace.status);
+        dto.setDurationMicros(TimeUnit.NANOSECONDS.toMicros(trace.end - trace.start));
+        dto.setSpans(trace.spans.size());
+        dto.setDroppedSpans(trace.droppedSpans);
+        dto.setKeptBecause(trace.keptBecause);
+        return dto;
+    }
+
+    // 🔹 Widok kaskadowy: odcinki w kolejności startu, wcięte wg zagnieżdżenia, z paskiem na osi czasu żądania
+    public static String waterfall(TraceResponse response) {
+        TraceSummaryResponse trace = response.getTrace();
+        long total = Math.max(1, trace.getDurationMicros());
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("trace %d  %s  -> %d  %.2f ms  (%s, %s)%n", trace.getId(), trace.getRequest(),
+                trace.getStatus(), total / 1000.0, trace.getKeptBecause(), trace.getStartedAt()));
+        if (trace.getDroppedSpans() > 0) {
+            out.append(String.format("(%d spans over the limit were not recorded)%n", trace.getDroppedSpans()));
+        }
+        out.append(String.format("%10s %10s  %-8s %-60s %s%n", "start ms", "dur ms", "kind", "name", "timeline"));
+        for (TraceSpanResponse span : response.getSpans()) {
+            int from = Math.min((int) Math.round((double) span.getOffsetMicros() * WATERFALL_WIDTH / total), WATERFALL_WIDTH - 1);
+            int to = (int) Math.round((double) (span.getOffsetMicros() + span.getDurationMicros()) * WATERFALL_WIDTH / total);
+            int length = Math.max(1, Math.min(to, WATERFALL_WIDTH) - from);
+            String name = "  ".repeat(span.getDepth()) + span.getName();
+            if (name.length() > 60) {
+                name = name.substring(0, 57) + "...";
+            }
+            out.append(String.format("%10.2f %10.2f  %-8s %-60s |%s%s%s|%n",
+                    span.getOffsetMicros() / 1000.0, span.getDurationMicros() / 1000.0, span.getKind(), name,
+                    " ".repeat(from), "#".repeat(length), " ".repeat(WATERFALL_WIDTH - from - length)));
+        }
+        return out.toString();
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public long getTraced() { return traced.get(); }
+    public long getKeptSlow() { return keptSlow.get(); }
+    public long getKeptSampled() { return keptSampled.get(); }
+}
@@ -0,0 +1,65 @@
+package com.example.minibank2.trace;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Odcinki śladu dla kontrolerów, serwisów i repozytoriów Spring Data. Aspekt jest najbardziej zewnętrzną
+ * radą (przed @Transactional i @Timed), więc commit transakcji serwisu mieści się w odcinku jego metody.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    // nazwa interfejsu repozytorium per klasa proxy (findById jest zadeklarowane w CrudRepository)
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        RequestTracer.endOpen("validate");
+        return proceed(joinPoint, "controller", ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName());
+    }
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        return proceed(joinPoint, "service", ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName());
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        RequestTracer.traceCommit();
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), type -> {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : type.getSimpleName();
+        });
+        return proceed(joinPoint, "repo", repository);
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, String kind, String type) throws Throwable {
+        RequestTracer.Span span = RequestTracer.start(kind, type + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTracer.end(span);
+        }
+    }
+}
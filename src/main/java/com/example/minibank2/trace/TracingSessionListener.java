@@ -0,0 +1,79 @@
+package com.example.minibank2.trace;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Haki Hibernate dla śladu żądania: StatementInspector zapamiętuje tekst SQL (z parametrami jako ?),
+ * a listener sesji otwiera odcinki wykonania zapytań, batchy i flushy. Hibernate tworzy listener
+ * sam dla każdej sesji (hibernate.session.events.auto), dlatego stan jest tylko w śladzie wątku.
+ */
+public class TracingSessionListener implements SessionEventListener {
+
+    private RequestTracer.Span statement;
+    private RequestTracer.Span flush;
+
+    /**
+     * Inspector zwraca SQL bez zmian – tylko go zapamiętuje.
+     */
+    public static final class SqlCapture implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            RequestTracer.setPendingSql(sql);
+            return sql;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        if (RequestTracer.isTracing()) {
+            RequestTracer.traceCommit();
+            statement = RequestTracer.start("sql", RequestTracer.takePendingSql());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTracer.end(statement);
+        statement = null;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        if (RequestTracer.isTracing()) {
+            statement = RequestTracer.start("sql", "batch: " + RequestTracer.takePendingSql());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTracer.end(statement);
+        statement = null;
+    }
+
+    @Override
+    public void flushStart() {
+        if (RequestTracer.isTracing()) {
+            flush = RequestTracer.start("flush", "Hibernate flush");
+        }
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTracer.end(flush);
+        flush = null;
+    }
+
+    @Override
+    public void partialFlushStart() {
+        if (RequestTracer.isTracing()) {
+            flush = RequestTracer.start("flush", "Hibernate auto-flush before query");
+        }
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTracer.end(flush);
+        flush = null;
+    }
+}
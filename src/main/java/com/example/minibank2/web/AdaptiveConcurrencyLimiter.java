@@ -0,0 +1,106 @@
+package com.example.minibank2.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptacyjny limiter współbieżności dla jednej grupy endpointów.
+ * Limit wyliczany jest algorytmem gradientowym: jeśli wygładzony czas odpowiedzi rośnie
+ * względem najlepszego zaobserwowanego (minRtt), limit maleje proporcjonalnie do gradientu;
+ * gdy opóźnienia wracają do normy, limit rośnie addytywnie (o pierwiastek z limitu).
+ * Żądania zakończone błędem 5xx traktujemy jak utracone i tniemy limit multiplikatywnie (AIMD).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;        // jak szybko limit podąża za nową wartością
+    private static final double RTT_SMOOTHING = 0.1;    // wygładzanie średniego czasu odpowiedzi
+    private static final double BACKOFF_RATIO = 0.9;    // mnożnik limitu przy błędzie
+    private static final int MIN_RTT_RESET_INTERVAL = 1000; // co ile próbek zapominamy minRtt
+
+    private final EndpointGroup group;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // pola poniżej chronione przez synchronized(this)
+    private long minRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(EndpointGroup group, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limiter bounds: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.group = group;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = clamp(initialLimit);
+    }
+
+    // 🔹 Próba zajęcia miejsca; false = limit wyczerpany, żądanie należy odrzucić
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // 🔹 Zwolnienie miejsca wraz z próbką czasu odpowiedzi
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, dropped, inFlightBeforeRelease);
+    }
+
+    private synchronized void onSample(long rttNanos, boolean dropped, int inFlightAtSample) {
+        if (dropped) {
+            limit = clamp(limit * BACKOFF_RATIO);
+            return;
+        }
+
+        // minRtt co jakiś czas zapominamy, żeby limiter dopasował się do np. większej bazy
+        if (++samples % MIN_RTT_RESET_INTERVAL == 0) {
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        smoothedRttNanos = smoothedRttNanos == 0
+                ? rttNanos
+                : smoothedRttNanos * (1 - RTT_SMOOTHING) + rttNanos * RTT_SMOOTHING;
+
+        // przy małym obciążeniu próbki nie mówią nic o pojemności – nie podnosimy limitu
+        if (inFlightAtSample < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRttNanos / smoothedRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public EndpointGroup getGroup() { return group; }
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getRejected() { return rejected.get(); }
+
+    public synchronized double getMinRttMillis() {
+        return minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos / 1_000_000.0;
+    }
+
+    public synchronized double getSmoothedRttMillis() {
+        return smoothedRttNanos / 1_000_000.0;
+    }
+}
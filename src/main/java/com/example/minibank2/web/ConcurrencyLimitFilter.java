@@ -0,0 +1,131 @@
+package com.example.minibank2.web;
+
+import com.example.minibank2.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtr ograniczający liczbę równoległych żądań per grupa endpointów.
+ * Nadmiarowe żądania są od razu odrzucane z 503 i nagłówkiem Retry-After,
+ * zamiast czekać w kolejce Tomcata. Część wspólnej puli jest zarezerwowana
+ * wyłącznie dla operacji przesuwających pieniądze.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final boolean enabled;
+    private final int totalCapacity;
+    private final int reservedForMoneyMovement;
+    private final int retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Map<EndpointGroup, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointGroup.class);
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  @Value("${minibank.limiter.enabled:true}") boolean enabled,
+                                  @Value("${minibank.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${minibank.limiter.min-limit:4}") int minLimit,
+                                  @Value("${minibank.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${minibank.limiter.latency-tolerance:2.0}") double tolerance,
+                                  @Value("${minibank.limiter.total-capacity:200}") int totalCapacity,
+                                  @Value("${minibank.limiter.reserved-for-money-movement:40}") int reservedForMoneyMovement,
+                                  @Value("${minibank.limiter.retry-after-seconds:1}") int retryAfterSeconds) {
+        if (reservedForMoneyMovement >= totalCapacity) {
+            throw new IllegalArgumentException("Reserved capacity must be lower than total capacity");
+        }
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.totalCapacity = totalCapacity;
+        this.reservedForMoneyMovement = reservedForMoneyMovement;
+        this.retryAfterSeconds = retryAfterSeconds;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            limiters.put(group, new AdaptiveConcurrencyLimiter(group, initialLimit, minLimit, maxLimit, tolerance));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || EndpointGroup.classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.classify(request);
+        AdaptiveConcurrencyLimiter limiter = limiters.get(group);
+
+        if (!acquireShared(group)) {
+            reject(response, group);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            totalInFlight.decrementAndGet();
+            reject(response, group);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+            totalInFlight.decrementAndGet();
+        }
+    }
+
+    // 🔹 Miejsce we wspólnej puli; zapytania inne niż przelewy nie mogą sięgać do rezerwy
+    private boolean acquireShared(EndpointGroup group) {
+        int ceiling = group == EndpointGroup.MONEY_MOVEMENT ? totalCapacity : totalCapacity - reservedForMoneyMovement;
+        while (true) {
+            int current = totalInFlight.get();
+            if (current >= ceiling) {
+                return false;
+            }
+            if (totalInFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, EndpointGroup group) throws IOException {
+        logger.debug("Request rejected by concurrency limiter for group {}", group);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponse body = new ErrorResponse("Server is overloaded, please retry later",
+                HttpStatus.SERVICE_UNAVAILABLE.value());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    public List<AdaptiveConcurrencyLimiter> getLimiters() {
+        return List.copyOf(limiters.values());
+    }
+
+    public int getTotalInFlight() {
+        return totalInFlight.get();
+    }
+}
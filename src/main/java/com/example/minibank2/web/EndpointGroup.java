@@ -0,0 +1,48 @@
+package com.example.minibank2.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Grupy endpointów, dla których liczymy osobne limity współbieżności.
+ * Operacje przesuwające pieniądze mają zarezerwowaną część przepustowości,
+ * żeby zapytania raportowe nie mogły ich zagłodzić.
+ */
+public enum EndpointGroup {
+    MONEY_MOVEMENT, // przelewy, wpłaty, wypłaty
+    READ,           // odczyty pojedynczych kont i historii transakcji
+    REPORTING;      // zapytania skanujące wiele kont (listy, zakresy dat, rankingi)
+
+    // 🔹 Przypisanie żądania do grupy; null = żądanie nie podlega limitowaniu
+    public static EndpointGroup classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path == null || path.isEmpty()) {
+            path = request.getRequestURI();
+        }
+        if (!path.startsWith("/accounts") && !path.startsWith("/transactions")) {
+            return null; // /admin, /h2-console itp.
+        }
+
+        if ("POST".equals(request.getMethod())
+                && (path.endsWith("/transfer") || path.endsWith("/deposit") || path.endsWith("/withdraw"))) {
+            return MONEY_MOVEMENT;
+        }
+
+        if ("GET".equals(request.getMethod()) && isReporting(path)) {
+            return REPORTING;
+        }
+        return READ;
+    }
+
+    private static boolean isReporting(String path) {
+        return path.equals("/accounts")
+                || path.endsWith("/paged")
+                || path.startsWith("/accounts/created-before/")
+                || path.startsWith("/accounts/created-after/")
+                || path.startsWith("/accounts/balance/greater-than/")
+                || path.startsWith("/accounts/balance-top3")
+                || path.startsWith("/accounts/highest-balance")
+                || path.startsWith("/accounts/oldest")
+                || path.startsWith("/accounts/with-currency/")
+                || path.startsWith("/accounts/with-status/");
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.minibank2.web;
+
+import com.example.minibank2.controller.AccountController;
+import com.example.minibank2.controller.TransactionController;
+import com.example.minibank2.dto.EndpointResourceResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiar zaalokowanych bajtów i czasu CPU wątku obsługującego żądanie (com.sun.management.ThreadMXBean),
+ * zbierany per metoda AccountController/TransactionController – do szukania endpointów, które najbardziej
+ * obciążają GC, i wyłapywania regresji alokacji. Histogramy: minibank_request_allocated_bytes
+ * i minibank_request_cpu_seconds w /actuator/prometheus, ranking: GET /admin/endpoints/resources.
+ *
+ * Liczy się tylko praca wątku żądania (filtry za tym, kontroler, serwis, zapytania H2 w pamięci, JSON);
+ * praca zlecona innym wątkom (pula zadań, wątki logów) nie jest przypisana do endpointu.
+ * Filtr stoi za limiterem – żądania odrzucone z 503 nie docierają do kontrolera i nie są liczone.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+public class ResourceAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceAccountingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean enabled;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private record Meters(DistributionSummary allocated, Timer cpu) {
+    }
+
+    public ResourceAccountingFilter(MeterRegistry meterRegistry,
+                                    @Value("${minibank.resource-accounting.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean ? bean : null;
+        this.enabled = enabled && supported(threads);
+    }
+
+    private static boolean supported(com.sun.management.ThreadMXBean threads) {
+        if (threads == null || !threads.isThreadAllocatedMemorySupported() || !threads.isCurrentThreadCpuTimeSupported()) {
+            logger.warn("Per-thread allocation or CPU time is not supported by this JVM, resource accounting disabled");
+            return false;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || EndpointGroup.classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            // metoda kontrolera jest znana dopiero po dopasowaniu w DispatcherServlet
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler
+                    && (handler.getBeanType() == AccountController.class || handler.getBeanType() == TransactionController.class)) {
+                Meters handlerMeters = meters.computeIfAbsent(
+                        handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName(), this::register);
+                handlerMeters.allocated().record(allocated);
+                handlerMeters.cpu().record(cpu, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Meters register(String handler) {
+        DistributionSummary allocated = DistributionSummary.builder("minibank.request.allocated")
+                .description("Bytes allocated by the request thread per request")
+                .baseUnit("bytes")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.99)
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(1024.0 * 1024 * 1024)
+                .register(meterRegistry);
+        Timer cpu = Timer.builder("minibank.request.cpu")
+                .description("CPU time of the request thread per request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.99)
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+        return new Meters(allocated, cpu);
+    }
+
+    // 🔹 Ranking endpointów: sort = allocated (bajty na żądanie) albo cpu (czas CPU na żądanie), malejąco
+    public List<EndpointResourceResponse> getRanking(String sort) {
+        if (!enabled) {
+            throw new IllegalArgumentException("Resource accounting is disabled (minibank.resource-accounting.enabled=false or unsupported JVM)");
+        }
+        Comparator<EndpointResourceResponse> order = switch (sort) {
+            case "allocated" -> Comparator.comparingLong(EndpointResourceResponse::getAllocatedBytesPerRequest);
+            case "cpu" -> Comparator.comparingLong(EndpointResourceResponse::getCpuMicrosPerRequest);
+            default -> throw new IllegalArgumentException("Unknown sort '" + sort + "', use allocated or cpu");
+        };
+        return meters.entrySet().stream()
+                .map(entry -> toResponse(entry.getKey(), entry.getValue()))
+                .sorted(order.reversed())
+                .toList();
+    }
+
+    private static EndpointResourceResponse toResponse(String handler, Meters handlerMeters) {
+        HistogramSnapshot allocated = handlerMeters.allocated().takeSnapshot();
+        HistogramSnapshot cpu = handlerMeters.cpu().takeSnapshot();
+        long requests = allocated.count();
+        EndpointResourceResponse response = new EndpointResourceResponse();
+        response.setHandler(handler);
+        response.setRequests(requests);
+        response.setAllocatedBytesTotal((long) allocated.total());
+        response.setAllocatedBytesPerRequest(requests == 0 ? 0 : (long) (allocated.total() / requests));
+        response.setAllocatedBytesP99((long) p99(allocated).value());
+        response.setCpuSecondsTotal(cpu.total(TimeUnit.SECONDS));
+        response.setCpuMicrosPerRequest(cpu.count() == 0 ? 0 : (long) (cpu.total(TimeUnit.MICROSECONDS) / cpu.count()));
+        response.setCpuMicrosP99((long) p99(cpu).value(TimeUnit.MICROSECONDS));
+        return response;
+    }
+
+    // percentyl podsumowania jest w bajtach, timera – w nanosekundach (value(unit) przelicza)
+    private static ValueAtPercentile p99(HistogramSnapshot snapshot) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == 0.99) {
+                return value;
+            }
+        }
+        return new ValueAtPercentile(0.99, 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.minibank2.web;
+
+import com.example.minibank2.trace.RequestTracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Otwiera ślad RequestTracer dla żądań /accounts i /transactions. Stoi przed limiterem
+ * współbieżności, więc czas spędzony w filtrach też jest w śladzie (różnica między "http" a kontrolerem).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final RequestTracer tracer;
+
+    public TracingFilter(RequestTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !tracer.isEnabled() || EndpointGroup.classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String query = request.getQueryString();
+        RequestTracer.Trace trace = tracer.begin(request.getMethod() + " " + request.getRequestURI()
+                + (query != null ? "?" + query : ""));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            tracer.finish(trace, response.getStatus());
+        }
+    }
+}
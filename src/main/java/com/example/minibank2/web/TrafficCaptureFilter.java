@@ -0,0 +1,208 @@
+package com.example.minibank2.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nagrywanie ruchu /accounts i /transactions do pliku TrafficLog – do odtworzenia na nowej wersji
+ * aplikacji (benchmarks/TrafficReplay). Zapisujemy metodę, ścieżkę, treść żądania (do limitu),
+ * status, czas obsługi i konta, których żądanie dotyczy (z ścieżki albo z treści przelewu),
+ * a przy zakładaniu konta także nadane id – odtwarzanie mapuje je na id w nowej bazie.
+ *
+ * Wątek żądania tylko wrzuca rekord do ograniczonej kolejki; na dysk pisze osobny wątek.
+ * Gdy kolejka jest pełna, rekord jest pomijany (licznik dropped) – nagrywanie nie może spowolnić obsługi.
+ * Filtr stoi przed limiterem współbieżności, więc w nagraniu są też żądania odrzucone z 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficCaptureFilter.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int maxBodyBytes;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<TrafficLog.Entry> queue;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile Path file;
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    public TrafficCaptureFilter(ObjectMapper objectMapper,
+                                @Value("${minibank.capture.enabled:false}") boolean enabled,
+                                @Value("${minibank.capture.dir:capture}") String directory,
+                                @Value("${minibank.capture.max-body-bytes:4096}") int maxBodyBytes,
+                                @Value("${minibank.capture.queue-capacity:10000}") int queueCapacity) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxBodyBytes = maxBodyBytes;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (enabled) {
+            writerThread = new Thread(this::writeLoop, "traffic-capture");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || EndpointGroup.classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request, maxBodyBytes);
+        // odpowiedź buforujemy tylko przy zakładaniu konta – potrzebujemy nadanego id
+        boolean createsAccount = "POST".equals(request.getMethod()) && "/accounts".equals(path(request));
+        ContentCachingResponseWrapper responseWrapper = createsAccount ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(requestWrapper, responseWrapper != null ? responseWrapper : response);
+        } finally {
+            long end = System.nanoTime();
+            long createdId = 0;
+            if (responseWrapper != null) {
+                createdId = createdAccountId(responseWrapper);
+                responseWrapper.copyBodyToResponse();
+            }
+            record(requestWrapper, response.getStatus(), start, end, createdId);
+        }
+    }
+
+    private void record(ContentCachingRequestWrapper request, int status, long start, long end, long createdId) {
+        String uri = path(request) + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        byte[] body = request.getContentAsByteArray();
+        if (body.length > maxBodyBytes) {
+            body = Arrays.copyOf(body, maxBodyBytes);
+        }
+        TrafficLog.Entry entry = new TrafficLog.Entry(
+                TimeUnit.NANOSECONDS.toMicros(start - startNanos),
+                TimeUnit.NANOSECONDS.toMicros(end - start),
+                status, request.getMethod(), uri, accounts(uri, body), createdId, body);
+        if (queue.offer(entry)) {
+            captured.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // 🔹 Konta, których dotyczy żądanie: id ze ścieżki (/accounts/{id}/..., /transactions/{id}/...) albo strony przelewu
+    private long[] accounts(String uri, byte[] body) {
+        if (uri.startsWith("/accounts/transfer")) {
+            try {
+                JsonNode transfer = objectMapper.readTree(body);
+                return new long[]{transfer.path("senderId").asLong(), transfer.path("receiverId").asLong()};
+            } catch (IOException e) {
+                return new long[0];
+            }
+        }
+        String[] segments = uri.split("[/?]");
+        if (segments.length > 2 && !segments[2].isEmpty() && segments[2].chars().allMatch(Character::isDigit)) {
+            return new long[]{Long.parseLong(segments[2])};
+        }
+        return new long[0];
+    }
+
+    private long createdAccountId(ContentCachingResponseWrapper response) {
+        if (response.getStatus() != 200) {
+            return 0;
+        }
+        try {
+            return objectMapper.readTree(response.getContentAsByteArray()).path("id").asLong();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path == null || path.isEmpty() ? request.getRequestURI() : path;
+    }
+
+    // 🔹 Wątek zapisu: plik zakładany przy pierwszym rekordzie, flush gdy kolejka się opróżni
+    private void writeLoop() {
+        TrafficLog.Writer writer = null;
+        try {
+            while (running || !queue.isEmpty()) {
+                TrafficLog.Entry entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                    continue;
+                }
+                if (writer == null) {
+                    Files.createDirectories(directory);
+                    file = directory.resolve("traffic-"
+                            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".mbt");
+                    writer = new TrafficLog.Writer(Files.newOutputStream(file));
+                    logger.info("Capturing traffic to {}", file);
+                }
+                writer.write(entry);
+                written.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Traffic capture stopped", e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot close traffic log {}", file, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            logger.info("Traffic capture closed: {} written to {}, {} dropped", written.get(), file, dropped.get());
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public String getFile() { return file != null ? file.toString() : null; }
+    public long getCaptured() { return captured.get(); }
+    public long getWritten() { return written.get(); }
+    public long getDropped() { return dropped.get(); }
+}
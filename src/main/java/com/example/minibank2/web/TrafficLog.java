@@ -0,0 +1,198 @@
+package com.example.minibank2.web;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binarny zapis przechwyconego ruchu HTTP: nagłówek "MBTRAF" + wersja, potem rekordy
+ * z liczbami w kodowaniu zmiennej długości (varint), żeby typowe żądanie zajmowało kilkadziesiąt bajtów:
+ *
+ *   przesunięcie od początku nagrania (µs, delta względem poprzedniego rekordu), czas obsługi (µs),
+ *   status HTTP, metoda, ścieżka z query, konta dotknięte żądaniem, id utworzonego konta (0 = brak),
+ *   treść żądania (ucięta do limitu).
+ *
+ * Ten sam format czyta narzędzie do odtwarzania ruchu (benchmarks/TrafficReplay).
+ */
+public final class TrafficLog {
+
+    private static final byte[] MAGIC = "MBTRAF".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    private TrafficLog() {
+    }
+
+    /**
+     * Jedno przechwycone żądanie.
+     */
+    public record Entry(long offsetMicros, long durationMicros, int status, String method, String uri,
+                        long[] accounts, long createdAccountId, byte[] body) {
+
+        @Override
+        public String toString() {
+            return method + " " + uri + " -> " + status + " (" + durationMicros + " us, accounts "
+                    + Arrays.toString(accounts) + ")";
+        }
+    }
+
+    /**
+     * Zapis kolejnych rekordów; nie jest bezpieczny dla wielu wątków (w aplikacji pisze jeden wątek).
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private long previousOffset;
+
+        public Writer(OutputStream stream) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+        }
+
+        public void write(Entry entry) throws IOException {
+            writeVarLong(entry.offsetMicros() - previousOffset);
+            previousOffset = entry.offsetMicros();
+            writeVarLong(entry.durationMicros());
+            writeVarLong(entry.status());
+            writeString(entry.method());
+            writeString(entry.uri());
+            writeVarLong(entry.accounts().length);
+            for (long account : entry.accounts()) {
+                writeVarLong(account);
+            }
+            writeVarLong(entry.createdAccountId());
+            writeVarLong(entry.body().length);
+            out.write(entry.body());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        // Liczby nieujemne po 7 bitów na bajt, najstarszy bit = "jest dalszy ciąg"
+        private void writeVarLong(long value) throws IOException {
+            long rest = Math.max(0, value);
+            while ((rest & ~0x7FL) != 0) {
+                out.writeByte((int) ((rest & 0x7F) | 0x80));
+                rest >>>= 7;
+            }
+            out.writeByte((int) rest);
+        }
+    }
+
+    /**
+     * Odczyt sekwencyjny; nagranie przerwane w połowie rekordu (np. po awarii) kończy się na ostatnim pełnym.
+     */
+    public static final class Reader implements Iterator<Entry>, Closeable {
+
+        private final DataInputStream in;
+        private long previousOffset;
+        private Entry next;
+
+        public Reader(InputStream stream) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a traffic log");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported traffic log version " + version);
+            }
+            this.next = readEntry();
+        }
+
+        public static Reader open(Path file) throws IOException {
+            return new Reader(Files.newInputStream(file));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry current = next;
+            next = readEntry();
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private Entry readEntry() {
+            try {
+                long offset = previousOffset + readVarLong();
+                long duration = readVarLong();
+                int status = (int) readVarLong();
+                String method = readString();
+                String uri = readString();
+                long[] accounts = new long[(int) readVarLong()];
+                for (int i = 0; i < accounts.length; i++) {
+                    accounts[i] = readVarLong();
+                }
+                long created = readVarLong();
+                byte[] body = readBytes((int) readVarLong());
+                previousOffset = offset;
+                return new Entry(offset, duration, status, method, uri, accounts, created, body);
+            } catch (EOFException e) {
+                return null;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read traffic log", e);
+            }
+        }
+
+        private String readString() throws IOException {
+            return new String(readBytes((int) readVarLong()), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            return bytes;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte(); // EOFException na końcu pliku
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in traffic log");
+        }
+    }
+}
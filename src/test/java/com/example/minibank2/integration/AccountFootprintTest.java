@@ -0,0 +1,76 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountSnapshot;
+import com.example.minibank2.entity.AccountType;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Budżet pamięci konta trzymanego na stercie (JOL). Każde konto ma własnego właściciela,
+ * numer i datę założenia; waluta, status i oprocentowanie przychodzą jako świeże obiekty
+ * (jak z JSON-a albo z bazy) i powinny zostać zamienione na wspólne instancje.
+ */
+class AccountFootprintTest {
+
+    private static final int ACCOUNTS = 1000;
+
+    // bajty na konto razem z właścicielem i numerem (po ~56 B każdy) oraz LocalDate
+    private static final long ACCOUNT_BUDGET = 216;
+    private static final long SNAPSHOT_BUDGET = 192;
+
+    @Test
+    void shouldShareCurrencyStatusAndRateInstances() {
+        Account first = account(1);
+        Account second = account(2);
+
+        assertThat(first.getCurrency()).isSameAs(second.getCurrency());
+        assertThat(first.getStatus()).isSameAs(second.getStatus());
+        assertThat(first.getInterestRate()).isSameAs(second.getInterestRate());
+        // inna skala to inna wartość w odpowiedzi – nie współdzielimy
+        second.setInterestRate(new BigDecimal("0.020"));
+        assertThat(second.getInterestRate()).isNotSameAs(first.getInterestRate());
+    }
+
+    @Test
+    void shouldKeepAccountWithinByteBudget() {
+        Account[] accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = account(i + 1);
+        }
+
+        assertThat(bytesPerElement(accounts)).isLessThanOrEqualTo(ACCOUNT_BUDGET);
+    }
+
+    @Test
+    void shouldKeepSnapshotWithinByteBudget() {
+        AccountSnapshot[] snapshots = new AccountSnapshot[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            snapshots[i] = account(i + 1).toSnapshot();
+        }
+
+        assertThat(bytesPerElement(snapshots)).isLessThanOrEqualTo(SNAPSHOT_BUDGET);
+        assertThat(snapshots[0].balance()).isEqualByComparingTo("1234.56");
+        assertThat(snapshots[0].createdAt()).isEqualTo(LocalDate.of(2024, 1, 2));
+    }
+
+    // Obiekty wspólne (waluta, status, oprocentowanie) liczą się raz na całą tablicę
+    private static long bytesPerElement(Object[] elements) {
+        long total = GraphLayout.parseInstance((Object) elements).totalSize();
+        long array = GraphLayout.parseInstance((Object) new Object[elements.length]).totalSize();
+        return (total - array) / elements.length;
+    }
+
+    private static Account account(int i) {
+        Account account = new Account("Owner " + i, String.format("ACC-%08X", i), new String("PLN"),
+                new BigDecimal("1234.56"), new String("ACTIVE"), AccountType.SAVINGS, new BigDecimal("0.02"));
+        account.setId((long) i);
+        account.setCreatedAt(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+        return account;
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.minibank2.integration;
 
 import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
 import com.example.minibank2.repository.AccountRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -106,5 +108,43 @@ class AccountRepositoryIntegrationTest {
         assertThat(accounts).extracting(Account::getOwner).containsExactlyInAnyOrder("Alicja Kowalska", "Maria Wiśniewska", "Barbara Sawicka");
     }
 
+    @Test
+    void testFindByBalanceGreaterThanComparesNominalAmountAcrossCurrencyScales() {
+        // JPY nie ma jednostek podrzędnych (skala 0), PLN ma grosze – próg porównujemy z kwotą nominalną
+        Account yen = accountRepository.save(new Account("Minor Units JPY", "ACC-MU-JPY", "JPY",
+                new BigDecimal("6000"), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO));
+        Account zloty = accountRepository.save(new Account("Minor Units PLN", "ACC-MU-PLN", "PLN",
+                new BigDecimal("50.00"), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO));
+
+        List<Account> accounts = accountRepository.findByBalanceGreaterThan(new BigDecimal("5000"));
+
+        assertThat(accounts).extracting(Account::getOwner).contains("Minor Units JPY").doesNotContain("Minor Units PLN");
+        assertThat(accountRepository.findById(yen.getId()).orElseThrow().getBalance()).isEqualByComparingTo("6000");
+        assertThat(accountRepository.findById(zloty.getId()).orElseThrow().getBalanceMinor()).isEqualTo(5000L);
+        accountRepository.deleteAll(List.of(yen, zloty));
+    }
+
+    @Test
+    void testOrderByBalanceComparesNominalAmountAcrossCurrencyScales() {
+        // 60 mln JPY to 60 000 000 jednostek podrzędnych, 1 mln PLN to 100 000 000 groszy –
+        // po nominale JPY jest wyżej, po surowym balance_minor byłoby odwrotnie
+        Account yen = accountRepository.save(new Account("Order Scale JPY", "ACC-OS-JPY", "JPY",
+                new BigDecimal("60000000"), "ORDER-SCALE", AccountType.CHECKING, BigDecimal.ZERO));
+        Account zloty = accountRepository.save(new Account("Order Scale PLN", "ACC-OS-PLN", "PLN",
+                new BigDecimal("1000000.00"), "ORDER-SCALE", AccountType.CHECKING, BigDecimal.ZERO));
+        try {
+            assertThat(accountRepository.findTopByOrderByBalanceDesc()).get()
+                    .extracting(Account::getOwner).isEqualTo("Order Scale JPY");
+            assertThat(accountRepository.findTopByStatusOrderByBalanceDesc("ORDER-SCALE")).get()
+                    .extracting(Account::getOwner).isEqualTo("Order Scale JPY");
+            assertThat(accountRepository.findTop3ByOrderByBalanceDesc()).hasSize(3)
+                    .extracting(Account::getOwner).startsWith("Order Scale JPY", "Order Scale PLN");
+            assertThat(accountRepository.findTop3ByOrderByBalanceDesc(PageRequest.of(0, 10)).getContent()).hasSize(3)
+                    .extracting(Account::getOwner).startsWith("Order Scale JPY", "Order Scale PLN");
+        } finally {
+            accountRepository.deleteAll(List.of(yen, zloty));
+        }
+    }
+
 
 }
@@ -0,0 +1,115 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.web.AdaptiveConcurrencyLimiter;
+import com.example.minibank2.web.EndpointGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(EndpointGroup.READ, 20, 4, 200, 2.0);
+
+    @Test
+    void shouldRejectWhenLimitIsExhausted() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldIncreaseLimitAdditivelyWhenLatencyIsStableUnderLoad() {
+        saturateAndRelease(FAST);
+
+        // gradient = 1, więc każda próbka dokłada ułamek pierwiastka z limitu
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+        assertThat(limiter.getMinRttMillis()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotIncreaseLimitFromSamplesTakenUnderLowLoad() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(FAST, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldDecreaseLimitByGradientWhenLatencyGrows() {
+        saturateAndRelease(FAST);
+        int limitBeforeSlowdown = limiter.getLimit();
+
+        for (int round = 0; round < 20; round++) {
+            saturateAndRelease(SLOW);
+        }
+
+        // minRtt = 1 ms, wygładzony czas dąży do 50 ms – gradient spada do dolnej granicy 0.5
+        assertThat(limiter.getSmoothedRttMillis()).isGreaterThan(2.0);
+        assertThat(limiter.getLimit()).isLessThan(limitBeforeSlowdown).isLessThan(20);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void shouldBackOffMultiplicativelyOnDroppedRequestsDownToMinLimit() {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(FAST, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(18); // 20 * 0.9
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldStayWithinConfiguredBounds() {
+        AdaptiveConcurrencyLimiter capped = new AdaptiveConcurrencyLimiter(EndpointGroup.READ, 500, 4, 30, 2.0);
+        assertThat(capped.getLimit()).isEqualTo(30);
+
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (capped.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                capped.release(FAST, false);
+            }
+        }
+        assertThat(capped.getLimit()).isEqualTo(30);
+
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(EndpointGroup.READ, 10, 0, 30, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(EndpointGroup.READ, 10, 8, 4, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Zajmuje wszystkie miejsca i zwalnia je z tym samym czasem odpowiedzi
+    private void saturateAndRelease(long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
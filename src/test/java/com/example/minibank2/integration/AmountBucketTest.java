@@ -0,0 +1,29 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.jfr.AmountBucket;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmountBucketTest {
+
+    @Test
+    void shouldBucketAmountsByOrderOfMagnitude() {
+        assertThat(AmountBucket.of(new BigDecimal("0.50"))).isEqualTo("<1");
+        assertThat(AmountBucket.of(new BigDecimal("1.00"))).isEqualTo("1-10");
+        assertThat(AmountBucket.of(new BigDecimal("12.50"))).isEqualTo("10-100");
+        assertThat(AmountBucket.of(new BigDecimal("999.99"))).isEqualTo("100-1k");
+        assertThat(AmountBucket.of(new BigDecimal("1E+3"))).isEqualTo("1k-10k");
+        assertThat(AmountBucket.of(new BigDecimal("99999"))).isEqualTo("10k-100k");
+        assertThat(AmountBucket.of(new BigDecimal("250000.00"))).isEqualTo("100k-1M");
+        assertThat(AmountBucket.of(new BigDecimal("5000000000"))).isEqualTo(">=1M");
+    }
+
+    @Test
+    void shouldMarkMissingOrNegativeAmounts() {
+        assertThat(AmountBucket.of(null)).isEqualTo("invalid");
+        assertThat(AmountBucket.of(new BigDecimal("-5"))).isEqualTo("invalid");
+    }
+}
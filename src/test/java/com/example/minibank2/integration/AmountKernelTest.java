@@ -0,0 +1,89 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.analytics.AmountKernel;
+import com.example.minibank2.analytics.AmountKernels;
+import com.example.minibank2.analytics.ScalarAmountKernel;
+import com.example.minibank2.analytics.VectorAmountKernel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Wersja wektorowa, skalarna i BigDecimal muszą dawać dokładnie ten sam wynik – także dla końcówek tablic
+public class AmountKernelTest {
+
+    private static final AmountKernel scalar = new ScalarAmountKernel();
+    private static AmountKernel vector;
+
+    @BeforeAll
+    static void setup() {
+        assertThat(AmountKernels.vectorAvailable()).isTrue(); // surefire uruchamia JVM z --add-modules
+        vector = new VectorAmountKernel();
+    }
+
+    @Test
+    void shouldMatchScalarAndBigDecimalForEveryLength() {
+        Random random = new Random(42);
+        for (int length = 0; length <= 67; length++) {
+            long[] amounts = random.longs(length, -1_000_000, 100_000_000).toArray();
+            long[] keys = random.longs(length, 1, 4).toArray();
+            long threshold = random.nextInt(50_000_000);
+
+            assertThat(vector.stats(amounts, length, threshold)).isEqualTo(scalar.stats(amounts, length, threshold));
+            assertThat(vector.stats(amounts, keys, 2, length, threshold))
+                    .isEqualTo(scalar.stats(amounts, keys, 2, length, threshold));
+            assertMatchesBigDecimal(amounts, keys, 2, length, threshold);
+        }
+    }
+
+    @Test
+    void shouldMatchOnLargeColumnWithPartialLength() {
+        Random random = new Random(7);
+        long[] amounts = random.longs(1_000_003, 1, 5_000_000_00L).toArray();
+        long[] keys = random.longs(amounts.length, 0, 1000).toArray();
+        int length = amounts.length - 5; // reszta tablicy to zapas pojemności – nie może wejść do wyniku
+        long threshold = 2_500_000_00L;
+
+        AmountKernel.Stats all = vector.stats(amounts, length, threshold);
+        assertThat(all).isEqualTo(scalar.stats(amounts, length, threshold));
+        assertThat(all.count()).isEqualTo(length);
+
+        AmountKernel.Stats oneKey = vector.stats(amounts, keys, 123, length, threshold);
+        assertThat(oneKey).isEqualTo(scalar.stats(amounts, keys, 123, length, threshold));
+        assertMatchesBigDecimal(amounts, keys, 123, length, threshold);
+    }
+
+    @Test
+    void shouldReturnEmptyStatsWhenNothingMatches() {
+        long[] amounts = {100, 200, 300, 400, 500, 600, 700, 800, 900};
+        long[] keys = new long[amounts.length];
+
+        AmountKernel.Stats stats = vector.stats(amounts, keys, 5, amounts.length, 0);
+        assertThat(stats).isEqualTo(new AmountKernel.Stats(0, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0));
+        assertThat(stats).isEqualTo(scalar.stats(amounts, keys, 5, amounts.length, 0));
+    }
+
+    // Ten sam wynik co strumień BigDecimal w stylu TransactionService (suma reduce, max, filtr compareTo)
+    private static void assertMatchesBigDecimal(long[] amounts, long[] keys, long key, int length, long threshold) {
+        BigDecimal[] selected = IntStream.range(0, length)
+                .filter(i -> keys[i] == key)
+                .mapToObj(i -> BigDecimal.valueOf(amounts[i], 2))
+                .toArray(BigDecimal[]::new);
+        BigDecimal limit = BigDecimal.valueOf(threshold, 2);
+        AmountKernel.Stats stats = vector.stats(amounts, keys, key, length, threshold);
+
+        assertThat(stats.count()).isEqualTo(selected.length);
+        assertThat(BigDecimal.valueOf(stats.sum(), 2))
+                .isEqualByComparingTo(Arrays.stream(selected).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(stats.countAbove()).isEqualTo(Arrays.stream(selected).filter(a -> a.compareTo(limit) > 0).count());
+        if (selected.length > 0) {
+            assertThat(BigDecimal.valueOf(stats.max(), 2)).isEqualTo(Arrays.stream(selected).max(BigDecimal::compareTo).get());
+            assertThat(BigDecimal.valueOf(stats.min(), 2)).isEqualTo(Arrays.stream(selected).min(BigDecimal::compareTo).get());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.web.ConcurrencyLimitFilter;
+import com.example.minibank2.web.EndpointGroup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch releaseHeld = new CountDownLatch(1);
+
+    // limit per grupa stały (min = max = 2), wspólna pula 6 z czego 4 zarezerwowane dla przelewów
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(objectMapper, true, 2, 2, 2, 2.0, 6, 4, 7);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseHeld.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldShedRequestWith503WhenGroupLimitIsExhausted() throws Exception {
+        holdInFlight("GET", "/accounts/1", 2);
+
+        MockHttpServletResponse rejected = execute("GET", "/accounts/2");
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("7");
+        assertThat(rejected.getContentType()).isEqualTo("application/json");
+        assertThat(rejected.getContentAsString()).contains("Server is overloaded, please retry later");
+        assertThat(filter.getTotalInFlight()).isEqualTo(2); // odrzucone żądanie oddało miejsce w puli
+    }
+
+    @Test
+    void shouldServeAgainOnceInFlightRequestsComplete() throws Exception {
+        holdInFlight("GET", "/accounts/1", 2);
+        assertThat(execute("GET", "/accounts/2").getStatus()).isEqualTo(503);
+
+        releaseHeld.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(execute("GET", "/accounts/2").getStatus()).isEqualTo(200);
+        assertThat(filter.getTotalInFlight()).isZero();
+    }
+
+    @Test
+    void shouldKeepReservedCapacityForMoneyMovement() throws Exception {
+        // READ zajmuje całą nierezerwowaną część puli (6 - 4 = 2)
+        holdInFlight("GET", "/accounts/1", 2);
+
+        // raport ma wolny własny limit, ale nie może sięgnąć do rezerwy
+        assertThat(execute("GET", "/accounts").getStatus()).isEqualTo(503);
+        assertThat(execute("POST", "/accounts/1/deposit").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldNotLimitRequestsOutsideAccountsAndTransactions() throws Exception {
+        holdInFlight("GET", "/accounts/1", 2);
+
+        assertThat(execute("GET", "/admin/limiters").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldTreatServerErrorAsDroppedRequest() throws Exception {
+        ConcurrencyLimitFilter adaptive = new ConcurrencyLimitFilter(objectMapper, true, 20, 4, 200, 2.0, 200, 40, 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        adaptive.doFilter(new MockHttpServletRequest("GET", "/accounts/1"), response,
+                (req, res) -> ((MockHttpServletResponse) res).setStatus(500));
+
+        assertThat(response.getStatus()).isEqualTo(500);
+        assertThat(adaptive.getTotalInFlight()).isZero();
+        assertThat(adaptive.getLimiters())
+                .filteredOn(limiter -> limiter.getGroup() == EndpointGroup.READ)
+                .singleElement()
+                .satisfies(limiter -> {
+                    assertThat(limiter.getInFlight()).isZero();
+                    assertThat(limiter.getLimit()).isEqualTo(18); // 20 * 0.9
+                });
+    }
+
+    // Uruchamia żądania, które wiszą w łańcuchu filtrów aż do releaseHeld
+    private void holdInFlight(String method, String uri, int count) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest(method, uri), new MockHttpServletResponse(),
+                        (req, res) -> {
+                            entered.countDown();
+                            try {
+                                releaseHeld.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+        }
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private MockHttpServletResponse execute(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, (req, res) -> { });
+        return response;
+    }
+}
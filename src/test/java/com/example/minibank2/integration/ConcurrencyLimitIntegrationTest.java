@@ -0,0 +1,123 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.entity.Account;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.web.ConcurrencyLimitFilter;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "minibank.limiter.initial-limit=3",
+        "minibank.limiter.min-limit=3",
+        "minibank.limiter.max-limit=3",
+        "minibank.limiter.retry-after-seconds=2"
+})
+@ActiveProfiles("test")
+public class ConcurrencyLimitIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch releaseReports = new CountDownLatch(1);
+
+    @BeforeEach
+    void setup() {
+        RestAssured.port = port;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseReports.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldShedSaturatedGroupWhileOtherGroupsAreServed() throws Exception {
+        Account account = accountRepository.save(new Account("Limiter Test", "AC-LIMIT-" + System.nanoTime(), "PLN",
+                BigDecimal.valueOf(100), "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO));
+
+        // trzy wolne raporty zajmują cały limit grupy REPORTING
+        saturateReporting(3);
+
+        given()
+                .when()
+                .get("/accounts")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", "2")
+                .body("message", equalTo("Server is overloaded, please retry later"));
+
+        given()
+                .when()
+                .get("/accounts/{id}", account.getId())
+                .then()
+                .statusCode(200)
+                .body("owner", equalTo("Limiter Test"));
+
+        given()
+                .queryParam("amount", "25.00")
+                .when()
+                .post("/accounts/{id}/deposit", account.getId())
+                .then()
+                .statusCode(200);
+
+        // po zakończeniu raportów grupa znów przyjmuje żądania
+        releaseReports.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        given()
+                .when()
+                .get("/accounts/with-status/{status}", "ACTIVE")
+                .then()
+                .statusCode(200);
+    }
+
+    // Żądania raportowe przechodzą przez ten sam filtr (i te same limitery) co ruch HTTP,
+    // ale wiszą w łańcuchu aż do releaseReports
+    private void saturateReporting(int count) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            executor.submit(() -> {
+                concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/accounts"),
+                        new MockHttpServletResponse(), (req, res) -> {
+                            entered.countDown();
+                            try {
+                                releaseReports.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+        }
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
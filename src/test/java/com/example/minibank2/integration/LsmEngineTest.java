@@ -0,0 +1,137 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.dto.TransactionResponse;
+import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.lsm.LsmEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LsmEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private static TransactionResponse transaction(long id, long accountId, LocalDateTime dateTime, long amount) {
+        TransactionResponse row = new TransactionResponse();
+        row.setId(id);
+        row.setAccountId(accountId);
+        row.setDateTime(dateTime);
+        row.setType(id % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW);
+        row.setAmount(BigDecimal.valueOf(amount).setScale(2));
+        row.setBalanceAfter(id % 3 == 0 ? null : BigDecimal.valueOf(amount * 10).setScale(2));
+        return row;
+    }
+
+    @Test
+    void shouldReturnRangeAcrossMemtableRunsAndCompaction() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        // memtabla po 100 wierszy, kompakcja przy 3 runach → kilka flushy i kompakcji
+        try (LsmEngine engine = new LsmEngine(directory, 100, 3, 16)) {
+            for (long id = 1; id <= 1000; id++) {
+                engine.append(transaction(id, id % 10, start.plusHours(id), id));
+            }
+            engine.awaitBackgroundWork();
+
+            List<TransactionResponse> rows = engine.scan(7, start.plusHours(100), start.plusHours(200));
+            assertThat(rows).extracting(TransactionResponse::getId)
+                    .containsExactly(107L, 117L, 127L, 137L, 147L, 157L, 167L, 177L, 187L, 197L);
+            assertThat(rows.get(0).getAmount()).isEqualByComparingTo("107");
+            assertThat(engine.getCompactions()).isPositive();
+            assertThat(engine.scan(42, null, null)).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldRecoverUnflushedRowsFromWriteAheadLog() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        try (LsmEngine engine = new LsmEngine(directory, 100, 4, 16)) {
+            for (long id = 1; id <= 150; id++) {
+                engine.append(transaction(id, 1, start.plusMinutes(id), id));
+            }
+        }
+
+        try (LsmEngine reopened = new LsmEngine(directory, 100, 4, 16)) {
+            reopened.awaitBackgroundWork();
+            List<TransactionResponse> rows = reopened.scan(1, null, null);
+            assertThat(rows).hasSize(150);
+            assertThat(rows.get(149).getDateTime()).isEqualTo(start.plusMinutes(150));
+            assertThat(rows.get(2).getBalanceAfter()).isNull();
+        }
+    }
+
+    @Test
+    void shouldPreferNewestCopyOfReappendedRow() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        // kompakcja przy 2 runach: stara i poprawiona kopia trafiają do różnych runów, a potem do scalenia
+        try (LsmEngine engine = new LsmEngine(directory, 10, 2, 4)) {
+            for (long id = 1; id <= 10; id++) {
+                engine.append(transaction(id, 1, start.plusMinutes(id), id));
+            }
+            engine.awaitBackgroundWork();
+            TransactionResponse corrected = transaction(5, 1, start.plusMinutes(5), 5);
+            corrected.setBalanceAfter(new BigDecimal("999.00"));
+            engine.append(corrected);
+            assertThat(engine.scan(1, null, null).get(4).getBalanceAfter()).isEqualByComparingTo("999.00");
+
+            for (long id = 11; id <= 19; id++) {
+                engine.append(transaction(id, 1, start.plusMinutes(id), id));
+            }
+            engine.flush();
+
+            assertThat(engine.getCompactions()).isPositive();
+            List<TransactionResponse> rows = engine.scan(1, null, null);
+            assertThat(rows).hasSize(19);
+            assertThat(rows.get(4).getBalanceAfter()).isEqualByComparingTo("999.00");
+        }
+
+        try (LsmEngine reopened = new LsmEngine(directory, 10, 2, 4)) {
+            reopened.awaitBackgroundWork();
+            assertThat(reopened.scan(1, null, null).get(4).getBalanceAfter()).isEqualByComparingTo("999.00");
+        }
+    }
+
+    @Test
+    void shouldScanWhileCompactionReplacesRuns() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        // małe memtable i kompakcja przy 2 runach → runy są podmieniane i kasowane w trakcie odczytów
+        try (LsmEngine engine = new LsmEngine(directory, 20, 2, 4)) {
+            AtomicBoolean writing = new AtomicBoolean(true);
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            ExecutorService readers = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 4; i++) {
+                readers.submit(() -> {
+                    while (writing.get()) {
+                        try {
+                            engine.scan(1, null, null);
+                        } catch (RuntimeException e) {
+                            errors.add(e);
+                        }
+                    }
+                });
+            }
+            for (long id = 1; id <= 1000; id++) {
+                engine.append(transaction(id, id % 2, start.plusMinutes(id), id));
+            }
+            engine.flush();
+            writing.set(false);
+            readers.shutdown();
+            assertThat(readers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(errors).isEmpty();
+            assertThat(engine.getCompactions()).isPositive();
+            assertThat(engine.scan(1, null, null)).hasSize(500);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.dto.TraceResponse;
+import com.example.minibank2.dto.TraceSummaryResponse;
+import com.example.minibank2.trace.RequestTracer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTracerTest {
+
+    @Test
+    void shouldKeepSlowRequestsEvenWithoutSampling() {
+        // próg 0 ms → każde żądanie jest "wolne", losowanie wyłączone
+        RequestTracer tracer = new RequestTracer(true, 0.0, 0, 10, 100);
+
+        tracer.finish(tracer.begin("POST /accounts/transfer"), 200);
+
+        List<TraceSummaryResponse> traces = tracer.getTraces(10);
+        assertThat(traces).hasSize(1);
+        assertThat(traces.get(0).getRequest()).isEqualTo("POST /accounts/transfer");
+        assertThat(traces.get(0).getKeptBecause()).isEqualTo("slow");
+        assertThat(traces.get(0).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldDropFastUnsampledRequests() {
+        RequestTracer tracer = new RequestTracer(true, 0.0, 60_000, 10, 100);
+
+        tracer.finish(tracer.begin("GET /accounts/1"), 200);
+
+        assertThat(tracer.getTraces(10)).isEmpty();
+        assertThat(tracer.getTraced()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepOnlyNewestTracesUpToCapacity() {
+        RequestTracer tracer = new RequestTracer(true, 1.0, 60_000, 3, 100);
+
+        for (int i = 1; i <= 5; i++) {
+            tracer.finish(tracer.begin("GET /accounts/" + i), 200);
+        }
+
+        assertThat(tracer.getTraces(10)).extracting(TraceSummaryResponse::getRequest)
+                .containsExactly("GET /accounts/5", "GET /accounts/4", "GET /accounts/3");
+    }
+
+    @Test
+    void shouldRenderWaterfallWithRootSpan() {
+        RequestTracer tracer = new RequestTracer(true, 1.0, 60_000, 10, 100);
+        tracer.finish(tracer.begin("GET /transactions/7/last"), 404);
+        long id = tracer.getTraces(1).get(0).getId();
+
+        TraceResponse trace = tracer.getTrace(id).orElseThrow();
+        String waterfall = RequestTracer.waterfall(trace);
+
+        assertThat(trace.getSpans()).hasSize(1);
+        assertThat(trace.getSpans().get(0).getKind()).isEqualTo("http");
+        assertThat(waterfall).contains("GET /transactions/7/last").contains("-> 404").contains("|#");
+        assertThat(tracer.getTrace(id + 1)).isEmpty();
+    }
+
+    @Test
+    void shouldNotTraceWhenDisabled() {
+        RequestTracer tracer = new RequestTracer(false, 1.0, 0, 10, 100);
+
+        RequestTracer.Trace trace = tracer.begin("GET /accounts");
+        tracer.finish(trace, 200);
+
+        assertThat(trace).isNull();
+        assertThat(tracer.getTraces(10)).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.controller.AccountController;
+import com.example.minibank2.dto.EndpointResourceResponse;
+import com.example.minibank2.web.ResourceAccountingFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResourceAccountingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResourceAccountingFilter filter = new ResourceAccountingFilter(registry, true);
+
+    @Test
+    void shouldAttributeAllocationsToHandlerMethod() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new AccountController(null), "getAllAccounts");
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts");
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+                byte[][] garbage = new byte[16][];
+                for (int j = 0; j < garbage.length; j++) {
+                    garbage[j] = new byte[64 * 1024];
+                }
+                res.setContentLength(garbage.length);
+            });
+        }
+
+        List<EndpointResourceResponse> ranking = filter.getRanking("allocated");
+        assertThat(ranking).hasSize(1);
+        assertThat(ranking.get(0).getHandler()).isEqualTo("AccountController.getAllAccounts");
+        assertThat(ranking.get(0).getRequests()).isEqualTo(3);
+        assertThat(ranking.get(0).getAllocatedBytesPerRequest()).isGreaterThanOrEqualTo(16 * 64 * 1024);
+        assertThat(registry.find("minibank.request.cpu").tag("handler", "AccountController.getAllAccounts").timer())
+                .isNotNull();
+    }
+
+    @Test
+    void shouldSkipRequestsWithoutControllerHandler() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts/unknown"), new MockHttpServletResponse(),
+                (req, res) -> { });
+
+        assertThat(filter.getRanking("cpu")).isEmpty();
+        assertThatThrownBy(() -> filter.getRanking("wall")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
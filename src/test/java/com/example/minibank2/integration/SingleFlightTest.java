@@ -0,0 +1,157 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.dto.AccountResponse;
+import com.example.minibank2.entity.AccountSnapshot;
+import com.example.minibank2.entity.AccountType;
+import com.example.minibank2.exception.AccountNotFoundException;
+import com.example.minibank2.mapper.AccountMapper;
+import com.example.minibank2.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final AccountMapper accountMapper = new AccountMapper();
+
+    @Test
+    void shouldLoadOnceForConcurrentIdenticalCalls() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ZERO, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        // loader trzyma klucz, dopóki wszyscy pozostali nie dołączą jako oczekujący
+        Supplier<AccountSnapshot> loader = () -> {
+            loads.incrementAndGet();
+            awaitCoalesced(singleFlight, CALLERS - 1);
+            return snapshot(1L, 10_000L);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<AccountResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(
+                        () -> singleFlight.execute("accounts:1", loader, accountMapper::toAccountResponse)));
+            }
+
+            Set<AccountResponse> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<AccountResponse> future : futures) {
+                AccountResponse result = future.get(10, TimeUnit.SECONDS);
+                assertThat(result.getBalance()).isEqualByComparingTo("100.00");
+                distinct.add(result);
+            }
+
+            assertThat(loads).hasValue(1);
+            assertThat(singleFlight.getExecutions()).isEqualTo(1);
+            assertThat(singleFlight.getCoalesced()).isEqualTo(CALLERS - 1);
+            // każdy wywołujący dostał własne DTO zbudowane ze wspólnej migawki
+            assertThat(distinct).hasSize(CALLERS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateLoaderExceptionToCoalescedCallers() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ZERO, 100);
+        Supplier<AccountSnapshot> loader = () -> {
+            awaitCoalesced(singleFlight, 1);
+            throw new AccountNotFoundException("No accounts in database");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AccountSnapshot> first = executor.submit(() -> singleFlight.execute("accounts:x", loader));
+            Future<AccountSnapshot> second = executor.submit(() -> singleFlight.execute("accounts:x", loader));
+
+            for (Future<AccountSnapshot> future : List.of(first, second)) {
+                assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(AccountNotFoundException.class);
+            }
+            assertThat(singleFlight.getExecutions()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotLeakMutationsThroughFreshnessCache() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMinutes(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<AccountSnapshot> loader = () -> {
+            loads.incrementAndGet();
+            return snapshot(1L, 10_000L);
+        };
+
+        AccountResponse first = singleFlight.execute("accounts:1", loader, accountMapper::toAccountResponse);
+        first.setBalance(BigDecimal.ZERO);
+        AccountResponse second = singleFlight.execute("accounts:1", loader, accountMapper::toAccountResponse);
+
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getFreshHits()).isEqualTo(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void shouldReloadAfterFreshnessWindowExpires() throws InterruptedException {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(50), 100);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Long> loader = () -> (long) loads.incrementAndGet();
+
+        assertThat(singleFlight.execute("count:PLN", loader)).isEqualTo(1L);
+        assertThat(singleFlight.execute("count:PLN", loader)).isEqualTo(1L);
+
+        Thread.sleep(100);
+
+        assertThat(singleFlight.execute("count:PLN", loader)).isEqualTo(2L);
+        assertThat(singleFlight.getExecutions()).isEqualTo(2);
+        assertThat(singleFlight.getFreshHits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheWhenFreshnessIsDisabled() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ZERO, 100);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Long> loader = () -> (long) loads.incrementAndGet();
+
+        singleFlight.execute("count:PLN", loader);
+        singleFlight.execute("count:PLN", loader);
+
+        assertThat(loads).hasValue(2);
+        assertThat(singleFlight.getFreshHits()).isZero();
+        assertThat(singleFlight.getCoalescingRatio()).isZero();
+    }
+
+    private static AccountSnapshot snapshot(long id, long balanceMinor) {
+        return new AccountSnapshot(id, "Jan Kowalski", "PL0000000001", "PLN", balanceMinor, 2, 1,
+                "ACTIVE", AccountType.CHECKING, BigDecimal.ZERO, AccountSnapshot.NO_DATE);
+    }
+
+    private static void awaitCoalesced(SingleFlight singleFlight, long expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalesced() < expected) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Callers did not coalesce in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
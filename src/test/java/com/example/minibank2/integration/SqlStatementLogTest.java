@@ -0,0 +1,79 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.dto.SqlShapeStatsResponse;
+import com.example.minibank2.sql.SqlStatementLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementLogTest {
+
+    private SqlStatementLog log;
+
+    @AfterEach
+    void close() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    void shouldReplaceLiteralsAndCollapseInLists() {
+        String shape = SqlStatementLog.shape("select a1_0.id from account a1_0\n  where a1_0.owner = 'Jan ''K''' "
+                + "and a1_0.balance > 100.50 and a1_0.id in (?,?,?)");
+
+        assertThat(shape).isEqualTo("select a1_0.id from account a1_0 where a1_0.owner = ? "
+                + "and a1_0.balance > ? and a1_0.id in (?, ...)");
+    }
+
+    @Test
+    void shouldAggregateStatementsOfTheSameShape() {
+        log = new SqlStatementLog(true, 0.0, 60_000, 100, 10);
+
+        for (int i = 1; i <= 100; i++) {
+            log.record("delete from transaction where id = " + i, TimeUnit.MICROSECONDS.toNanos(i * 10L), false);
+        }
+        log.record("select count(*) from account", TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        List<SqlShapeStatsResponse> stats = log.getStats(10);
+        assertThat(stats).hasSize(2);
+        SqlShapeStatsResponse delete = stats.get(0);
+        assertThat(delete.getShape()).isEqualTo("delete from transaction where id = ?");
+        assertThat(delete.getCount()).isEqualTo(100);
+        assertThat(delete.getMaxMicros()).isEqualTo(1000);
+        assertThat(delete.getP99Micros()).isBetween(990L, 1000L);
+        assertThat(stats.get(1).getErrors()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFoldShapesOverTheLimitAndResetCounters() {
+        log = new SqlStatementLog(true, 0.0, 60_000, 100, 1);
+
+        log.record("select * from account where id = ?", 1_000, false);
+        log.record("select * from transaction where id = ?", 1_000, false);
+
+        assertThat(log.getStats(10)).extracting(SqlShapeStatsResponse::getShape)
+                .containsExactlyInAnyOrder("select * from account where id = ?", "(other shapes)");
+
+        log.reset();
+        assertThat(log.getStats(10)).isEmpty();
+    }
+
+    @Test
+    void shouldCaptureStatementsOnlyInsideCapture() {
+        log = new SqlStatementLog(true, 0.0, 60_000, 100, 10);
+
+        log.record("select 1", 1_000, false);
+        List<String> captured = SqlStatementLog.capture(() -> {
+            log.record("select * from account where id = ?", 1_000, false);
+            log.record("select count(*) from account", 1_000, false);
+        });
+        log.record("select 2", 1_000, false);
+
+        assertThat(captured).containsExactly("select * from account where id = ?", "select count(*) from account");
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.minibank2.integration;
+
+import com.example.minibank2.web.TrafficLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrafficLogTest {
+
+    private static byte[] write(List<TrafficLog.Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(bytes)) {
+            for (TrafficLog.Entry entry : entries) {
+                writer.write(entry);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TrafficLog.Entry> read(byte[] log) throws IOException {
+        List<TrafficLog.Entry> entries = new ArrayList<>();
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(new ByteArrayInputStream(log))) {
+            reader.forEachRemaining(entries::add);
+        }
+        return entries;
+    }
+
+    private static List<TrafficLog.Entry> sample() {
+        byte[] transfer = "{\"senderId\":1,\"receiverId\":300,\"amount\":12.50}".getBytes(StandardCharsets.UTF_8);
+        return List.of(
+                new TrafficLog.Entry(0, 850, 200, "POST", "/accounts", new long[0], 300, "{\"owner\":\"Ąna\"}".getBytes(StandardCharsets.UTF_8)),
+                new TrafficLog.Entry(1_200, 1_900, 200, "POST", "/accounts/transfer", new long[]{1, 300}, 0, transfer),
+                new TrafficLog.Entry(1_200, 40, 503, "GET", "/transactions/300/history?page=0&size=20", new long[]{300}, 0, new byte[0]),
+                new TrafficLog.Entry(5_000_000_000L, 120, 404, "GET", "/accounts/9999999999", new long[]{9_999_999_999L}, 0, new byte[0]));
+    }
+
+    @Test
+    void shouldRoundTripEntries() throws Exception {
+        List<TrafficLog.Entry> entries = sample();
+
+        List<TrafficLog.Entry> read = read(write(entries));
+
+        assertThat(read).hasSize(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            TrafficLog.Entry expected = entries.get(i);
+            TrafficLog.Entry actual = read.get(i);
+            assertThat(actual.offsetMicros()).isEqualTo(expected.offsetMicros());
+            assertThat(actual.durationMicros()).isEqualTo(expected.durationMicros());
+            assertThat(actual.status()).isEqualTo(expected.status());
+            assertThat(actual.method()).isEqualTo(expected.method());
+            assertThat(actual.uri()).isEqualTo(expected.uri());
+            assertThat(actual.accounts()).containsExactly(expected.accounts());
+            assertThat(actual.createdAccountId()).isEqualTo(expected.createdAccountId());
+            assertThat(actual.body()).isEqualTo(expected.body());
+        }
+    }
+
+    @Test
+    void shouldStopAtLastCompleteEntryWhenTailIsTruncated() throws Exception {
+        byte[] log = write(sample());
+
+        // urwany ostatni rekord (np. proces zabity w trakcie zapisu)
+        List<TrafficLog.Entry> read = read(Arrays.copyOf(log, log.length - 3));
+
+        assertThat(read).hasSize(3);
+        assertThat(read.get(2).uri()).isEqualTo("/transactions/300/history?page=0&size=20");
+    }
+
+    @Test
+    void shouldRejectForeignFile() {
+        byte[] notALog = "GET /accounts HTTP/1.1".getBytes(StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> new TrafficLog.Reader(new ByteArrayInputStream(notALog)))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -1,35 +1,64 @@
 package com.example.minibank2.integration;
 
+import com.example.minibank2.dto.ReconciliationResponse;
+import com.example.minibank2.dto.TransferRequest;
 import com.example.minibank2.entity.Account;
 import com.example.minibank2.entity.AccountType;
 import com.example.minibank2.entity.Transaction;
 import com.example.minibank2.entity.TransactionType;
+import com.example.minibank2.job.ReconciliationJob;
 import com.example.minibank2.repository.AccountRepository;
+import com.example.minibank2.repository.ReconciliationWatermarkRepository;
 import com.example.minibank2.repository.TransactionRepository;
+import com.example.minibank2.service.DailyAggregateService;
+import com.example.minibank2.service.RecentTransactionsBuffer;
+import com.example.minibank2.service.TransactionService;
 import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.sessionId;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@AutoConfigureObservability // eksport metryk (/actuator/prometheus) jest w testach domyślnie wyłączony
 
 public class TransactionControllerTest {
     @LocalServerPort
@@ -41,6 +70,27 @@ public class TransactionControllerTest {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DailyAggregateService dailyAggregateService;
+
+    @Autowired
+    private RecentTransactionsBuffer recentTransactionsBuffer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ReconciliationWatermarkRepository watermarkRepository;
+
     @BeforeEach
     void setup() {
         RestAssured.port = port;
@@ -365,4 +415,920 @@ public class TransactionControllerTest {
                 .body("", hasSize(transactionsAboveAmount.size()))
                 .body("amount", everyItem(greaterThan(amount.floatValue())));
     }
+
+    // Ostatnie transakcje z bufora w pamięci muszą uwzględniać nowe wpłaty
+    @Test
+    void shouldReturnNewDepositInLastTransactionsAfterBufferWasLoaded() {
+        Account account = createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        );
+        Account savedAccount = accountRepository.save(account);
+
+        // pierwszy odczyt ładuje (pusty) bufor konta
+        given()
+                .queryParam("limit", 5)
+                .when()
+                .get("/transactions/{accountId}/last", savedAccount.getId())
+                .then()
+                .statusCode(404);
+
+        given()
+                .queryParam("amount", "150.50")
+                .when()
+                .post("/accounts/{id}/deposit", savedAccount.getId())
+                .then()
+                .statusCode(200);
+
+        given()
+                .queryParam("limit", 5)
+                .when()
+                .get("/transactions/{accountId}/last", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].type", equalTo(TransactionType.DEPOSIT.name()))
+                .body("[0].amount", equalTo(150.5F));
+    }
+
+    // Odczyt z bazy po commicie, ale przed afterCommit – późniejsze dołożenie tej samej transakcji nie dubluje wiersza
+    @Test
+    void shouldNotDuplicateTransactionAppendedAfterBufferLoadedIt() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        ));
+        Transaction saved = transactionRepository.save(createTransaction(
+                account, TransactionType.DEPOSIT, BigDecimal.valueOf(100), LocalDateTime.of(2025, 2, 6, 10, 0)));
+
+        assertThat(recentTransactionsBuffer.latest(account.getId(), 5)).get().asList().hasSize(1);
+        recentTransactionsBuffer.onRecorded(saved);
+
+        given()
+                .queryParam("limit", 5)
+                .when()
+                .get("/transactions/{accountId}/last", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].id", equalTo(saved.getId().intValue()));
+    }
+
+    // limit=0 jak przed buforem: 404 dla konta bez transakcji, inaczej pusta lista; ujemny limit to 400
+    @Test
+    void shouldKeepContractForZeroAndNegativeLimitOfLastTransactions() {
+        Account empty = accountRepository.save(createAccount(
+                "Jan Kowalski", BigDecimal.valueOf(100), AccountType.CHECKING, "USD", BigDecimal.ZERO, LocalDate.of(2025, 2, 5)
+        ));
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        ));
+        transactionRepository.saveAll(createTestTransactions(account));
+
+        given().queryParam("limit", 0).when().get("/transactions/{accountId}/last", empty.getId())
+                .then().statusCode(404);
+        given().queryParam("limit", 0).when().get("/transactions/{accountId}/last", account.getId())
+                .then().statusCode(200).body("", hasSize(0));
+        given().queryParam("limit", -1).when().get("/transactions/{accountId}/last", account.getId())
+                .then().statusCode(400);
+    }
+
+    // Podsumowania dzienne/miesięczne po przeliczeniu historii (backfill)
+    @Test
+    void shouldReturnDailyAndMonthlyAggregatesAfterBackfill() {
+        Account account = createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        );
+        Account savedAccount = accountRepository.save(account);
+        transactionRepository.saveAll(createTestTransactions(savedAccount));
+        transactionRepository.save(createTransaction(savedAccount, TransactionType.WITHDRAW,
+                BigDecimal.valueOf(250), LocalDateTime.of(2024, 3, 3, 18, 0)));
+
+        given()
+                .when()
+                .post("/admin/aggregates/backfill")
+                .then()
+                .statusCode(200);
+
+        given()
+                .queryParam("date", "2024-03-03")
+                .when()
+                .get("/transactions/{accountId}/sum/day", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body(equalTo("1250.00"));
+
+        given()
+                .queryParam("from", "2024-03")
+                .queryParam("to", "2024-03")
+                .when()
+                .get("/transactions/{accountId}/aggregates/monthly", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].depositCount", equalTo(1))
+                .body("[0].withdrawCount", equalTo(1))
+                .body("[0].netAmount", equalTo(750.00F));
+    }
+
+    // Saldo na dany moment – przed migracją (z bieżącego salda) i po migracji balanceAfter
+    @Test
+    void shouldReturnBalanceAtPointInTimeBeforeAndAfterMigration() {
+        Account account = createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        );
+        Account savedAccount = accountRepository.save(account);
+        transactionRepository.saveAll(createTestTransactions(savedAccount));
+        // saldo początkowe 300: -500 (2020) +2000 (2021) -300 (2023) +1000 (2024) = 2500
+        String at = LocalDateTime.of(2022, 1, 1, 0, 0).toString();
+
+        given()
+                .queryParam("at", at)
+                .when()
+                .get("/accounts/{id}/balance-at", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body(equalTo("1800.00"));
+
+        given()
+                .when()
+                .post("/admin/migrations/balance-after")
+                .then()
+                .statusCode(200);
+
+        given()
+                .queryParam("at", at)
+                .when()
+                .get("/accounts/{id}/balance-at", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body(equalTo("1800.00"));
+
+        given()
+                .when()
+                .get("/transactions/{accountId}", savedAccount.getId())
+                .then()
+                .statusCode(200)
+                .body("[0].balanceAfter", equalTo(2500.00F))
+                .body("[3].balanceAfter", equalTo(-200.00F));
+    }
+
+    // Dni przeniesione do archiwum nie tracą podsumowań po ponownym przeliczeniu
+    @Test
+    void shouldKeepDailyAggregatesOfArchivedDaysAfterBackfill() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2019, 1, 5)));
+        // miesiąc bez segmentu z innych testów
+        transactionRepository.saveAll(List.of(
+                createTransaction(account, TransactionType.DEPOSIT, new BigDecimal("300.00"), LocalDateTime.of(2019, 5, 10, 9, 0)),
+                createTransaction(account, TransactionType.WITHDRAW, new BigDecimal("50.25"), LocalDateTime.of(2019, 5, 10, 17, 0)),
+                createTransaction(account, TransactionType.DEPOSIT, new BigDecimal("20.00"), LocalDateTime.of(2019, 5, 11, 9, 0))));
+
+        given().when().post("/admin/archive/run").then().statusCode(200);
+        assertThat(transactionRepository.findByAccountId(account.getId())).isEmpty();
+        given().queryParam("amount", "10.00").when().post("/accounts/{id}/deposit", account.getId())
+                .then().statusCode(200);
+
+        given().when().post("/admin/aggregates/backfill").then().statusCode(200);
+
+        given()
+                .queryParam("from", "2019-05-01")
+                .queryParam("to", "2019-05-31")
+                .when()
+                .get("/transactions/{accountId}/aggregates/daily", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(2))
+                .body("[0].from", equalTo("2019-05-10"))
+                .body("[0].depositCount", equalTo(1))
+                .body("[0].depositSum", equalTo(300.00F))
+                .body("[0].withdrawCount", equalTo(1))
+                .body("[0].withdrawSum", equalTo(50.25F))
+                .body("[1].from", equalTo("2019-05-11"))
+                .body("[1].depositSum", equalTo(20.00F));
+
+        LocalDate today = LocalDate.now();
+        given()
+                .queryParam("from", today.toString())
+                .queryParam("to", today.toString())
+                .when()
+                .get("/transactions/{accountId}/aggregates/daily", account.getId())
+                .then()
+                .statusCode(200)
+                .body("[0].depositCount", equalTo(1))
+                .body("[0].depositSum", equalTo(10.00F));
+    }
+
+    // Kwota z większą liczbą miejsc po przecinku niż waluta konta jest odrzucana, a nie zaokrąglana –
+    // saldo i wiersz historii zawsze zawierają tę samą kwotę
+    @Test
+    void shouldRejectAmountFinerThanCurrencyOfJpyAccount() {
+        Account yen = accountRepository.save(createAccount(
+                "Kenji Sato", new BigDecimal("1000"), AccountType.CHECKING, "JPY", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)));
+
+        given().queryParam("amount", "0.50").when().post("/accounts/{id}/deposit", yen.getId())
+                .then().statusCode(400);
+        given().queryParam("amount", "250.00").when().post("/accounts/{id}/deposit", yen.getId())
+                .then().statusCode(200)
+                .body("balance", equalTo(1250));
+
+        List<Transaction> history = transactionRepository.findByAccountId(yen.getId());
+        assertThat(history).hasSize(1);
+        assertThat(history.get(0).getAmount()).isEqualByComparingTo("250");
+        assertThat(history.get(0).getBalanceAfter()).isEqualByComparingTo("1250");
+        assertThat(accountRepository.findById(yen.getId()).orElseThrow().getBalance()).isEqualByComparingTo("1250");
+    }
+
+    @Test
+    void shouldTransferSameNominalAmountBetweenPlnAndJpyAccounts() {
+        Account zloty = accountRepository.save(createAccount(
+                "Jan Kowalski", new BigDecimal("100.00"), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)));
+        Account yen = accountRepository.save(createAccount(
+                "Kenji Sato", new BigDecimal("1000"), AccountType.CHECKING, "JPY", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)));
+
+        // 1.50 nie da się zapisać w jenach – nic nie może zostać ani obciążone, ani uznane
+        given().contentType(ContentType.JSON).body(new TransferRequest(zloty.getId(), yen.getId(), new BigDecimal("1.50")))
+                .when().post("/transactions/transfer")
+                .then().statusCode(400);
+        assertThat(accountRepository.findById(zloty.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+        assertThat(accountRepository.findById(yen.getId()).orElseThrow().getBalance()).isEqualByComparingTo("1000");
+        assertThat(transactionRepository.findByAccountId(zloty.getId())).isEmpty();
+
+        given().contentType(ContentType.JSON).body(new TransferRequest(zloty.getId(), yen.getId(), new BigDecimal("2.00")))
+                .when().post("/transactions/transfer")
+                .then().statusCode(200);
+        assertThat(accountRepository.findById(zloty.getId()).orElseThrow().getBalance()).isEqualByComparingTo("98.00");
+        assertThat(accountRepository.findById(yen.getId()).orElseThrow().getBalance()).isEqualByComparingTo("1002");
+        assertThat(transactionRepository.findByAccountId(zloty.getId()).get(0).getAmount()).isEqualByComparingTo("2");
+        assertThat(transactionRepository.findByAccountId(yen.getId()).get(0).getAmount()).isEqualByComparingTo("2");
+    }
+
+    // KWD ma 3 miejsca po przecinku – historia, saldo na moment i podsumowanie dnia ich nie obcinają
+    @Test
+    void shouldKeepThreeDecimalPlacesOfKwdInHistoryAndAggregates() {
+        Account dinar = accountRepository.save(createAccount(
+                "Ali Hassan", new BigDecimal("100.000"), AccountType.CHECKING, "KWD", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)));
+
+        given().queryParam("amount", "0.0005").when().post("/accounts/{id}/deposit", dinar.getId())
+                .then().statusCode(400);
+        given().queryParam("amount", "0.125").when().post("/accounts/{id}/deposit", dinar.getId())
+                .then().statusCode(200);
+
+        Transaction posted = transactionRepository.findByAccountId(dinar.getId()).get(0);
+        assertThat(posted.getAmount()).isEqualTo(new BigDecimal("0.125"));
+        assertThat(posted.getBalanceAfter()).isEqualTo(new BigDecimal("100.125"));
+        assertThat(accountRepository.findById(dinar.getId()).orElseThrow().getBalance()).isEqualTo(new BigDecimal("100.125"));
+
+        String balanceAt = given().queryParam("at", LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS).toString())
+                .when().get("/accounts/{id}/balance-at", dinar.getId())
+                .then().statusCode(200)
+                .extract().asString();
+        assertThat(new BigDecimal(balanceAt.trim())).isEqualTo(new BigDecimal("100.125"));
+
+        assertThat(dailyAggregateService.getTransactionSumForDay(dinar.getId(), posted.getDateTime().toLocalDate()))
+                .isEqualTo(new BigDecimal("0.125"));
+    }
+
+    // Segmenty archiwum zapisują skalę kwoty – trzecie miejsce KWD przeżywa archiwizację
+    @Test
+    void shouldKeepKwdAmountsInArchivedSegments() {
+        Account dinar = accountRepository.save(createAccount(
+                "Ali Hassan", new BigDecimal("100.125"), AccountType.CHECKING, "KWD", BigDecimal.ZERO, LocalDate.of(2019, 1, 1)));
+        Transaction old = createTransaction(dinar, TransactionType.DEPOSIT, new BigDecimal("12.345"),
+                LocalDateTime.of(2019, 7, 15, 10, 0)); // miesiąc bez segmentu z innych testów
+        old.setBalanceAfter(new BigDecimal("100.125"));
+        transactionRepository.save(old);
+
+        given().when().post("/admin/archive/run").then().statusCode(200);
+        assertThat(transactionRepository.findByAccountId(dinar.getId())).isEmpty();
+
+        given()
+                .when()
+                .get("/transactions/{accountId}", dinar.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].amount", equalTo(12.345F))
+                .body("[0].balanceAfter", equalTo(100.125F));
+    }
+
+    // Odczyt przez SingleFlight: współdzielona jest migawka konta, każde żądanie dostaje własne DTO
+    @Test
+    void shouldServeHighestBalanceAndOldestAccountFromSharedSnapshot() {
+        Account richest = accountRepository.save(createAccount("Snapshot Richest", new BigDecimal("987654.32"),
+                AccountType.SAVINGS, "PLN", new BigDecimal("0.0150"), LocalDate.of(2020, 1, 1)));
+        accountRepository.save(createAccount("Snapshot Oldest", new BigDecimal("10.00"),
+                AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(1999, 12, 31)));
+
+        given()
+                .when()
+                .get("/accounts/highest-balance")
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(richest.getId().intValue()))
+                .body("owner", equalTo("Snapshot Richest"))
+                .body("balance", equalTo(987654.32f))
+                .body("accountType", equalTo("SAVINGS"))
+                .body("createdAt", equalTo("2020-01-01"));
+
+        given()
+                .when()
+                .get("/accounts/oldest")
+                .then()
+                .statusCode(200)
+                .body("owner", equalTo("Snapshot Oldest"))
+                .body("createdAt", equalTo("1999-12-31"));
+    }
+
+    // Metryki w formacie Prometheus: czasy serwisów, błędy, kwoty przelewów, pula połączeń;
+    //    waluta spoza ISO 4217 nie tworzy własnej serii
+    @Test
+    void shouldExposeMetricsInPrometheusFormat() {
+        Account sender = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(300), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        Account receiver = accountRepository.save(createAccount(
+                "Jan Kowalski", BigDecimal.valueOf(50), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        Account freeText = accountRepository.save(createAccount(
+                "Ewa Mazur", BigDecimal.valueOf(300), AccountType.CHECKING, "Zloty1", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(sender.getId());
+        request.setReceiverId(receiver.getId());
+        request.setAmount(new BigDecimal("25.00"));
+        given().contentType(ContentType.JSON).body(request).when().post("/accounts/transfer").then().statusCode(200);
+        request.setSenderId(freeText.getId());
+        given().contentType(ContentType.JSON).body(request).when().post("/accounts/transfer").then().statusCode(200);
+        given().when().get("/accounts/{id}", Long.MAX_VALUE).then().statusCode(404);
+
+        given()
+                .when()
+                .get("/actuator/prometheus")
+                .then()
+                .statusCode(200)
+                .body(containsString("minibank_service_seconds"))
+                .body(containsString("minibank_errors_total{"))
+                .body(containsString("exception=\"AccountNotFoundException\""))
+                .body(containsString("minibank_transfer_amount_count{"))
+                .body(containsString("currency=\"PLN\""))
+                .body(containsString("currency=\"other\""))
+                .body(not(containsString("currency=\"Zloty1\"")))
+                .body(containsString("hikaricp_connections"));
+    }
+
+    // Pierwsze księgowania dnia równolegle – upsert podsumowania zamiast insertu kończącego się naruszeniem unikalności
+    @Test
+    void shouldCountConcurrentFirstPostingsOfTheDay() throws Exception {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(100), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        int postings = 8;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CyclicBarrier start = new CyclicBarrier(postings);
+        ExecutorService executor = Executors.newFixedThreadPool(postings);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < postings; i++) {
+                results.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    transactionTemplate.executeWithoutResult(status -> dailyAggregateService.record(createTransaction(
+                            account, TransactionType.DEPOSIT, BigDecimal.TEN, LocalDateTime.of(2024, 5, 10, 12, 0))));
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        given()
+                .queryParam("from", "2024-05-10")
+                .queryParam("to", "2024-05-10")
+                .when()
+                .get("/transactions/{accountId}/aggregates/daily", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].depositCount", equalTo(postings))
+                .body("[0].netAmount", equalTo(80.00F));
+    }
+
+    // Przeliczenie podsumowań w trakcie wpłat: bierze blokadę konta, więc nie kończy się duplikatem klucza
+    // ani nie gubi księgowania zatwierdzonego między odczytem historii a zapisem
+    @Test
+    void shouldBackfillAggregatesWhileDepositsAreRunning() throws Exception {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(100), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        int deposits = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    given().when().post("/admin/aggregates/backfill").then().statusCode(200);
+                }
+                return null;
+            }));
+            for (int i = 0; i < deposits; i++) {
+                results.add(executor.submit(() -> {
+                    given().queryParam("amount", "5.00").when().post("/accounts/{id}/deposit", account.getId())
+                            .then().statusCode(200);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LocalDate today = LocalDate.now();
+        given()
+                .queryParam("from", today.toString())
+                .queryParam("to", today.toString())
+                .when()
+                .get("/transactions/{accountId}/aggregates/daily", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].depositCount", equalTo(deposits))
+                .body("[0].depositSum", equalTo(100.00F));
+    }
+
+    // Przeliczenie czeka na blokadę wiersza konta trzymaną przez operację na saldzie
+    @Test
+    void shouldWaitForAccountLockBeforeBackfillingAggregates() throws Exception {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(100), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        given().when().post("/admin/aggregates/backfill").then().statusCode(200); // rozgrzewka – drugie wywołanie jest szybkie
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong releasedAt = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder = executor.submit(() -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    accountRepository.findByIdForUpdate(account.getId());
+                    locked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    releasedAt.set(System.nanoTime()); // tuż przed commitem zwalniającym blokadę
+                });
+                return null;
+            });
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<Long> backfill = executor.submit(() -> {
+                given().when().post("/admin/aggregates/backfill").then().statusCode(200);
+                return System.nanoTime();
+            });
+            Thread.sleep(500); // mniej niż domyślny czas oczekiwania H2 na blokadę
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+
+            assertThat(backfill.get(10, TimeUnit.SECONDS)).isGreaterThan(releasedAt.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // balanceAfter przy równoległych wpłatach – każda widzi saldo po poprzedniej (blokada wiersza konta)
+    @Test
+    void shouldWriteDistinctBalanceAfterForConcurrentDeposits() throws Exception {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(100), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        int deposits = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < deposits; i++) {
+                statuses.add(executor.submit(() -> given().queryParam("amount", "10")
+                        .when().post("/accounts/{id}/deposit", account.getId()).statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<BigDecimal> balancesAfter = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getAccount().getId().equals(account.getId()))
+                .map(Transaction::getBalanceAfter)
+                .sorted()
+                .toList();
+        assertThat(balancesAfter).hasSize(deposits);
+        for (int i = 0; i < deposits; i++) {
+            assertThat(balancesAfter.get(i)).isEqualByComparingTo(BigDecimal.valueOf(110 + 10L * i));
+        }
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("300.00");
+    }
+
+    // zapis transakcji bez blokady wiersza konta jest błędem programisty, nie cichym wyścigiem
+    @Test
+    void shouldRejectRecordingTransactionForUnlockedAccount() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(100), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            Account unlocked = accountRepository.findById(account.getId()).orElseThrow();
+            unlocked.deposit(BigDecimal.TEN);
+            transactionService.recordDeposit(unlocked, BigDecimal.TEN);
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void shouldAccrueInterestOnceForSavingsAccountPerDay() {
+        // 2024 ma 366 dni: 36600 * 0.02 / 366 = 2.00 dziennie
+        Account savings = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(36600), AccountType.SAVINGS, "PLN", BigDecimal.valueOf(0.02), LocalDate.of(2024, 1, 1)
+        ));
+
+        given()
+                .queryParam("date", "2024-03-04")
+                .when()
+                .post("/admin/interest/accrue")
+                .then()
+                .statusCode(200)
+                .body("postings", equalTo(1))
+                .body("totalInterest", equalTo(2.00F));
+
+        // ponowne uruchomienie za ten sam dzień nic nie księguje
+        given()
+                .queryParam("date", "2024-03-04")
+                .when()
+                .post("/admin/interest/accrue")
+                .then()
+                .statusCode(200)
+                .body("postings", equalTo(0))
+                .body("chunksSkipped", greaterThan(0));
+
+        assertThat(accountRepository.findById(savings.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("36602.00");
+
+        given()
+                .queryParam("date", "2024-03-04")
+                .when()
+                .get("/transactions/{accountId}/sum/day", savings.getId())
+                .then()
+                .statusCode(200)
+                .body(equalTo("2.00"));
+    }
+
+    @Test
+    void shouldRejectInterestAccrualForTodayOrFutureDay() {
+        Account savings = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(36600), AccountType.SAVINGS, "PLN", BigDecimal.valueOf(0.02), LocalDate.of(2024, 1, 1)
+        ));
+
+        for (LocalDate date : List.of(LocalDate.now(), LocalDate.now().plusDays(1))) {
+            given()
+                    .queryParam("date", date.toString())
+                    .when()
+                    .post("/admin/interest/accrue")
+                    .then()
+                    .statusCode(400);
+        }
+
+        assertThat(accountRepository.findById(savings.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("36600.00");
+        assertThat(transactionRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepBalanceChainWhenInterestIsAccruedForPastDay() {
+        // 36600 * 0.02 / 366 = 2.00; wpłata z dzisiaj jest późniejsza niż księgowanie odsetek za 2024-03-05
+        Account savings = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(36600), AccountType.SAVINGS, "PLN", BigDecimal.valueOf(0.02), LocalDate.of(2024, 1, 1)
+        ));
+        given().queryParam("amount", "100").when().post("/accounts/{id}/deposit", savings.getId()).then().statusCode(200);
+
+        given()
+                .queryParam("date", "2024-03-05")
+                .when()
+                .post("/admin/interest/accrue")
+                .then()
+                .statusCode(200)
+                .body("totalInterest", equalTo(2.00F));
+
+        given()
+                .when()
+                .get("/transactions/{accountId}", savings.getId())
+                .then()
+                .statusCode(200)
+                .body("[0].type", equalTo("DEPOSIT"))
+                .body("[0].balanceAfter", equalTo(36702.00F))
+                .body("[1].type", equalTo("INTEREST"))
+                .body("[1].balanceAfter", equalTo(36602.00F));
+
+        given()
+                .queryParam("at", LocalDateTime.of(2024, 3, 6, 0, 0).toString())
+                .when()
+                .get("/accounts/{id}/balance-at", savings.getId())
+                .then()
+                .statusCode(200)
+                .body(equalTo("36602.00"));
+
+        given()
+                .queryParam("mode", "FULL")
+                .when()
+                .post("/admin/reconciliation")
+                .then()
+                .statusCode(200)
+                .body("discrepancies", hasSize(0));
+    }
+
+    @Test
+    void shouldReportBalanceThatDoesNotMatchPostings() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(1000), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        given().queryParam("amount", "250").when().post("/accounts/{id}/deposit", account.getId()).then().statusCode(200);
+        given().queryParam("amount", "100").when().post("/accounts/{id}/withdraw", account.getId()).then().statusCode(200);
+
+        given()
+                .queryParam("mode", "FULL")
+                .when()
+                .post("/admin/reconciliation")
+                .then()
+                .statusCode(200)
+                .body("accountsChecked", equalTo(1))
+                .body("discrepancies", hasSize(0));
+
+        // zgubiona aktualizacja salda: saldo zmienione bez księgowania
+        Account stored = accountRepository.findById(account.getId()).orElseThrow();
+        stored.setBalance(stored.getBalance().subtract(BigDecimal.valueOf(100)));
+        accountRepository.save(stored);
+
+        given()
+                .when()
+                .post("/admin/reconciliation")
+                .then()
+                .statusCode(200)
+                .body("mode", equalTo("INCREMENTAL"))
+                .body("discrepancies", hasSize(1))
+                .body("discrepancies[0].accountId", equalTo(account.getId().intValue()))
+                .body("discrepancies[0].expectedBalance", equalTo(1150.00F))
+                .body("discrepancies[0].difference", equalTo(-100.00F));
+    }
+
+    @Test
+    void shouldKeepOpenDiscrepancyAcrossRestartOfReconciliationJob() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(1000), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 1)
+        ));
+        given().queryParam("amount", "250").when().post("/accounts/{id}/deposit", account.getId()).then().statusCode(200);
+
+        Account stored = accountRepository.findById(account.getId()).orElseThrow();
+        stored.setBalance(stored.getBalance().subtract(BigDecimal.valueOf(100)));
+        accountRepository.save(stored);
+
+        given()
+                .when()
+                .post("/admin/reconciliation")
+                .then()
+                .statusCode(200)
+                .body("discrepancies", hasSize(1));
+        assertThat(watermarkRepository.findById("ledger").orElseThrow().getOpenDiscrepancies())
+                .contains(account.getId());
+
+        // nowa instancja zadania (jak po restarcie), bez zakładki – konto wraca tylko z zapisanej listy rozjazdów
+        ReconciliationJob restarted = new ReconciliationJob(jdbcTemplate, namedJdbcTemplate, transactionManager,
+                watermarkRepository, 2, 500, 50000, 0);
+        ReconciliationResponse report = restarted.run(ReconciliationJob.Mode.INCREMENTAL);
+        assertThat(report.getDiscrepancies())
+                .extracting(discrepancy -> discrepancy.getAccountId())
+                .containsExactly(account.getId());
+
+        // naprawione saldo zamyka rozjazd
+        stored = accountRepository.findById(account.getId()).orElseThrow();
+        stored.setBalance(stored.getBalance().add(BigDecimal.valueOf(100)));
+        accountRepository.save(stored);
+        assertThat(restarted.run(ReconciliationJob.Mode.INCREMENTAL).getDiscrepancies()).isEmpty();
+        assertThat(watermarkRepository.findById("ledger").orElseThrow().getOpenDiscrepancies())
+                .doesNotContain(account.getId());
+    }
+
+    @Test
+    void shouldWriteCompressedMonthlyStatementPerAccount() throws Exception {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2025, 2, 5)
+        ));
+        transactionRepository.saveAll(createTestTransactions(account));
+
+        given()
+                .queryParam("month", "2024-03")
+                .queryParam("format", "CSV")
+                .when()
+                .post("/admin/statements")
+                .then()
+                .statusCode(200)
+                .body("statements", equalTo(1))
+                .body("rows", equalTo(1));
+
+        Path statement = Path.of("target/statements/2024-03", account.getId() + ".csv.gz");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(statement)), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertThat(lines).hasSize(2);
+            assertThat(lines.get(1)).contains("2024-03-03T15:30", "DEPOSIT", "1000.00");
+        }
+    }
+
+    @Test
+    void shouldMergeArchivedAndRecentTransactionsInHistory() {
+        Account account = accountRepository.save(createAccount(
+                "Anna Nowak", BigDecimal.valueOf(2500), AccountType.SAVINGS, "USD", BigDecimal.valueOf(0.02), LocalDate.of(2020, 1, 5)
+        ));
+        transactionRepository.saveAll(createTestTransactions(account));
+
+        // wszystkie 4 transakcje są starsze niż horyzont (24 miesiące) – trafiają do segmentów
+        given()
+                .when()
+                .post("/admin/archive/run")
+                .then()
+                .statusCode(200)
+                .body("rowsArchived", equalTo(4))
+                .body("rowsDeleted", equalTo(4));
+        given().queryParam("amount", "100").when().post("/accounts/{id}/deposit", account.getId()).then().statusCode(200);
+        assertThat(transactionRepository.findByAccountId(account.getId())).hasSize(1);
+
+        given()
+                .when()
+                .get("/transactions/{accountId}", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(5))
+                .body("[0].amount", equalTo(100.00F))
+                .body("[4].type", equalTo(TransactionType.WITHDRAW.name()))
+                .body("[4].amount", equalTo(500.00F));
+
+        given()
+                .queryParam("from", "2021-01-01T00:00:00")
+                .queryParam("to", "2023-12-31T23:59:59")
+                .when()
+                .get("/transactions/{accountId}/between", account.getId())
+                .then()
+                .statusCode(200)
+                .body("", hasSize(2))
+                .body("[0].dateTime", startsWith("2021-03-01"));
+    }
+
+    @Test
+    void shouldAnswerAnalyticsFromSnapshotUpdatedByWritePath() {
+        Account first = accountRepository.save(createAccount(
+                "Ewa Lis", BigDecimal.valueOf(1500), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 10)
+        ));
+        Account second = accountRepository.save(createAccount(
+                "Ewa Lis", BigDecimal.valueOf(250), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 1, 20)
+        ));
+        Account third = accountRepository.save(createAccount(
+                "Jan Kos", BigDecimal.valueOf(4000), AccountType.SAVINGS, "EUR", BigDecimal.valueOf(0.02), LocalDate.of(2024, 2, 1)
+        ));
+        transactionRepository.saveAll(createTestTransactions(first));
+
+        // dane zapisane z pominięciem serwisów – migawkę wczytujemy z bazy
+        given().when().post("/admin/analytics/rebuild").then().statusCode(200)
+                .body("accounts", equalTo(3))
+                .body("transactions", equalTo(4))
+                .body("currencies", equalTo(2));
+
+        // dalsze zmiany trafiają do migawki ze ścieżki zapisu
+        given().queryParam("amount", "100").when().post("/accounts/{id}/deposit", second.getId()).then().statusCode(200);
+        given().when().delete("/accounts/{id}", third.getId()).then().statusCode(200);
+
+        given()
+                .when()
+                .get("/analytics/balances/by-currency")
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].currency", equalTo("PLN"))
+                .body("[0].accounts", equalTo(2))
+                .body("[0].totalBalance", equalTo(1850.00F))
+                .body("[0].averageBalance", equalTo(925.00F));
+
+        given()
+                .queryParam("bucket", "1000")
+                .queryParam("currency", "PLN")
+                .when()
+                .get("/analytics/balances/histogram")
+                .then()
+                .statusCode(200)
+                .body("", hasSize(2))
+                .body("[0].from", equalTo(0.00F))
+                .body("[0].accounts", equalTo(1))
+                .body("[1].from", equalTo(1000.00F))
+                .body("[1].accounts", equalTo(1));
+
+        given()
+                .when()
+                .get("/analytics/accounts/created-per-month")
+                .then()
+                .statusCode(200)
+                .body("", hasSize(1))
+                .body("[0].month", equalTo("2024-01"))
+                .body("[0].accounts", equalTo(2));
+
+        given()
+                .queryParam("currency", "PLN")
+                .when()
+                .get("/analytics/transactions/volume-per-month")
+                .then()
+                .statusCode(200)
+                .body("", hasSize(5))
+                .body("[0].month", equalTo("2020-03"))
+                .body("[0].type", equalTo(TransactionType.WITHDRAW.name()))
+                .body("[4].type", equalTo(TransactionType.DEPOSIT.name()))
+                .body("[4].total", equalTo(100.00F));
+
+        given()
+                .queryParam("accountId", first.getId())
+                .queryParam("above", "500")
+                .when()
+                .get("/analytics/transactions/amounts")
+                .then()
+                .statusCode(200)
+                .body("transactions", equalTo(4))
+                .body("total", equalTo(3800.00F))
+                .body("min", equalTo(300.00F))
+                .body("max", equalTo(2000.00F))
+                .body("transactionsAbove", equalTo(2));
+
+        given()
+                .queryParam("limit", "1")
+                .when()
+                .get("/analytics/balances/top-owners")
+                .then()
+                .statusCode(200)
+                .body("[0].owner", equalTo("Ewa Lis"))
+                .body("[0].accounts", equalTo(2));
+
+        given()
+                .queryParam("bucket", "0")
+                .when()
+                .get("/analytics/balances/histogram")
+                .then()
+                .statusCode(400);
+    }
+
+    // Bieżące saldo /accounts/{id}/balance z tablicy sald poza stertą
+    @Test
+    void shouldServeBalanceFromOffHeapTableUpdatedAfterCommit() {
+        Account sender = accountRepository.save(createAccount(
+                "Ola Mazur", BigDecimal.valueOf(300), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 3, 1)
+        ));
+        Account receiver = accountRepository.save(createAccount(
+                "Adam Mazur", BigDecimal.valueOf(50), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 3, 1)
+        ));
+
+        // pierwszy odczyt wczytuje saldo z bazy, drugi trafia w tablicę
+        given().when().get("/accounts/{id}/balance", sender.getId()).then().statusCode(200).body(equalTo("300.00"));
+        given().when().get("/accounts/{id}/balance", sender.getId()).then().statusCode(200).body(equalTo("300.00"));
+        given().when().get("/accounts/{id}/balance", receiver.getId()).then().statusCode(200).body(equalTo("50.00"));
+
+        TransferRequest request = new TransferRequest();
+        request.setSenderId(sender.getId());
+        request.setReceiverId(receiver.getId());
+        request.setAmount(new BigDecimal("120.25"));
+        given().contentType(ContentType.JSON).body(request).when().post("/accounts/transfer").then().statusCode(200);
+
+        // nowe salda opublikowane po commicie, bez ponownego wczytania
+        given().when().get("/accounts/{id}/balance", sender.getId()).then().statusCode(200).body(equalTo("179.75"));
+        given().when().get("/accounts/{id}/balance", receiver.getId()).then().statusCode(200).body(equalTo("170.25"));
+
+        // saldo z tablicy nie pokrywa przelewu – odrzucenie jak dotąd, saldo bez zmian
+        request.setAmount(new BigDecimal("500"));
+        given().contentType(ContentType.JSON).body(request).when().post("/accounts/transfer").then()
+                .statusCode(400)
+                .body("message", containsString("Brak wystarczających środków na koncie"));
+        assertThat(accountRepository.findById(sender.getId()).orElseThrow().getBalance()).isEqualByComparingTo("179.75");
+
+        given().when().get("/admin/balance-table").then().statusCode(200)
+                .body("enabled", equalTo(true))
+                .body("entries", greaterThanOrEqualTo(2))
+                .body("hits", greaterThanOrEqualTo(3))
+                .body("publishes", greaterThanOrEqualTo(2));
+
+        // usunięte konto znika z tablicy
+        Account closed = accountRepository.save(createAccount(
+                "Ewa Mazur", BigDecimal.valueOf(10), AccountType.CHECKING, "PLN", BigDecimal.ZERO, LocalDate.of(2024, 3, 1)
+        ));
+        given().when().get("/accounts/{id}/balance", closed.getId()).then().statusCode(200).body(equalTo("10.00"));
+        given().when().delete("/accounts/{id}", closed.getId()).then().statusCode(200);
+        given().when().get("/accounts/{id}/balance", closed.getId()).then().statusCode(404);
+    }
 }